@@ -16,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -120,22 +121,46 @@ public class BerkeleyJEKeyValueStore implements OrderedKeyValueStore {
             DatabaseEntry foundData = new DatabaseEntry();
 
             cursor = db.openCursor(tx, null);
-            OperationStatus status = cursor.getSearchKeyRange(foundKey, foundData, getLockMode(txh));
-            //Iterate until given condition is satisfied or end of records
-            while (status == OperationStatus.SUCCESS) {
-                StaticBuffer key = getBuffer(foundKey);
+            if (query.isReverse()) {
+                //Position the cursor on the last record before the end and iterate backwards
+                foundKey = keyEnd.as(ENTRY_FACTORY);
+                OperationStatus status = cursor.getSearchKeyRange(foundKey, foundData, getLockMode(txh));
+                if (status == OperationStatus.SUCCESS) status = cursor.getPrev(foundKey, foundData, getLockMode(txh));
+                else status = cursor.getLast(foundKey, foundData, getLockMode(txh));
+                while (status == OperationStatus.SUCCESS) {
+                    StaticBuffer key = getBuffer(foundKey);
+
+                    if (key.compareTo(keyStart) < 0)
+                        break;
+
+                    if (selector.include(key)) {
+                        result.add(new KeyValueEntry(key, getBuffer(foundData)));
+                    }
+
+                    if (selector.reachedLimit())
+                        break;
+
+                    status = cursor.getPrev(foundKey, foundData, getLockMode(txh));
+                }
+                Collections.reverse(result);
+            } else {
+                OperationStatus status = cursor.getSearchKeyRange(foundKey, foundData, getLockMode(txh));
+                //Iterate until given condition is satisfied or end of records
+                while (status == OperationStatus.SUCCESS) {
+                    StaticBuffer key = getBuffer(foundKey);
 
-                if (key.compareTo(keyEnd) >= 0)
-                    break;
+                    if (key.compareTo(keyEnd) >= 0)
+                        break;
 
-                if (selector.include(key)) {
-                    result.add(new KeyValueEntry(key, getBuffer(foundData)));
-                }
+                    if (selector.include(key)) {
+                        result.add(new KeyValueEntry(key, getBuffer(foundData)));
+                    }
 
-                if (selector.reachedLimit())
-                    break;
+                    if (selector.reachedLimit())
+                        break;
 
-                status = cursor.getNext(foundKey, foundData, getLockMode(txh));
+                    status = cursor.getNext(foundKey, foundData, getLockMode(txh));
+                }
             }
             log.trace("db={}, op=getSlice, tx={}, resultcount={}", name, txh, result.size());
 //            log.trace("db={}, op=getSlice, tx={}, resultcount={}", name, txh, result.size(), new Throwable("getSlice trace"));
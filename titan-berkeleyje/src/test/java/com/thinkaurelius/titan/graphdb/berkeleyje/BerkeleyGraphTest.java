@@ -1,11 +1,17 @@
 package com.thinkaurelius.titan.graphdb.berkeleyje;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 
 import com.thinkaurelius.titan.core.TitanException;
 import com.thinkaurelius.titan.core.TitanGraph;
 import com.thinkaurelius.titan.core.util.TitanCleanup;
 import com.thinkaurelius.titan.diskstorage.configuration.ConfigOption;
+import com.thinkaurelius.titan.diskstorage.log.Log;
+import com.thinkaurelius.titan.diskstorage.log.Message;
+import com.thinkaurelius.titan.diskstorage.log.MessageReader;
+import com.thinkaurelius.titan.diskstorage.log.ReadMarker;
+import com.thinkaurelius.titan.diskstorage.util.time.TimestampProvider;
 import com.thinkaurelius.titan.example.GraphOfTheGodsFactory;
 import com.thinkaurelius.titan.graphdb.TitanIndexTest;
 import org.junit.Rule;
@@ -22,14 +28,24 @@ import com.thinkaurelius.titan.diskstorage.configuration.ConfigElement;
 import com.thinkaurelius.titan.diskstorage.configuration.ModifiableConfiguration;
 import com.thinkaurelius.titan.diskstorage.configuration.WriteConfiguration;
 import com.thinkaurelius.titan.graphdb.TitanGraphTest;
+import com.thinkaurelius.titan.graphdb.database.log.LogTxStatus;
+import com.thinkaurelius.titan.graphdb.database.log.TransactionLogHeader;
+import com.thinkaurelius.titan.graphdb.database.serialize.Serializer;
 
 import java.io.File;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 
+import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.LOG_BACKEND;
+import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.MANAGEMENT_LOG;
+import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.SYSTEM_LOG_TRANSACTIONS;
+import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.TRANSACTION_LOG;
 import static org.junit.Assert.*;
 
 public class BerkeleyGraphTest extends TitanGraphTest {
@@ -103,4 +119,33 @@ public class BerkeleyGraphTest extends TitanGraphTest {
 
         assertEquals(0L, (long)graph.traversal().V().count().next());
     }
+
+    /**
+     * The transaction and management logs can be kept in local files instead of the storage backend
+     */
+    @Test
+    public void testFileTransactionLog() throws Exception {
+        clopen(option(SYSTEM_LOG_TRANSACTIONS), true,
+                option(LOG_BACKEND, TRANSACTION_LOG), "file",
+                option(LOG_BACKEND, MANAGEMENT_LOG), "file");
+        makeKey("name", String.class);
+        finishSchema();
+
+        final Serializer serializer = graph.getDataSerializer();
+        final TimestampProvider times = graph.getConfiguration().getTimestampProvider();
+        Instant startTime = times.getTime();
+        tx.addVertex("name", "v1");
+        newTx();
+
+        final List<LogTxStatus> statuses = new CopyOnWriteArrayList<LogTxStatus>();
+        Log txLog = graph.getBackend().getSystemTxLog();
+        txLog.registerReader(ReadMarker.fromTime(startTime), new MessageReader() {
+            @Override
+            public void read(Message message) {
+                statuses.add(TransactionLogHeader.parse(message.getContent(), serializer, times).getStatus());
+            }
+        });
+        for (int i = 0; i < 50 && statuses.size() < 2; i++) Thread.sleep(100);
+        assertEquals(ImmutableList.of(LogTxStatus.PRECOMMIT, LogTxStatus.COMPLETE_SUCCESS), statuses);
+    }
 }
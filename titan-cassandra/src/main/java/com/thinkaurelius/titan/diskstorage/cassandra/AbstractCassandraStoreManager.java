@@ -263,7 +263,7 @@ public abstract class AbstractCassandraStoreManager extends DistributedStoreMana
                     break;
 
                 case EMBEDDED:
-                    fb.multiQuery(false).localKeyPartition(keyOrdered);
+                    fb.multiQuery(true).localKeyPartition(keyOrdered);
                     break;
 
                 default:
@@ -102,10 +102,18 @@ public class AstyanaxKeyColumnValueStore implements KeyColumnValueStore {
                 .getKeySlice(CassandraHelper.convert(keys));
 
         // Thank you, Astyanax, for making builder pattern useful :(
-        rq.withColumnRange(query.getSliceStart().asByteBuffer(),
-                query.getSliceEnd().asByteBuffer(),
-                false,
-                query.getLimit() + (query.hasLimit()?1:0)); //Add one for potentially removed last column
+        if (query.isReverse()) {
+            //Reversed slices are read from the end of the slice backwards
+            rq.withColumnRange(query.getSliceEnd().asByteBuffer(),
+                    query.getSliceStart().asByteBuffer(),
+                    true,
+                    query.getLimit() + (query.hasLimit()?1:0)); //Add one for potentially removed last column
+        } else {
+            rq.withColumnRange(query.getSliceStart().asByteBuffer(),
+                    query.getSliceEnd().asByteBuffer(),
+                    false,
+                    query.getLimit() + (query.hasLimit()?1:0)); //Add one for potentially removed last column
+        }
 
         OperationResult<Rows<ByteBuffer, ByteBuffer>> r;
         try {
@@ -120,7 +128,7 @@ public class AstyanaxKeyColumnValueStore implements KeyColumnValueStore {
         for (Row<ByteBuffer, ByteBuffer> row : rows) {
             assert !result.containsKey(row.getKey());
             result.put(StaticArrayBuffer.of(row.getKey()),
-                  CassandraHelper.makeEntryList(row.getColumns(),entryGetter, query.getSliceEnd(), query.getLimit()));
+                  CassandraHelper.makeEntryList(row.getColumns(),entryGetter, query.getSliceEnd(), query.getLimit(), query.isReverse()));
         }
 
         return result;
@@ -157,11 +157,7 @@ public class CassandraEmbeddedKeyColumnValueStore implements KeyColumnValueStore
          * {@code create(...)} in turn passes that timestamp to the SliceFromReadCommand constructor.
          */
         final long nowMillis = times.getTime().toEpochMilli();
-        Composite startComposite = CellNames.simpleDense(query.getSliceStart().asByteBuffer());
-        Composite endComposite = CellNames.simpleDense(query.getSliceEnd().asByteBuffer());
-        SliceQueryFilter sqf = new SliceQueryFilter(startComposite, endComposite,
-                false, query.getLimit() + (query.hasLimit()?1:0));
-        ReadCommand sliceCmd = new SliceFromReadCommand(keyspace, query.getKey().asByteBuffer(), columnFamily, nowMillis, sqf);
+        ReadCommand sliceCmd = new SliceFromReadCommand(keyspace, query.getKey().asByteBuffer(), columnFamily, nowMillis, getSliceFilter(query));
 
         List<Row> slice = read(sliceCmd, getTx(txh).getReadConsistencyLevel().getDB());
 
@@ -172,8 +168,22 @@ public class CassandraEmbeddedKeyColumnValueStore implements KeyColumnValueStore
         if (1 < sliceSize)
             throw new PermanentBackendException("Received " + sliceSize + " rows for single key");
 
-        Row r = slice.get(0);
+        return toEntryList(slice.get(0), query, nowMillis);
+    }
+
+    private static SliceQueryFilter getSliceFilter(SliceQuery query) {
+        Composite startComposite = CellNames.simpleDense(query.getSliceStart().asByteBuffer());
+        Composite endComposite = CellNames.simpleDense(query.getSliceEnd().asByteBuffer());
+        if (query.isReverse()) {
+            //Reversed slices are read from the end of the slice backwards
+            return new SliceQueryFilter(endComposite, startComposite,
+                    true, query.getLimit() + (query.hasLimit()?1:0));
+        }
+        return new SliceQueryFilter(startComposite, endComposite,
+                false, query.getLimit() + (query.hasLimit()?1:0));
+    }
 
+    private EntryList toEntryList(Row r, SliceQuery query, long nowMillis) {
         if (null == r) {
             log.warn("Null Row object retrieved from Cassandra StorageProxy");
             return EntryList.EMPTY_LIST;
@@ -193,7 +203,8 @@ public class CassandraEmbeddedKeyColumnValueStore implements KeyColumnValueStore
                 Iterables.filter(cf.getSortedColumns(), new FilterDeletedColumns(nowMillis)),
                 entryGetter,
                 query.getSliceEnd(),
-                query.getLimit());
+                query.getLimit(),
+                query.isReverse());
 
     }
 
@@ -224,7 +235,30 @@ public class CassandraEmbeddedKeyColumnValueStore implements KeyColumnValueStore
 
     @Override
     public Map<StaticBuffer,EntryList> getSlice(List<StaticBuffer> keys, SliceQuery query, StoreTransaction txh) throws BackendException {
-        throw new UnsupportedOperationException();
+        /**
+         * All keys are read with a single call to the StorageProxy which dispatches the commands for
+         * locally owned keys without handing them off to another thread per key.
+         */
+        final long nowMillis = times.getTime().toEpochMilli();
+        SliceQueryFilter sqf = getSliceFilter(query);
+        List<ReadCommand> sliceCmds = new ArrayList<ReadCommand>(keys.size());
+        for (StaticBuffer key : keys) {
+            sliceCmds.add(new SliceFromReadCommand(keyspace, key.asByteBuffer(), columnFamily, nowMillis, sqf.cloneShallow()));
+        }
+
+        List<Row> slices = read(sliceCmds, getTx(txh).getReadConsistencyLevel().getDB());
+
+        Map<StaticBuffer,EntryList> result = new HashMap<StaticBuffer,EntryList>(keys.size());
+        if (null != slices) {
+            for (Row r : slices) {
+                if (null == r || null == r.key) continue;
+                result.put(StaticArrayBuffer.of(r.key.getKey()), toEntryList(r, query, nowMillis));
+            }
+        }
+        for (StaticBuffer key : keys) {
+            if (!result.containsKey(key)) result.put(key, EntryList.EMPTY_LIST);
+        }
+        return result;
     }
 
     @Override
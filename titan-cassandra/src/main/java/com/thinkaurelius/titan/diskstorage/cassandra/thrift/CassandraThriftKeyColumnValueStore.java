@@ -23,6 +23,9 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -118,13 +121,80 @@ public class CassandraThriftKeyColumnValueStore implements KeyColumnValueStore {
         SlicePredicate predicate = new SlicePredicate();
         SliceRange range = new SliceRange();
         range.setCount(query.getLimit() + (query.hasLimit()?1:0)); //Add one for potentially removed last column
-        range.setStart(query.getSliceStart().asByteBuffer());
-        range.setFinish(query.getSliceEnd().asByteBuffer());
+        if (query.isReverse()) {
+            //Reversed slices are read from the end of the slice backwards
+            range.setStart(query.getSliceEnd().asByteBuffer());
+            range.setFinish(query.getSliceStart().asByteBuffer());
+            range.setReversed(true);
+        } else {
+            range.setStart(query.getSliceStart().asByteBuffer());
+            range.setFinish(query.getSliceEnd().asByteBuffer());
+        }
         predicate.setSlice_range(range);
 
+        if (keys.size() > 1 && storeManager.isTokenAwareMultiget()) {
+            return getTokenAwareSlice(keys, query, parent, predicate, consistency);
+        }
+        return multigetSlice(pool, keys, query, parent, predicate, consistency);
+    }
+
+    /**
+     * Splits the keys into sub-requests by the replica owning them, each of at most
+     * {@link CassandraThriftStoreManager#MULTIGET_MAX_KEYS} keys, and sends those concurrently
+     * to the respective replicas. This avoids funneling the entire multi-key read through a single
+     * coordinator which then has to fan out to all replicas.
+     */
+    private Map<StaticBuffer, EntryList> getTokenAwareSlice(List<StaticBuffer> keys,
+                                                            final SliceQuery query,
+                                                            final ColumnParent parent,
+                                                            final SlicePredicate predicate,
+                                                            final ConsistencyLevel consistency) throws BackendException {
+        Map<String, List<StaticBuffer>> keysByReplica = storeManager.getTokenRing().groupByReplica(keys);
+        int maxKeys = storeManager.getMultigetMaxKeys();
+
+        List<Future<Map<StaticBuffer, EntryList>>> futures = new ArrayList<Future<Map<StaticBuffer, EntryList>>>();
+        for (Map.Entry<String, List<StaticBuffer>> replicaKeys : keysByReplica.entrySet()) {
+            //Keys without known replicas fall back to the pool of the configured hosts
+            final CTConnectionPool replicaPool = CassandraThriftTokenRing.UNKNOWN_REPLICA.equals(replicaKeys.getKey())
+                    ? pool : storeManager.getReplicaPool(replicaKeys.getKey());
+            List<StaticBuffer> allKeys = replicaKeys.getValue();
+            for (int offset = 0; offset < allKeys.size(); offset += maxKeys) {
+                final List<StaticBuffer> subKeys = allKeys.subList(offset, Math.min(allKeys.size(), offset + maxKeys));
+                futures.add(storeManager.getMultigetExecutor().submit(new Callable<Map<StaticBuffer, EntryList>>() {
+                    @Override
+                    public Map<StaticBuffer, EntryList> call() throws Exception {
+                        return multigetSlice(replicaPool, subKeys, query, parent, predicate, consistency);
+                    }
+                }));
+            }
+        }
+
+        Map<StaticBuffer, EntryList> results = new HashMap<StaticBuffer, EntryList>(keys.size());
+        try {
+            for (Future<Map<StaticBuffer, EntryList>> future : futures) {
+                results.putAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            for (Future<Map<StaticBuffer, EntryList>> future : futures) future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PermanentBackendException("Interrupted while waiting for multi-key read", e);
+        } catch (ExecutionException e) {
+            for (Future<Map<StaticBuffer, EntryList>> future : futures) future.cancel(true);
+            if (e.getCause() instanceof BackendException) throw (BackendException) e.getCause();
+            throw convertException(e.getCause());
+        }
+        return results;
+    }
+
+    private Map<StaticBuffer, EntryList> multigetSlice(CTConnectionPool connectionPool,
+                                                       List<StaticBuffer> keys,
+                                                       SliceQuery query,
+                                                       ColumnParent parent,
+                                                       SlicePredicate predicate,
+                                                       ConsistencyLevel consistency) throws BackendException {
         CTConnection conn = null;
         try {
-            conn = pool.borrowObject(keyspace);
+            conn = connectionPool.borrowObject(keyspace);
             Cassandra.Client client = conn.getClient();
             Map<ByteBuffer, List<ColumnOrSuperColumn>> rows = client.multiget_slice(CassandraHelper.convert(keys),
                     parent,
@@ -140,14 +210,14 @@ public class CassandraThriftKeyColumnValueStore implements KeyColumnValueStore {
 
             for (ByteBuffer key : rows.keySet()) {
                 results.put(StaticArrayBuffer.of(key),
-                        CassandraHelper.makeEntryList(rows.get(key), entryGetter, query.getSliceEnd(), query.getLimit()));
+                        CassandraHelper.makeEntryList(rows.get(key), entryGetter, query.getSliceEnd(), query.getLimit(), query.isReverse()));
             }
 
             return results;
         } catch (Exception e) {
             throw convertException(e);
         } finally {
-            pool.returnObjectUnsafe(keyspace, conn);
+            connectionPool.returnObjectUnsafe(keyspace, conn);
         }
     }
 
@@ -8,7 +8,13 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.thinkaurelius.titan.diskstorage.EntryMetaData;
 import com.thinkaurelius.titan.diskstorage.*;
@@ -34,6 +40,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkaurelius.titan.diskstorage.BackendException;
 import com.thinkaurelius.titan.diskstorage.cassandra.AbstractCassandraStoreManager;
 import com.thinkaurelius.titan.diskstorage.cassandra.thrift.thriftpool.CTConnection;
@@ -140,20 +147,76 @@ public class CassandraThriftStoreManager extends AbstractCassandraStoreManager {
             ConfigOption.Type.MASKABLE, 0);
 
 
+    public static final ConfigOption<Boolean> TOKEN_AWARE_MULTIGET =
+            new ConfigOption<Boolean>(THRIFT_NS, "token-aware-multiget",
+            "Whether multi-key reads should be split by the replicas owning the keys and sent concurrently " +
+            "to those replicas instead of to a single coordinator",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Integer> MULTIGET_MAX_KEYS =
+            new ConfigOption<Integer>(THRIFT_NS, "multiget-max-keys",
+            "Maximum number of keys sent to a single replica in one sub-request when " +
+            ConfigElement.getPath(TOKEN_AWARE_MULTIGET) + " is enabled",
+            ConfigOption.Type.MASKABLE, 100, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> MULTIGET_THREADS =
+            new ConfigOption<Integer>(THRIFT_NS, "multiget-threads",
+            "Number of threads used to send token-aware multi-key sub-requests concurrently",
+            ConfigOption.Type.MASKABLE, Runtime.getRuntime().availableProcessors() * 2, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Duration> RING_REFRESH_INTERVAL =
+            new ConfigOption<Duration>(THRIFT_NS, "ring-refresh-interval",
+            "Time after which the cached token ring used for token-aware multi-key reads is refreshed",
+            ConfigOption.Type.MASKABLE, Duration.ofMinutes(1L));
+
     private final Map<String, CassandraThriftKeyColumnValueStore> openStores;
     private final CTConnectionPool pool;
     private final Deployment deployment;
 
+    private final ConcurrentMap<String, CTConnectionPool> replicaPools;
+    private final boolean tokenAwareMultiget;
+    private final int multigetMaxKeys;
+    private final Duration ringRefreshInterval;
+    private final ExecutorService multigetExecutor;
+    private volatile CassandraThriftTokenRing tokenRing;
+    private final AtomicBoolean refreshingTokenRing = new AtomicBoolean(false);
+
     public CassandraThriftStoreManager(Configuration config) throws BackendException {
         super(config);
 
+        this.pool = createPool(createFactoryConfig(hostnames, config));
+        this.replicaPools = new ConcurrentHashMap<String, CTConnectionPool>();
+
+        this.tokenAwareMultiget = config.get(TOKEN_AWARE_MULTIGET);
+        this.multigetMaxKeys = config.get(MULTIGET_MAX_KEYS);
+        this.ringRefreshInterval = config.get(RING_REFRESH_INTERVAL);
+        this.multigetExecutor = tokenAwareMultiget ?
+                Executors.newFixedThreadPool(config.get(MULTIGET_THREADS), new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("CassandraThriftMultiget[%d]")
+                        .build())
+                : null;
+
+        this.openStores = new HashMap<String, CassandraThriftKeyColumnValueStore>();
+
+        // Only watch the ring and change endpoints with BOP
+        if (getCassandraPartitioner() instanceof ByteOrderedPartitioner) {
+            deployment = (hostnames.length == 1)// mark deployment as local only in case we have byte ordered partitioner and local connection
+                          ? (NetworkUtil.isLocalConnection(hostnames[0])) ? Deployment.LOCAL : Deployment.REMOTE
+                          : Deployment.REMOTE;
+        } else {
+            deployment = Deployment.REMOTE;
+        }
+    }
+
+    private CTConnectionFactory.Config createFactoryConfig(String[] hosts, Configuration config) {
         /*
          * This is eventually passed to Thrift's TSocket constructor. The
          * constructor parameter is of type int.
          */
         int thriftTimeoutMS = (int)config.get(GraphDatabaseConfiguration.CONNECTION_TIMEOUT).toMillis();
 
-        CTConnectionFactory.Config factoryConfig = new CTConnectionFactory.Config(hostnames, port, username, password)
+        CTConnectionFactory.Config factoryConfig = new CTConnectionFactory.Config(hosts, port, username, password)
                                                                             .setTimeoutMS(thriftTimeoutMS)
                                                                             .setFrameSize(thriftFrameSizeBytes);
 
@@ -161,34 +224,100 @@ public class CassandraThriftStoreManager extends AbstractCassandraStoreManager {
             factoryConfig.setSSLTruststoreLocation(config.get(SSL_TRUSTSTORE_LOCATION));
             factoryConfig.setSSLTruststorePassword(config.get(SSL_TRUSTSTORE_PASSWORD));
         }
+        return factoryConfig;
+    }
 
+    private CTConnectionPool createPool(CTConnectionFactory.Config factoryConfig) {
         final PoolExhaustedAction poolExhaustedAction = ConfigOption.getEnumValue(
-                config.get(CPOOL_WHEN_EXHAUSTED), PoolExhaustedAction.class);
+                storageConfig.get(CPOOL_WHEN_EXHAUSTED), PoolExhaustedAction.class);
 
         CTConnectionPool p = new CTConnectionPool(factoryConfig.build());
         p.setTestOnBorrow(true);
         p.setTestOnReturn(true);
-        p.setTestWhileIdle(config.get(CPOOL_IDLE_TESTS));
-        p.setNumTestsPerEvictionRun(config.get(CPOOL_IDLE_TESTS_PER_EVICTION_RUN));
+        p.setTestWhileIdle(storageConfig.get(CPOOL_IDLE_TESTS));
+        p.setNumTestsPerEvictionRun(storageConfig.get(CPOOL_IDLE_TESTS_PER_EVICTION_RUN));
         p.setWhenExhaustedAction(poolExhaustedAction.getByte());
-        p.setMaxActive(config.get(CPOOL_MAX_ACTIVE));
-        p.setMaxTotal(config.get(CPOOL_MAX_TOTAL)); // maxTotal limits active + idle
-        p.setMaxIdle(config.get(CPOOL_MAX_IDLE));
-        p.setMinIdle(config.get(CPOOL_MIN_IDLE));
-        p.setMaxWait(config.get(CPOOL_MAX_WAIT));
-        p.setTimeBetweenEvictionRunsMillis(config.get(CPOOL_EVICTOR_PERIOD));
-        p.setMinEvictableIdleTimeMillis(config.get(CPOOL_MIN_EVICTABLE_IDLE_TIME));
-        this.pool = p;
+        p.setMaxActive(storageConfig.get(CPOOL_MAX_ACTIVE));
+        p.setMaxTotal(storageConfig.get(CPOOL_MAX_TOTAL)); // maxTotal limits active + idle
+        p.setMaxIdle(storageConfig.get(CPOOL_MAX_IDLE));
+        p.setMinIdle(storageConfig.get(CPOOL_MIN_IDLE));
+        p.setMaxWait(storageConfig.get(CPOOL_MAX_WAIT));
+        p.setTimeBetweenEvictionRunsMillis(storageConfig.get(CPOOL_EVICTOR_PERIOD));
+        p.setMinEvictableIdleTimeMillis(storageConfig.get(CPOOL_MIN_EVICTABLE_IDLE_TIME));
+        return p;
+    }
 
-        this.openStores = new HashMap<String, CassandraThriftKeyColumnValueStore>();
+    boolean isTokenAwareMultiget() {
+        return tokenAwareMultiget;
+    }
 
-        // Only watch the ring and change endpoints with BOP
-        if (getCassandraPartitioner() instanceof ByteOrderedPartitioner) {
-            deployment = (hostnames.length == 1)// mark deployment as local only in case we have byte ordered partitioner and local connection
-                          ? (NetworkUtil.isLocalConnection(hostnames[0])) ? Deployment.LOCAL : Deployment.REMOTE
-                          : Deployment.REMOTE;
-        } else {
-            deployment = Deployment.REMOTE;
+    int getMultigetMaxKeys() {
+        return multigetMaxKeys;
+    }
+
+    ExecutorService getMultigetExecutor() {
+        return multigetExecutor;
+    }
+
+    /**
+     * Returns the connection pool for the replica with the given address, creating it if necessary.
+     * Connections of these pools are pinned to that single replica.
+     *
+     * @param address
+     * @return
+     */
+    CTConnectionPool getReplicaPool(String address) {
+        CTConnectionPool replicaPool = replicaPools.get(address);
+        if (replicaPool == null) {
+            CTConnectionPool newPool = createPool(createFactoryConfig(new String[]{address}, storageConfig));
+            replicaPool = replicaPools.putIfAbsent(address, newPool);
+            if (replicaPool == null) {
+                replicaPool = newPool;
+            } else {
+                closePool(newPool);
+            }
+        }
+        return replicaPool;
+    }
+
+    /**
+     * Returns the token ring of Titan's keyspace. The ring is cached and re-read from Cassandra once
+     * it is older than {@link #RING_REFRESH_INTERVAL}. The ring is refreshed without holding a lock: while one
+     * thread refreshes an expired ring, other threads continue to use the expired ring.
+     *
+     * @return
+     * @throws BackendException
+     */
+    CassandraThriftTokenRing getTokenRing() throws BackendException {
+        CassandraThriftTokenRing ring = tokenRing;
+        if (ring != null && System.currentTimeMillis() - ring.getCreationTime() <= ringRefreshInterval.toMillis())
+            return ring;
+        //Without a ring to fall back to, every caller reads the ring itself
+        boolean refreshing = refreshingTokenRing.compareAndSet(false, true);
+        if (ring != null && !refreshing)
+            return ring; //Another thread is refreshing the ring
+        try {
+            ring = readTokenRing();
+            tokenRing = ring;
+            return ring;
+        } finally {
+            if (refreshing) refreshingTokenRing.set(false);
+        }
+    }
+
+    private CassandraThriftTokenRing readTokenRing() throws BackendException {
+        IPartitioner partitioner = getCassandraPartitioner();
+        CTConnection conn = null;
+        try {
+            conn = pool.borrowObject(keySpaceName);
+            CassandraThriftTokenRing ring = new CassandraThriftTokenRing(partitioner,
+                    conn.getClient().describe_ring(keySpaceName), System.currentTimeMillis());
+            log.debug("Refreshed token ring of keyspace {}: {}", keySpaceName, ring);
+            return ring;
+        } catch (Exception e) {
+            throw CassandraThriftKeyColumnValueStore.convertException(e);
+        } finally {
+            pool.returnObjectUnsafe(keySpaceName, conn);
         }
     }
 
@@ -219,7 +348,12 @@ public class CassandraThriftStoreManager extends AbstractCassandraStoreManager {
     @Override
     public void close() throws BackendException {
         openStores.clear();
-        closePool();
+        if (multigetExecutor != null)
+            multigetExecutor.shutdownNow();
+        closePool(pool);
+        for (CTConnectionPool replicaPool : replicaPools.values())
+            closePool(replicaPool);
+        replicaPools.clear();
     }
 
     @Override
@@ -598,7 +732,7 @@ public class CassandraThriftStoreManager extends AbstractCassandraStoreManager {
         }
     }
 
-    private void closePool() {
+    private static void closePool(CTConnectionPool pool) {
         /*
          * pool.close() does not affect borrowed connections.
          *
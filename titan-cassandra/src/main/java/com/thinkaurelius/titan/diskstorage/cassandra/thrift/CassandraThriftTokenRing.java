@@ -0,0 +1,126 @@
+package com.thinkaurelius.titan.diskstorage.cassandra.thrift;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.thrift.TokenRange;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable snapshot of the token ring of a keyspace as reported by Cassandra's Thrift {@code describe_ring}.
+ * It maps row keys to the rpc addresses of the replicas owning them, so that multi-key reads can be split
+ * into sub-requests which are sent directly to a replica instead of a single coordinator.
+ * <p/>
+ * Token ranges reported by Cassandra are start-exclusive and end-inclusive, and the last range wraps around
+ * the minimum token.
+ *
+ * @see CassandraThriftStoreManager#getTokenRing()
+ */
+public class CassandraThriftTokenRing {
+
+    private static final String ANY_ADDRESS = "0.0.0.0";
+
+    /**
+     * Address under which {@link #groupByReplica(List)} groups keys whose replicas are unknown. Those keys
+     * must be read through a regular coordinator.
+     */
+    public static final String UNKNOWN_REPLICA = "";
+
+    private final IPartitioner partitioner;
+    private final Token[] endTokens;
+    private final List<String>[] replicas;
+    private final long creationTime;
+
+    @SuppressWarnings("unchecked")
+    public CassandraThriftTokenRing(IPartitioner partitioner, List<TokenRange> ranges, long creationTime) {
+        Preconditions.checkArgument(ranges!=null && !ranges.isEmpty(),"Token ring is empty");
+        this.partitioner = partitioner;
+        this.creationTime = creationTime;
+
+        Token.TokenFactory tokenFactory = partitioner.getTokenFactory();
+        List<Map.Entry<Token,List<String>>> sorted = new ArrayList<Map.Entry<Token,List<String>>>(ranges.size());
+        for (TokenRange range : ranges) {
+            sorted.add(new AbstractMap.SimpleImmutableEntry<Token, List<String>>(
+                    tokenFactory.fromString(range.end_token), getAddresses(range)));
+        }
+        Collections.sort(sorted, new Comparator<Map.Entry<Token, List<String>>>() {
+            @Override
+            public int compare(Map.Entry<Token, List<String>> o1, Map.Entry<Token, List<String>> o2) {
+                return o1.getKey().compareTo(o2.getKey());
+            }
+        });
+
+        endTokens = new Token[sorted.size()];
+        replicas = new List[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            endTokens[i] = sorted.get(i).getKey();
+            replicas[i] = sorted.get(i).getValue();
+        }
+    }
+
+    private static List<String> getAddresses(TokenRange range) {
+        List<String> addresses = new ArrayList<String>(range.getEndpointsSize());
+        for (int i = 0; i < range.getEndpointsSize(); i++) {
+            String address = range.getEndpoints().get(i);
+            if (range.isSetRpc_endpoints() && range.getRpc_endpoints().size() > i
+                    && !ANY_ADDRESS.equals(range.getRpc_endpoints().get(i))) {
+                address = range.getRpc_endpoints().get(i);
+            }
+            addresses.add(address);
+        }
+        return Collections.unmodifiableList(addresses);
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    /**
+     * Returns the addresses of all replicas that own the given key
+     *
+     * @param key
+     * @return
+     */
+    public List<String> getReplicas(StaticBuffer key) {
+        Token token = partitioner.getToken(key.asByteBuffer());
+        int pos = Arrays.binarySearch(endTokens, token);
+        if (pos < 0) pos = -(pos + 1);
+        // Tokens beyond the last end token belong to the range wrapping around the ring
+        if (pos >= endTokens.length) pos = 0;
+        return replicas[pos];
+    }
+
+    /**
+     * Groups the given keys by replica. For each key, one of its replicas is picked at random so that the
+     * read load is spread across all replicas of a token range. Keys in token ranges for which no endpoints
+     * are known are grouped under the {@link #UNKNOWN_REPLICA} address.
+     *
+     * @param keys
+     * @return Map of replica address to the keys that are to be read from that replica
+     */
+    public Map<String,List<StaticBuffer>> groupByReplica(List<StaticBuffer> keys) {
+        Map<String,List<StaticBuffer>> grouped = new HashMap<String, List<StaticBuffer>>();
+        for (StaticBuffer key : keys) {
+            List<String> owners = getReplicas(key);
+            String replica;
+            if (owners.isEmpty()) replica = UNKNOWN_REPLICA;
+            else if (owners.size()==1) replica = owners.get(0);
+            else replica = owners.get(ThreadLocalRandom.current().nextInt(owners.size()));
+            List<StaticBuffer> replicaKeys = grouped.get(replica);
+            if (replicaKeys==null) {
+                replicaKeys = new ArrayList<StaticBuffer>();
+                grouped.put(replica,replicaKeys);
+            }
+            replicaKeys.add(key);
+        }
+        return grouped;
+    }
+
+    @Override
+    public String toString() {
+        return "CassandraThriftTokenRing[ranges=" + endTokens.length + "]";
+    }
+}
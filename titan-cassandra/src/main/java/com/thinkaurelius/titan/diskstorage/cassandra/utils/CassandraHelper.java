@@ -54,6 +54,35 @@ public class CassandraHelper {
         },getter);
     }
 
+    /**
+     * Like {@link #makeEntryList(Iterable, StaticArrayEntry.GetColVal, StaticBuffer, int)} for the entries of a
+     * reversed slice. Those are read from the end of the slice and hence the last entries up to the limit are retained.
+     * The entries are returned in ascending order regardless of the order in which Cassandra returns them.
+     *
+     * @param entries
+     * @param getter
+     * @param lastColumn
+     * @param limit
+     * @param reverse
+     * @param <E>
+     * @return
+     */
+    public static<E> EntryList makeEntryList(final Iterable<E> entries,
+                                             final StaticArrayEntry.GetColVal<E,ByteBuffer> getter,
+                                             final StaticBuffer lastColumn, final int limit, final boolean reverse) {
+        if (!reverse) return makeEntryList(entries, getter, lastColumn, limit);
+        List<E> result = new ArrayList<E>();
+        for (E e : entries) {
+            if (!BufferUtil.equals(lastColumn, getter.getColumn(e))) result.add(e);
+        }
+        if (result.size() > 1 && StaticArrayBuffer.of(getter.getColumn(result.get(0)))
+                .compareTo(StaticArrayBuffer.of(getter.getColumn(result.get(result.size() - 1)))) > 0) {
+            Collections.reverse(result);
+        }
+        if (result.size() > limit) result = result.subList(result.size() - limit, result.size());
+        return StaticArrayEntryList.ofByteBuffer(result, getter);
+    }
+
     private static class FilterResultColumns<E> implements Predicate<E> {
 
         private int count = 0;
@@ -1,14 +1,32 @@
 package com.thinkaurelius.titan.diskstorage.cassandra.thrift;
 
+import com.google.common.collect.ImmutableList;
 import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.EntryList;
+import com.thinkaurelius.titan.diskstorage.KeyColumnValueStoreUtil;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
 import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
 import com.thinkaurelius.titan.diskstorage.configuration.ModifiableConfiguration;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.StoreTransaction;
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.thrift.TokenRange;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 import com.thinkaurelius.titan.CassandraStorageSetup;
 import com.thinkaurelius.titan.diskstorage.cassandra.AbstractCassandraStoreTest;
 import com.thinkaurelius.titan.diskstorage.cassandra.AbstractCassandraStoreManager;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class ThriftStoreTest extends AbstractCassandraStoreTest {
 
     @BeforeClass
@@ -25,4 +43,61 @@ public class ThriftStoreTest extends AbstractCassandraStoreTest {
     public AbstractCassandraStoreManager openStorageManager(Configuration c) throws BackendException {
         return new CassandraThriftStoreManager(c);
     }
+
+    @Test
+    public void testTokenAwareMultiget() throws Exception {
+        populateDBWith100Keys();
+        tx.commit();
+        tx = startTx();
+
+        List<StaticBuffer> keys = new ArrayList<StaticBuffer>(101);
+        for (int i = 1; i <= 101; i++) keys.add(KeyColumnValueStoreUtil.longToByteBuffer(i));
+        List<SliceQuery> queries = ImmutableList.of(
+                new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("a"), KeyColumnValueStoreUtil.stringToByteBuffer("d")),
+                new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("b"), KeyColumnValueStoreUtil.stringToByteBuffer("d")).setLimit(1),
+                new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("a"), KeyColumnValueStoreUtil.stringToByteBuffer("d")).setLimit(2).setReverse());
+
+        ModifiableConfiguration config = getBaseStorageConfiguration();
+        config.set(CassandraThriftStoreManager.TOKEN_AWARE_MULTIGET, true);
+        //Split the keys into several sub-requests per replica
+        config.set(CassandraThriftStoreManager.MULTIGET_MAX_KEYS, 7);
+        CassandraThriftStoreManager tokenAwareManager = new CassandraThriftStoreManager(config);
+        try {
+            KeyColumnValueStore tokenAwareStore = tokenAwareManager.openDatabase(storeName);
+            StoreTransaction tokenAwareTx = tokenAwareManager.beginTransaction(getTxConfig());
+            for (SliceQuery query : queries) {
+                Map<StaticBuffer, EntryList> expected = store.getSlice(keys, query, tx);
+                Map<StaticBuffer, EntryList> actual = tokenAwareStore.getSlice(keys, query, tokenAwareTx);
+                assertEquals(keys.size(), actual.size());
+                for (StaticBuffer key : keys) {
+                    assertEquals(expected.get(key), actual.get(key));
+                }
+            }
+            tokenAwareTx.commit();
+        } finally {
+            tokenAwareManager.close();
+        }
+    }
+
+    @Test
+    public void testTokenRingWithoutEndpoints() {
+        IPartitioner partitioner = new Murmur3Partitioner();
+        String minToken = partitioner.getTokenFactory().toString(partitioner.getMinimumToken());
+        List<TokenRange> ranges = ImmutableList.of(
+                new TokenRange(minToken, "0", ImmutableList.of("10.0.0.1")),
+                new TokenRange("0", minToken, ImmutableList.<String>of()));
+        CassandraThriftTokenRing ring = new CassandraThriftTokenRing(partitioner, ranges, System.currentTimeMillis());
+
+        List<StaticBuffer> keys = new ArrayList<StaticBuffer>(100);
+        for (int i = 1; i <= 100; i++) keys.add(KeyColumnValueStoreUtil.longToByteBuffer(i));
+        Map<String, List<StaticBuffer>> grouped = ring.groupByReplica(keys);
+        assertEquals(2, grouped.size());
+        for (StaticBuffer key : grouped.get("10.0.0.1")) {
+            assertEquals(ImmutableList.of("10.0.0.1"), ring.getReplicas(key));
+        }
+        for (StaticBuffer key : grouped.get(CassandraThriftTokenRing.UNKNOWN_REPLICA)) {
+            assertTrue(ring.getReplicas(key).isEmpty());
+        }
+        assertEquals(keys.size(), grouped.get("10.0.0.1").size() + grouped.get(CassandraThriftTokenRing.UNKNOWN_REPLICA).size());
+    }
 }
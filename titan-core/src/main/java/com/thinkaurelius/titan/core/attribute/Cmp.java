@@ -5,6 +5,9 @@ import com.thinkaurelius.titan.graphdb.database.serialize.AttributeUtil;
 import com.thinkaurelius.titan.graphdb.query.TitanPredicate;
 import org.apache.commons.lang.ArrayUtils;
 
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
 /**
  * Basic comparison relations for comparable (i.e. linearly ordered) objects.
  *
@@ -40,6 +43,13 @@ public enum Cmp implements TitanPredicate {
             }
         }
 
+        @Override
+        public Predicate<Object> compile(final Object condition) {
+            if (condition==null) return value -> value==null;
+            else if (condition.getClass().isArray()) return value -> condition.equals(value) || ArrayUtils.isEquals(condition, value);
+            else return condition::equals;
+        }
+
         @Override
         public String toString() {
             return "=";
@@ -102,6 +112,11 @@ public enum Cmp implements TitanPredicate {
             return cmp!=null?cmp<0:false;
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            return compileComparison(condition, cmp -> cmp<0);
+        }
+
         @Override
         public String toString() {
             return "<";
@@ -132,6 +147,11 @@ public enum Cmp implements TitanPredicate {
             return cmp!=null?cmp<=0:false;
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            return compileComparison(condition, cmp -> cmp<=0);
+        }
+
         @Override
         public String toString() {
             return "<=";
@@ -162,6 +182,11 @@ public enum Cmp implements TitanPredicate {
             return cmp!=null?cmp>0:false;
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            return compileComparison(condition, cmp -> cmp>0);
+        }
+
         @Override
         public String toString() {
             return ">";
@@ -192,6 +217,11 @@ public enum Cmp implements TitanPredicate {
             return cmp!=null?cmp>=0:false;
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            return compileComparison(condition, cmp -> cmp>=0);
+        }
+
         @Override
         public String toString() {
             return ">=";
@@ -203,6 +233,33 @@ public enum Cmp implements TitanPredicate {
         }
     };
 
+    /**
+     * Compiles a comparison against the given condition which yields the same results as
+     * {@link AttributeUtil#compare(Object, Object)} but converts a numeric condition only once.
+     */
+    private static Predicate<Object> compileComparison(final Object condition, final IntPredicate accept) {
+        if (!(condition instanceof Number)) {
+            return value -> {
+                Integer cmp = AttributeUtil.compare(value,condition);
+                return cmp!=null?accept.test(cmp):false;
+            };
+        }
+        final double conditionDouble = ((Number)condition).doubleValue();
+        final long conditionLong = ((Number)condition).longValue();
+        final boolean conditionNaN = Double.isNaN(conditionDouble);
+        return value -> {
+            if (!(value instanceof Number)) {
+                Integer cmp = AttributeUtil.compare(value,condition);
+                return cmp!=null?accept.test(cmp):false;
+            }
+            double valueDouble = ((Number)value).doubleValue();
+            boolean valueNaN = Double.isNaN(valueDouble);
+            if (valueNaN || conditionNaN) return valueNaN && conditionNaN && accept.test(0);
+            else if (valueDouble==conditionDouble) return accept.test(Long.compare(((Number)value).longValue(),conditionLong));
+            else return accept.test(Double.compare(valueDouble,conditionDouble));
+        };
+    }
+
     @Override
     public boolean hasNegation() {
         return true;
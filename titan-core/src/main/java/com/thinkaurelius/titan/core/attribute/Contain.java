@@ -6,6 +6,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Comparison relations for text objects.
@@ -26,6 +29,13 @@ public enum Contain implements TitanPredicate {
             return col.contains(value);
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            Preconditions.checkArgument(isValidCondition(condition), "Invalid condition provided: %s", condition);
+            final Set set = asSet((Collection) condition);
+            return set::contains;
+        }
+
         @Override
         public TitanPredicate negate() {
             return NOT_IN;
@@ -43,6 +53,13 @@ public enum Contain implements TitanPredicate {
             return !col.contains(value);
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            Preconditions.checkArgument(isValidCondition(condition), "Invalid condition provided: %s", condition);
+            final Set set = asSet((Collection) condition);
+            return value -> !set.contains(value);
+        }
+
         @Override
         public TitanPredicate negate() {
             return IN;
@@ -52,6 +69,10 @@ public enum Contain implements TitanPredicate {
 
     private static final Logger log = LoggerFactory.getLogger(Contain.class);
 
+    private static Set asSet(Collection col) {
+        return col instanceof Set ? (Set) col : new HashSet(col);
+    }
+
     @Override
     public boolean isValidValueType(Class<?> clazz) {
         return true;
@@ -11,6 +11,8 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * Comparison relations for text objects. These comparisons are based on a tokenized representation
@@ -45,6 +47,21 @@ public enum Text implements TitanPredicate {
             return true;
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            Preconditions.checkArgument(this.isValidCondition(condition), "Invalid condition provided: %s", condition);
+            final List<String> tokenTerms = tokenize(((String)condition).trim().toLowerCase());
+            if (tokenTerms.isEmpty()) return value -> false;
+            return value -> {
+                if (value == null) return false;
+                Set<String> tokens = Sets.newHashSet(tokenize(value.toString().toLowerCase()));
+                for (String term : tokenTerms) {
+                    if (!tokens.contains(term)) return false;
+                }
+                return true;
+            };
+        }
+
 
         @Override
         public boolean isValidCondition(Object condition) {
@@ -73,6 +90,19 @@ public enum Text implements TitanPredicate {
             return false;
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            Preconditions.checkArgument(this.isValidCondition(condition), "Invalid condition provided: %s", condition);
+            final String prefix = ((String)condition).toLowerCase().trim();
+            return value -> {
+                if (value == null) return false;
+                for (String token : tokenize(value.toString().toLowerCase())) {
+                    if (token.startsWith(prefix)) return true;
+                }
+                return false;
+            };
+        }
+
         @Override
         public boolean isValidCondition(Object condition) {
             return condition != null && condition instanceof String;
@@ -99,6 +129,19 @@ public enum Text implements TitanPredicate {
             return false;
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            Preconditions.checkArgument(this.isValidCondition(condition), "Invalid condition provided: %s", condition);
+            final Pattern pattern = Pattern.compile((String)condition);
+            return value -> {
+                if (value == null) return false;
+                for (String token : tokenize(value.toString().toLowerCase())) {
+                    if (pattern.matcher(token).matches()) return true;
+                }
+                return false;
+            };
+        }
+
         @Override
         public boolean isValidCondition(Object condition) {
             return condition != null && condition instanceof String && StringUtils.isNotBlank(condition.toString());
@@ -122,6 +165,13 @@ public enum Text implements TitanPredicate {
             return value.startsWith(prefix.trim());
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            Preconditions.checkArgument(this.isValidCondition(condition), "Invalid condition provided: %s", condition);
+            final String prefix = ((String)condition).trim();
+            return value -> value != null && value.toString().startsWith(prefix);
+        }
+
         @Override
         public boolean isValidCondition(Object condition) {
             return condition != null && condition instanceof String;
@@ -144,6 +194,13 @@ public enum Text implements TitanPredicate {
             return value.matches(regex);
         }
 
+        @Override
+        public Predicate<Object> compile(Object condition) {
+            Preconditions.checkArgument(this.isValidCondition(condition), "Invalid condition provided: %s", condition);
+            final Pattern pattern = Pattern.compile((String)condition);
+            return value -> value != null && pattern.matcher(value.toString()).matches();
+        }
+
         @Override
         public boolean isValidCondition(Object condition) {
             return condition != null && condition instanceof String && StringUtils.isNotBlank(condition.toString());
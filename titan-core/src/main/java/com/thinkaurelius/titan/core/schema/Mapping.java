@@ -10,6 +10,14 @@ import com.thinkaurelius.titan.graphdb.types.ParameterType;
  * <p/>
  * This applies mostly to string data types of keys, where the mapping specifies whether the string value is tokenized
  * ({@link #TEXT}) or indexed as a whole ({@link #STRING}), or both ({@link #TEXTSTRING}).
+ * <p/>
+ * {@link #GEOHASH} applies to {@link com.thinkaurelius.titan.core.attribute.Geoshape} keys of composite indexes and
+ * indexes the value by its geohash cells, so that geo predicates can be answered without a mixed index backend.
+ * The cell precision can be configured via {@link #geohashPrecision(int)}.
+ * <p/>
+ * {@link #ORDERED} applies to keys of composite indexes whose data type is order preserving. The key is stored in sorted
+ * order within the index so that range and prefix predicates as well as ordering by that key can be answered by
+ * the composite index. The number of buckets the entries are distributed across can be configured via {@link #orderBuckets(int)}.
  *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
@@ -18,7 +26,9 @@ public enum Mapping {
     DEFAULT,
     TEXT,
     STRING,
-    TEXTSTRING;
+    TEXTSTRING,
+    GEOHASH,
+    ORDERED;
 
     /**
      * Returns the mapping as a parameter so that it can be passed to {@link TitanManagement#addIndexKey(TitanGraphIndex, com.thinkaurelius.titan.core.PropertyKey, Parameter[])}
@@ -28,10 +38,36 @@ public enum Mapping {
         return ParameterType.MAPPING.getParameter(this);
     }
 
+    /**
+     * Returns the geohash precision (i.e. the length of the geohash cells, between 1 and 12) for a {@link #GEOHASH}
+     * mapped key as a parameter so that it can be passed to {@link TitanManagement.IndexBuilder#addKey(com.thinkaurelius.titan.core.PropertyKey, Parameter[])}
+     * @param precision
+     * @return
+     */
+    public static Parameter geohashPrecision(int precision) {
+        return ParameterType.GEOHASH_PRECISION.getParameter(precision);
+    }
+
+    /**
+     * Returns the number of buckets (between 1 and 256) for an {@link #ORDERED} mapped key as a parameter so that it
+     * can be passed to {@link TitanManagement.IndexBuilder#addKey(com.thinkaurelius.titan.core.PropertyKey, Parameter[])}.
+     * More buckets spread the index entries for the same values of the other index keys across more rows at the
+     * expense of reading more rows per query.
+     * @param buckets
+     * @return
+     */
+    public static Parameter orderBuckets(int buckets) {
+        return ParameterType.ORDER_BUCKETS.getParameter(buckets);
+    }
+
     //------------ USED INTERNALLY -----------
 
     public static Mapping getMapping(KeyInformation information) {
-        Object value = ParameterType.MAPPING.findParameter(information.getParameters(),null);
+        return getMapping(information.getParameters());
+    }
+
+    public static Mapping getMapping(Parameter[] parameters) {
+        Object value = ParameterType.MAPPING.findParameter(parameters,null);
         if (value==null) return DEFAULT;
         else {
             Preconditions.checkArgument((value instanceof Mapping || value instanceof String),"Invalid mapping specified: %s",value);
@@ -184,6 +184,19 @@ public interface TitanManagement extends TitanConfiguration, SchemaManager {
          */
         public IndexBuilder addKey(PropertyKey key, Parameter... parameters);
 
+        /**
+         * Stores the value of the given key in the entries of this index so that queries answered by this index can
+         * retrieve the value without reading the indexed vertex. The key is not part of the composite key and hence
+         * does not make the index applicable to queries on that key.
+         * Only supported for composite vertex indexes over keys with single cardinality and covered keys with single
+         * cardinality. Since concurrent changes to different covered keys of a vertex rewrite the same index entries,
+         * indexes which cover keys always have {@link ConsistencyModifier#LOCK} consistency.
+         *
+         * @param key
+         * @return this IndexBuilder
+         */
+        public IndexBuilder addCoveredKey(PropertyKey key);
+
         /**
          * Restricts this index to only those elements that have the provided schemaType. If this graph index indexes
          * vertices, then the argument is expected to be a vertex label and only vertices with that label will be indexed.
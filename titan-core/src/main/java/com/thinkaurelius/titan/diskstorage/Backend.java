@@ -26,9 +26,9 @@ import com.thinkaurelius.titan.diskstorage.locking.consistentkey.ConsistentKeyLo
 import com.thinkaurelius.titan.diskstorage.locking.consistentkey.ExpectedValueCheckingStoreManager;
 import com.thinkaurelius.titan.diskstorage.log.Log;
 import com.thinkaurelius.titan.diskstorage.log.LogManager;
-import com.thinkaurelius.titan.diskstorage.log.kcvs.KCVSLog;
 import com.thinkaurelius.titan.diskstorage.log.kcvs.KCVSLogManager;
 import com.thinkaurelius.titan.diskstorage.util.BackendOperation;
+import com.thinkaurelius.titan.diskstorage.util.HotKeyInstrumentedStoreManager;
 import com.thinkaurelius.titan.diskstorage.util.MetricInstrumentedStore;
 import com.thinkaurelius.titan.diskstorage.configuration.backend.KCVSConfiguration;
 import com.thinkaurelius.titan.diskstorage.util.MetricInstrumentedStoreManager;
@@ -36,7 +36,9 @@ import com.thinkaurelius.titan.diskstorage.util.StandardBaseTransactionConfig;
 import com.thinkaurelius.titan.diskstorage.util.time.TimestampProvider;
 import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
 import com.thinkaurelius.titan.graphdb.configuration.TitanConstants;
+import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
 import com.thinkaurelius.titan.graphdb.transaction.TransactionConfiguration;
+import com.thinkaurelius.titan.util.stats.NumberUtil;
 import com.thinkaurelius.titan.util.system.ConfigurationUtil;
 
 import org.apache.commons.lang.StringUtils;
@@ -116,8 +118,8 @@ public class Backend implements LockerProvider, AutoCloseable {
 
     private final StandardScanner scanner;
 
-    private final KCVSLogManager mgmtLogManager;
-    private final KCVSLogManager txLogManager;
+    private final LogManager mgmtLogManager;
+    private final LogManager txLogManager;
     private final LogManager userLogManager;
 
 
@@ -140,15 +142,19 @@ public class Backend implements LockerProvider, AutoCloseable {
 
         KeyColumnValueStoreManager manager = getStorageManager(configuration);
         if (configuration.get(BASIC_METRICS)) {
-            storeManager = new MetricInstrumentedStoreManager(manager,METRICS_STOREMANAGER_NAME,configuration.get(METRICS_MERGE_STORES),METRICS_MERGED_STORE);
-        } else {
-            storeManager = manager;
+            manager = new MetricInstrumentedStoreManager(manager,METRICS_STOREMANAGER_NAME,configuration.get(METRICS_MERGE_STORES),METRICS_MERGED_STORE);
+        }
+        if (configuration.get(METRICS_HOT_KEYS)) {
+            IDManager idManager = new IDManager(NumberUtil.getPowerOf2(configuration.get(CLUSTER_MAX_PARTITIONS)));
+            manager = new HotKeyInstrumentedStoreManager(manager,configuration.get(METRICS_PREFIX),
+                    configuration.get(METRICS_HOT_KEYS_SIZE),EDGESTORE_NAME,idManager);
         }
+        storeManager = manager;
         indexes = getIndexes(configuration);
         storeFeatures = storeManager.getFeatures();
 
-        mgmtLogManager = getKCVSLogManager(MANAGEMENT_LOG);
-        txLogManager = getKCVSLogManager(TRANSACTION_LOG);
+        mgmtLogManager = getLogManager(MANAGEMENT_LOG);
+        txLogManager = getLogManager(TRANSACTION_LOG);
         userLogManager = getLogManager(USER_LOG);
 
 
@@ -317,7 +323,7 @@ public class Backend implements LockerProvider, AutoCloseable {
 //        return indexes.get(name);
 //    }
 
-    public KCVSLog getSystemTxLog() {
+    public Log getSystemTxLog() {
         try {
             return txLogManager.openLog(SYSTEM_TX_LOG_NAME);
         } catch (BackendException e) {
@@ -381,7 +387,8 @@ public class Backend implements LockerProvider, AutoCloseable {
     }
 
     public KCVSLogManager getKCVSLogManager(String logName) {
-        Preconditions.checkArgument(configuration.restrictTo(logName).get(LOG_BACKEND).equalsIgnoreCase(LOG_BACKEND.getDefaultValue()));
+        Preconditions.checkArgument(configuration.restrictTo(logName).get(LOG_BACKEND).equalsIgnoreCase(LOG_BACKEND.getDefaultValue()),
+                "The %s log only supports the [%s] log backend", logName, LOG_BACKEND.getDefaultValue());
         return (KCVSLogManager)getLogManager(logName);
     }
 
@@ -629,6 +636,7 @@ public class Backend implements LockerProvider, AutoCloseable {
 
     public static final Map<String,String> REGISTERED_LOG_MANAGERS = new HashMap<String, String>() {{
         put("default","com.thinkaurelius.titan.diskstorage.log.kcvs.KCVSLogManager");
+        put("file","com.thinkaurelius.titan.diskstorage.log.file.FileLogManager");
     }};
 
     private final Function<String, Locker> CONSISTENT_KEY_LOCKER_CREATOR = new Function<String, Locker>() {
@@ -30,6 +30,7 @@ import com.thinkaurelius.titan.diskstorage.keycolumnvalue.StoreTransaction;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.cache.CacheTransaction;
 import com.thinkaurelius.titan.diskstorage.util.BackendOperation;
 import com.thinkaurelius.titan.diskstorage.util.BufferUtil;
+import com.thinkaurelius.titan.diskstorage.util.QueryAccounting;
 import com.thinkaurelius.titan.graphdb.database.serialize.DataOutput;
 
 /**
@@ -250,6 +251,13 @@ public class BackendTransaction implements LoggableTransaction {
      */
 
     public EntryList edgeStoreQuery(final KeySliceQuery query) {
+        EntryList result = edgeStoreSlice(query);
+        QueryAccounting accounting = QueryAccounting.current();
+        if (accounting != null) accounting.recordSlice(result);
+        return result;
+    }
+
+    private EntryList edgeStoreSlice(final KeySliceQuery query) {
         return executeRead(new Callable<EntryList>() {
             @Override
             public EntryList call() throws Exception {
@@ -265,6 +273,13 @@ public class BackendTransaction implements LoggableTransaction {
     }
 
     public Map<StaticBuffer,EntryList> edgeStoreMultiQuery(final List<StaticBuffer> keys, final SliceQuery query) {
+        Map<StaticBuffer,EntryList> results = edgeStoreMultiSlice(keys, query);
+        QueryAccounting accounting = QueryAccounting.current();
+        if (accounting != null) accounting.recordSlices(keys.size(), results.values());
+        return results;
+    }
+
+    private Map<StaticBuffer,EntryList> edgeStoreMultiSlice(final List<StaticBuffer> keys, final SliceQuery query) {
         if (storeFeatures.hasMultiQuery()) {
             return executeRead(new Callable<Map<StaticBuffer,EntryList>>() {
                 @Override
@@ -282,15 +297,16 @@ public class BackendTransaction implements LoggableTransaction {
             final Map<StaticBuffer,EntryList> results = new HashMap<StaticBuffer,EntryList>(keys.size());
             if (threadPool == null || keys.size() < MIN_TASKS_TO_PARALLELIZE) {
                 for (StaticBuffer key : keys) {
-                    results.put(key,edgeStoreQuery(new KeySliceQuery(key, query)));
+                    results.put(key,edgeStoreSlice(new KeySliceQuery(key, query)));
                 }
             } else {
                 final CountDownLatch doneSignal = new CountDownLatch(keys.size());
                 final AtomicInteger failureCount = new AtomicInteger(0);
+                final QueryAccounting accounting = QueryAccounting.current();
                 EntryList[] resultArray = new EntryList[keys.size()];
                 for (int i = 0; i < keys.size(); i++) {
                     threadPool.execute(new SliceQueryRunner(new KeySliceQuery(keys.get(i), query),
-                            doneSignal, failureCount, resultArray, i));
+                            doneSignal, failureCount, resultArray, i, accounting));
                 }
                 try {
                     doneSignal.await();
@@ -309,6 +325,40 @@ public class BackendTransaction implements LoggableTransaction {
         }
     }
 
+    /**
+     * Retrieves the slices of all the given queries for all of the given keys. If the store supports multi-queries,
+     * all slices are requested together so that stores which can retrieve multiple column ranges per key in one request
+     * only contact each key once.
+     *
+     * @param keys
+     * @param queries
+     * @return
+     */
+    public Map<SliceQuery,Map<StaticBuffer,EntryList>> edgeStoreMultiQuery(final List<StaticBuffer> keys, final List<SliceQuery> queries) {
+        if (queries.size()==1 || !storeFeatures.hasMultiQuery()) {
+            Map<SliceQuery,Map<StaticBuffer,EntryList>> results = new HashMap<SliceQuery,Map<StaticBuffer,EntryList>>(queries.size());
+            for (SliceQuery query : queries) results.put(query, edgeStoreMultiQuery(keys, query));
+            return results;
+        }
+        Map<SliceQuery,Map<StaticBuffer,EntryList>> results = executeRead(new Callable<Map<SliceQuery,Map<StaticBuffer,EntryList>>>() {
+            @Override
+            public Map<SliceQuery,Map<StaticBuffer,EntryList>> call() throws Exception {
+                return cacheEnabled?edgeStore.getMultiSlice(keys, queries, storeTx):
+                                    edgeStore.getMultiSliceNoCache(keys, queries, storeTx);
+            }
+
+            @Override
+            public String toString() {
+                return "MultiSliceEdgeStoreQuery";
+            }
+        });
+        QueryAccounting accounting = QueryAccounting.current();
+        if (accounting != null) {
+            for (Map<StaticBuffer,EntryList> queryResults : results.values()) accounting.recordSlices(keys.size(), queryResults.values());
+        }
+        return results;
+    }
+
     private class SliceQueryRunner implements Runnable {
 
         final KeySliceQuery kq;
@@ -316,26 +366,31 @@ public class BackendTransaction implements LoggableTransaction {
         final AtomicInteger failureCount;
         final Object[] resultArray;
         final int resultPosition;
+        final QueryAccounting accounting;
 
         private SliceQueryRunner(KeySliceQuery kq, CountDownLatch doneSignal, AtomicInteger failureCount,
-                                 Object[] resultArray, int resultPosition) {
+                                 Object[] resultArray, int resultPosition, QueryAccounting accounting) {
             this.kq = kq;
             this.doneSignal = doneSignal;
             this.failureCount = failureCount;
             this.resultArray = resultArray;
             this.resultPosition = resultPosition;
+            this.accounting = accounting;
         }
 
         @Override
         public void run() {
+            //Attribute cache accesses on this thread to the query which issued the multi-query
+            QueryAccounting previous = QueryAccounting.attach(accounting);
             try {
                 List<Entry> result;
-                result = edgeStoreQuery(kq);
+                result = edgeStoreSlice(kq);
                 resultArray[resultPosition] = result;
             } catch (Exception e) {
                 failureCount.incrementAndGet();
                 log.warn("Individual query in multi-transaction failed: ", e);
             } finally {
+                QueryAccounting.detach(previous);
                 doneSignal.countDown();
             }
         }
@@ -377,7 +432,7 @@ public class BackendTransaction implements LoggableTransaction {
     }
 
     public EntryList indexQuery(final KeySliceQuery query) {
-        return executeRead(new Callable<EntryList>() {
+        EntryList result = executeRead(new Callable<EntryList>() {
             @Override
             public EntryList call() throws Exception {
                 return cacheEnabled?indexStore.getSlice(query, storeTx):
@@ -389,13 +444,46 @@ public class BackendTransaction implements LoggableTransaction {
                 return "VertexIndexQuery";
             }
         });
-
+        QueryAccounting accounting = QueryAccounting.current();
+        if (accounting != null) {
+            accounting.recordSlice(result);
+            accounting.recordIndexCall(0);
+        }
+        return result;
     }
 
+    public Map<StaticBuffer,EntryList> indexMultiQuery(final List<StaticBuffer> keys, final SliceQuery query) {
+        Map<StaticBuffer,EntryList> results;
+        if (storeFeatures.hasMultiQuery()) {
+            results = executeRead(new Callable<Map<StaticBuffer,EntryList>>() {
+                @Override
+                public Map<StaticBuffer,EntryList> call() throws Exception {
+                    return cacheEnabled?indexStore.getSlice(keys, query, storeTx):
+                                        indexStore.getSliceNoCache(keys, query, storeTx);
+                }
+
+                @Override
+                public String toString() {
+                    return "MultiVertexIndexQuery";
+                }
+            });
+            QueryAccounting accounting = QueryAccounting.current();
+            if (accounting != null) {
+                accounting.recordSlices(keys.size(), results.values());
+                accounting.recordIndexCall(0);
+            }
+        } else {
+            results = new HashMap<StaticBuffer,EntryList>(keys.size());
+            for (StaticBuffer key : keys) {
+                results.put(key,indexQuery(new KeySliceQuery(key, query)));
+            }
+        }
+        return results;
+    }
 
     public List<String> indexQuery(final String index, final IndexQuery query) {
         final IndexTransaction indexTx = getIndexTransaction(index);
-        return executeRead(new Callable<List<String>>() {
+        List<String> result = executeRead(new Callable<List<String>>() {
             @Override
             public List<String> call() throws Exception {
                 return indexTx.query(query);
@@ -406,10 +494,15 @@ public class BackendTransaction implements LoggableTransaction {
                 return "IndexQuery";
             }
         });
+        QueryAccounting accounting = QueryAccounting.current();
+        if (accounting != null) accounting.recordIndexCall(result.size());
+        return result;
     }
 
     public Iterable<RawQuery.Result<String>> rawQuery(final String index, final RawQuery query) {
         final IndexTransaction indexTx = getIndexTransaction(index);
+        QueryAccounting accounting = QueryAccounting.current();
+        if (accounting != null) accounting.recordIndexCall(0);
         return executeRead(new Callable<Iterable<RawQuery.Result<String>>>() {
             @Override
             public Iterable<RawQuery.Result<String>> call() throws Exception {
@@ -69,4 +69,9 @@ public class KCVSProxy implements KeyColumnValueStore {
     public Map<StaticBuffer,EntryList> getSlice(List<StaticBuffer> keys, SliceQuery query, StoreTransaction txh) throws BackendException {
         return store.getSlice(keys, query, unwrapTx(txh));
     }
+
+    @Override
+    public Map<SliceQuery,Map<StaticBuffer,EntryList>> getMultiSlice(List<StaticBuffer> keys, List<SliceQuery> queries, StoreTransaction txh) throws BackendException {
+        return store.getMultiSlice(keys, queries, unwrapTx(txh));
+    }
 }
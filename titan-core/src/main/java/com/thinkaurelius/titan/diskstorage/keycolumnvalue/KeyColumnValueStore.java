@@ -6,6 +6,7 @@ import com.thinkaurelius.titan.diskstorage.Entry;
 import com.thinkaurelius.titan.diskstorage.EntryList;
 import com.thinkaurelius.titan.diskstorage.StaticBuffer;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +30,9 @@ public interface KeyColumnValueStore {
 
     /**
      * Retrieves the list of entries (i.e. column-value pairs) for a specified query.
+     * <p/>
+     * If the query is {@link SliceQuery#isReverse() reverse}, the slice is read from its end such that the last "limit"
+     * entries are returned. In either case, the entries are returned in ascending column order.
      *
      * @param query Query to get results for
      * @param txh   Transaction
@@ -50,6 +54,24 @@ public interface KeyColumnValueStore {
      */
     public Map<StaticBuffer,EntryList> getSlice(List<StaticBuffer> keys, SliceQuery query, StoreTransaction txh) throws BackendException;
 
+    /**
+     * Retrieves the entries matching each of the given {@link SliceQuery}s for all of the given keys together.
+     * <p/>
+     * Stores that can retrieve several column ranges per key in a single request should override this method.
+     * By default, each slice query is executed separately via {@link #getSlice(java.util.List, SliceQuery, StoreTransaction)}.
+     *
+     * @param keys    List of keys
+     * @param queries Slicequeries specifying matching entries
+     * @param txh     Transaction
+     * @return For each query, the result for each of the given keys as a map from the key to the list of result entries.
+     * @throws com.thinkaurelius.titan.diskstorage.BackendException
+     */
+    public default Map<SliceQuery,Map<StaticBuffer,EntryList>> getMultiSlice(List<StaticBuffer> keys, List<SliceQuery> queries, StoreTransaction txh) throws BackendException {
+        Map<SliceQuery,Map<StaticBuffer,EntryList>> results = new HashMap<SliceQuery,Map<StaticBuffer,EntryList>>(queries.size());
+        for (SliceQuery query : queries) results.put(query, getSlice(keys, query, txh));
+        return results;
+    }
+
     /**
      * Verifies acquisition of locks {@code txh} from previous calls to
      * {@link #acquireLock(StaticBuffer, StaticBuffer, StaticBuffer, StoreTransaction)}
@@ -39,6 +39,12 @@ public class KeySliceQuery extends SliceQuery {
         return this;
     }
 
+    @Override
+    public KeySliceQuery setReverse() {
+        super.setReverse();
+        return this;
+    }
+
     @Override
     public KeySliceQuery updateLimit(int newLimit) {
         return new KeySliceQuery(key,this).setLimit(newLimit);
@@ -65,6 +71,6 @@ public class KeySliceQuery extends SliceQuery {
 
     @Override
     public String toString() {
-        return String.format("KeySliceQuery(key: %s, start: %s, end: %s, limit:%d)", key, getSliceStart(), getSliceEnd(), getLimit());
+        return String.format("KeySliceQuery(key: %s, start: %s, end: %s, limit:%d%s)", key, getSliceStart(), getSliceEnd(), getLimit(), isReverse()?", reverse":"");
     }
 }
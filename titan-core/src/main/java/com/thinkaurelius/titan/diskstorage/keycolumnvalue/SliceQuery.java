@@ -19,6 +19,9 @@ import java.util.List;
  * Queries for a slice of data identified by a start point (inclusive) and end point (exclusive).
  * Returns all {@link StaticBuffer}s that lie in this range up to the given limit.
  * <p/>
+ * If a SliceQuery is marked <i>reverse</i>, the slice is read from its end so that the given limit retains the last
+ * entries of the range rather than the first. The returned entries are in ascending order nonetheless.
+ * <p/>
  * If a SliceQuery is marked <i>static</i> it is expected that the result set does not change.
  *
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -28,6 +31,7 @@ public class SliceQuery extends BaseQuery implements BackendQuery<SliceQuery> {
 
     private final StaticBuffer sliceStart;
     private final StaticBuffer sliceEnd;
+    private boolean reverse = false;
 
     public SliceQuery(final StaticBuffer sliceStart, final StaticBuffer sliceEnd) {
         assert sliceStart != null && sliceEnd != null;
@@ -39,6 +43,7 @@ public class SliceQuery extends BaseQuery implements BackendQuery<SliceQuery> {
     public SliceQuery(final SliceQuery query) {
         this(query.getSliceStart(), query.getSliceEnd());
         setLimit(query.getLimit());
+        reverse = query.isReverse();
     }
 
     /**
@@ -59,9 +64,23 @@ public class SliceQuery extends BaseQuery implements BackendQuery<SliceQuery> {
         return sliceEnd;
     }
 
+    /**
+     * Whether this slice is read from its end, i.e. the limit retains the last entries in the slice
+     *
+     * @return
+     */
+    public boolean isReverse() {
+        return reverse;
+    }
+
+    public SliceQuery setReverse() {
+        reverse = true;
+        return this;
+    }
+
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(sliceStart).append(sliceEnd).append(getLimit()).toHashCode();
+        return new HashCodeBuilder().append(sliceStart).append(sliceEnd).append(getLimit()).append(reverse).toHashCode();
     }
 
     @Override
@@ -75,7 +94,8 @@ public class SliceQuery extends BaseQuery implements BackendQuery<SliceQuery> {
         SliceQuery oth = (SliceQuery) other;
         return sliceStart.equals(oth.sliceStart)
                 && sliceEnd.equals(oth.sliceEnd)
-                && getLimit() == oth.getLimit();
+                && getLimit() == oth.getLimit()
+                && reverse == oth.reverse;
     }
 
     public boolean subsumes(SliceQuery oth) {
@@ -84,6 +104,10 @@ public class SliceQuery extends BaseQuery implements BackendQuery<SliceQuery> {
         if (oth.getLimit() > getLimit()) return false;
         else if (!hasLimit()) //the interval must be subsumed
             return sliceStart.compareTo(oth.sliceStart) <= 0 && sliceEnd.compareTo(oth.sliceEnd) >= 0;
+        else if (reverse != oth.reverse) //the result is cutoff at the other end
+            return false;
+        else if (reverse) //the result might be cutoff due to limit, the end must be the same
+            return sliceStart.compareTo(oth.sliceStart) <= 0 && sliceEnd.compareTo(oth.sliceEnd) == 0;
         else //this the result might be cutoff due to limit, the start must be the same
             return sliceStart.compareTo(oth.sliceStart) == 0 && sliceEnd.compareTo(oth.sliceEnd) >= 0;
     }
@@ -95,11 +119,12 @@ public class SliceQuery extends BaseQuery implements BackendQuery<SliceQuery> {
         if (pos < 0) pos = -pos - 1;
 
         List<Entry> result = new ArrayList<Entry>();
-        for (; pos < otherResult.size() && result.size() < getLimit(); pos++) {
+        for (; pos < otherResult.size() && (reverse || result.size() < getLimit()); pos++) {
             Entry e = otherResult.get(pos);
             if (e.getColumnAs(StaticBuffer.STATIC_FACTORY).compareTo(sliceEnd) < 0) result.add(e);
             else break;
         }
+        if (reverse && result.size() > getLimit()) result = result.subList(result.size() - getLimit(), result.size());
         return StaticArrayEntryList.of(result);
     }
 
@@ -120,7 +145,9 @@ public class SliceQuery extends BaseQuery implements BackendQuery<SliceQuery> {
 
     @Override
     public SliceQuery updateLimit(int newLimit) {
-        return new SliceQuery(sliceStart, sliceEnd).setLimit(newLimit);
+        SliceQuery query = new SliceQuery(sliceStart, sliceEnd).setLimit(newLimit);
+        if (reverse) query.setReverse();
+        return query;
     }
 
 }
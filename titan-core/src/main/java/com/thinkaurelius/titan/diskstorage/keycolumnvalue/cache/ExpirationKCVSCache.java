@@ -13,8 +13,10 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
@@ -130,6 +132,59 @@ public class ExpirationKCVSCache extends KCVSCache {
         return results;
     }
 
+    /**
+     * Serves each key and query from the cache where possible and retrieves the remaining slices for all queries
+     * together. Keys that miss the cache for any query are requested for all queries, hence some cached slices
+     * may be re-read from the backend in which case the cached value is returned.
+     */
+    @Override
+    public Map<SliceQuery,Map<StaticBuffer,EntryList>> getMultiSlice(final List<StaticBuffer> keys, final List<SliceQuery> queries, final StoreTransaction txh) throws BackendException {
+        Map<SliceQuery,Map<StaticBuffer,EntryList>> results = new HashMap<SliceQuery,Map<StaticBuffer,EntryList>>(queries.size());
+        Map<SliceQuery,KeySliceQuery[]> ksqs = new HashMap<SliceQuery,KeySliceQuery[]>(queries.size());
+        Set<StaticBuffer> remainingKeys = new LinkedHashSet<StaticBuffer>();
+        int misses = 0;
+        incActionBy(keys.size()*queries.size(), CacheMetricsAction.RETRIEVAL,txh);
+        //Find all cached queries
+        for (SliceQuery query : queries) {
+            Map<StaticBuffer,EntryList> queryResults = new HashMap<StaticBuffer,EntryList>(keys.size());
+            KeySliceQuery[] queryKsqs = new KeySliceQuery[keys.size()];
+            for (int i=0;i<keys.size();i++) {
+                StaticBuffer key = keys.get(i);
+                queryKsqs[i] = new KeySliceQuery(key,query);
+                EntryList result = null;
+                if (!isExpired(queryKsqs[i])) result = cache.getIfPresent(queryKsqs[i]);
+                else queryKsqs[i]=null;
+                if (result!=null) queryResults.put(key,result);
+                else {
+                    remainingKeys.add(key);
+                    misses++;
+                }
+            }
+            results.put(query,queryResults);
+            ksqs.put(query,queryKsqs);
+        }
+        //Request remaining ones from backend
+        if (!remainingKeys.isEmpty()) {
+            incActionBy(misses, CacheMetricsAction.MISS,txh);
+            Map<SliceQuery,Map<StaticBuffer,EntryList>> subresults = store.getMultiSlice(new ArrayList<StaticBuffer>(remainingKeys), queries, unwrapTx(txh));
+            for (SliceQuery query : queries) {
+                Map<StaticBuffer,EntryList> queryResults = results.get(query);
+                Map<StaticBuffer,EntryList> querySubresults = subresults.get(query);
+                KeySliceQuery[] queryKsqs = ksqs.get(query);
+                for (int i=0;i<keys.size();i++) {
+                    StaticBuffer key = keys.get(i);
+                    if (queryResults.containsKey(key)) continue;
+                    EntryList subresult = querySubresults.get(key);
+                    if (subresult!=null) {
+                        queryResults.put(key,subresult);
+                        if (queryKsqs[i]!=null) cache.put(queryKsqs[i],subresult);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
     @Override
     public void clearCache() {
         cache.invalidateAll();
@@ -8,6 +8,7 @@ import com.thinkaurelius.titan.diskstorage.EntryList;
 import com.thinkaurelius.titan.diskstorage.StaticBuffer;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.*;
 import com.thinkaurelius.titan.diskstorage.util.CacheMetricsAction;
+import com.thinkaurelius.titan.diskstorage.util.QueryAccounting;
 import com.thinkaurelius.titan.util.stats.MetricManager;
 
 import java.util.List;
@@ -34,6 +35,8 @@ public abstract class KCVSCache extends KCVSProxy {
 
     protected void incActionBy(int by, CacheMetricsAction action, StoreTransaction txh) {
         assert by>=1;
+        QueryAccounting accounting = QueryAccounting.current();
+        if (accounting!=null) accounting.recordCache(action, by);
         if (metricsName!=null && txh.getConfiguration().hasGroupName()) {
             MetricManager.INSTANCE.getCounter(txh.getConfiguration().getGroupName(), metricsName, action.getName()).inc(by);
         }
@@ -67,4 +70,8 @@ public abstract class KCVSCache extends KCVSProxy {
         return store.getSlice(keys,query,unwrapTx(txh));
     }
 
+    public Map<SliceQuery,Map<StaticBuffer, EntryList>> getMultiSliceNoCache(List<StaticBuffer> keys, List<SliceQuery> queries, StoreTransaction txh) throws BackendException {
+        return store.getMultiSlice(keys,queries,unwrapTx(txh));
+    }
+
 }
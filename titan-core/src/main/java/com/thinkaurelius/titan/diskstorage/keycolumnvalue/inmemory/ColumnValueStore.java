@@ -54,6 +54,8 @@ class ColumnValueStore {
             int end = datacp.getIndex(query.getSliceEnd());
             if (end < 0) end = (-end - 1);
             if (start < end) {
+                //Reverse slices retain the last entries up to the limit
+                if (query.isReverse() && query.hasLimit()) start = Math.max(start, end - query.getLimit());
                 MemoryEntryList result = new MemoryEntryList(end - start);
                 for (int i = start; i < end; i++) {
                     if (query.hasLimit() && result.size() >= query.getLimit()) break;
@@ -8,6 +8,8 @@ import com.thinkaurelius.titan.graphdb.query.BaseQuery;
 /**
  * A query against a {@link OrderedKeyValueStore}. Retrieves all the results that lie between start (inclusive) and
  * end (exclusive) which satisfy the filter. Returns up to the specified limit number of key-value pairs {@link KeyValueEntry}.
+ * If the query is reverse, the range is read from the end such that the limit retains the last pairs in the range.
+ * The pairs are returned in ascending order of their keys in either case.
  *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
@@ -16,6 +18,7 @@ public class KVQuery extends BaseQuery {
     private final StaticBuffer start;
     private final StaticBuffer end;
     private final Predicate<StaticBuffer> keyFilter;
+    private boolean reverse = false;
 
     public KVQuery(StaticBuffer start, StaticBuffer end) {
         this(start,end,BaseQuery.NO_LIMIT);
@@ -40,6 +43,15 @@ public class KVQuery extends BaseQuery {
         return end;
     }
 
+    public boolean isReverse() {
+        return reverse;
+    }
+
+    public KVQuery setReverse() {
+        reverse = true;
+        return this;
+    }
+
     public KeySelector getKeySelector() {
         return new KeySelector(keyFilter,getLimit());
     }
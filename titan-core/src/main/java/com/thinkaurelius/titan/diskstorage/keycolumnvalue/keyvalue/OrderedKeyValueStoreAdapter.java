@@ -203,10 +203,12 @@ public class OrderedKeyValueStoreAdapter extends BaseKeyColumnValueAdapter {
                 return equalKey(keyAndColumn, query.getKey());
             }
         };
-        return new KVQuery(
+        KVQuery kvQuery = new KVQuery(
                 concatenatePrefix(query.getKey(), query.getSliceStart()),
                 concatenatePrefix(query.getKey(), query.getSliceEnd()),
                 filter,query.getLimit());
+        if (query.isReverse()) kvQuery.setReverse();
+        return kvQuery;
     }
 
     final StaticBuffer concatenate(StaticBuffer front, StaticBuffer end) {
@@ -0,0 +1,61 @@
+package com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.configuration.backend.KCVSConfiguration;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.KeyRange;
+import com.thinkaurelius.titan.diskstorage.util.Hex;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Records the key ranges of a {@link ScanJob} which have been completely processed in the global system configuration
+ * so that a job which was interrupted (e.g. because the process died) can be resumed by skipping those ranges.
+ * <p/>
+ * Checkpoints are identified by the name of the job and the boundaries of the range. Hence, a resumed job must be
+ * given the same name and must split the key space into the same ranges in order to pick up the checkpoints.
+ */
+public class ScanCheckpoint {
+
+    public static final String CHECKPOINT_PREFIX = "scan-checkpoint";
+
+    private final KCVSConfiguration config;
+    private final String jobName;
+
+    public ScanCheckpoint(KCVSConfiguration config, String jobName) {
+        Preconditions.checkArgument(config != null);
+        Preconditions.checkArgument(StringUtils.isNotBlank(jobName), "Invalid job name: %s", jobName);
+        this.config = config;
+        this.jobName = jobName;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    private String getKey(KeyRange range) {
+        return CHECKPOINT_PREFIX + "." + jobName + "." + toHex(range.getStart()) + "-" + toHex(range.getEnd());
+    }
+
+    private static String toHex(StaticBuffer b) {
+        return Hex.bytesToHex(b.as(StaticBuffer.ARRAY_FACTORY));
+    }
+
+    public boolean isCompleted(KeyRange range) {
+        Boolean completed = config.get(getKey(range), Boolean.class);
+        return completed != null && completed;
+    }
+
+    public void complete(KeyRange range) {
+        config.set(getKey(range), Boolean.TRUE);
+    }
+
+    /**
+     * Removes the checkpoints of the given ranges, e.g. after the job completed successfully
+     *
+     * @param ranges
+     */
+    public void clear(Iterable<KeyRange> ranges) {
+        for (KeyRange range : ranges) config.remove(getKey(range));
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan;
 
+import java.time.Duration;
+
 /**
  * Counters associated with a {@link ScanJob}.
  * <p>
@@ -64,4 +66,42 @@ public interface ScanMetrics {
      */
     public void increment(Metric metric);
 
+    /**
+     * The number of key ranges the scanned key space has been split into. Each range is scanned and checkpointed
+     * independently.
+     *
+     * @return the number of key ranges of the job
+     */
+    public default int getNumRanges() {
+        return 1;
+    }
+
+    /**
+     * The number of key ranges that have been completely processed, including ranges which were skipped because
+     * they had been completed by a previous execution of the job.
+     *
+     * @return the number of completed key ranges
+     */
+    public default int getCompletedRanges() {
+        return 0;
+    }
+
+    /**
+     * The average number of rows processed per second since the job started.
+     *
+     * @return rows per second
+     */
+    public default double getThroughput() {
+        return 0;
+    }
+
+    /**
+     * Estimates the remaining execution time of the job from the rate at which key ranges are completed.
+     *
+     * @return the estimated remaining time or null if no estimate is available yet
+     */
+    public default Duration getEstimatedTimeRemaining() {
+        return null;
+    }
+
 }
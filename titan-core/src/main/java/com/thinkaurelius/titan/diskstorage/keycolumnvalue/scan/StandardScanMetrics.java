@@ -3,9 +3,11 @@ package com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.EnumMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -16,6 +18,11 @@ public class StandardScanMetrics implements ScanMetrics {
     private final EnumMap<Metric,AtomicLong> metrics;
     private final ConcurrentMap<String,AtomicLong> customMetrics;
 
+    private final long startTime;
+    private volatile int numRanges = 1;
+    private volatile int skippedRanges = 0;
+    private final AtomicInteger completedRanges = new AtomicInteger(0);
+
     private static final Logger log =
             LoggerFactory.getLogger(StandardScanMetrics.class);
 
@@ -25,6 +32,7 @@ public class StandardScanMetrics implements ScanMetrics {
             metrics.put(m,new AtomicLong(0));
         }
         customMetrics = new ConcurrentHashMap<>();
+        startTime = System.nanoTime();
     }
 
     @Override
@@ -70,5 +78,45 @@ public class StandardScanMetrics implements ScanMetrics {
         metrics.get(metric).incrementAndGet();
     }
 
+    /**
+     * Sets the number of key ranges of the job and how many of those had already been completed by a previous execution
+     *
+     * @param numRanges
+     * @param skippedRanges
+     */
+    void setRanges(int numRanges, int skippedRanges) {
+        this.numRanges = numRanges;
+        this.skippedRanges = skippedRanges;
+    }
+
+    void completeRange() {
+        completedRanges.incrementAndGet();
+    }
+
+    @Override
+    public int getNumRanges() {
+        return numRanges;
+    }
+
+    @Override
+    public int getCompletedRanges() {
+        return skippedRanges + completedRanges.get();
+    }
+
+    @Override
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        if (seconds <= 0) return 0;
+        return (get(Metric.SUCCESS) + get(Metric.FAILURE)) / seconds;
+    }
+
+    @Override
+    public Duration getEstimatedTimeRemaining() {
+        int completed = completedRanges.get();
+        if (completed == 0) return null;
+        int remaining = Math.max(0, numRanges - skippedRanges - completed);
+        return Duration.ofNanos((System.nanoTime() - startTime) / completed * remaining);
+    }
+
 
 }
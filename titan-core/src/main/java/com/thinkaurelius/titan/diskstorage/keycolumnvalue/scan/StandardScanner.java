@@ -77,7 +77,10 @@ public class StandardScanner  {
 
         private ScanJob job;
         private int numProcessingThreads;
+        private int numScanThreads;
+        private int numKeyRanges;
         private int workBlockSize;
+        private ScanCheckpoint checkpoint;
         private TimestampProvider times;
         private Configuration graphConfiguration;
         private Configuration jobConfiguration;
@@ -87,7 +90,10 @@ public class StandardScanner  {
 
         private Builder() {
             numProcessingThreads = 1;
+            numScanThreads = 1;
+            numKeyRanges = 1;
             workBlockSize = DEFAULT_WORKBLOCK_SIZE;
+            checkpoint = null;
             job = null;
             times = null;
             graphConfiguration = Configuration.EMPTY;
@@ -104,6 +110,47 @@ public class StandardScanner  {
             return this;
         }
 
+        /**
+         * Sets the number of threads which scan key ranges concurrently. Only applies if the key space is split
+         * into multiple ranges.
+         *
+         * @param numThreads
+         * @return
+         * @see #setNumKeyRanges(int)
+         */
+        public Builder setNumScanThreads(int numThreads) {
+            Preconditions.checkArgument(numThreads>0,
+                    "Need to specify a positive number of scan threads: %s",numThreads);
+            this.numScanThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * Sets the number of ranges of equal size the key space is split into if the store supports ordered scans.
+         * Ranges are scanned concurrently and are the unit of checkpointing.
+         *
+         * @param numRanges
+         * @return
+         */
+        public Builder setNumKeyRanges(int numRanges) {
+            Preconditions.checkArgument(numRanges>0, "Need to specify a positive number of key ranges: %s",numRanges);
+            this.numKeyRanges = numRanges;
+            return this;
+        }
+
+        /**
+         * Records completed key ranges in the given checkpoint and skips ranges which have been completed by a
+         * previous execution of the job.
+         *
+         * @param checkpoint
+         * @return
+         */
+        public Builder setCheckpoint(ScanCheckpoint checkpoint) {
+            Preconditions.checkArgument(checkpoint!=null);
+            this.checkpoint = checkpoint;
+            return this;
+        }
+
         public Builder setWorkBlockSize(int size) {
             Preconditions.checkArgument(size>0, "Need to specify a positive work block size: %s",size);
             this.workBlockSize = size;
@@ -198,7 +245,8 @@ public class StandardScanner  {
             openStores.add(kcvs);
             try {
                 StandardScannerExecutor executor = new StandardScannerExecutor(job, finishJob, kcvs, storeTx,
-                        manager.getFeatures(), numProcessingThreads, workBlockSize, jobConfiguration, graphConfiguration);
+                        manager.getFeatures(), numProcessingThreads, numScanThreads, numKeyRanges, workBlockSize,
+                        checkpoint, jobConfiguration, graphConfiguration);
                 addJob(jobId,executor);
                 new Thread(executor).start();
                 return executor;
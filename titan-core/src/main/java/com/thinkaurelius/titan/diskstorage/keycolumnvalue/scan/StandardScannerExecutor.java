@@ -2,6 +2,7 @@ package com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan;
 
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkaurelius.titan.core.schema.TitanManagement;
 import com.thinkaurelius.titan.diskstorage.*;
 import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
@@ -17,10 +18,19 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
+ * Executes a {@link ScanJob} against a store.
+ * <p/>
+ * If the store supports ordered scans and more than one key range is configured, the key space is split into ranges
+ * of equal size which are scanned by a pool of scan threads concurrently. A range is complete once all of its rows
+ * have been processed and the blocks of work containing them have ended successfully. Completed ranges are recorded
+ * in the configured {@link ScanCheckpoint} (if any) and skipped when the job is executed again, so that an interrupted
+ * job resumes where it left off. The checkpoints are cleared once all ranges have been completed without failure.
+ *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
 class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements TitanManagement.IndexJobFuture, Runnable {
@@ -38,23 +48,27 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
     private final StoreTransaction storeTx;
     private final KeyColumnValueStore store;
     private final int numProcessors;
+    private final int numScanThreads;
+    private final int numKeyRanges;
     private final int workBlockSize;
+    private final ScanCheckpoint checkpoint;
     private final Configuration jobConfiguration;
     private final Configuration graphConfiguration;
-    private final ScanMetrics metrics;
+    private final StandardScanMetrics metrics;
 
     private boolean hasCompleted = false;
-    private boolean interrupted = false;
+    private volatile boolean interrupted = false;
 
     private List<SliceQuery> queries;
     private int numQueries;
-    private List<BlockingQueue<SliceResult>> dataQueues;
-    private DataPuller[] pullThreads;
+    private List<KeyRange> keyRanges;
+    private final Set<DataPuller> pullThreads = ConcurrentHashMap.newKeySet();
 
     StandardScannerExecutor(final ScanJob job, final Consumer<ScanMetrics> finishJob,
                             final KeyColumnValueStore store, final StoreTransaction storeTx,
                             final StoreFeatures storeFeatures,
-                            final int numProcessors, final int workBlockSize,
+                            final int numProcessors, final int numScanThreads, final int numKeyRanges,
+                            final int workBlockSize, final ScanCheckpoint checkpoint,
                             final Configuration jobConfiguration,
                             final Configuration graphConfiguration) throws BackendException {
         this.job = job;
@@ -63,7 +77,10 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
         this.storeTx = storeTx;
         this.storeFeatures = storeFeatures;
         this.numProcessors = numProcessors;
+        this.numScanThreads = numScanThreads;
+        this.numKeyRanges = numKeyRanges;
         this.workBlockSize = workBlockSize;
+        this.checkpoint = checkpoint;
         this.jobConfiguration = jobConfiguration;
         this.graphConfiguration = graphConfiguration;
 
@@ -71,18 +88,38 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
 
     }
 
-    private final DataPuller addDataPuller(SliceQuery sq, StoreTransaction stx) throws BackendException {
-        BlockingQueue<SliceResult> queue = new LinkedBlockingQueue<SliceResult>(QUEUE_SIZE);
-        dataQueues.add(queue);
+    private final DataPuller addDataPuller(SliceQuery sq, KeyRange range, BlockingQueue<SliceResult> queue) throws BackendException {
+        KeyIterator keys;
+        if (range == null) keys = KCVSUtil.getKeys(store,sq,storeFeatures,MAX_KEY_LENGTH,storeTx);
+        else keys = store.getKeys(new KeyRangeQuery(range.getStart(),range.getEnd(),sq),storeTx);
 
-        DataPuller dp = new DataPuller(sq, queue,
-                KCVSUtil.getKeys(store,sq,storeFeatures,MAX_KEY_LENGTH,stx),job.getKeyFilter());
+        DataPuller dp = new DataPuller(sq, queue, keys, job.getKeyFilter());
+        pullThreads.add(dp);
         dp.start();
         return dp;
     }
 
+    /**
+     * Splits the key space into ranges of equal size by the first 8 bytes of the keys, or returns null if the
+     * store is to be scanned as a whole.
+     *
+     * @return
+     */
+    private List<KeyRange> getKeyRanges() {
+        if (numKeyRanges <= 1 || !storeFeatures.hasOrderedScan()) return null;
+        long rangeSize = Long.divideUnsigned(-1L, numKeyRanges);
+        List<KeyRange> ranges = new ArrayList<>(numKeyRanges);
+        for (int i = 0; i < numKeyRanges; i++) {
+            StaticBuffer start = i == 0 ? BufferUtil.zeroBuffer(1) : BufferUtil.getLongBuffer(rangeSize * i);
+            StaticBuffer end = i == numKeyRanges - 1 ? BufferUtil.oneBuffer(MAX_KEY_LENGTH) : BufferUtil.getLongBuffer(rangeSize * (i + 1));
+            ranges.add(new KeyRange(start, end));
+        }
+        return ranges;
+    }
+
     @Override
     public void run() {
+        List<RangeScan> scans = new ArrayList<>();
         try {
             job.workerIterationStart(jobConfiguration, graphConfiguration, metrics);
 
@@ -99,11 +136,19 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
                 Preconditions.checkArgument(end.equals(BufferUtil.oneBuffer(end.length())),
                         "Expected end of first query to be all 1s: %s",end);
             }
-            dataQueues = new ArrayList<BlockingQueue<SliceResult>>(numQueries);
-            pullThreads = new DataPuller[numQueries];
 
-            for (int pos=0;pos<numQueries;pos++) {
-                pullThreads[pos]=addDataPuller(queries.get(pos),storeTx);
+            keyRanges = getKeyRanges();
+            if (keyRanges == null) {
+                scans.add(new RangeScan(null));
+            } else {
+                int skipped = 0;
+                for (KeyRange range : keyRanges) {
+                    if (checkpoint != null && checkpoint.isCompleted(range)) skipped++;
+                    else scans.add(new RangeScan(range));
+                }
+                metrics.setRanges(keyRanges.size(), skipped);
+                if (skipped > 0) log.info("Resuming job [{}]: skipping {} of {} key ranges which have been completed previously",
+                        checkpoint.getJobName(), skipped, keyRanges.size());
             }
         }  catch (Throwable e) {
             log.error("Exception trying to setup the job:", e);
@@ -121,45 +166,22 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
             processors[i].start();
         }
 
+        ExecutorService scanPool = Executors.newFixedThreadPool(Math.max(1, Math.min(numScanThreads, scans.size())),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("titan-scan-%d").build());
         try {
-            SliceResult[] currentResults = new SliceResult[numQueries];
-            while (!interrupted) {
-                for (int i = 0; i < numQueries; i++) {
-                    if (currentResults[i]!=null) continue;
-                    BlockingQueue<SliceResult> queue = dataQueues.get(i);
-
-                    SliceResult qr = queue.poll(10,TimeUnit.MILLISECONDS); //Try very short time to see if we are done
-                    if (qr==null) {
-                        if (pullThreads[i].isFinished()) continue; //No more data to be expected
-                        qr = queue.poll(TIMEOUT_MS,TimeUnit.MILLISECONDS); //otherwise, give it more time
-                        if (qr==null && !pullThreads[i].isFinished())
-                            throw new TemporaryBackendException("Timed out waiting for next row data - storage error likely");
-                    }
-                    currentResults[i]=qr;
-                }
-                SliceResult conditionQuery = currentResults[0];
-                if (conditionQuery==null) break; //Termination condition - primary query has no more data
-                final StaticBuffer key = conditionQuery.key;
-
-                Map<SliceQuery,EntryList> queryResults = new HashMap<>(numQueries);
-                for (int i=0;i<currentResults.length;i++) {
-                    SliceQuery query = queries.get(i);
-                    EntryList entries = EntryList.EMPTY_LIST;
-                    if (currentResults[i]!=null && currentResults[i].key.equals(key)) {
-                        assert query.equals(currentResults[i].query);
-                        entries = currentResults[i].entries;
-                        currentResults[i]=null;
-                    }
-                    queryResults.put(query,entries);
-                }
-                processorQueue.put(new Row(key, queryResults));
+            List<Future<?>> scanFutures = new ArrayList<>(scans.size());
+            for (RangeScan scan : scans) {
+                scanFutures.add(scanPool.submit(() -> {
+                    scan.scan(processorQueue);
+                    return null;
+                }));
             }
-
-            for (int i = 0; i < pullThreads.length; i++) {
-                pullThreads[i].join(10);
-                if (pullThreads[i].isAlive()) {
-                    log.warn("Data pulling thread [{}] did not terminate. Forcing termination",i);
-                    pullThreads[i].interrupt();
+            for (Future<?> future : scanFutures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    interrupted = true; //Stop the scans of all other ranges
+                    throw e.getCause();
                 }
             }
 
@@ -174,6 +196,14 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
             if (interrupted) {
                 setException(new InterruptedException("Scanner got interrupted"));
             } else {
+                if (checkpoint != null && keyRanges != null) {
+                    if (metrics.getCompletedRanges() == keyRanges.size() && metrics.get(ScanMetrics.Metric.FAILURE) == 0) {
+                        checkpoint.clear(keyRanges);
+                    } else {
+                        log.warn("Job [{}] completed {} of {} key ranges. Execute it again to process the remaining ranges",
+                                checkpoint.getJobName(), metrics.getCompletedRanges(), keyRanges.size());
+                    }
+                }
                 finishJob.accept(metrics);
                 set(metrics);
             }
@@ -182,6 +212,7 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
             job.workerIterationEnd(metrics);
             setException(e);
         } finally {
+            scanPool.shutdownNow();
             Threads.terminate(processors);
             cleanupSilent();
         }
@@ -195,11 +226,9 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
     private void cleanup() throws BackendException {
         if (!hasCompleted) {
             hasCompleted = true;
-            if (pullThreads!=null) {
-                for (int i = 0; i < pullThreads.length; i++) {
-                    if (pullThreads[i].isAlive()) {
-                        pullThreads[i].interrupt();
-                    }
+            for (DataPuller dp : pullThreads) {
+                if (dp.isAlive()) {
+                    dp.interrupt();
                 }
             }
             storeTx.rollback();
@@ -219,14 +248,114 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
         return metrics;
     }
 
+    /**
+     * Scans one key range (or the entire store if the range is null) and tracks the rows of the range
+     * which have not yet been processed and committed.
+     */
+    private class RangeScan {
+
+        private final KeyRange range;
+        //Starts with one for the scan itself which is released when the scan has finished
+        private final AtomicLong pending = new AtomicLong(1);
+        private volatile boolean failed = false;
+
+        private RangeScan(KeyRange range) {
+            this.range = range;
+        }
+
+        private void scan(BlockingQueue<Row> processorQueue) throws Exception {
+            List<BlockingQueue<SliceResult>> dataQueues = new ArrayList<>(numQueries);
+            DataPuller[] pullers = new DataPuller[numQueries];
+            try {
+                for (int pos=0;pos<numQueries;pos++) {
+                    BlockingQueue<SliceResult> queue = new LinkedBlockingQueue<SliceResult>(QUEUE_SIZE);
+                    dataQueues.add(queue);
+                    pullers[pos]=addDataPuller(queries.get(pos),range,queue);
+                }
+
+                SliceResult[] currentResults = new SliceResult[numQueries];
+                while (!interrupted) {
+                    for (int i = 0; i < numQueries; i++) {
+                        if (currentResults[i]!=null) continue;
+                        BlockingQueue<SliceResult> queue = dataQueues.get(i);
+
+                        SliceResult qr = queue.poll(10,TimeUnit.MILLISECONDS); //Try very short time to see if we are done
+                        if (qr==null) {
+                            if (pullers[i].isFinished()) continue; //No more data to be expected
+                            qr = queue.poll(TIMEOUT_MS,TimeUnit.MILLISECONDS); //otherwise, give it more time
+                            if (qr==null && !pullers[i].isFinished())
+                                throw new TemporaryBackendException("Timed out waiting for next row data - storage error likely");
+                        }
+                        currentResults[i]=qr;
+                    }
+                    SliceResult conditionQuery = currentResults[0];
+                    if (conditionQuery==null) break; //Termination condition - primary query has no more data
+                    final StaticBuffer key = conditionQuery.key;
+
+                    Map<SliceQuery,EntryList> queryResults = new HashMap<>(numQueries);
+                    for (int i=0;i<currentResults.length;i++) {
+                        SliceQuery query = queries.get(i);
+                        EntryList entries = EntryList.EMPTY_LIST;
+                        if (currentResults[i]!=null && currentResults[i].key.equals(key)) {
+                            assert query.equals(currentResults[i].query);
+                            entries = currentResults[i].entries;
+                            currentResults[i]=null;
+                        }
+                        queryResults.put(query,entries);
+                    }
+                    pending.incrementAndGet();
+                    processorQueue.put(new Row(key, queryResults, this));
+                }
+                if (interrupted) failed = true;
+
+                for (int i = 0; i < pullers.length; i++) {
+                    if (pullers[i]==null) continue;
+                    pullers[i].join(10);
+                    if (pullers[i].isAlive()) {
+                        log.warn("Data pulling thread [{}] did not terminate. Forcing termination",i);
+                        pullers[i].interrupt();
+                    }
+                }
+            } catch (Throwable e) {
+                failed = true;
+                for (DataPuller dp : pullers) if (dp != null && dp.isAlive()) dp.interrupt();
+                throw e;
+            } finally {
+                for (DataPuller dp : pullers) if (dp != null) pullThreads.remove(dp);
+                release(1);
+            }
+        }
+
+        private void fail() {
+            failed = true;
+        }
+
+        private void release(long numRows) {
+            if (pending.addAndGet(-numRows) > 0 || failed || interrupted) return;
+            if (range == null) return;
+            if (checkpoint != null) {
+                try {
+                    checkpoint.complete(range);
+                } catch (Throwable e) {
+                    log.warn("Could not record checkpoint for completed key range {}", range, e);
+                }
+            }
+            metrics.completeRange();
+            log.debug("Completed {} of {} key ranges, estimated time remaining: {}",
+                    metrics.getCompletedRanges(), metrics.getNumRanges(), metrics.getEstimatedTimeRemaining());
+        }
+    }
+
     private static class Row {
 
         final StaticBuffer key;
         final Map<SliceQuery,EntryList> entries;
+        final RangeScan range;
 
-        private Row(StaticBuffer key, Map<SliceQuery, EntryList> entries) {
+        private Row(StaticBuffer key, Map<SliceQuery, EntryList> entries, RangeScan range) {
             this.key = key;
             this.entries = entries;
+            this.range = range;
         }
     }
 
@@ -236,6 +365,8 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
 
         private ScanJob job;
         private final BlockingQueue<Row> processorQueue;
+        //Number of rows per range which have been processed in the current block of work
+        private final Map<RangeScan,Integer> processedRows;
 
         private volatile boolean finished;
         private int numProcessed;
@@ -244,6 +375,7 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
         private Processor(ScanJob job, BlockingQueue<Row> processorQueue) {
             this.job = job;
             this.processorQueue = processorQueue;
+            this.processedRows = new HashMap<>();
 
             this.finished = false;
             this.numProcessed = 0;
@@ -258,7 +390,7 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
                     while ((row=processorQueue.poll(100,TimeUnit.MILLISECONDS))!=null) {
                         if (numProcessed>=workBlockSize) {
                             //Setup new chunk of work
-                            job.workerIterationEnd(metrics);
+                            endBlock();
                             job = job.clone();
                             job.workerIterationStart(jobConfiguration, graphConfiguration, metrics);
                             numProcessed=0;
@@ -269,7 +401,9 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
                         } catch (Throwable ex) {
                             log.error("Exception processing row ["+row.key+"]: ",ex);
                             metrics.increment(ScanMetrics.Metric.FAILURE);
+                            row.range.fail();
                         }
+                        processedRows.merge(row.range, 1, Integer::sum);
                         numProcessed++;
                     }
                 }
@@ -278,7 +412,25 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Tit
             } catch (Throwable e) {
                 log.error("Unexpected error processing data: {}",e);
             } finally {
+                endBlock();
+            }
+        }
+
+        /**
+         * Ends the current block of work and releases its rows. If ending the block fails, the rows' ranges
+         * are not considered complete.
+         */
+        private void endBlock() {
+            boolean success = false;
+            try {
                 job.workerIterationEnd(metrics);
+                success = true;
+            } finally {
+                for (Map.Entry<RangeScan,Integer> processed : processedRows.entrySet()) {
+                    if (!success) processed.getKey().fail();
+                    processed.getKey().release(processed.getValue());
+                }
+                processedRows.clear();
             }
         }
 
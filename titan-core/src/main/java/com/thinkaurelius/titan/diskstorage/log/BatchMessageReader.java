@@ -0,0 +1,29 @@
+package com.thinkaurelius.titan.diskstorage.log;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link MessageReader} which processes all messages that were read from the log in one poll at once.
+ * This avoids the overhead of handing off each message individually and allows readers to amortize expensive
+ * operations (e.g. writes to an external system) over many messages.
+ * <p/>
+ * Logs that read messages in batches deliver each batch by a single invocation of {@link #read(java.util.List)}
+ * and consider the batch acknowledged once that invocation returns.
+ */
+public interface BatchMessageReader extends MessageReader {
+
+    /**
+     * Processes the given batch of messages in the order in which they were read from the log.
+     * Neither the list nor the messages may be mutated!
+     *
+     * @param messages
+     */
+    public void read(List<Message> messages);
+
+    @Override
+    public default void read(Message message) {
+        read(Collections.singletonList(message));
+    }
+
+}
@@ -0,0 +1,649 @@
+package com.thinkaurelius.titan.diskstorage.log.file;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkaurelius.titan.core.TitanException;
+import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.PermanentBackendException;
+import com.thinkaurelius.titan.diskstorage.ResourceUnavailableException;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
+import com.thinkaurelius.titan.diskstorage.log.*;
+import com.thinkaurelius.titan.diskstorage.log.util.FutureMessage;
+import com.thinkaurelius.titan.diskstorage.log.util.ProcessMessageJob;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayBuffer;
+import com.thinkaurelius.titan.diskstorage.util.time.TimestampProvider;
+import com.thinkaurelius.titan.util.system.BackgroundThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.*;
+
+/**
+ * Implementation of {@link Log} which appends messages to memory-mapped segment files in a local directory.
+ * <p/>
+ * Each segment file has a fixed size (see {@link FileLogManager#LOG_FILE_SEGMENT_SIZE}) and is named by its sequence number.
+ * Messages are appended to the last (active) segment as records of the form
+ * <code>[length][checksum][timestamp][sender id][content]</code> where a length of 0 marks the end of the written records.
+ * The CRC32 checksum covers everything after the header, so that a record which was only partially persisted before a
+ * crash is detected. When the active segment is reopened, it is truncated before its first incomplete record.
+ * When a message does not fit into the active segment, the segment is completed and a new one is started. Completed
+ * segments are deleted once they are older than {@link FileLogManager#LOG_FILE_RETENTION} or when the log exceeds
+ * {@link FileLogManager#LOG_FILE_MAX_SIZE}.
+ * </p>
+ * Messages are synced to disk in batches: either once {@link com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#LOG_SEND_BATCH_SIZE}
+ * messages are pending or after {@link com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#LOG_SEND_DELAY}
+ * has passed. The future returned when adding a message completes once the message has been synced and readers are
+ * notified at the same time, so they never observe messages that could be lost in a crash.
+ * </p>
+ * Registered {@link MessageReader}s are fed by a single reader thread which hands batches of messages to the readers and
+ * waits for all of them to be processed before advancing. The position of identified {@link ReadMarker}s is persisted
+ * in a marker file after each batch. As with {@link com.thinkaurelius.titan.diskstorage.log.kcvs.KCVSLog}, messages may be
+ * read twice after a failure.
+ * </p>
+ * Since messages are written to a single sequence of segments, the partitioning key provided in {@link #add(StaticBuffer, StaticBuffer)}
+ * is ignored and messages are always read in the order they were added.
+ */
+public class FileLog implements Log {
+
+    private static final Logger log = LoggerFactory.getLogger(FileLog.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String MARKER_SUFFIX = ".marker";
+
+    /**
+     * Size of the length and checksum prefix of each record
+     */
+    private static final int HEADER_LENGTH = 8;
+    /**
+     * Wait time after close() is called for the sync and reader threads to finish.
+     */
+    private final static Duration CLOSE_DOWN_WAIT = Duration.ofSeconds(10L);
+
+    private final String name;
+    private final FileLogManager manager;
+    private final File directory;
+    private final TimestampProvider times;
+    private final byte[] senderId;
+
+    private final int segmentSize;
+    private final Duration retention;
+    private final long maxSize;
+
+    private final int syncBatchSize;
+    private final Duration maxSyncDelay;
+
+    private final int numReadThreads;
+    private final int maxReadMsg;
+    private final Duration readInterval;
+
+    /**
+     * All segments of this log ordered by their sequence number. The last one is the active segment.
+     */
+    private final ConcurrentNavigableMap<Long,Segment> segments;
+    /**
+     * Segment messages are appended to. Guarded by this log's monitor.
+     */
+    private Segment active;
+    /**
+     * Messages which have been written but not yet synced to disk. Guarded by this log's monitor.
+     */
+    private final List<FutureMessage<FileMessage>> unsynced;
+    /**
+     * Background thread which periodically syncs written messages, null if every message is synced immediately
+     */
+    private final SyncThread syncThread;
+
+    /**
+     * Readers are notified through this monitor when new messages have been synced
+     */
+    private final Object readSignal = new Object();
+    private final List<MessageReader> readers;
+    private ReadMarker readMarker;
+    private ExecutorService readExecutor;
+    private ReaderThread readerThread;
+
+    private volatile boolean isOpen;
+
+    public FileLog(String name, FileLogManager manager, File directory, Configuration config) throws BackendException {
+        Preconditions.checkArgument(name!=null && manager!=null && directory!=null && config!=null);
+        this.name = name;
+        this.manager = manager;
+        this.directory = directory;
+        this.times = config.get(TIMESTAMP_PROVIDER);
+        this.senderId = manager.senderId.getBytes(StandardCharsets.UTF_8);
+
+        this.segmentSize = config.get(FileLogManager.LOG_FILE_SEGMENT_SIZE);
+        this.retention = config.get(FileLogManager.LOG_FILE_RETENTION);
+        this.maxSize = config.get(FileLogManager.LOG_FILE_MAX_SIZE);
+
+        this.syncBatchSize = config.get(LOG_SEND_BATCH_SIZE);
+        this.maxSyncDelay = config.get(LOG_SEND_DELAY);
+
+        this.numReadThreads = config.get(LOG_READ_THREADS);
+        this.maxReadMsg = config.get(LOG_READ_BATCH_SIZE);
+        this.readInterval = config.get(LOG_READ_INTERVAL);
+
+        this.segments = new ConcurrentSkipListMap<Long, Segment>();
+        this.unsynced = new ArrayList<FutureMessage<FileMessage>>();
+        this.readers = new CopyOnWriteArrayList<MessageReader>();
+
+        try {
+            File[] files = directory.listFiles((dir, fileName) -> fileName.endsWith(SEGMENT_SUFFIX));
+            for (File file : files) {
+                long id = Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length()));
+                segments.put(id, new Segment(id, file));
+            }
+            if (segments.isEmpty()) {
+                active = createSegment(0);
+            } else {
+                active = segments.lastEntry().getValue();
+                active.openForWriting();
+                for (Segment segment : segments.headMap(active.id).values()) segment.sealed = true;
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new PermanentBackendException("Could not open segment files of log: " + name, e);
+        }
+        applyRetention();
+
+        if (maxSyncDelay.isZero()) {
+            syncThread = null;
+        } else {
+            syncThread = new SyncThread();
+            syncThread.start();
+        }
+        this.isOpen = true;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * ###################################
+     *  Message Writing
+     * ###################################
+     */
+
+    @Override
+    public Future<Message> add(StaticBuffer content) {
+        ResourceUnavailableException.verifyOpen(isOpen,"Log",name);
+        Preconditions.checkArgument(content!=null && content.length()>0,"Content is empty");
+        FileMessage msg = new FileMessage(content, times.getTime(), manager.senderId);
+        FutureMessage<FileMessage> fmsg = new FutureMessage<FileMessage>(msg);
+        final int length = 8 + 4 + senderId.length + content.length();
+        Preconditions.checkArgument(HEADER_LENGTH + length <= segmentSize,
+                "Message of size %s does not fit into a segment of log %s", length, name);
+
+        synchronized (this) {
+            try {
+                if (active.capacity() - active.position < HEADER_LENGTH + length) roll();
+                int pos = active.position;
+                ByteBuffer out = active.duplicate();
+                out.position(pos + HEADER_LENGTH);
+                out.putLong(times.getTime(msg.getTimestamp()));
+                out.putInt(senderId.length);
+                out.put(senderId);
+                out.put(content.asByteBuffer());
+                out.putInt(pos + 4, Segment.checksum(out, pos + HEADER_LENGTH, length));
+                //Write the length last so that a partially written record is never considered complete
+                out.putInt(pos, length);
+                active.position = pos + HEADER_LENGTH + length;
+            } catch (IOException e) {
+                TitanException te = new TitanException("Could not write message to log: " + name, e);
+                fmsg.failed(te);
+                throw te;
+            }
+            unsynced.add(fmsg);
+            log.debug("Appended {} to log {}", msg, name);
+            if (syncThread==null || unsynced.size()>=syncBatchSize) sync();
+        }
+        return fmsg;
+    }
+
+    @Override
+    public Future<Message> add(StaticBuffer content, StaticBuffer key) {
+        return add(content);
+    }
+
+    /**
+     * Forces all written messages to disk, completes their futures, and notifies the reader.
+     */
+    private synchronized void sync() {
+        if (unsynced.isEmpty()) return;
+        try {
+            active.force();
+        } catch (RuntimeException e) {
+            for (FutureMessage<FileMessage> msg : unsynced) msg.failed(e);
+            unsynced.clear();
+            throw e;
+        }
+        active.durable = active.position;
+        for (FutureMessage<FileMessage> msg : unsynced) msg.delivered();
+        log.debug("Synced {} messages in log {}", unsynced.size(), name);
+        unsynced.clear();
+        signalReader();
+    }
+
+    /**
+     * Completes the active segment and starts a new one.
+     */
+    private synchronized void roll() throws IOException {
+        sync();
+        Segment completed = active;
+        active = createSegment(completed.id + 1);
+        completed.sealed = true;
+        if (!completed.file.setLastModified(System.currentTimeMillis()))
+            log.debug("Could not update modification time of segment {}", completed.file);
+        applyRetention();
+        signalReader();
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Segment segment = new Segment(id, new File(directory, String.format("%020d%s", id, SEGMENT_SUFFIX)));
+        segment.create(segmentSize);
+        segments.put(id, segment);
+        log.debug("Created segment {} for log {}", segment.file, name);
+        return segment;
+    }
+
+    /**
+     * Deletes the oldest completed segments which are past the retention time or exceed the maximum size of the log.
+     */
+    private synchronized void applyRetention() {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        long totalSize = 0;
+        for (Segment segment : segments.values()) totalSize += segment.file.length();
+        for (Segment segment : segments.values()) {
+            if (segment==active) break;
+            boolean expired = segment.file.lastModified() < cutoff;
+            boolean oversized = maxSize > 0 && totalSize > maxSize;
+            if (!expired && !oversized) break;
+            long size = segment.file.length();
+            segments.remove(segment.id);
+            if (segment.file.delete()) {
+                totalSize -= size;
+                log.debug("Deleted segment {} of log {}", segment.file, name);
+            } else {
+                log.warn("Could not delete segment {} of log {}", segment.file, name);
+            }
+        }
+    }
+
+    private void signalReader() {
+        synchronized (readSignal) {
+            readSignal.notifyAll();
+        }
+    }
+
+    /**
+     * This background thread only gets started when messages are synced in batches. It periodically
+     * syncs all messages that were written since the last sync.
+     */
+    private class SyncThread extends BackgroundThread {
+
+        public SyncThread() {
+            super("FileLogSync" + name, false);
+        }
+
+        @Override
+        protected void waitCondition() throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(maxSyncDelay.toNanos());
+        }
+
+        @Override
+        protected void action() {
+            sync();
+        }
+
+        @Override
+        protected void cleanup() {
+            sync();
+        }
+    }
+
+    /**
+     * ###################################
+     *  Message Reading
+     * ###################################
+     */
+
+    @Override
+    public synchronized void registerReader(ReadMarker readMarker, MessageReader... reader) {
+        Preconditions.checkArgument(reader!=null && reader.length>0,"Must specify at least one reader");
+        registerReaders(readMarker,Arrays.asList(reader));
+    }
+
+    @Override
+    public synchronized void registerReaders(ReadMarker readMarker, Iterable<MessageReader> readers) {
+        ResourceUnavailableException.verifyOpen(isOpen,"Log",name);
+        Preconditions.checkArgument(!Iterables.isEmpty(readers),"Must specify at least one reader");
+        Preconditions.checkArgument(readMarker!=null,"Read marker cannot be null");
+        Preconditions.checkArgument(this.readMarker==null || this.readMarker.isCompatible(readMarker),
+                "Provided read marker is not compatible with existing read marker for previously registered readers");
+        if (this.readMarker==null) this.readMarker=readMarker;
+        boolean firstRegistration = this.readers.isEmpty();
+        for (MessageReader reader : readers) {
+            Preconditions.checkNotNull(reader);
+            if (!this.readers.contains(reader)) this.readers.add(reader);
+        }
+        if (firstRegistration && !this.readers.isEmpty()) {
+            readExecutor = Executors.newFixedThreadPool(numReadThreads, new ThreadFactoryBuilder()
+                    .setDaemon(true).setNameFormat("FileLogReader" + name + "-%d").build());
+            readerThread = new ReaderThread();
+            readerThread.start();
+        }
+    }
+
+    @Override
+    public synchronized boolean unregisterReader(MessageReader reader) {
+        ResourceUnavailableException.verifyOpen(isOpen,"Log",name);
+        return this.readers.remove(reader);
+    }
+
+    /**
+     * Thread which reads the messages from the segments in order and hands them to the registered readers in batches.
+     * The read position only advances once all readers have processed a batch.
+     */
+    private class ReaderThread extends BackgroundThread {
+
+        /**
+         * Messages before this time are skipped, null if all messages are read
+         */
+        private final Instant startTime;
+        private final File markerFile;
+
+        //Position up to which all messages have been processed
+        private long segmentId;
+        private int offset;
+        //Position after the last message read in the current batch
+        private long nextSegmentId;
+        private int nextOffset;
+
+        private ReaderThread() {
+            super("FileLogRead" + name, false);
+            markerFile = readMarker.hasIdentifier() ? new File(directory, readMarker.getIdentifier() + MARKER_SUFFIX) : null;
+            if (markerFile!=null && markerFile.exists()) {
+                readMarkerFile();
+                startTime = null;
+                log.info("Loaded identified ReadMarker position {}:{} for log {}", segmentId, offset, name);
+            } else if (!readMarker.hasIdentifier() && !readMarker.hasStartTime()) {
+                //Start reading with the first message after now
+                synchronized (FileLog.this) {
+                    segmentId = active.id;
+                    offset = active.durable;
+                }
+                startTime = null;
+            } else {
+                segmentId = segments.firstKey();
+                offset = 0;
+                startTime = readMarker.getStartTime(times);
+                log.info("Reading log {} from start time {}", name, startTime);
+            }
+        }
+
+        @Override
+        protected void waitCondition() throws InterruptedException {
+            synchronized (readSignal) {
+                if (!hasMessages()) readSignal.wait(Math.max(1, readInterval.toMillis()));
+            }
+        }
+
+        @Override
+        protected void action() {
+            List<Message> messages;
+            try {
+                messages = readBatch();
+            } catch (IOException e) {
+                log.warn("Could not read messages from log " + name + " (this read will be retried)", e);
+                return;
+            }
+            if (!messages.isEmpty()) {
+                List<Message> batch = Collections.unmodifiableList(messages);
+                List<MessageReader> current = new ArrayList<MessageReader>(readers);
+                CountDownLatch acknowledged = new CountDownLatch(current.size());
+                for (MessageReader reader : current) {
+                    readExecutor.submit(new ProcessMessageJob(batch, reader, acknowledged::countDown));
+                }
+                try {
+                    acknowledged.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (segmentId!=nextSegmentId || offset!=nextOffset) {
+                segmentId = nextSegmentId;
+                offset = nextOffset;
+                writeMarkerFile();
+            }
+        }
+
+        @Override
+        protected void cleanup() {
+            writeMarkerFile();
+        }
+
+        private boolean hasMessages() {
+            Segment segment = segments.get(segmentId);
+            if (segment==null || segment.sealed) return true;
+            return offset < segment.durable;
+        }
+
+        private List<Message> readBatch() throws IOException {
+            List<Message> messages = new ArrayList<Message>();
+            nextSegmentId = segmentId;
+            nextOffset = offset;
+            while (messages.size() < maxReadMsg) {
+                Segment segment = segments.get(nextSegmentId);
+                if (segment==null) {
+                    Long next = segments.higherKey(nextSegmentId);
+                    if (next==null) break;
+                    log.warn("Segment {} of log {} was deleted before it was read, continuing with segment {}", nextSegmentId, name, next);
+                    nextSegmentId = next;
+                    nextOffset = 0;
+                    continue;
+                }
+                //Check whether the segment is complete before reading its limit, since all its messages are durable in that case
+                boolean sealed = segment.sealed;
+                ByteBuffer buffer = segment.getBuffer();
+                int limit = sealed ? buffer.capacity() : segment.durable;
+                if (nextOffset + HEADER_LENGTH > limit || buffer.getInt(nextOffset)==0) {
+                    Long next = sealed ? segments.higherKey(nextSegmentId) : null;
+                    if (next==null) break;
+                    nextSegmentId = next;
+                    nextOffset = 0;
+                    continue;
+                }
+                if (!Segment.isValidRecord(buffer, nextOffset, limit)) {
+                    //Only the unsynced tail of a segment can be incomplete after a crash, skip to the next segment
+                    Long next = sealed ? segments.higherKey(nextSegmentId) : null;
+                    if (next==null) break;
+                    log.warn("Skipping corrupt record at offset {} of segment {} in log {}", nextOffset, nextSegmentId, name);
+                    nextSegmentId = next;
+                    nextOffset = 0;
+                    continue;
+                }
+                int length = buffer.getInt(nextOffset);
+                FileMessage message = parseMessage(buffer.duplicate(), nextOffset + HEADER_LENGTH);
+                nextOffset += HEADER_LENGTH + length;
+                if (startTime==null || !message.getTimestamp().isBefore(startTime)) messages.add(message);
+            }
+            return messages;
+        }
+
+        private FileMessage parseMessage(ByteBuffer in, int position) {
+            in.position(position);
+            Instant timestamp = times.getTime(in.getLong());
+            byte[] sender = new byte[in.getInt()];
+            in.get(sender);
+            int contentLength = in.getInt(position - HEADER_LENGTH) - 8 - 4 - sender.length;
+            byte[] content = new byte[contentLength];
+            in.get(content);
+            return new FileMessage(StaticArrayBuffer.of(content), timestamp, new String(sender, StandardCharsets.UTF_8));
+        }
+
+        private void readMarkerFile() {
+            try {
+                ByteBuffer marker = ByteBuffer.wrap(Files.readAllBytes(markerFile.toPath()));
+                segmentId = marker.getLong();
+                offset = marker.getInt();
+            } catch (IOException | RuntimeException e) {
+                throw new TitanException("Could not read marker file: " + markerFile, e);
+            }
+        }
+
+        private void writeMarkerFile() {
+            if (markerFile==null) return;
+            ByteBuffer marker = ByteBuffer.allocate(8 + 4);
+            marker.putLong(segmentId).putInt(offset);
+            File tmp = new File(directory, markerFile.getName() + ".tmp");
+            try {
+                Files.write(tmp.toPath(), marker.array());
+                Files.move(tmp.toPath(), markerFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.error("Could not persist read marker [" + readMarker.getIdentifier() + "] for log [" + name + "]", e);
+            }
+        }
+    }
+
+    /**
+     * Closes the log by syncing all written messages and terminating the sync and reader threads.
+     *
+     * @throws com.thinkaurelius.titan.diskstorage.BackendException
+     */
+    @Override
+    public void close() throws BackendException {
+        synchronized (this) {
+            if (!isOpen) return;
+            isOpen = false;
+        }
+        if (syncThread!=null) syncThread.close(CLOSE_DOWN_WAIT);
+        sync();
+        ReaderThread reader;
+        ExecutorService executor;
+        synchronized (this) {
+            reader = readerThread;
+            executor = readExecutor;
+        }
+        if (reader!=null) {
+            signalReader();
+            reader.close(CLOSE_DOWN_WAIT);
+        }
+        if (executor!=null) executor.shutdown();
+        manager.closedLog(this);
+    }
+
+    /**
+     * A single segment file. Segments other than the active one are only mapped once they are read.
+     */
+    private static class Segment {
+
+        final long id;
+        final File file;
+        private MappedByteBuffer buffer;
+
+        /**
+         * Position after the last written record, only accessed by the writer
+         */
+        int position;
+        /**
+         * Position after the last synced record, readers of the active segment read up to here
+         */
+        volatile int durable;
+        /**
+         * Whether this segment has been completed and no more messages are appended
+         */
+        volatile boolean sealed;
+
+        private Segment(long id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+
+        synchronized void create(int size) throws IOException {
+            buffer = map(file, FileChannel.MapMode.READ_WRITE, size);
+            position = 0;
+            durable = 0;
+        }
+
+        /**
+         * Maps an existing segment for appending and finds the end of its complete records. Anything after that
+         * (e.g. a record that was only partially persisted before a crash) is truncated.
+         */
+        synchronized void openForWriting() throws IOException {
+            buffer = map(file, FileChannel.MapMode.READ_WRITE, file.length());
+            int pos = 0;
+            while (isValidRecord(buffer, pos, buffer.capacity())) {
+                pos += HEADER_LENGTH + buffer.getInt(pos);
+            }
+            if (pos + HEADER_LENGTH <= buffer.capacity() && buffer.getInt(pos)!=0) {
+                log.warn("Truncating incomplete records at offset {} of segment {}", pos, file);
+                for (int i = pos; i < buffer.capacity(); i++) buffer.put(i, (byte) 0);
+                buffer.force();
+            }
+            position = pos;
+            durable = pos;
+        }
+
+        /**
+         * Whether a complete record with a matching checksum starts at the given position and ends before the limit
+         */
+        static boolean isValidRecord(ByteBuffer buffer, int pos, int limit) {
+            if (pos + HEADER_LENGTH > limit) return false;
+            int length = buffer.getInt(pos);
+            if (length <= 0 || length > limit - pos - HEADER_LENGTH) return false;
+            return buffer.getInt(pos + 4) == checksum(buffer, pos + HEADER_LENGTH, length);
+        }
+
+        static int checksum(ByteBuffer buffer, int pos, int length) {
+            ByteBuffer data = buffer.duplicate();
+            data.limit(pos + length).position(pos);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            return (int) crc.getValue();
+        }
+
+        synchronized ByteBuffer getBuffer() throws IOException {
+            if (buffer==null) buffer = map(file, FileChannel.MapMode.READ_ONLY, file.length());
+            return buffer;
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        ByteBuffer duplicate() {
+            return buffer.duplicate();
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        private static MappedByteBuffer map(File file, FileChannel.MapMode mode, long size) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, mode==FileChannel.MapMode.READ_ONLY ? "r" : "rw");
+                 FileChannel channel = raf.getChannel()) {
+                return channel.map(mode, 0, size);
+            }
+        }
+    }
+
+}
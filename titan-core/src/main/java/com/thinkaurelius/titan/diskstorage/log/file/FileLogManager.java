@@ -0,0 +1,122 @@
+package com.thinkaurelius.titan.diskstorage.log.file;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.PermanentBackendException;
+import com.thinkaurelius.titan.diskstorage.configuration.ConfigElement;
+import com.thinkaurelius.titan.diskstorage.configuration.ConfigOption;
+import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
+import com.thinkaurelius.titan.diskstorage.log.Log;
+import com.thinkaurelius.titan.diskstorage.log.LogManager;
+import com.thinkaurelius.titan.graphdb.configuration.PreInitializeConfigOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.*;
+
+/**
+ * Implementation of {@link LogManager} which keeps each log in append-only, memory-mapped segment files in a local
+ * directory. This avoids writing log messages through the storage backend and notifies readers as soon as messages
+ * have been synced to disk instead of polling for them. It is intended for single-node and embedded deployments
+ * where all writers and readers of a log run in the same JVM.
+ * <p/>
+ * Select this implementation for a log by setting its {@link com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#LOG_BACKEND}
+ * to "file", e.g. {@code log.user.backend=file} or {@code log.tx.backend=file}.
+ */
+@PreInitializeConfigOptions
+public class FileLogManager implements LogManager {
+
+    private static final Logger log = LoggerFactory.getLogger(FileLogManager.class);
+
+    public static final ConfigOption<String> LOG_FILE_DIRECTORY = new ConfigOption<String>(LOG_NS,"file-directory",
+            "Directory in which file based logs store their segment files. Defaults to a 'log' sub-directory of the " +
+                    "storage directory",
+            ConfigOption.Type.LOCAL, String.class);
+
+    public static final ConfigOption<Integer> LOG_FILE_SEGMENT_SIZE = new ConfigOption<Integer>(LOG_NS,"file-segment-size",
+            "Size in bytes of each segment file of a file based log. A message must fit into a single segment.",
+            ConfigOption.Type.MASKABLE, 64 * 1024 * 1024, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Duration> LOG_FILE_RETENTION = new ConfigOption<>(LOG_NS,"file-retention",
+            "Time after which completed segment files of a file based log are deleted",
+            ConfigOption.Type.MASKABLE, Duration.ofDays(7));
+
+    public static final ConfigOption<Long> LOG_FILE_MAX_SIZE = new ConfigOption<Long>(LOG_NS,"file-max-size",
+            "Maximum total size in bytes of the segment files of a file based log. The oldest completed segments are " +
+                    "deleted when this size is exceeded. Set to 0 to only retain segments by time.",
+            ConfigOption.Type.MASKABLE, 0L);
+
+    /**
+     * Configuration of this log manager
+     */
+    final Configuration configuration;
+    /**
+     * Id which uniquely identifies this instance. Also see {@link com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#UNIQUE_INSTANCE_ID}.
+     */
+    final String senderId;
+    /**
+     * Root directory under which each log has its own sub-directory
+     */
+    final File directory;
+
+    /**
+     * Keeps track of all open logs
+     */
+    private final Map<String,FileLog> openLogs;
+
+    public FileLogManager(final Configuration config) {
+        Preconditions.checkArgument(config!=null);
+        this.configuration = config;
+        this.senderId = config.get(UNIQUE_INSTANCE_ID);
+        Preconditions.checkNotNull(senderId);
+
+        String dir;
+        if (config.has(LOG_FILE_DIRECTORY)) dir = config.get(LOG_FILE_DIRECTORY);
+        else {
+            Preconditions.checkArgument(config.has(STORAGE_DIRECTORY),
+                    "Need to configure either [%s] or [%s] for file based logs",
+                    ConfigElement.getPath(LOG_FILE_DIRECTORY), ConfigElement.getPath(STORAGE_DIRECTORY));
+            dir = config.get(STORAGE_DIRECTORY) + File.separator + "log";
+        }
+        this.directory = new File(dir);
+        this.openLogs = new HashMap<String, FileLog>();
+    }
+
+    @Override
+    public synchronized Log openLog(final String name) throws BackendException {
+        if (openLogs.containsKey(name)) return openLogs.get(name);
+        File logDirectory = new File(directory, name);
+        if (!logDirectory.exists() && !logDirectory.mkdirs())
+            throw new PermanentBackendException("Could not create log directory: " + logDirectory);
+        FileLog fileLog = new FileLog(name, this, logDirectory, configuration);
+        openLogs.put(name, fileLog);
+        return fileLog;
+    }
+
+    /**
+     * Must be triggered by a particular {@link FileLog} when it is closed so that this log can be removed from the list
+     * of open logs.
+     * @param fileLog
+     */
+    synchronized void closedLog(FileLog fileLog) {
+        FileLog l = openLogs.remove(fileLog.getName());
+        assert l==fileLog;
+    }
+
+    @Override
+    public synchronized void close() throws BackendException {
+        /* Copying the map is necessary to avoid ConcurrentModificationException.
+         * The path to ConcurrentModificationException in the absence of a copy is
+         * log.close() -> manager.closedLog(log) -> openLogs.remove(log.getName()).
+         */
+        for (FileLog fileLog : new ArrayList<FileLog>(openLogs.values())) fileLog.close();
+        log.debug("Closed file log manager for directory {}", directory);
+    }
+
+}
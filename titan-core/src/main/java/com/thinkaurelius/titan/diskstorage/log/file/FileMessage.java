@@ -0,0 +1,16 @@
+package com.thinkaurelius.titan.diskstorage.log.file;
+
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.log.util.AbstractMessage;
+
+import java.time.Instant;
+
+/**
+ * Implementation of {@link AbstractMessage} for {@link FileLog}.
+ */
+public class FileMessage extends AbstractMessage {
+
+    public FileMessage(StaticBuffer payload, Instant timestamp, String senderId) {
+        super(payload, timestamp, senderId);
+    }
+}
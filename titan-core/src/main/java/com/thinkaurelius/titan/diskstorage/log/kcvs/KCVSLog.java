@@ -28,6 +28,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -53,9 +54,12 @@ import java.util.concurrent.atomic.AtomicLong;
  * When {@link MessageReader} are registered, one reader thread per partition id and bucket is created which periodically (as configured) checks for
  * new messages in the storage backend and invokes the reader. </br>
  * Read-markers are maintained (for each partition-id & bucket id combination) under a dedicated key in the same {@link KeyColumnValueStoreManager} as the
- * log messages. The read markers are updated to the current position before each new iteration of reading messages from the log. If the system fails
- * while reading a batch of messages, a subsequently restarted log reader may therefore read messages twice. Hence, {@link MessageReader} implementations
- * should exhibit correct behavior for the (rare) circumstance that messages are read twice.
+ * log messages. All messages read by one reader thread in one iteration are handed to each {@link MessageReader} as a single batch (see
+ * {@link BatchMessageReader}). A reader thread does not read the next batch until all readers have acknowledged the previous one, which
+ * bounds the number of messages waiting to be processed and pauses reading when readers fall behind. The read markers are only advanced past
+ * a batch once it has been acknowledged. If the system fails while processing a batch of messages, a subsequently restarted log reader
+ * may therefore read messages twice. Hence, {@link MessageReader} implementations should exhibit correct behavior for the (rare)
+ * circumstance that messages are read twice.
  *
  * Note: All time values in this class are in mircoseconds. Hence, there are many cases where milliseconds are converted to microseconds.
  *
@@ -255,7 +259,7 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
 
         this.numMsgCounter = new AtomicLong(readSetting(manager.senderId, MESSAGE_COUNTER_COLUMN, 0));
         this.numBucketCounter = new AtomicLong(0);
-        this.readers = new ArrayList<MessageReader>();
+        this.readers = new CopyOnWriteArrayList<MessageReader>();
         this.isOpen = true;
     }
 
@@ -643,6 +647,10 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
         private final int partitionId;
 
         private Instant messageTimeStart;
+        /**
+         * Number of submitted batch jobs which have not yet been acknowledged by their reader
+         */
+        private final AtomicInteger pendingJobs = new AtomicInteger(0);
 
         private MessagePuller(final int partitionId, final int bucketId) {
             this.bucketId = bucketId;
@@ -652,7 +660,12 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
 
         @Override
         public void run() {
+            if (pendingJobs.get()>0) {
+                log.debug("Readers have not yet processed previous batch on partition {} and bucket {}, pausing", partitionId, bucketId);
+                return;
+            }
             try {
+                //All previously read messages have been processed, hence it is safe to persist the read marker
                 if (allowReadMarkerRecovery) setReadMarker();
 
                 final int timeslice = getTimeSlice(messageTimeStart);
@@ -701,7 +714,7 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
                 log.trace("Converted MessagePuller time window to {}", query);
 
                 List<Entry> entries= BackendOperation.execute(getOperation(query),KCVSLog.this,times,maxReadTime);
-                prepareMessageProcessing(entries);
+                List<Message> messages = parseMessages(entries);
                 if (entries.size()>=maxReadMsg) {
                     /*Read another set of messages to ensure that we have exhausted all messages to the next timestamp.
                     Since we have reached the request limit, it may be possible that there are additional messages
@@ -714,8 +727,9 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
                     query = new KeySliceQuery(logKey, BufferUtil.nextBiggerBuffer(lastEntry.getColumn()), BufferUtil.getLongBuffer(times.getTime(messageTimeEnd)));
                     log.debug("Converted extended MessagePuller time window to {}", query);
                     List<Entry> extraEntries = BackendOperation.execute(getOperation(query),KCVSLog.this,times,maxReadTime);
-                    prepareMessageProcessing(extraEntries);
+                    messages.addAll(parseMessages(extraEntries));
                 }
+                submitMessages(messages);
                 messageTimeStart = messageTimeEnd;
             } catch (Throwable e) {
                 log.warn("Could not read messages for timestamp ["+messageTimeStart+"] (this read will be retried)",e);
@@ -735,13 +749,23 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
             }
         }
 
-        private void prepareMessageProcessing(List<Entry> entries) {
+        private List<Message> parseMessages(List<Entry> entries) {
+            List<Message> messages = new ArrayList<Message>(entries.size());
             for (Entry entry : entries) {
                 KCVSMessage message = parseMessage(entry);
-                log.debug("Parsed message {}, about to submit this message to the reader executor", message);
-                for (MessageReader reader : readers) {
-                    readExecutor.submit(new ProcessMessageJob(message,reader));
-                }
+                log.debug("Parsed message {}", message);
+                messages.add(message);
+            }
+            return messages;
+        }
+
+        private void submitMessages(List<Message> messages) {
+            if (messages.isEmpty()) return;
+            List<Message> batch = Collections.unmodifiableList(messages);
+            log.debug("Submitting batch of {} messages to the reader executor", batch.size());
+            for (MessageReader reader : readers) {
+                pendingJobs.incrementAndGet();
+                readExecutor.submit(new ProcessMessageJob(batch,reader,pendingJobs::decrementAndGet));
             }
         }
 
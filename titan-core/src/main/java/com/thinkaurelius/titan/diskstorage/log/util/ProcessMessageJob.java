@@ -1,14 +1,22 @@
 package com.thinkaurelius.titan.diskstorage.log.util;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.thinkaurelius.titan.diskstorage.log.BatchMessageReader;
 import com.thinkaurelius.titan.diskstorage.log.Message;
 import com.thinkaurelius.titan.diskstorage.log.MessageReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * Helper class for processing read messages with the registered message readers.
  * Simple implementation of a {@link Runnable}.
+ * <p/>
+ * A job processes a batch of messages in order. {@link BatchMessageReader}s receive the entire batch at once,
+ * all other readers are invoked once per message. The optional completion callback is invoked after the
+ * batch has been processed, regardless of whether the reader failed.
  *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
@@ -16,22 +24,43 @@ public class ProcessMessageJob implements Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessMessageJob.class);
 
-    private final Message message;
+    private final List<Message> messages;
     private final MessageReader reader;
+    private final Runnable onCompletion;
 
     public ProcessMessageJob(final Message message, final MessageReader reader) {
-        Preconditions.checkArgument(message!=null && reader!=null);
-        this.message = message;
+        this(ImmutableList.of(message),reader,null);
+    }
+
+    public ProcessMessageJob(final List<Message> messages, final MessageReader reader, final Runnable onCompletion) {
+        Preconditions.checkArgument(messages!=null && reader!=null);
+        this.messages = messages;
         this.reader = reader;
+        this.onCompletion = onCompletion;
     }
 
     @Override
     public void run() {
         try {
-            log.debug("Passing {} to {}", message, reader);
-            reader.read(message);
-        } catch (Throwable e) {
-            log.error("Encountered exception when processing message ["+message+"] by reader ["+reader+"]:",e);
+            if (reader instanceof BatchMessageReader) {
+                try {
+                    log.debug("Passing batch of {} messages to {}", messages.size(), reader);
+                    ((BatchMessageReader)reader).read(messages);
+                } catch (Throwable e) {
+                    log.error("Encountered exception when processing batch of ["+messages.size()+"] messages by reader ["+reader+"]:",e);
+                }
+            } else {
+                for (Message message : messages) {
+                    try {
+                        log.debug("Passing {} to {}", message, reader);
+                        reader.read(message);
+                    } catch (Throwable e) {
+                        log.error("Encountered exception when processing message ["+message+"] by reader ["+reader+"]:",e);
+                    }
+                }
+            }
+        } finally {
+            if (onCompletion!=null) onCompletion.run();
         }
     }
 }
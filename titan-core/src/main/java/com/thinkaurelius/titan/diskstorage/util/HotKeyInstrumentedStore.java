@@ -0,0 +1,94 @@
+package com.thinkaurelius.titan.diskstorage.util;
+
+import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.Entry;
+import com.thinkaurelius.titan.diskstorage.EntryList;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps a {@link KeyColumnValueStore} and tracks the approximate heaviest keys of the store by
+ * bytes read, number of writes, and number of entries returned per slice in a {@link HotKeySketch} each.
+ *
+ * @see HotKeyInstrumentedStoreManager
+ */
+public class HotKeyInstrumentedStore extends KCVSProxy {
+
+    public enum Measure {
+        READ_BYTES("readBytes"), WRITES("writes"), SLICE_SIZE("sliceSize");
+
+        private final String metricName;
+
+        Measure(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    public static final int SKETCH_WIDTH = 1 << 12;
+
+    private final HotKeySketch[] sketches;
+
+    public HotKeyInstrumentedStore(KeyColumnValueStore store, int topSize) {
+        super(store);
+        sketches = new HotKeySketch[Measure.values().length];
+        for (int i = 0; i < sketches.length; i++) sketches[i] = new HotKeySketch(topSize, SKETCH_WIDTH);
+    }
+
+    public HotKeySketch getSketch(Measure measure) {
+        return sketches[measure.ordinal()];
+    }
+
+    void recordWrite(StaticBuffer key, int numMutations) {
+        getSketch(Measure.WRITES).update(key, numMutations);
+    }
+
+    private void recordRead(StaticBuffer key, EntryList result) {
+        if (result.isEmpty()) return;
+        long bytes;
+        if (result instanceof StaticArrayEntryList) {
+            bytes = ((StaticArrayEntryList) result).getDataLength();
+        } else {
+            bytes = 0;
+            for (Entry entry : result) bytes += entry.length();
+        }
+        getSketch(Measure.READ_BYTES).update(key, bytes);
+        getSketch(Measure.SLICE_SIZE).update(key, result.size());
+    }
+
+    @Override
+    public EntryList getSlice(KeySliceQuery query, StoreTransaction txh) throws BackendException {
+        EntryList result = store.getSlice(query, txh);
+        recordRead(query.getKey(), result);
+        return result;
+    }
+
+    @Override
+    public Map<StaticBuffer, EntryList> getSlice(List<StaticBuffer> keys, SliceQuery query, StoreTransaction txh) throws BackendException {
+        Map<StaticBuffer, EntryList> results = store.getSlice(keys, query, txh);
+        for (Map.Entry<StaticBuffer, EntryList> result : results.entrySet()) recordRead(result.getKey(), result.getValue());
+        return results;
+    }
+
+    @Override
+    public Map<SliceQuery, Map<StaticBuffer, EntryList>> getMultiSlice(List<StaticBuffer> keys, List<SliceQuery> queries, StoreTransaction txh) throws BackendException {
+        Map<SliceQuery, Map<StaticBuffer, EntryList>> results = store.getMultiSlice(keys, queries, txh);
+        for (Map<StaticBuffer, EntryList> queryResults : results.values()) {
+            for (Map.Entry<StaticBuffer, EntryList> result : queryResults.entrySet()) recordRead(result.getKey(), result.getValue());
+        }
+        return results;
+    }
+
+    @Override
+    public void mutate(StaticBuffer key, List<Entry> additions, List<StaticBuffer> deletions, StoreTransaction txh) throws BackendException {
+        store.mutate(key, additions, deletions, txh);
+        recordWrite(key, additions.size() + deletions.size());
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.thinkaurelius.titan.diskstorage.util;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.BaseTransactionConfig;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.StoreMetaData;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.*;
+import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
+import com.thinkaurelius.titan.util.stats.MetricManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps a {@link KeyColumnValueStoreManager} so that all opened stores are {@link HotKeyInstrumentedStore}s and
+ * registers the top keys of each store and {@link HotKeyInstrumentedStore.Measure} as a gauge with the
+ * {@link MetricManager} under the name {@code prefix.hotKeys.[store].[measure]}.
+ * <p/>
+ * The keys of the vertex store are reported as vertex ids, all other keys as their bytes.
+ *
+ * @see com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#METRICS_HOT_KEYS
+ */
+public class HotKeyInstrumentedStoreManager implements KeyColumnValueStoreManager {
+
+    public static final String METRICS_HOT_KEYS = "hotKeys";
+
+    private final KeyColumnValueStoreManager backend;
+    private final String metricsPrefix;
+    private final int topSize;
+    private final String vertexStoreName;
+    private final IDManager idManager;
+
+    private final Map<String, HotKeyInstrumentedStore> stores = new ConcurrentHashMap<>();
+
+    public HotKeyInstrumentedStoreManager(KeyColumnValueStoreManager backend, String metricsPrefix, int topSize,
+                                          String vertexStoreName, IDManager idManager) {
+        Preconditions.checkArgument(backend != null && metricsPrefix != null);
+        Preconditions.checkArgument(topSize > 0, "Invalid top size: %s", topSize);
+        this.backend = backend;
+        this.metricsPrefix = metricsPrefix;
+        this.topSize = topSize;
+        this.vertexStoreName = vertexStoreName;
+        this.idManager = idManager;
+    }
+
+    private static String getMetricName(String prefix, String storeName, HotKeyInstrumentedStore.Measure measure) {
+        return MetricRegistry.name(prefix, METRICS_HOT_KEYS, storeName, measure.getMetricName());
+    }
+
+    @Override
+    public KeyColumnValueStore openDatabase(String name, StoreMetaData.Container metaData) throws BackendException {
+        HotKeyInstrumentedStore store = stores.get(name);
+        if (store != null) return store;
+        store = new HotKeyInstrumentedStore(backend.openDatabase(name, metaData), topSize);
+        HotKeyInstrumentedStore previous = stores.putIfAbsent(name, store);
+        if (previous != null) return previous;
+        MetricRegistry registry = MetricManager.INSTANCE.getRegistry();
+        for (HotKeyInstrumentedStore.Measure measure : HotKeyInstrumentedStore.Measure.values()) {
+            String metricName = getMetricName(metricsPrefix, name, measure);
+            registry.remove(metricName);
+            registry.register(metricName, (Gauge<String>) () -> getHotKeys(name, measure).toString());
+        }
+        return store;
+    }
+
+    /**
+     * Returns the current top keys of the given store for the given measure, heaviest first, as
+     * {@code key=estimate} strings.
+     *
+     * @param storeName
+     * @param measure
+     * @return
+     */
+    public List<String> getHotKeys(String storeName, HotKeyInstrumentedStore.Measure measure) {
+        HotKeyInstrumentedStore store = stores.get(storeName);
+        Preconditions.checkArgument(store != null, "Unknown store: %s", storeName);
+        List<Map.Entry<StaticBuffer, Long>> top = store.getSketch(measure).getTop();
+        List<String> result = new ArrayList<>(top.size());
+        for (Map.Entry<StaticBuffer, Long> entry : top) {
+            result.add(formatKey(storeName, entry.getKey()) + "=" + entry.getValue());
+        }
+        return result;
+    }
+
+    private String formatKey(String storeName, StaticBuffer key) {
+        if (idManager != null && storeName.equals(vertexStoreName) && key.length() == 8) {
+            try {
+                return String.valueOf(idManager.getKeyID(key));
+            } catch (RuntimeException e) {
+                //Not a valid vertex key, report as bytes
+            }
+        }
+        return key.toString();
+    }
+
+    @Override
+    public void mutateMany(Map<String, Map<StaticBuffer, KCVMutation>> mutations, StoreTransaction txh) throws BackendException {
+        backend.mutateMany(mutations, txh);
+        for (Map.Entry<String, Map<StaticBuffer, KCVMutation>> storeMutations : mutations.entrySet()) {
+            HotKeyInstrumentedStore store = stores.get(storeMutations.getKey());
+            if (store == null) continue;
+            for (Map.Entry<StaticBuffer, KCVMutation> mutation : storeMutations.getValue().entrySet()) {
+                store.recordWrite(mutation.getKey(), mutation.getValue().getTotalMutations());
+            }
+        }
+    }
+
+    @Override
+    public StoreTransaction beginTransaction(BaseTransactionConfig config) throws BackendException {
+        return backend.beginTransaction(config);
+    }
+
+    @Override
+    public void close() throws BackendException {
+        try {
+            backend.close();
+        } finally {
+            MetricRegistry registry = MetricManager.INSTANCE.getRegistry();
+            for (String storeName : stores.keySet()) {
+                for (HotKeyInstrumentedStore.Measure measure : HotKeyInstrumentedStore.Measure.values())
+                    registry.remove(getMetricName(metricsPrefix, storeName, measure));
+            }
+            stores.clear();
+        }
+    }
+
+    @Override
+    public void clearStorage() throws BackendException {
+        backend.clearStorage();
+        for (HotKeyInstrumentedStore store : stores.values()) {
+            for (HotKeyInstrumentedStore.Measure measure : HotKeyInstrumentedStore.Measure.values())
+                store.getSketch(measure).clear();
+        }
+    }
+
+    @Override
+    public StoreFeatures getFeatures() {
+        return backend.getFeatures();
+    }
+
+    @Override
+    public String getName() {
+        return backend.getName();
+    }
+
+    @Override
+    public List<KeyRange> getLocalKeyPartition() throws BackendException {
+        return backend.getLocalKeyPartition();
+    }
+}
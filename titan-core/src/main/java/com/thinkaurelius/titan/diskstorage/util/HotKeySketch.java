@@ -0,0 +1,104 @@
+package com.thinkaurelius.titan.diskstorage.util;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks the approximate top-k heaviest keys of a stream of weighted key observations in constant memory.
+ * <p/>
+ * Weights are accumulated in a Count-Min sketch which never underestimates the total weight of a key and overestimates
+ * it by at most {@code e/width} of the total weight observed with high probability. A key whose estimate exceeds the
+ * smallest estimate in the current top list replaces that entry. Updating the sketch is lock-free; the top list is
+ * only locked for keys that are heavy enough to enter it.
+ */
+public class HotKeySketch {
+
+    private static final int DEPTH = 4;
+
+    private final int topSize;
+    private final int mask;
+    private final AtomicLongArray counts;
+
+    private final Map<StaticBuffer, Long> top;
+    private volatile long minTop = 0;
+
+    public HotKeySketch(int topSize, int width) {
+        Preconditions.checkArgument(topSize > 0, "Invalid top size: %s", topSize);
+        Preconditions.checkArgument(width > 0 && Integer.bitCount(width) == 1, "Width must be a power of 2: %s", width);
+        this.topSize = topSize;
+        this.mask = width - 1;
+        this.counts = new AtomicLongArray(DEPTH * width);
+        this.top = new HashMap<>(topSize * 2);
+    }
+
+    /**
+     * Adds the given weight to the key
+     *
+     * @param key
+     * @param weight
+     */
+    public void update(StaticBuffer key, long weight) {
+        if (weight <= 0) return;
+        int h1 = key.hashCode();
+        int h2 = Integer.rotateLeft(h1 * 0x9E3779B9, 16) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int pos = i * (mask + 1) + ((h1 + i * h2) & mask);
+            estimate = Math.min(estimate, counts.addAndGet(pos, weight));
+        }
+        if (estimate > minTop) offer(key, estimate);
+    }
+
+    private synchronized void offer(StaticBuffer key, long estimate) {
+        Long previous = top.get(key);
+        if (previous != null) {
+            top.put(key, Math.max(previous, estimate));
+            if (previous == minTop && top.size() >= topSize) minTop = computeMin();
+            return;
+        }
+        if (top.size() >= topSize) {
+            if (estimate <= minTop) return;
+            StaticBuffer minKey = null;
+            long min = Long.MAX_VALUE;
+            for (Map.Entry<StaticBuffer, Long> entry : top.entrySet()) {
+                if (entry.getValue() < min) {
+                    min = entry.getValue();
+                    minKey = entry.getKey();
+                }
+            }
+            top.remove(minKey);
+        }
+        //Copy the key since it might be a slice of a much larger buffer
+        top.put(new StaticArrayBuffer(key.as(StaticBuffer.ARRAY_FACTORY)), estimate);
+        if (top.size() >= topSize) minTop = computeMin();
+    }
+
+    private long computeMin() {
+        long min = Long.MAX_VALUE;
+        for (Long value : top.values()) min = Math.min(min, value);
+        return min;
+    }
+
+    /**
+     * Returns the current top keys with their estimated weights, heaviest first
+     *
+     * @return
+     */
+    public synchronized List<Map.Entry<StaticBuffer, Long>> getTop() {
+        List<Map.Entry<StaticBuffer, Long>> result = new ArrayList<>(top.size());
+        for (Map.Entry<StaticBuffer, Long> entry : top.entrySet())
+            result.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+        result.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return result;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        top.clear();
+        minTop = 0;
+    }
+
+}
@@ -115,6 +115,26 @@ public class MetricInstrumentedStore implements KeyColumnValueStore {
         );
     }
 
+    @Override
+    public Map<SliceQuery,Map<StaticBuffer,EntryList>> getMultiSlice(final List<StaticBuffer> keys,
+                                      final List<SliceQuery> queries,
+                                      final StoreTransaction txh) throws BackendException {
+        return runWithMetrics(txh, metricsStoreName, M_GET_SLICE,
+            new StorageCallable<Map<SliceQuery,Map<StaticBuffer,EntryList>>>() {
+                public Map<SliceQuery,Map<StaticBuffer,EntryList>> call() throws BackendException {
+                    Map<SliceQuery,Map<StaticBuffer,EntryList>> results = backend.getMultiSlice(keys, queries, txh);
+
+                    for (Map<StaticBuffer,EntryList> queryResults : results.values()) {
+                        for (EntryList result : queryResults.values()) {
+                            recordSliceMetrics(txh, result);
+                        }
+                    }
+                    return results;
+                }
+            }
+        );
+    }
+
     @Override
     public void mutate(final StaticBuffer key,
                        final List<Entry> additions,
@@ -0,0 +1,180 @@
+package com.thinkaurelius.titan.diskstorage.util;
+
+import com.thinkaurelius.titan.diskstorage.Entry;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the storage and index backend reads caused by a single query.
+ * <p/>
+ * An accounting is activated for the current thread with {@link #open()} and remains the target of all reads recorded
+ * through {@link #current()} until it is closed. Accountings nest: when an accounting is closed, its counts are added
+ * to the accounting that was active when it was opened so that outer queries include the reads of nested queries.
+ * Reads executed on other threads on behalf of a query can be attributed to it with {@link #attach(QueryAccounting)}.
+ * <p/>
+ * Counting is always on and only costs a few field updates per backend call.
+ */
+public class QueryAccounting {
+
+    private static final ThreadLocal<QueryAccounting> CURRENT = new ThreadLocal<>();
+
+    private final QueryAccounting previous;
+
+    private long slices;
+    private long keys;
+    private long entries;
+    private long bytes;
+    private long cacheRetrievals;
+    private long cacheMisses;
+    private long indexCalls;
+
+    private QueryAccounting(QueryAccounting previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Opens a new accounting and makes it the active accounting of the current thread.
+     *
+     * @return
+     */
+    public static QueryAccounting open() {
+        QueryAccounting accounting = new QueryAccounting(CURRENT.get());
+        CURRENT.set(accounting);
+        return accounting;
+    }
+
+    /**
+     * Returns the active accounting of the current thread or null if no query is being accounted for.
+     *
+     * @return
+     */
+    public static QueryAccounting current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes the given accounting the active accounting of the current thread and returns the previously active one,
+     * which must be restored with {@link #detach(QueryAccounting)}.
+     *
+     * @param accounting
+     * @return
+     */
+    public static QueryAccounting attach(QueryAccounting accounting) {
+        QueryAccounting previous = CURRENT.get();
+        CURRENT.set(accounting);
+        return previous;
+    }
+
+    public static void detach(QueryAccounting previous) {
+        if (previous == null) CURRENT.remove();
+        else CURRENT.set(previous);
+    }
+
+    /**
+     * Deactivates this accounting, restores the previously active one and adds the counts of this accounting to it.
+     */
+    public void close() {
+        if (CURRENT.get() == this) detach(previous);
+        if (previous != null) previous.add(this);
+    }
+
+    private synchronized void add(QueryAccounting other) {
+        slices += other.slices;
+        keys += other.keys;
+        entries += other.entries;
+        bytes += other.bytes;
+        cacheRetrievals += other.cacheRetrievals;
+        cacheMisses += other.cacheMisses;
+        indexCalls += other.indexCalls;
+    }
+
+    // ---- Recording ----
+
+    /**
+     * Records a slice query against the given number of keys which returned the given entry lists.
+     *
+     * @param numKeys
+     * @param results
+     */
+    public synchronized void recordSlices(int numKeys, Collection<? extends Collection<Entry>> results) {
+        slices += numKeys;
+        keys += numKeys;
+        for (Collection<Entry> result : results) recordEntries(result);
+    }
+
+    public synchronized void recordSlice(Collection<Entry> result) {
+        slices++;
+        keys++;
+        recordEntries(result);
+    }
+
+    public synchronized void recordIndexCall(int numResults) {
+        indexCalls++;
+        entries += numResults;
+    }
+
+    public synchronized void recordCache(CacheMetricsAction action, int by) {
+        if (action == CacheMetricsAction.RETRIEVAL) cacheRetrievals += by;
+        else if (action == CacheMetricsAction.MISS) cacheMisses += by;
+    }
+
+    private void recordEntries(Collection<Entry> result) {
+        entries += result.size();
+        if (result.isEmpty()) return;
+        if (result instanceof StaticArrayEntryList) {
+            bytes += ((StaticArrayEntryList) result).getDataLength();
+        } else {
+            for (Entry entry : result) bytes += entry.length();
+        }
+    }
+
+    // ---- Counts ----
+
+    public synchronized long getSlices() {
+        return slices;
+    }
+
+    public synchronized long getKeys() {
+        return keys;
+    }
+
+    public synchronized long getEntries() {
+        return entries;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getCacheHits() {
+        return Math.max(0, cacheRetrievals - cacheMisses);
+    }
+
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public synchronized long getIndexCalls() {
+        return indexCalls;
+    }
+
+    public synchronized Map<String, Long> asMap() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("slices", slices);
+        counts.put("keys", keys);
+        counts.put("entries", entries);
+        counts.put("bytes", bytes);
+        counts.put("cache-hits", getCacheHits());
+        counts.put("cache-misses", cacheMisses);
+        counts.put("index-calls", indexCalls);
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+}
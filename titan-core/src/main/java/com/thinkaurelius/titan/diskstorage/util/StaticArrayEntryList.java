@@ -75,12 +75,32 @@ public class StaticArrayEntryList extends AbstractList<Entry> implements EntryLi
         return limitAndValuePos.length;
     }
 
+    /**
+     * Returns the number of bytes of serialized entry data in this list
+     *
+     * @return
+     */
+    public int getDataLength() {
+        return getLimit(limitAndValuePos[limitAndValuePos.length-1]);
+    }
+
+    /**
+     * Includes the decoded {@link RelationCache}s attached to the entries of this list. Entries which have not been
+     * decoded yet are accounted for with {@link RelationCache#ESTIMATED_BYTE_SIZE} since entries are typically decoded
+     * once they are read.
+     *
+     * @return
+     */
     @Override
     public int getByteSize() {
+        int cacheSize = 0;
+        for (RelationCache cache : caches) {
+            cacheSize += 8 + (cache == null ? RelationCache.ESTIMATED_BYTE_SIZE : cache.getByteSize());
+        }
         return  16 + 3*8 // object
                 + data.length + 16 // data
                 + limitAndValuePos.length*8 + 16 // limitAndValuePos;
-                + caches.length*(40) + 16; // caches
+                + cacheSize + 16; // caches
     }
 
     private class StaticEntry extends BaseStaticArrayEntry {
@@ -177,6 +177,37 @@ public class GraphDatabaseConfiguration {
             "How the graph computer should return the computed results. 'persist' for writing them into the graph, " +
                     "'localtx' for writing them into the local transaction, or 'none' (default)", ConfigOption.Type.MASKABLE, "none");
 
+    public static final ConfigOption<Boolean> COMPUTER_SNAPSHOT = new ConfigOption<Boolean>(COMPUTER_NS,"snapshot",
+            "Whether the graph computer should keep the adjacency it reads in an iteration of a vertex program in a compact " +
+                    "in-memory snapshot and execute subsequent iterations which need the same data against that snapshot " +
+                    "instead of scanning the storage backend again", ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Long> COMPUTER_SNAPSHOT_SIZE = new ConfigOption<Long>(COMPUTER_NS,"snapshot-size",
+            "Maximum size in bytes of the adjacency snapshot of the graph computer. If the graph does not fit, " +
+                    "all iterations scan the storage backend", ConfigOption.Type.MASKABLE, 512L * 1024 * 1024, ConfigOption.positiveLong());
+
+    public static final ConfigOption<Boolean> COMPUTER_SNAPSHOT_OFFHEAP = new ConfigOption<Boolean>(COMPUTER_NS,"snapshot-off-heap",
+            "Whether the data of the adjacency snapshot of the graph computer is allocated outside of the Java heap",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Integer> COMPUTER_MAP_COMBINE_SIZE = new ConfigOption<Integer>(COMPUTER_NS,"map-combine-size",
+            "Number of values each map worker of the graph computer buffers before it combines them locally " +
+                    "for MapReduce jobs that define a combine stage", ConfigOption.Type.MASKABLE, 10000, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Long> COMPUTER_REDUCE_BUFFER_SIZE = new ConfigOption<Long>(COMPUTER_NS,"reduce-buffer-size",
+            "Maximum number of map output values the graph computer holds in memory for the reduce stage. " +
+                    "Beyond this, values are spilled to temporary files in sorted runs and merged for the reduce stage",
+            ConfigOption.Type.MASKABLE, 10000000L, ConfigOption.positiveLong());
+
+    public static final ConfigOption<Boolean> COMPUTER_BULK_WRITE = new ConfigOption<Boolean>(COMPUTER_NS,"bulk-write",
+            "Whether the graph computer persists the computed vertex properties by writing them directly to the storage " +
+                    "backend in large batches instead of through transactions. Only applies when all compute keys are " +
+                    "single-valued without locking, relation indexes or composite indexes", ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Boolean> COMPUTER_BULK_WRITE_MIXED_INDEXES = new ConfigOption<Boolean>(COMPUTER_NS,"bulk-write-mixed-indexes",
+            "Whether bulk writing of computed vertex properties also updates the mixed indexes on those properties. " +
+                    "If disabled, those indexes need to be reindexed afterwards", ConfigOption.Type.MASKABLE, true);
+
 
     // ################ Transaction #######################
     // ################################################
@@ -194,6 +225,15 @@ public class GraphDatabaseConfiguration {
                     "Must be longer than the maximum allowed write time.",
             ConfigOption.Type.GLOBAL, Duration.ofSeconds(10));
 
+    public static final ConfigOption<Integer> COMMIT_THREADS = new ConfigOption<Integer>(TRANSACTION_NS,"commit-threads",
+            "Number of threads used to serialize the relations of large transactions in parallel when preparing the commit. " +
+                    "A value of 1 serializes all relations on the committing thread.",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> PARALLEL_COMMIT_THRESHOLD = new ConfigOption<Integer>(TRANSACTION_NS,"parallel-commit-threshold",
+            "Minimum number of modified vertices in a transaction for its relations to be serialized in parallel. " +
+                    "Only applies when " + ConfigElement.getPath(COMMIT_THREADS) + " is larger than 1.",
+            ConfigOption.Type.MASKABLE, 1000, ConfigOption.positiveInt());
 
     public static final ConfigNamespace TRANSACTION_RECOVERY_NS = new ConfigNamespace(TRANSACTION_NS,"recovery",
             "Configuration options for transaction recovery processes");
@@ -238,6 +278,35 @@ public class GraphDatabaseConfiguration {
                     "performance improvement if there is a non-trivial latency to the backend.",
             ConfigOption.Type.MASKABLE, false);
 
+    public static final ConfigOption<Integer> MULTIQUERY_BATCH_SIZE = new ConfigOption<Integer>(QUERY_NS,"batch-size",
+            "Maximum number of vertices whose relations or properties are retrieved in a single batch when " +
+                    "query.batch is enabled. Traversal steps batch up to this many of the vertices which are available to them, " +
+                    "including the anticipated next hop inside of repeat() loops.",
+            ConfigOption.Type.MASKABLE, 1000, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> SCAN_THREADS = new ConfigOption<Integer>(QUERY_NS,"scan-threads",
+            "Number of threads used to scan the storage backend when iterating over all vertices in the graph, e.g. for " +
+                    "graph queries that cannot be answered by an index. If larger than 1, the key space is split into this many " +
+                    "ranges which are scanned concurrently and vertices are returned in no particular order. " +
+                    "Only applies to storage backends that support ordered scans.",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Boolean> SCAN_PREFETCH = new ConfigOption<Boolean>(QUERY_NS,"scan-prefetch",
+            "Whether to retrieve all properties of each vertex together with its key when iterating over all vertices " +
+                    "in the graph. This avoids one backend call per vertex when the properties are accessed subsequently, at the " +
+                    "expense of transferring all properties even if they are not needed.",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Duration> SLOW_QUERY_THRESHOLD = new ConfigOption<Duration>(QUERY_NS,"slow-query-threshold",
+            "Backend queries which take longer than this time are logged together with their plan and the number of " +
+                    "slices, entries, bytes, cache hits and index calls they caused. Set to 0 to disable.",
+            ConfigOption.Type.MASKABLE, Duration.ZERO);
+
+    public static final ConfigOption<Long> SLOW_QUERY_ENTRIES = new ConfigOption<Long>(QUERY_NS,"slow-query-entries",
+            "Backend queries which read more than this number of entries from the storage and index backends are logged " +
+                    "as slow queries. Set to 0 to disable.",
+            ConfigOption.Type.MASKABLE, 0L);
+
     // ################ SCHEMA #######################
     // ################################################
 
@@ -267,6 +336,18 @@ public class GraphDatabaseConfiguration {
         put("tp3", Tp3DefaultSchemaMaker.INSTANCE);
     }};
 
+    public static final ConfigOption<Integer> INDEX_JOB_THREADS = new ConfigOption<Integer>(SCHEMA_NS,"index-job-threads",
+            "Number of threads which scan the storage backend and number of threads which process the scanned data " +
+                    "when an index is reindexed or removed",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> INDEX_JOB_RANGES = new ConfigOption<Integer>(SCHEMA_NS,"index-job-ranges",
+            "Number of key ranges the storage backend is split into when an index is reindexed or removed. By default, " +
+                    "the backend is scanned as a whole. When set to more than 1, ranges are scanned concurrently and each " +
+                    "completed range is checkpointed, so that an interrupted job resumes with the remaining ranges when " +
+                    "executed again. Only applies to storage backends which support ordered scans.",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
 
     // ################ CACHE #######################
     // ################################################
@@ -882,7 +963,10 @@ public class GraphDatabaseConfiguration {
     public static final Duration TRANSACTION_LOG_DEFAULT_TTL = Duration.ofDays(7);
 
     public static final ConfigOption<String> LOG_BACKEND = new ConfigOption<String>(LOG_NS,"backend",
-            "Define the log backed to use",
+            "Define the log backed to use. The \"file\" backend keeps the log in local files and hence is only " +
+                    "suited for the management and transaction logs when all Titan instances run in the same JVM. With " +
+                    "it, the transaction log records the success of a transaction after its storage commit rather than " +
+                    "atomically with it.",
             ConfigOption.Type.GLOBAL_OFFLINE, "default");
 
     public static final ConfigOption<Integer> LOG_NUM_BUCKETS = new ConfigOption<Integer>(LOG_NS,"num-buckets",
@@ -1005,6 +1089,20 @@ public class GraphDatabaseConfiguration {
 //    public static final String MERGE_BASIC_METRICS_KEY = "merge-basic-metrics";
 //    public static final boolean MERGE_BASIC_METRICS_DEFAULT = true;
 
+    /**
+     * Whether to track the approximate heaviest keys of each store by bytes read, number of writes, and number of
+     * entries returned per slice. The top keys are registered as gauges under {@link #METRICS_PREFIX} and are
+     * hence exposed through JMX and any of the other configured reporters. Keys of the edge store are reported as
+     * vertex ids which makes this useful to identify supernodes and hot partitions.
+     */
+    public static final ConfigOption<Boolean> METRICS_HOT_KEYS = new ConfigOption<Boolean>(METRICS_NS,"hot-keys",
+            "Whether to track the approximate heaviest keys of each store by bytes read, writes and slice size",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Integer> METRICS_HOT_KEYS_SIZE = new ConfigOption<Integer>(METRICS_NS,"hot-keys-size",
+            "The number of heaviest keys to report per store and measurement when hot key tracking is enabled",
+            ConfigOption.Type.MASKABLE, 20, ConfigOption.positiveInt());
+
 
 
     public static final ConfigNamespace METRICS_CONSOLE_NS = new ConfigNamespace(METRICS_NS,"console","Configuration options for metrics reporting to console");
@@ -1301,8 +1399,17 @@ public class GraphDatabaseConfiguration {
     private Boolean propertyPrefetching;
     private boolean adjustQueryLimit;
     private Boolean useMultiQuery;
+    private int multiQueryBatchSize;
+    private int scanThreads;
+    private boolean scanPrefetch;
+    private int indexJobThreads;
+    private int indexJobRanges;
+    private Duration slowQueryThreshold;
+    private long slowQueryEntries;
     private boolean allowVertexIdSetting;
     private boolean logTransactions;
+    private int commitThreads;
+    private int parallelCommitThreshold;
     private String metricsPrefix;
     private String unknownIndexKeyName;
 
@@ -1569,9 +1676,18 @@ public class GraphDatabaseConfiguration {
 
         propertyPrefetching = configuration.get(PROPERTY_PREFETCHING);
         useMultiQuery = configuration.get(USE_MULTIQUERY);
+        multiQueryBatchSize = configuration.get(MULTIQUERY_BATCH_SIZE);
+        scanThreads = configuration.get(SCAN_THREADS);
+        indexJobThreads = configuration.get(INDEX_JOB_THREADS);
+        indexJobRanges = configuration.get(INDEX_JOB_RANGES);
+        scanPrefetch = configuration.get(SCAN_PREFETCH);
+        slowQueryThreshold = configuration.get(SLOW_QUERY_THRESHOLD);
+        slowQueryEntries = configuration.get(SLOW_QUERY_ENTRIES);
         adjustQueryLimit = configuration.get(ADJUST_LIMIT);
         allowVertexIdSetting = configuration.get(ALLOW_SETTING_VERTEX_ID);
         logTransactions = configuration.get(SYSTEM_LOG_TRANSACTIONS);
+        commitThreads = configuration.get(COMMIT_THREADS);
+        parallelCommitThreshold = configuration.get(PARALLEL_COMMIT_THRESHOLD);
 
         unknownIndexKeyName = configuration.get(IGNORE_UNKNOWN_INDEX_FIELD) ? UKNOWN_FIELD_NAME : null;
 
@@ -1723,6 +1839,34 @@ public class GraphDatabaseConfiguration {
         return useMultiQuery;
     }
 
+    public int getMultiQueryBatchSize() {
+        return multiQueryBatchSize;
+    }
+
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    public int getIndexJobThreads() {
+        return indexJobThreads;
+    }
+
+    public int getIndexJobRanges() {
+        return indexJobRanges;
+    }
+
+    public boolean hasScanPrefetching() {
+        return scanPrefetch;
+    }
+
+    public Duration getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    public long getSlowQueryEntries() {
+        return slowQueryEntries;
+    }
+
     public boolean adjustQueryLimit() {
         return adjustQueryLimit;
     }
@@ -1735,6 +1879,14 @@ public class GraphDatabaseConfiguration {
         return logTransactions;
     }
 
+    public int getCommitThreads() {
+        return commitThreads;
+    }
+
+    public int getParallelCommitThreshold() {
+        return parallelCommitThreshold;
+    }
+
     public TimestampProvider getTimestampProvider() {
         return configuration.get(TIMESTAMP_PROVIDER);
     }
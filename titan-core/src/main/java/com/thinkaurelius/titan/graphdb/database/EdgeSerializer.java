@@ -4,6 +4,7 @@ import com.carrotsearch.hppc.LongArrayList;
 import com.carrotsearch.hppc.LongObjectHashMap;
 import com.carrotsearch.hppc.LongHashSet;
 import com.carrotsearch.hppc.LongSet;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
 import com.google.common.base.Preconditions;
 import com.thinkaurelius.titan.core.*;
 import com.thinkaurelius.titan.diskstorage.Entry;
@@ -31,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.function.LongFunction;
 
 import static com.thinkaurelius.titan.graphdb.database.idhandling.IDHandler.DirectionID;
 import static com.thinkaurelius.titan.graphdb.database.idhandling.IDHandler.RelationTypeParse;
@@ -83,6 +85,7 @@ public class EdgeSerializer implements RelationReader {
         RelationType relationType = tx.getExistingRelationType(typeId);
         InternalRelationType def = (InternalRelationType) relationType;
         Multiplicity multiplicity = def.multiplicity();
+        ColumnFormat format = def.getColumnFormat();
         long[] keysig = def.getSortKey();
 
         long relationId;
@@ -100,6 +103,15 @@ public class EdgeSerializer implements RelationReader {
                     in.movePositionTo(data.getValuePosition());
                 }
                 relationId = VariableLong.readPositive(in);
+            } else if (format == ColumnFormat.DENSE) {
+                //The ids are written forward and followed by their combined length
+                int idEndPos = data.getValuePosition() - 1;
+                endKeyPos = idEndPos - VariableLong.unsignedByte(in.getByte(idEndPos));
+                in.movePositionTo(endKeyPos);
+                otherVertexId = VariableLong.readPositive(in);
+                relationId = VariableLong.readPositive(in);
+                assert in.getPosition() == idEndPos;
+                in.movePositionTo(data.getValuePosition());
             } else {
                 in.movePositionTo(data.getValuePosition());
 
@@ -135,13 +147,13 @@ public class EdgeSerializer implements RelationReader {
             in.movePositionTo(startKeyPos);
             ReadBuffer inkey = in;
             if (def.getSortOrder()== Order.DESC) inkey = in.subrange(keyLength,true);
-            readInlineTypes(keysig, properties, inkey, tx, InlineType.KEY);
+            readInlineTypes(keysig, properties, inkey, tx, InlineType.KEY, format);
             in.movePositionTo(currentPos);
         }
 
         if (!excludeProperties) {
             //read value signature
-            readInlineTypes(def.getSignature(), properties, in, tx, InlineType.SIGNATURE);
+            readInlineTypes(def.getSignature(), properties, in, tx, InlineType.SIGNATURE, format);
 
             //Third: read rest
             while (in.hasRemaining()) {
@@ -165,15 +177,21 @@ public class EdgeSerializer implements RelationReader {
         return new RelationCache(dir, typeId, relationId, other, properties);
     }
 
-    private void readInlineTypes(long[] keyIds, LongObjectHashMap properties, ReadBuffer in, TypeInspector tx, InlineType inlineType) {
+    private void readInlineTypes(long[] keyIds, LongObjectHashMap properties, ReadBuffer in, TypeInspector tx,
+                                 InlineType inlineType, ColumnFormat format) {
         for (long keyId : keyIds) {
             PropertyKey keyType = tx.getExistingPropertyKey(keyId);
-            Object value = readInline(in, keyType, inlineType);
+            Object value = readInline(in, keyType, inlineType, format);
             if (value != null) properties.put(keyId, value);
         }
     }
 
     private Object readInline(ReadBuffer read, PropertyKey key, InlineType inlineType) {
+        return readInline(read, key, inlineType, ColumnFormat.STANDARD);
+    }
+
+    private Object readInline(ReadBuffer read, PropertyKey key, InlineType inlineType, ColumnFormat format) {
+        if (inlineType.writeDense(key, format)) return readDenseValue(read, key.dataType());
         return readPropertyValue(read, key, inlineType);
     }
 
@@ -220,6 +238,17 @@ public class EdgeSerializer implements RelationReader {
     }
 
     public StaticArrayEntry writeRelation(InternalRelation relation, InternalRelationType type, int position, TypeInspector tx) {
+        return writeRelation(relation, type, position, null, tx::getExistingPropertyKey);
+    }
+
+    /**
+     * Serializes the relation for the given relation index type. If {@code properties} is not null, it maps the ids of all
+     * property keys of the relation to their values and is used instead of reading the properties from the relation. This
+     * allows the properties to be resolved ahead of time so that serialization does not access the transaction.
+     * The property keys of the sort key, signature and properties are retrieved by id from {@code keys}.
+     */
+    public StaticArrayEntry writeRelation(InternalRelation relation, InternalRelationType type, int position,
+                                          LongObjectHashMap<Object> properties, LongFunction<PropertyKey> keys) {
         assert type==relation.getType() || type.getBaseType().equals(relation.getType());
         Direction dir = EdgeDirection.fromPosition(position);
         Preconditions.checkArgument(type.isUnidirected(Direction.BOTH) || type.isUnidirected(dir));
@@ -230,12 +259,13 @@ public class EdgeSerializer implements RelationReader {
         int valuePosition;
         IDHandler.writeRelationType(out, typeid, dirID, type.isInvisibleType());
         Multiplicity multiplicity = type.multiplicity();
+        ColumnFormat format = type.getColumnFormat();
 
         long[] sortKey = type.getSortKey();
         assert !multiplicity.isConstrained() || sortKey.length==0: type.name();
         int keyStartPos = out.getPosition();
         if (!multiplicity.isConstrained()) {
-            writeInlineTypes(sortKey, relation, out, tx, InlineType.KEY);
+            writeInlineTypes(sortKey, relation, properties, out, keys, InlineType.KEY, format);
         }
         int keyEndPos = out.getPosition();
 
@@ -253,6 +283,12 @@ public class EdgeSerializer implements RelationReader {
                     valuePosition = out.getPosition();
                 }
                 VariableLong.writePositive(out, relationId);
+            } else if (format == ColumnFormat.DENSE) {
+                int idStartPos = out.getPosition();
+                VariableLong.writePositive(out, otherVertexId);
+                VariableLong.writePositive(out, relationId);
+                out.putByte(VariableLong.unsignedByte(out.getPosition() - idStartPos));
+                valuePosition = out.getPosition();
             } else {
                 VariableLong.writePositiveBackward(out, otherVertexId);
                 VariableLong.writePositiveBackward(out, relationId);
@@ -285,7 +321,7 @@ public class EdgeSerializer implements RelationReader {
 
         //Write signature
         long[] signature = type.getSignature();
-        writeInlineTypes(signature, relation, out, tx, InlineType.SIGNATURE);
+        writeInlineTypes(signature, relation, properties, out, keys, InlineType.SIGNATURE, format);
 
         //Write remaining properties
         LongSet writtenTypes = new LongHashSet(sortKey.length + signature.length);
@@ -294,17 +330,25 @@ public class EdgeSerializer implements RelationReader {
             for (long id : signature) writtenTypes.add(id);
         }
         LongArrayList remainingTypes = new LongArrayList(8);
-        for (PropertyKey t : relation.getPropertyKeysDirect()) {
-            if (!(t instanceof ImplicitKey) && !writtenTypes.contains(t.longId())) {
-                remainingTypes.add(t.longId());
+        if (properties==null) {
+            for (PropertyKey t : relation.getPropertyKeysDirect()) {
+                if (!(t instanceof ImplicitKey) && !writtenTypes.contains(t.longId())) {
+                    remainingTypes.add(t.longId());
+                }
+            }
+        } else {
+            for (LongObjectCursor<Object> property : properties) {
+                if (!writtenTypes.contains(property.key) && !(keys.apply(property.key) instanceof ImplicitKey)) {
+                    remainingTypes.add(property.key);
+                }
             }
         }
         //Sort types before writing to ensure that value is always written the same way
         long[] remaining = remainingTypes.toArray();
         Arrays.sort(remaining);
         for (long tid : remaining) {
-            PropertyKey t = tx.getExistingPropertyKey(tid);
-            writeInline(out, t, relation.getValueDirect(t), InlineType.NORMAL);
+            PropertyKey t = keys.apply(tid);
+            writeInline(out, t, properties==null?relation.getValueDirect(t):properties.get(tid), InlineType.NORMAL);
         }
         assert valuePosition>0;
 
@@ -326,23 +370,58 @@ public class EdgeSerializer implements RelationReader {
             return this==KEY;
         }
 
+        /**
+         * Whether values of the given key are written with the compact encoding of the {@link ColumnFormat#DENSE}
+         * format, which only applies to integral sort key values.
+         */
+        public boolean writeDense(PropertyKey key, ColumnFormat format) {
+            return this==KEY && format==ColumnFormat.DENSE && AttributeUtil.isWholeNumber(key.dataType());
+        }
+
     }
 
-    private void writeInlineTypes(long[] keyIds, InternalRelation relation, DataOutput out, TypeInspector tx, InlineType inlineType) {
+    private void writeInlineTypes(long[] keyIds, InternalRelation relation, LongObjectHashMap<Object> properties,
+                                  DataOutput out, LongFunction<PropertyKey> keys, InlineType inlineType, ColumnFormat format) {
         for (long keyId : keyIds) {
-            PropertyKey t = tx.getExistingPropertyKey(keyId);
-            writeInline(out, t, relation.getValueDirect(t), inlineType);
+            PropertyKey t = keys.apply(keyId);
+            writeInline(out, t, properties==null?relation.getValueDirect(t):properties.get(keyId), inlineType, format);
         }
     }
 
     private void writeInline(DataOutput out, PropertyKey inlineKey, Object value, InlineType inlineType) {
+        writeInline(out, inlineKey, value, inlineType, ColumnFormat.STANDARD);
+    }
+
+    private void writeInline(DataOutput out, PropertyKey inlineKey, Object value, InlineType inlineType, ColumnFormat format) {
         assert inlineType.writeInlineKey() || !AttributeUtil.hasGenericDataType(inlineKey);
 
         if (inlineType.writeInlineKey()) {
             IDHandler.writeInlineRelationType(out, inlineKey.longId());
         }
 
-        writePropertyValue(out,inlineKey,value, inlineType);
+        if (inlineType.writeDense(inlineKey, format)) writeDenseValue(out, (Number) value);
+        else writePropertyValue(out,inlineKey,value, inlineType);
+    }
+
+    //Larger than any header written by VariableLong.writeOrdered so that null values sort last as in the standard format
+    private static final byte DENSE_NULL_VALUE = (byte) 0xFF;
+
+    private static void writeDenseValue(DataOutput out, Number value) {
+        if (value == null) out.putByte(DENSE_NULL_VALUE);
+        else VariableLong.writeOrdered(out, value.longValue());
+    }
+
+    private static Object readDenseValue(ReadBuffer in, Class<?> dataType) {
+        if (in.getByte(in.getPosition()) == DENSE_NULL_VALUE) {
+            in.getByte();
+            return null;
+        }
+        long value = VariableLong.readOrdered(in);
+        if (dataType.equals(Long.class)) return value;
+        else if (dataType.equals(Integer.class)) return (int) value;
+        else if (dataType.equals(Short.class)) return (short) value;
+        else if (dataType.equals(Byte.class)) return (byte) value;
+        else throw new IllegalArgumentException("Not an integral data type: " + dataType);
     }
 
     private void writePropertyValue(DataOutput out, PropertyKey key, Object value) {
@@ -374,6 +453,7 @@ public class EdgeSerializer implements RelationReader {
 
         StaticBuffer sliceStart = null, sliceEnd = null;
         RelationCategory rt = type.isPropertyKey() ? RelationCategory.PROPERTY : RelationCategory.EDGE;
+        ColumnFormat format = type.getColumnFormat();
         if (dir == Direction.BOTH) {
             assert type.isEdgeLabel();
             sliceStart = IDHandler.getRelationType(type.longId(), getDirID(Direction.OUT, rt), type.isInvisibleType());
@@ -418,17 +498,22 @@ public class EdgeSerializer implements RelationReader {
                 if (interval.isPoints()) {
                     if (skey==ImplicitKey.TITANID || skey==ImplicitKey.ADJACENT_ID) {
                         assert !type.multiplicity().isUnique(dir);
-                        VariableLong.writePositiveBackward(colStart, (Long)interval.getStart());
-                        VariableLong.writePositiveBackward(colEnd, (Long)interval.getEnd());
+                        if (format == ColumnFormat.DENSE) {
+                            VariableLong.writePositive(colStart, (Long)interval.getStart());
+                            VariableLong.writePositive(colEnd, (Long)interval.getEnd());
+                        } else {
+                            VariableLong.writePositiveBackward(colStart, (Long)interval.getStart());
+                            VariableLong.writePositiveBackward(colEnd, (Long)interval.getEnd());
+                        }
                     } else {
-                        writeInline(colStart, skey, interval.getStart(), InlineType.KEY);
-                        writeInline(colEnd, skey, interval.getEnd(), InlineType.KEY);
+                        writeInline(colStart, skey, interval.getStart(), InlineType.KEY, format);
+                        writeInline(colEnd, skey, interval.getEnd(), InlineType.KEY, format);
                     }
                 } else {
                     if (interval.getStart() != null)
-                        writeInline(colStart, skey, interval.getStart(), InlineType.KEY);
+                        writeInline(colStart, skey, interval.getStart(), InlineType.KEY, format);
                     if (interval.getEnd() != null)
-                        writeInline(colEnd, skey, interval.getEnd(), InlineType.KEY);
+                        writeInline(colEnd, skey, interval.getEnd(), InlineType.KEY, format);
 
                     switch (type.getSortOrder()) {
                         case ASC:
@@ -5,6 +5,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.*;
 import com.thinkaurelius.titan.core.*;
 import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.attribute.Geoshape;
+import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.core.schema.Parameter;
 import com.thinkaurelius.titan.core.schema.SchemaStatus;
 import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
@@ -16,10 +18,15 @@ import com.thinkaurelius.titan.diskstorage.*;
 import com.thinkaurelius.titan.diskstorage.indexing.*;
 import com.thinkaurelius.titan.diskstorage.Entry;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.KeySliceQuery;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery;
 import com.thinkaurelius.titan.diskstorage.util.BufferUtil;
+import com.thinkaurelius.titan.diskstorage.util.EntryArrayList;
 import com.thinkaurelius.titan.diskstorage.util.HashingUtil;
 import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntry;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntryList;
 import com.thinkaurelius.titan.graphdb.database.idhandling.VariableLong;
+import com.thinkaurelius.titan.graphdb.database.indexing.GeohashCells;
+import com.thinkaurelius.titan.graphdb.database.indexing.OrderedIndexRange;
 import com.thinkaurelius.titan.graphdb.database.management.ManagementSystem;
 import com.thinkaurelius.titan.graphdb.database.serialize.AttributeUtil;
 import com.thinkaurelius.titan.graphdb.database.serialize.DataOutput;
@@ -33,9 +40,11 @@ import com.thinkaurelius.titan.graphdb.query.vertex.VertexCentricQueryBuilder;
 import com.thinkaurelius.titan.graphdb.relations.RelationIdentifier;
 import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
 import com.thinkaurelius.titan.graphdb.types.*;
+import com.thinkaurelius.titan.graphdb.vertices.CacheVertex;
 import com.thinkaurelius.titan.util.encoding.LongEncoding;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,6 +66,7 @@ public class IndexSerializer {
     private static final byte FIRST_INDEX_COLUMN_BYTE = 0;
 
     private final Serializer serializer;
+    private final EdgeSerializer edgeSerializer;
     private final Configuration configuration;
     private final Map<String, ? extends IndexInformation> mixedIndexes;
 
@@ -65,6 +75,7 @@ public class IndexSerializer {
 
     public IndexSerializer(Configuration config, Serializer serializer, Map<String, ? extends IndexInformation> indexes, final boolean hashKeys) {
         this.serializer = serializer;
+        this.edgeSerializer = new EdgeSerializer(serializer);
         this.configuration = config;
         this.mixedIndexes = indexes;
         this.hashKeys=hashKeys;
@@ -256,9 +267,81 @@ public class IndexSerializer {
                         index.getElement().matchesConstraint(index.getSchemaTypeConstraint(),element));
     }
 
+    /**
+     * An index update whose composite index keys and entries have not been serialized yet. Everything that depends on
+     * the transaction (the matching records, the TTL, the covered properties and the index definition) is resolved
+     * when the update is prepared, so that {@link #getIndexUpdates(List)} can be invoked from a different thread.
+     */
+    public static class PreparedIndexUpdate {
+
+        private final IndexType index;
+        private final IndexUpdate.Type mutationType;
+        private final TitanElement element;
+        private final RecordEntry[] record;
+        private final Entry[] coveredEntries;
+        private final int ttl;
+        private final IndexUpdate update;
+
+        private PreparedIndexUpdate(CompositeIndexType index, IndexUpdate.Type mutationType, TitanElement element,
+                                    RecordEntry[] record, Entry[] coveredEntries, int ttl) {
+            //Load the parts of the index definition accessed during serialization
+            index.getCardinality();
+            for (IndexField field : index.getFieldKeys()) field.getFieldKey().dataType();
+            this.index = index;
+            this.mutationType = mutationType;
+            this.element = element;
+            this.record = record;
+            this.coveredEntries = coveredEntries;
+            this.ttl = ttl;
+            this.update = null;
+        }
+
+        private PreparedIndexUpdate(IndexUpdate<String,IndexEntry> update) {
+            this.index = update.getIndex();
+            this.mutationType = update.getType();
+            this.element = update.getElement();
+            this.record = null;
+            this.coveredEntries = null;
+            this.ttl = 0;
+            this.update = update;
+        }
+    }
+
     public Collection<IndexUpdate> getIndexUpdates(InternalRelation relation) {
-        assert relation.isNew() || relation.isRemoved();
+        return getIndexUpdates(prepareIndexUpdates(relation));
+    }
+
+    public Collection<IndexUpdate> getIndexUpdates(InternalVertex vertex, Collection<InternalRelation> updatedProperties) {
+        return getIndexUpdates(prepareIndexUpdates(vertex, updatedProperties));
+    }
+
+    /**
+     * Serializes the given prepared index updates. This does not access the transaction the updates were prepared in.
+     *
+     * @param prepared
+     * @return
+     */
+    public Collection<IndexUpdate> getIndexUpdates(List<PreparedIndexUpdate> prepared) {
+        if (prepared.isEmpty()) return Collections.EMPTY_LIST;
         Set<IndexUpdate> updates = Sets.newHashSet();
+        for (PreparedIndexUpdate p : prepared) {
+            if (p.update!=null) {
+                updates.add(p.update);
+                continue;
+            }
+            CompositeIndexType index = (CompositeIndexType)p.index;
+            for (StaticBuffer indexKey : getIndexKeys(index,p.record,p.element)) {
+                IndexUpdate update = new IndexUpdate<StaticBuffer,Entry>(index,p.mutationType,indexKey,getIndexEntry(index,p.record,p.element,p.coveredEntries), p.element);
+                if (p.ttl>0) update.setTTL(p.ttl);
+                updates.add(update);
+            }
+        }
+        return updates;
+    }
+
+    public List<PreparedIndexUpdate> prepareIndexUpdates(InternalRelation relation) {
+        assert relation.isNew() || relation.isRemoved();
+        List<PreparedIndexUpdate> updates = new ArrayList<PreparedIndexUpdate>();
         IndexUpdate.Type updateType = getUpateType(relation);
         int ttl = updateType==IndexUpdate.Type.ADD?StandardTitanGraph.getTTL(relation):0;
         for (RelationType type : relation.getPropertyKeysDirect()) {
@@ -266,19 +349,18 @@ public class IndexSerializer {
             PropertyKey key = (PropertyKey)type;
             for (IndexType index : ((InternalRelationType)key).getKeyIndexes()) {
                 if (!indexAppliesTo(index,relation)) continue;
-                IndexUpdate update;
                 if (index instanceof CompositeIndexType) {
                     CompositeIndexType iIndex= (CompositeIndexType) index;
                     RecordEntry[] record = indexMatch(relation, iIndex);
                     if (record==null) continue;
-                    update = new IndexUpdate<StaticBuffer,Entry>(iIndex,updateType,getIndexKey(iIndex,record),getIndexEntry(iIndex,record,relation), relation);
+                    updates.add(new PreparedIndexUpdate(iIndex,updateType,relation,record,null,ttl));
                 } else {
                     assert relation.valueOrNull(key)!=null;
                     if (((MixedIndexType)index).getField(key).getStatus()== SchemaStatus.DISABLED) continue;
-                    update = getMixedIndexUpdate(relation, key, relation.valueOrNull(key), (MixedIndexType) index, updateType);
+                    IndexUpdate<String,IndexEntry> update = getMixedIndexUpdate(relation, key, relation.valueOrNull(key), (MixedIndexType) index, updateType);
+                    if (ttl>0) update.setTTL(ttl);
+                    updates.add(new PreparedIndexUpdate(update));
                 }
-                if (ttl>0) update.setTTL(ttl);
-                updates.add(update);
             }
         }
         return updates;
@@ -300,9 +382,11 @@ public class IndexSerializer {
         return ttl;
     }
 
-    public Collection<IndexUpdate> getIndexUpdates(InternalVertex vertex, Collection<InternalRelation> updatedProperties) {
+    public List<PreparedIndexUpdate> prepareIndexUpdates(InternalVertex vertex, Collection<InternalRelation> updatedProperties) {
         if (updatedProperties.isEmpty()) return Collections.EMPTY_LIST;
-        Set<IndexUpdate> updates = Sets.newHashSet();
+        List<PreparedIndexUpdate> updates = new ArrayList<PreparedIndexUpdate>();
+        //The entries of an index covering several updated keys only need to be rewritten once
+        Set<CompositeIndexType> coveringIndexes = Sets.newHashSet();
 
         for (InternalRelation rel : updatedProperties) {
             assert rel.isProperty();
@@ -313,25 +397,52 @@ public class IndexSerializer {
                 if (!indexAppliesTo(index,vertex)) continue;
                 if (index.isCompositeIndex()) { //Gather composite indexes
                     CompositeIndexType cIndex = (CompositeIndexType)index;
-                    IndexRecords updateRecords = indexMatches(vertex,cIndex,updateType==IndexUpdate.Type.DELETE,p.propertyKey(),new RecordEntry(p));
+                    if (!cIndex.indexesKey(p.propertyKey())) {
+                        if (coveringIndexes.add(cIndex)) updates.addAll(prepareCoveredKeyUpdates(vertex,cIndex));
+                        continue;
+                    }
+                    boolean deletion = updateType==IndexUpdate.Type.DELETE;
+                    IndexRecords updateRecords = indexMatches(vertex,cIndex,deletion,p.propertyKey(),new RecordEntry(p));
+                    if (updateRecords.isEmpty()) continue;
+                    Entry[] covered = getCoveredEntries(vertex,cIndex,deletion);
                     for (RecordEntry[] record : updateRecords) {
-                        IndexUpdate update = new IndexUpdate<StaticBuffer,Entry>(cIndex,updateType,getIndexKey(cIndex,record),getIndexEntry(cIndex,record,vertex), vertex);
-                        int ttl = getIndexTTL(vertex,getKeysOfRecords(record));
-                        if (ttl>0 && updateType== IndexUpdate.Type.ADD) update.setTTL(ttl);
-                        updates.add(update);
+                        int ttl = deletion?0:getIndexTTL(vertex,getKeysOfRecords(record));
+                        updates.add(new PreparedIndexUpdate(cIndex,updateType,vertex,record,covered,ttl));
                     }
                 } else { //Update mixed indexes
                     if (((MixedIndexType)index).getField(p.propertyKey()).getStatus()== SchemaStatus.DISABLED) continue;
-                    IndexUpdate update = getMixedIndexUpdate(vertex, p.propertyKey(), p.value(), (MixedIndexType) index, updateType);
+                    IndexUpdate<String,IndexEntry> update = getMixedIndexUpdate(vertex, p.propertyKey(), p.value(), (MixedIndexType) index, updateType);
                     int ttl = getIndexTTL(vertex,p.propertyKey());
                     if (ttl>0 && updateType== IndexUpdate.Type.ADD) update.setTTL(ttl);
-                    updates.add(update);
+                    updates.add(new PreparedIndexUpdate(update));
                 }
             }
         }
         return updates;
     }
 
+    /**
+     * Returns the updates for a change of a key covered by the given index. Since covered values are not part of the
+     * index key, the entries of all records of the vertex are rewritten. The previous entries are deleted as well so
+     * that locks on the index expect the persisted value.
+     */
+    private List<PreparedIndexUpdate> prepareCoveredKeyUpdates(InternalVertex vertex, CompositeIndexType index) {
+        List<PreparedIndexUpdate> updates = new ArrayList<PreparedIndexUpdate>();
+        if (!vertex.isNew()) {
+            Entry[] covered = getCoveredEntries(vertex,index,true);
+            for (RecordEntry[] record : indexMatches(vertex,index,true,null,null)) {
+                updates.add(new PreparedIndexUpdate(index,IndexUpdate.Type.DELETE,vertex,record,covered,0));
+            }
+        }
+        if (!vertex.isRemoved()) {
+            Entry[] covered = getCoveredEntries(vertex,index,false);
+            for (RecordEntry[] record : indexMatches(vertex,index)) {
+                updates.add(new PreparedIndexUpdate(index,IndexUpdate.Type.ADD,vertex,record,covered,getIndexTTL(vertex,getKeysOfRecords(record))));
+            }
+        }
+        return updates;
+    }
+
     private IndexUpdate<String,IndexEntry> getMixedIndexUpdate(TitanElement element, PropertyKey key, Object value,
                                                                MixedIndexType index, IndexUpdate.Type updateType)  {
         return new IndexUpdate<String,IndexEntry>(index,updateType,element2String(element),new IndexEntry(key2Field(index.getField(key)), value), element);
@@ -382,7 +493,9 @@ public class IndexSerializer {
             if (record!=null) records = ImmutableList.of(record);
         }
         for (RecordEntry[] record : records) {
-            indexEntries.add(new IndexUpdate<StaticBuffer,Entry>(index, IndexUpdate.Type.ADD,getIndexKey(index,record),getIndexEntry(index,record,element), element));
+            for (StaticBuffer indexKey : getIndexKeys(index,record,element)) {
+                indexEntries.add(new IndexUpdate<StaticBuffer,Entry>(index, IndexUpdate.Type.ADD,indexKey,getIndexEntry(index,record,element,false), element));
+            }
         }
         return indexEntries;
     }
@@ -508,12 +621,27 @@ public class IndexSerializer {
                 Querying
     ################################################### */
 
-    public List<Object> query(final JointIndexQuery.Subquery query, final BackendTransaction tx) {
+    public List<Object> query(final JointIndexQuery.Subquery query, final BackendTransaction tx, final StandardTitanTx transaction) {
         IndexType index = query.getIndex();
         if (index.isCompositeIndex()) {
             MultiKeySliceQuery sq = query.getCompositeQuery();
             List<EntryList> rs = sq.execute(tx);
-            List<Object> results = new ArrayList<Object>(rs.get(0).size());
+            if (rs.size()>1 && sq.isOrdered()) {
+                //Merge the sorted entries of all rows into one list sorted by the ordered field
+                List<Iterator<Entry>> iterators = new ArrayList<Iterator<Entry>>(rs.size());
+                for (EntryList r : rs) iterators.add(r.iterator());
+                EntryArrayList merged = new EntryArrayList();
+                Iterators.addAll(merged, Iterators.mergeSorted(iterators, new Comparator<Entry>() {
+                    @Override
+                    public int compare(Entry e1, Entry e2) {
+                        return e1.getColumn().compareTo(e2.getColumn());
+                    }
+                }));
+                rs = ImmutableList.<EntryList>of(merged);
+            }
+            //Elements of geohash indexes are indexed under multiple cells and hence might be retrieved multiple times
+            Collection<Object> results = GeohashCells.hasGeohashField((CompositeIndexType)index)?
+                    new LinkedHashSet<Object>(rs.get(0).size()):new ArrayList<Object>(rs.get(0).size());
             for (EntryList r : rs) {
                 for (java.util.Iterator<Entry> iterator = r.reuseIterator(); iterator.hasNext(); ) {
                     Entry entry = iterator.next();
@@ -521,14 +649,16 @@ public class IndexSerializer {
                     entryValue.movePositionTo(entry.getValuePosition());
                     switch(index.getElement()) {
                         case VERTEX:
-                            results.add(VariableLong.readPositive(entryValue));
+                            long vertexId = VariableLong.readPositive(entryValue);
+                            readCoveredProperties((CompositeIndexType)index,entryValue,vertexId,transaction);
+                            results.add(vertexId);
                             break;
                         default:
                             results.add(bytebuffer2RelationId(entryValue));
                     }
                 }
             }
-            return results;
+            return results instanceof List?(List<Object>)results:new ArrayList<Object>(results);
         } else {
             List<String> r = tx.indexQuery(((MixedIndexType) index).getBackingIndexName(), query.getMixedQuery());
             List<Object> result = new ArrayList<Object>(r.size());
@@ -539,10 +669,25 @@ public class IndexSerializer {
 
     public MultiKeySliceQuery getQuery(final CompositeIndexType index, List<Object[]> values) {
         List<KeySliceQuery> ksqs = new ArrayList<KeySliceQuery>(values.size());
+        int orderedPos = OrderedIndexRange.getOrderedPosition(index);
+        if (orderedPos<0) {
+            for (Object[] value : values) {
+                ksqs.add(new KeySliceQuery(getIndexKey(index,value,-1), BufferUtil.zeroBuffer(1), BufferUtil.oneBuffer(1)));
+            }
+            //Geohash queries look up many cells with few elements each, which are retrieved together
+            return new MultiKeySliceQuery(ksqs, false, GeohashCells.hasGeohashField(index));
+        }
+        //Read the range from all buckets of each row
+        IndexField field = index.getFieldKeys()[orderedPos];
+        int buckets = OrderedIndexRange.getBuckets(field);
         for (Object[] value : values) {
-            ksqs.add(new KeySliceQuery(getIndexKey(index,value), BufferUtil.zeroBuffer(1), BufferUtil.oneBuffer(1)));
+            StaticBuffer[] slice = ((OrderedIndexRange)value[orderedPos]).getSlice(FIRST_INDEX_COLUMN_BYTE,serializer,field.getFieldKey().dataType());
+            if (slice[0].compareTo(slice[1])>=0) continue; //Empty range
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                ksqs.add(new KeySliceQuery(getIndexKey(index,value,bucket), slice[0], slice[1]));
+            }
         }
-        return new MultiKeySliceQuery(ksqs);
+        return new MultiKeySliceQuery(ksqs, true);
     }
 
     public IndexQuery getQuery(final MixedIndexType index, final Condition condition, final OrderList orders) {
@@ -718,26 +863,67 @@ public class IndexSerializer {
     }
 
 
-    private final StaticBuffer getIndexKey(CompositeIndexType index, RecordEntry[] record) {
-        return getIndexKey(index,IndexRecords.getValues(record));
+    /**
+     * Returns the keys under which the given record is indexed. This is a single key unless the index contains
+     * geohash indexed fields in which case the record is indexed under each of the cells of the geo value.
+     */
+    private final List<StaticBuffer> getIndexKeys(CompositeIndexType index, RecordEntry[] record, TitanElement element) {
+        Object[] values = IndexRecords.getValues(record);
+        IndexField[] fields = index.getFieldKeys();
+        int orderedPos = OrderedIndexRange.getOrderedPosition(index);
+        int bucket = orderedPos<0?-1:OrderedIndexRange.getBucket(element.longId(),OrderedIndexRange.getBuckets(fields[orderedPos]));
+        List<Object[]> keyValues = null;
+        for (int i = 0; i < fields.length; i++) {
+            int precision = GeohashCells.getPrecision(fields[i]);
+            if (precision<=0) continue;
+            if (keyValues==null) keyValues = ImmutableList.of(values);
+            List<Object[]> expanded = new ArrayList<Object[]>();
+            for (Object[] kv : keyValues) {
+                for (String cell : GeohashCells.getIndexCells((Geoshape)kv[i],precision)) {
+                    Object[] cellValues = Arrays.copyOf(kv,kv.length);
+                    cellValues[i]=cell;
+                    expanded.add(cellValues);
+                }
+            }
+            keyValues = expanded;
+        }
+        if (keyValues==null) return ImmutableList.of(getIndexKey(index,values,bucket));
+        List<StaticBuffer> keys = new ArrayList<StaticBuffer>(keyValues.size());
+        for (Object[] kv : keyValues) keys.add(getIndexKey(index,kv,bucket));
+        return keys;
     }
 
-    private final StaticBuffer getIndexKey(CompositeIndexType index, Object[] values) {
+    /**
+     * Returns the row key for the given index values. The value of an ordered field is not part of the row key but
+     * written into the column (see {@link #getIndexEntry(CompositeIndexType, RecordEntry[], TitanElement)}); instead,
+     * the given bucket is appended to the key for indexes with an ordered field.
+     */
+    private final StaticBuffer getIndexKey(CompositeIndexType index, Object[] values, int bucket) {
         DataOutput out = serializer.getDataOutput(8*DEFAULT_OBJECT_BYTELEN + 8);
         VariableLong.writePositive(out, index.getID());
         IndexField[] fields = index.getFieldKeys();
         Preconditions.checkArgument(fields.length>0 && fields.length==values.length);
+        boolean ordered = false;
         for (int i = 0; i < fields.length; i++) {
             IndexField f = fields[i];
             Object value = values[i];
             Preconditions.checkNotNull(value);
-            if (AttributeUtil.hasGenericDataType(f.getFieldKey())) {
+            if (OrderedIndexRange.isOrderedField(f)) {
+                ordered = true;
+            } else if (GeohashCells.isGeohashField(f)) {
+                Preconditions.checkArgument(value instanceof String,"Expected geohash cell for field %s but got: %s",f,value);
+                out.writeObjectNotNull(value);
+            } else if (AttributeUtil.hasGenericDataType(f.getFieldKey())) {
                 out.writeClassAndObject(value);
             } else {
                 assert value.getClass().equals(f.getFieldKey().dataType()) : value.getClass() + " - " + f.getFieldKey().dataType();
                 out.writeObjectNotNull(value);
             }
         }
+        if (ordered) {
+            Preconditions.checkArgument(bucket>=0 && bucket<OrderedIndexRange.MAX_BUCKETS,"Invalid bucket: %s",bucket);
+            out.putByte((byte)bucket);
+        }
         StaticBuffer key = out.getStaticBuffer();
         if (hashKeys) key = HashingUtil.hashPrefixKey(hashLength,key);
         return key;
@@ -748,9 +934,39 @@ public class IndexSerializer {
         return VariableLong.readPositive(key.asReadBuffer());
     }
 
-    private final Entry getIndexEntry(CompositeIndexType index, RecordEntry[] record, TitanElement element) {
+    /**
+     * Returns the index entry for the given record. For vertex indexes that cover keys, the edgestore entries of the
+     * covered properties of the vertex are appended to the value (see {@link #readCoveredProperties(CompositeIndexType, ReadBuffer, long, StandardTitanTx)}).
+     * If {@code onlyLoaded} is true, the covered properties are those persisted prior to the current transaction.
+     */
+    private final Entry getIndexEntry(CompositeIndexType index, RecordEntry[] record, TitanElement element, boolean onlyLoaded) {
+        return getIndexEntry(index,record,element,getCoveredEntries(element,index,onlyLoaded));
+    }
+
+    /**
+     * Returns the edgestore entries of the covered properties of the given element for the given index, where an
+     * entry is null if the vertex has no value for the respective covered key, or null if the index does not cover
+     * any keys.
+     */
+    private Entry[] getCoveredEntries(TitanElement element, CompositeIndexType index, boolean onlyLoaded) {
+        PropertyKey[] coveredKeys = index.getCoveredKeys();
+        if (coveredKeys.length==0 || !(element instanceof TitanVertex)) return null;
+        Entry[] entries = new Entry[coveredKeys.length];
+        for (int i = 0; i < coveredKeys.length; i++) {
+            TitanVertexProperty property = getCoveredProperty((InternalVertex)element,coveredKeys[i],onlyLoaded);
+            if (property!=null) entries[i] = edgeSerializer.writeRelation((InternalRelation)property,0,((InternalVertex)element).tx());
+        }
+        return entries;
+    }
+
+    private final Entry getIndexEntry(CompositeIndexType index, RecordEntry[] record, TitanElement element, Entry[] coveredEntries) {
         DataOutput out = serializer.getDataOutput(1+8+8*record.length+4*8);
         out.putByte(FIRST_INDEX_COLUMN_BYTE);
+        int orderedPos = OrderedIndexRange.getOrderedPosition(index);
+        if (orderedPos>=0) {
+            //Ordered fields are written into the column so that entries are sorted by value
+            out.writeObjectByteOrder(record[orderedPos].value,record[orderedPos].key.dataType());
+        }
         if (index.getCardinality()!=Cardinality.SINGLE) {
             VariableLong.writePositive(out,element.longId());
             if (index.getCardinality()!=Cardinality.SET) {
@@ -762,6 +978,16 @@ public class IndexSerializer {
         int valuePosition=out.getPosition();
         if (element instanceof TitanVertex) {
             VariableLong.writePositive(out,element.longId());
+            if (coveredEntries!=null) {
+                for (Entry covered : coveredEntries) {
+                    if (covered==null) {
+                        out.putByte((byte)0);
+                    } else {
+                        out.putByte((byte)1);
+                        BufferUtil.writeEntry(out,covered);
+                    }
+                }
+            }
         } else {
             assert element instanceof TitanRelation;
             RelationIdentifier rid = (RelationIdentifier)element.id();
@@ -772,6 +998,35 @@ public class IndexSerializer {
         return new StaticArrayEntry(out.getStaticBuffer(),valuePosition);
     }
 
+    private static TitanVertexProperty getCoveredProperty(InternalVertex vertex, PropertyKey key, boolean onlyLoaded) {
+        //going through transaction so we can query deleted vertices
+        VertexCentricQueryBuilder qb = vertex.tx().query(vertex);
+        qb.noPartitionRestriction().type(key);
+        if (onlyLoaded) qb.queryOnlyLoaded();
+        return Iterables.getFirst(qb.properties(),null);
+    }
+
+    /**
+     * Reads the covered properties from the remainder of the given index entry value and loads them into the relation
+     * cache of the vertex so that subsequent property retrievals for the covered keys do not access the edgestore.
+     * This relies on the index being locked so that concurrent changes to different covered keys cannot leave a stale
+     * entry behind. Otherwise, the properties are read from the edgestore as usual.
+     */
+    private void readCoveredProperties(CompositeIndexType index, ReadBuffer entryValue, long vertexId, StandardTitanTx transaction) {
+        PropertyKey[] coveredKeys = index.getCoveredKeys();
+        if (coveredKeys.length==0 || !entryValue.hasRemaining()) return;
+        if (index.getConsistencyModifier()!=ConsistencyModifier.LOCK) return;
+        InternalVertex vertex = transaction==null || IDManager.VertexIDType.PartitionedVertex.is(vertexId)?
+                null:transaction.getInternalVertex(vertexId);
+        for (PropertyKey key : coveredKeys) {
+            EntryList entries = entryValue.getByte()==0?EntryList.EMPTY_LIST:
+                    StaticArrayEntryList.of(BufferUtil.readEntry(entryValue,serializer));
+            if (!(vertex instanceof CacheVertex) || vertex.isNew() || vertex.isRemoved()) continue;
+            SliceQuery sq = edgeSerializer.getQuery((InternalRelationType)key,Direction.OUT,new EdgeSerializer.TypedInterval[0]);
+            if (!vertex.hasLoadedRelations(sq)) ((CacheVertex)vertex).loadRelations(sq, q -> entries);
+        }
+    }
+
     private static final RelationIdentifier bytebuffer2RelationId(ReadBuffer b) {
         long[] relationId = new long[4];
         for (int i = 0; i < 3; i++) relationId[i] = VariableLong.readPositive(b);
@@ -0,0 +1,145 @@
+package com.thinkaurelius.titan.graphdb.database;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.core.TitanException;
+import com.thinkaurelius.titan.diskstorage.EntryList;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.KeyIterator;
+import com.thinkaurelius.titan.diskstorage.util.RecordIterator;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntry;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntryList;
+import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Iterates over the vertex keys and their entries returned by multiple {@link KeyIterator}s, each of which covers a
+ * range of the key space, by draining each iterator on a separate thread. Results are handed to the consuming thread
+ * in batches through a bounded queue, so vertices are returned grouped by range but in no particular order overall.
+ *
+ * @see StandardTitanGraph#getVertexEntries(com.thinkaurelius.titan.diskstorage.BackendTransaction, com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery, java.util.function.BooleanSupplier)
+ */
+class ParallelVertexScanIterator implements RecordIterator<Map.Entry<Long, EntryList>> {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelVertexScanIterator.class);
+
+    private static final int BATCH_SIZE = 256;
+    private static final int BATCHES_PER_RANGE = 4;
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final IDManager idManager;
+    private final BooleanSupplier isActive;
+    private final BlockingQueue<List<Map.Entry<Long, EntryList>>> queue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private volatile boolean closed = false;
+    private int runningScans;
+    private Iterator<Map.Entry<Long, EntryList>> current = Collections.emptyIterator();
+
+    ParallelVertexScanIterator(List<KeyIterator> ranges, IDManager idManager, ExecutorService executor,
+                               BooleanSupplier isActive) {
+        Preconditions.checkArgument(ranges != null && !ranges.isEmpty());
+        this.idManager = idManager;
+        this.isActive = isActive;
+        this.queue = new ArrayBlockingQueue<>(ranges.size() * BATCHES_PER_RANGE);
+        this.runningScans = ranges.size();
+        for (KeyIterator range : ranges) executor.submit(new RangeScan(range));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (failure.get() != null) throw new TitanException("Could not scan vertices", failure.get());
+            if (runningScans == 0) return false;
+            List<Map.Entry<Long, EntryList>> batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TitanException("Interrupted while scanning vertices", e);
+            }
+            if (batch.isEmpty()) runningScans--; //Marks the end of a range
+            else current = batch.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Map.Entry<Long, EntryList> next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        queue.clear();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Removal not supported");
+    }
+
+    private boolean isStopped() {
+        return closed || !isActive.getAsBoolean();
+    }
+
+    private class RangeScan implements Runnable {
+
+        private final KeyIterator keys;
+
+        private RangeScan(KeyIterator keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<Map.Entry<Long, EntryList>> batch = new ArrayList<>(BATCH_SIZE);
+                while (!isStopped() && keys.hasNext()) {
+                    StaticBuffer key = keys.next();
+                    EntryList entries = StaticArrayEntryList.ofStaticBuffer(keys.getEntries(), StaticArrayEntry.ENTRY_GETTER);
+                    if (entries.isEmpty()) continue;
+                    batch.add(new AbstractMap.SimpleImmutableEntry<>(idManager.getKeyID(key), entries));
+                    if (batch.size() >= BATCH_SIZE) {
+                        if (!put(batch)) return;
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) put(batch);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                log.error("Could not scan vertices", e);
+            } finally {
+                try {
+                    keys.close();
+                } catch (IOException e) {
+                    log.warn("Could not close storage iterator ", e);
+                }
+                put(Collections.<Map.Entry<Long, EntryList>>emptyList());
+            }
+        }
+
+        private boolean put(List<Map.Entry<Long, EntryList>> batch) {
+            try {
+                while (!isStopped()) {
+                    if (queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+
+}
@@ -1,10 +1,12 @@
 package com.thinkaurelius.titan.graphdb.database;
 
 import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongObjectHashMap;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.*;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkaurelius.titan.core.*;
 import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.core.schema.SchemaStatus;
@@ -22,10 +24,13 @@ import com.thinkaurelius.titan.diskstorage.log.Log;
 import com.thinkaurelius.titan.diskstorage.log.Message;
 import com.thinkaurelius.titan.diskstorage.log.ReadMarker;
 import com.thinkaurelius.titan.diskstorage.log.kcvs.KCVSLog;
+import com.thinkaurelius.titan.diskstorage.util.BufferUtil;
 import com.thinkaurelius.titan.diskstorage.util.RecordIterator;
 import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntry;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntryList;
 import com.thinkaurelius.titan.diskstorage.util.time.TimestampProvider;
 import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
+import com.thinkaurelius.titan.graphdb.database.bulk.BulkLoader;
 import com.thinkaurelius.titan.graphdb.database.cache.SchemaCache;
 import com.thinkaurelius.titan.graphdb.database.idassigner.VertexIDAssigner;
 import com.thinkaurelius.titan.graphdb.database.idhandling.IDHandler;
@@ -39,7 +44,9 @@ import com.thinkaurelius.titan.graphdb.internal.InternalRelation;
 import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
 import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
 import com.thinkaurelius.titan.graphdb.internal.InternalVertexLabel;
+import com.thinkaurelius.titan.graphdb.internal.RelationCategory;
 import com.thinkaurelius.titan.graphdb.query.QueryUtil;
+import com.thinkaurelius.titan.graphdb.query.profile.SlowQueryLog;
 import com.thinkaurelius.titan.graphdb.relations.EdgeDirection;
 import com.thinkaurelius.titan.graphdb.tinkerpop.TitanBlueprintsGraph;
 import com.thinkaurelius.titan.graphdb.tinkerpop.TitanFeatures;
@@ -67,10 +74,17 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.REGISTRATION_TIME;
 import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.ROOT_NS;
@@ -103,9 +117,13 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
 
     //Caches
     public SliceQuery vertexExistenceQuery;
+    public SliceQuery vertexPropertiesQuery;
     private RelationQueryCache queryCache;
     private SchemaCache schemaCache;
 
+    //Slow query log
+    private SlowQueryLog slowQueryLog;
+
     //Log
     private ManagementLogger mgmtLogger;
 
@@ -117,6 +135,11 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
 
     private Set<StandardTitanTx> openTransactions;
 
+    //Used to prepare the commit of large transactions in parallel, null if disabled
+    private final ForkJoinPool commitPool;
+    //Used to scan the key space in parallel when iterating over all vertices, null if disabled
+    private final ExecutorService scanExecutor;
+
     public StandardTitanGraph(GraphDatabaseConfiguration configuration) {
 
         this.config = configuration;
@@ -131,13 +154,18 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
                 this.backend.getIndexInformation(), storeFeatures.isDistributed() && storeFeatures.isKeyOrdered());
         this.edgeSerializer = new EdgeSerializer(this.serializer);
         this.vertexExistenceQuery = edgeSerializer.getQuery(BaseKey.VertexExists, Direction.OUT, new EdgeSerializer.TypedInterval[0]).setLimit(1);
+        this.vertexPropertiesQuery = edgeSerializer.getQuery(RelationCategory.PROPERTY, true);
         this.queryCache = new RelationQueryCache(this.edgeSerializer);
         this.schemaCache = configuration.getTypeCache(typeCacheRetrieval);
         this.times = configuration.getTimestampProvider();
+        this.slowQueryLog = new SlowQueryLog(configuration.getSlowQueryThreshold(), configuration.getSlowQueryEntries());
 
         isOpen = true;
         txCounter = new AtomicLong(0);
         openTransactions = Collections.newSetFromMap(new ConcurrentHashMap<StandardTitanTx, Boolean>(100, 0.75f, 1));
+        commitPool = config.getCommitThreads() > 1 ? new ForkJoinPool(config.getCommitThreads()) : null;
+        scanExecutor = config.getScanThreads() > 1 ? Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("TitanVertexScan-%d").build()) : null;
 
         //Register instance and ensure uniqueness
         String uniqueInstanceId = configuration.getUniqueGraphId();
@@ -210,6 +238,8 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
 
             super.close();
 
+            if (commitPool != null) commitPool.shutdown();
+            if (scanExecutor != null) scanExecutor.shutdownNow();
             IOUtils.closeQuietly(idAssigner);
             IOUtils.closeQuietly(backend);
             IOUtils.closeQuietly(queryCache);
@@ -283,6 +313,10 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         return schemaCache;
     }
 
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
     public GraphDatabaseConfiguration getConfiguration() {
         return config;
     }
@@ -325,11 +359,21 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         }
     }
 
-    private BackendTransaction openBackendTransaction(StandardTitanTx tx) throws BackendException {
+    public BackendTransaction openBackendTransaction(StandardTitanTx tx) throws BackendException {
         IndexSerializer.IndexInfoRetriever retriever = indexSerializer.getIndexInfoRetriever(tx);
         return backend.beginTransaction(tx.getConfiguration(), retriever);
     }
 
+    /**
+     * Opens a {@link BulkLoader} which writes vertices and edges directly to the storage backend, bypassing transactions.
+     *
+     * @return
+     */
+    public BulkLoader openBulkLoader() {
+        if (!isOpen) ExceptionFactory.graphShutdown();
+        return new BulkLoader(this);
+    }
+
     public void closeTransaction(StandardTitanTx tx) {
         openTransactions.remove(tx);
     }
@@ -408,6 +452,84 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         };
     }
 
+    /**
+     * Returns an iterator over the keys of all vertices in the storage backend together with the entries in the given
+     * slice for each vertex. Keys which have no entries in the slice are skipped.
+     * <p/>
+     * If the graph is configured with more than one {@link GraphDatabaseConfiguration#SCAN_THREADS} and the storage backend
+     * supports ordered scans, the key space is split into ranges which are scanned concurrently. In that case the
+     * vertices are returned in no particular order and the scan threads stop when the provided condition no longer holds
+     * (e.g. because the transaction has been closed) or the returned iterator is closed.
+     *
+     * @param tx
+     * @param query
+     * @param isActive
+     * @return
+     */
+    public RecordIterator<Map.Entry<Long, EntryList>> getVertexEntries(final BackendTransaction tx, final SliceQuery query,
+                                                                       final BooleanSupplier isActive) {
+        Preconditions.checkArgument(backend.getStoreFeatures().hasOrderedScan() ||
+                backend.getStoreFeatures().hasUnorderedScan(),
+                "The configured storage backend does not support global graph operations - use Faunus instead");
+
+        if (scanExecutor != null && backend.getStoreFeatures().hasOrderedScan()) {
+            int numRanges = config.getScanThreads();
+            //Split the key space, whose prefix is the partition id, into ranges of equal size
+            long rangeSize = Long.divideUnsigned(-1L, numRanges);
+            List<KeyIterator> ranges = new ArrayList<>(numRanges);
+            for (int i = 0; i < numRanges; i++) {
+                StaticBuffer start = i == 0 ? IDHandler.MIN_KEY : BufferUtil.getLongBuffer(rangeSize * i);
+                StaticBuffer end = i == numRanges - 1 ? IDHandler.MAX_KEY : BufferUtil.getLongBuffer(rangeSize * (i + 1));
+                ranges.add(tx.edgeStoreKeys(new KeyRangeQuery(start, end, query)));
+            }
+            return new ParallelVertexScanIterator(ranges, idManager, scanExecutor, isActive);
+        }
+
+        final KeyIterator keyiter;
+        if (backend.getStoreFeatures().hasUnorderedScan()) {
+            keyiter = tx.edgeStoreKeys(query);
+        } else {
+            keyiter = tx.edgeStoreKeys(new KeyRangeQuery(IDHandler.MIN_KEY, IDHandler.MAX_KEY, query));
+        }
+
+        return new RecordIterator<Map.Entry<Long, EntryList>>() {
+
+            private Map.Entry<Long, EntryList> next = computeNext();
+
+            private Map.Entry<Long, EntryList> computeNext() {
+                while (keyiter.hasNext()) {
+                    StaticBuffer key = keyiter.next();
+                    EntryList entries = StaticArrayEntryList.ofStaticBuffer(keyiter.getEntries(), StaticArrayEntry.ENTRY_GETTER);
+                    if (!entries.isEmpty()) return new AbstractMap.SimpleImmutableEntry<>(idManager.getKeyID(key), entries);
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<Long, EntryList> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Map.Entry<Long, EntryList> result = next;
+                next = computeNext();
+                return result;
+            }
+
+            @Override
+            public void close() throws IOException {
+                keyiter.close();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Removal not supported");
+            }
+        };
+    }
+
     public EntryList edgeQuery(long vid, SliceQuery query, BackendTransaction tx) {
         Preconditions.checkArgument(vid > 0);
         return tx.edgeStoreQuery(new KeySliceQuery(idManager.getKey(vid), query));
@@ -426,6 +548,24 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         return resultList;
     }
 
+    public Map<SliceQuery,List<EntryList>> edgeMultiQuery(LongArrayList vids, List<SliceQuery> queries, BackendTransaction tx) {
+        Preconditions.checkArgument(vids != null && !vids.isEmpty());
+        List<StaticBuffer> vertexIds = new ArrayList<StaticBuffer>(vids.size());
+        for (int i = 0; i < vids.size(); i++) {
+            Preconditions.checkArgument(vids.get(i) > 0);
+            vertexIds.add(idManager.getKey(vids.get(i)));
+        }
+        Map<SliceQuery,Map<StaticBuffer,EntryList>> result = tx.edgeStoreMultiQuery(vertexIds, queries);
+        Map<SliceQuery,List<EntryList>> resultLists = new HashMap<SliceQuery,List<EntryList>>(queries.size());
+        for (SliceQuery query : queries) {
+            Map<StaticBuffer,EntryList> queryResult = result.get(query);
+            List<EntryList> resultList = new ArrayList<EntryList>(vertexIds.size());
+            for (StaticBuffer v : vertexIds) resultList.add(queryResult.get(v));
+            resultLists.put(query, resultList);
+        }
+        return resultLists;
+    }
+
 
     // ################### WRITE #########################
 
@@ -437,6 +577,14 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         idAssigner.assignID(vertex,label);
     }
 
+    public void assignID(InternalVertex vertex, VertexLabel label, int partitionID) {
+        idAssigner.assignID(vertex,label,partitionID);
+    }
+
+    public void assignIDs(Iterable<InternalRelation> relations) {
+        idAssigner.assignIDs(relations);
+    }
+
     public static boolean acquireLock(InternalRelation relation, int pos, boolean acquireLocksConfig) {
         InternalRelationType type = (InternalRelationType)relation.getType();
         return acquireLocksConfig && type.getConsistencyModifier()== ConsistencyModifier.LOCK &&
@@ -499,8 +647,9 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
 
         ListMultimap<Long, InternalRelation> mutations = ArrayListMultimap.create();
         ListMultimap<InternalVertex, InternalRelation> mutatedProperties = ArrayListMultimap.create();
-        List<IndexSerializer.IndexUpdate> indexUpdates = Lists.newArrayList();
-        //1) Collect deleted edges and their index updates and acquire edge locks
+        List<InternalRelation> deleted = new ArrayList<>();
+        List<InternalRelation> added = new ArrayList<>();
+        //1) Collect deleted edges and acquire edge locks
         for (InternalRelation del : Iterables.filter(deletedRelations,filter)) {
             Preconditions.checkArgument(del.isRemoved());
             for (int pos = 0; pos < del.getLen(); pos++) {
@@ -514,10 +663,10 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
                     mutator.acquireEdgeLock(idManager.getKey(vertex.longId()), entry);
                 }
             }
-            indexUpdates.addAll(indexSerializer.getIndexUpdates(del));
+            deleted.add(del);
         }
 
-        //2) Collect added edges and their index updates and acquire edge locks
+        //2) Collect added edges and acquire edge locks
         for (InternalRelation add : Iterables.filter(addedRelations,filter)) {
             Preconditions.checkArgument(add.isNew());
 
@@ -532,12 +681,32 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
                     mutator.acquireEdgeLock(idManager.getKey(vertex.longId()), entry.getColumn());
                 }
             }
-            indexUpdates.addAll(indexSerializer.getIndexUpdates(add));
+            added.add(add);
         }
 
-        //3) Collect all index update for vertices
-        for (InternalVertex v : mutatedProperties.keySet()) {
-            indexUpdates.addAll(indexSerializer.getIndexUpdates(v,mutatedProperties.get(v)));
+        //Large transactions serialize their relations in parallel. All results are applied to the mutator
+        //in the same order as in the sequential case so the commit remains deterministic.
+        final boolean parallel = commitPool != null && mutations.keySet().size() >= config.getParallelCommitThreshold();
+
+        //3) Collect all index updates - matching relations and vertices against indexes may query the transaction and
+        //is therefore done on this thread whereas large transactions serialize the index keys and entries in parallel
+        List<IndexSerializer.IndexUpdate> indexUpdates = Lists.newArrayList();
+        if (parallel) {
+            List<List<IndexSerializer.PreparedIndexUpdate>> preparedUpdates = new ArrayList<>();
+            for (InternalRelation del : deleted) preparedUpdates.add(indexSerializer.prepareIndexUpdates(del));
+            for (InternalRelation add : added) preparedUpdates.add(indexSerializer.prepareIndexUpdates(add));
+            for (InternalVertex v : mutatedProperties.keySet()) {
+                preparedUpdates.add(indexSerializer.prepareIndexUpdates(v,mutatedProperties.get(v)));
+            }
+            List<Collection<IndexSerializer.IndexUpdate>> serializedUpdates = runInCommitPool(() -> preparedUpdates.parallelStream()
+                    .map(indexSerializer::getIndexUpdates).collect(Collectors.toList()));
+            for (Collection<IndexSerializer.IndexUpdate> updates : serializedUpdates) indexUpdates.addAll(updates);
+        } else {
+            for (InternalRelation del : deleted) indexUpdates.addAll(indexSerializer.getIndexUpdates(del));
+            for (InternalRelation add : added) indexUpdates.addAll(indexSerializer.getIndexUpdates(add));
+            for (InternalVertex v : mutatedProperties.keySet()) {
+                indexUpdates.addAll(indexSerializer.getIndexUpdates(v,mutatedProperties.get(v)));
+            }
         }
         //4) Acquire index locks (deletions first)
         for (IndexSerializer.IndexUpdate update : indexUpdates) {
@@ -556,39 +725,28 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         }
 
         //5) Add relation mutations
-        for (Long vertexid : mutations.keySet()) {
-            Preconditions.checkArgument(vertexid > 0, "Vertex has no id: %s", vertexid);
-            List<InternalRelation> edges = mutations.get(vertexid);
-            List<Entry> additions = new ArrayList<Entry>(edges.size());
-            List<Entry> deletions = new ArrayList<Entry>(Math.max(10, edges.size() / 10));
-            for (InternalRelation edge : edges) {
-                InternalRelationType baseType = (InternalRelationType) edge.getType();
-                assert baseType.getBaseType()==null;
-
-                for (InternalRelationType type : baseType.getRelationIndexes()) {
-                    if (type.getStatus()== SchemaStatus.DISABLED) continue;
-                    for (int pos = 0; pos < edge.getArity(); pos++) {
-                        if (!type.isUnidirected(Direction.BOTH) && !type.isUnidirected(EdgeDirection.fromPosition(pos)))
-                            continue; //Directionality is not covered
-                        if (edge.getVertex(pos).longId()==vertexid) {
-                            StaticArrayEntry entry = edgeSerializer.writeRelation(edge, type, pos, tx);
-                            if (edge.isRemoved()) {
-                                deletions.add(entry);
-                            } else {
-                                Preconditions.checkArgument(edge.isNew());
-                                int ttl = getTTL(edge);
-                                if (ttl > 0) {
-                                    entry.setMetaData(EntryMetaData.TTL, ttl);
-                                }
-                                additions.add(entry);
-                            }
-                        }
-                    }
-                }
+        List<Map.Entry<Long, Collection<InternalRelation>>> vertexMutations = new ArrayList<>(mutations.asMap().entrySet());
+        List<VertexMutation> serialized;
+        if (parallel) {
+            //Resolve everything that depends on the transaction on this thread so that the parallel stage only
+            //serializes immutable inputs and never accesses the (non thread-safe) transaction
+            ResolvedTypes types = new ResolvedTypes(tx);
+            List<List<RelationWrite>> prepared = new ArrayList<>(vertexMutations.size());
+            for (Map.Entry<Long, Collection<InternalRelation>> vm : vertexMutations) {
+                prepared.add(prepareRelations(vm.getKey(), vm.getValue(), types));
             }
-
-            StaticBuffer vertexKey = idManager.getKey(vertexid);
-            mutator.mutateEdges(vertexKey, additions, deletions);
+            types.seal();
+            serialized = runInCommitPool(() -> IntStream.range(0, vertexMutations.size()).parallel()
+                    .mapToObj(i -> serializeRelations(vertexMutations.get(i).getKey(), prepared.get(i), types))
+                    .collect(Collectors.toList()));
+        } else {
+            serialized = new ArrayList<>(vertexMutations.size());
+            for (Map.Entry<Long, Collection<InternalRelation>> vm : vertexMutations) {
+                serialized.add(serializeRelations(vm.getKey(), vm.getValue(), tx));
+            }
+        }
+        for (VertexMutation vm : serialized) {
+            mutator.mutateEdges(vm.vertexKey, vm.additions, vm.deletions);
         }
 
         //6) Add index updates
@@ -615,6 +773,186 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         return new ModificationSummary(!mutations.isEmpty(),has2iMods);
     }
 
+    private <T> T runInCommitPool(Callable<T> task) {
+        try {
+            return commitPool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TitanException("Interrupted while preparing commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new TitanException("Could not prepare commit", e.getCause());
+        }
+    }
+
+    private static class VertexMutation {
+
+        final StaticBuffer vertexKey;
+        final List<Entry> additions;
+        final List<Entry> deletions;
+
+        private VertexMutation(StaticBuffer vertexKey, List<Entry> additions, List<Entry> deletions) {
+            this.vertexKey = vertexKey;
+            this.additions = additions;
+            this.deletions = deletions;
+        }
+    }
+
+    private VertexMutation serializeRelations(long vertexid, Collection<InternalRelation> edges, StandardTitanTx tx) {
+        Preconditions.checkArgument(vertexid > 0, "Vertex has no id: %s", vertexid);
+        List<Entry> additions = new ArrayList<Entry>(edges.size());
+        List<Entry> deletions = new ArrayList<Entry>(Math.max(10, edges.size() / 10));
+        for (InternalRelation edge : edges) {
+            InternalRelationType baseType = (InternalRelationType) edge.getType();
+            assert baseType.getBaseType()==null;
+
+            for (InternalRelationType type : baseType.getRelationIndexes()) {
+                if (type.getStatus()== SchemaStatus.DISABLED) continue;
+                for (int pos = 0; pos < edge.getArity(); pos++) {
+                    if (!type.isUnidirected(Direction.BOTH) && !type.isUnidirected(EdgeDirection.fromPosition(pos)))
+                        continue; //Directionality is not covered
+                    if (edge.getVertex(pos).longId()==vertexid) {
+                        StaticArrayEntry entry = edgeSerializer.writeRelation(edge, type, pos, tx);
+                        if (edge.isRemoved()) {
+                            deletions.add(entry);
+                        } else {
+                            Preconditions.checkArgument(edge.isNew());
+                            int ttl = getTTL(edge);
+                            if (ttl > 0) {
+                                entry.setMetaData(EntryMetaData.TTL, ttl);
+                            }
+                            additions.add(entry);
+                        }
+                    }
+                }
+            }
+        }
+        return new VertexMutation(idManager.getKey(vertexid), additions, deletions);
+    }
+
+    /**
+     * A relation to be written into the edgestore for one of its relation indexes. Holds the relation's properties,
+     * lifecycle and TTL which have been resolved against the transaction in advance.
+     */
+    private static class RelationWrite {
+
+        final InternalRelation relation;
+        final InternalRelationType type;
+        final int position;
+        final LongObjectHashMap<Object> properties;
+        final boolean removed;
+        final int ttl;
+
+        private RelationWrite(InternalRelation relation, InternalRelationType type, int position,
+                              LongObjectHashMap<Object> properties, boolean removed, int ttl) {
+            this.relation = relation;
+            this.type = type;
+            this.position = position;
+            this.properties = properties;
+            this.removed = removed;
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the property keys needed to serialize a set of relations. Keys are resolved (including
+     * their definitions) against the transaction on the committing thread so that the snapshot can subsequently be
+     * used to look up property keys by concurrent threads.
+     */
+    private static class ResolvedTypes {
+
+        private final StandardTitanTx tx;
+        private final Map<Long, PropertyKey> keys = new HashMap<>();
+        private boolean sealed = false;
+
+        private ResolvedTypes(StandardTitanTx tx) {
+            this.tx = tx;
+        }
+
+        private void resolve(InternalRelationType type, Iterable<PropertyKey> propertyKeys) {
+            Preconditions.checkState(!sealed);
+            //Load the parts of the definition accessed during serialization
+            type.multiplicity();
+            type.getSortOrder();
+            type.isInvisibleType();
+            if (type instanceof PropertyKey) ((PropertyKey) type).dataType();
+            for (long keyId : type.getSortKey()) resolve(tx.getExistingPropertyKey(keyId));
+            for (long keyId : type.getSignature()) resolve(tx.getExistingPropertyKey(keyId));
+            for (PropertyKey key : propertyKeys) resolve(key);
+        }
+
+        private void resolve(PropertyKey key) {
+            if (!keys.containsKey(key.longId())) {
+                key.dataType();
+                keys.put(key.longId(), key);
+            }
+        }
+
+        private void seal() {
+            sealed = true;
+        }
+
+        private PropertyKey getExistingPropertyKey(long id) {
+            assert sealed;
+            PropertyKey key = keys.get(id);
+            Preconditions.checkArgument(key != null, "Property key has not been resolved: %s", id);
+            return key;
+        }
+    }
+
+    private List<RelationWrite> prepareRelations(long vertexid, Collection<InternalRelation> edges, ResolvedTypes types) {
+        Preconditions.checkArgument(vertexid > 0, "Vertex has no id: %s", vertexid);
+        List<RelationWrite> writes = new ArrayList<>(edges.size());
+        for (InternalRelation edge : edges) {
+            InternalRelationType baseType = (InternalRelationType) edge.getType();
+            assert baseType.getBaseType()==null;
+            List<PropertyKey> propertyKeys = null;
+            LongObjectHashMap<Object> properties = null;
+            boolean removed = false;
+            int ttl = 0;
+
+            for (InternalRelationType type : baseType.getRelationIndexes()) {
+                if (type.getStatus()== SchemaStatus.DISABLED) continue;
+                for (int pos = 0; pos < edge.getArity(); pos++) {
+                    if (!type.isUnidirected(Direction.BOTH) && !type.isUnidirected(EdgeDirection.fromPosition(pos)))
+                        continue; //Directionality is not covered
+                    if (edge.getVertex(pos).longId()==vertexid) {
+                        if (propertyKeys == null) {
+                            propertyKeys = ImmutableList.copyOf(edge.getPropertyKeysDirect());
+                            properties = new LongObjectHashMap<>(propertyKeys.size());
+                            for (PropertyKey key : propertyKeys) properties.put(key.longId(), edge.getValueDirect(key));
+                            removed = edge.isRemoved();
+                            if (!removed) {
+                                Preconditions.checkArgument(edge.isNew());
+                                ttl = getTTL(edge);
+                            }
+                        }
+                        types.resolve(type, propertyKeys);
+                        writes.add(new RelationWrite(edge, type, pos, properties, removed, ttl));
+                    }
+                }
+            }
+        }
+        return writes;
+    }
+
+    private VertexMutation serializeRelations(long vertexid, List<RelationWrite> writes, ResolvedTypes types) {
+        List<Entry> additions = new ArrayList<Entry>(writes.size());
+        List<Entry> deletions = new ArrayList<Entry>(Math.max(10, writes.size() / 10));
+        for (RelationWrite write : writes) {
+            StaticArrayEntry entry = edgeSerializer.writeRelation(write.relation, write.type, write.position, write.properties, types::getExistingPropertyKey);
+            if (write.removed) {
+                deletions.add(entry);
+            } else {
+                if (write.ttl > 0) {
+                    entry.setMetaData(EntryMetaData.TTL, write.ttl);
+                }
+                additions.add(entry);
+            }
+        }
+        return new VertexMutation(idManager.getKey(vertexid), additions, deletions);
+    }
+
     private static final Predicate<InternalRelation> SCHEMA_FILTER = new Predicate<InternalRelation>() {
         @Override
         public boolean apply(@Nullable InternalRelation internalRelation) {
@@ -649,7 +987,9 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
         final boolean acquireLocks = tx.getConfiguration().hasAcquireLocks();
         final boolean hasTxIsolation = backend.getStoreFeatures().hasTxIsolation();
         final boolean logTransaction = config.hasLogTransactions() && !tx.getConfiguration().hasEnabledBatchLoading();
-        final KCVSLog txLog = logTransaction?backend.getSystemTxLog():null;
+        final Log txLog = logTransaction?backend.getSystemTxLog():null;
+        //Only the KCVS log can persist the success message atomically with the storage mutations
+        final boolean logPrimaryWithStorage = txLog instanceof KCVSLog;
         final TransactionLogHeader txLogHeader = new TransactionLogHeader(transactionId,txTimestamp, times);
         ModificationSummary commitSummary;
 
@@ -708,8 +1048,8 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
 
                 //1a. Add success message to tx log which will be committed atomically with all transactional changes so that we can recover secondary failures
                 //    This should not throw an exception since the mutations are just cached. If it does, it will be escalated since its critical
-                if (logTransaction) {
-                    txLog.add(txLogHeader.serializePrimary(serializer,
+                if (logTransaction && logPrimaryWithStorage) {
+                    ((KCVSLog)txLog).add(txLogHeader.serializePrimary(serializer,
                                         hasSecondaryPersistence?LogTxStatus.PRIMARY_SUCCESS:LogTxStatus.COMPLETE_SUCCESS),
                             txLogHeader.getLogKey(),mutator.getTxLogPersistor());
                 }
@@ -722,6 +1062,14 @@ public class StandardTitanGraph extends TitanBlueprintsGraph {
                     throw e;
                 }
 
+                //1b. Other log backends record the success message once storage has been committed. If the instance fails
+                //    in between, the secondary persistence of this transaction cannot be recovered from the log.
+                if (logTransaction && !logPrimaryWithStorage) {
+                    txLog.add(txLogHeader.serializePrimary(serializer,
+                                        hasSecondaryPersistence?LogTxStatus.PRIMARY_SUCCESS:LogTxStatus.COMPLETE_SUCCESS),
+                            txLogHeader.getLogKey());
+                }
+
                 if (hasSecondaryPersistence) {
                     LogTxStatus status = LogTxStatus.SECONDARY_SUCCESS;
                     Map<String,Throwable> indexFailures = ImmutableMap.of();
@@ -0,0 +1,339 @@
+package com.thinkaurelius.titan.graphdb.database.bulk;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicates;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkaurelius.titan.core.*;
+import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.BackendTransaction;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.configuration.ConfigOption;
+import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
+import com.thinkaurelius.titan.graphdb.configuration.PreInitializeConfigOptions;
+import com.thinkaurelius.titan.graphdb.database.StandardTitanGraph;
+import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
+import com.thinkaurelius.titan.graphdb.internal.ElementLifeCycle;
+import com.thinkaurelius.titan.graphdb.internal.InternalRelation;
+import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
+import com.thinkaurelius.titan.graphdb.relations.StandardEdge;
+import com.thinkaurelius.titan.graphdb.relations.StandardVertexProperty;
+import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
+import com.thinkaurelius.titan.graphdb.types.system.BaseKey;
+import com.thinkaurelius.titan.graphdb.types.system.BaseLabel;
+import com.thinkaurelius.titan.graphdb.types.system.BaseVertexLabel;
+import com.thinkaurelius.titan.graphdb.types.vertices.VertexLabelVertex;
+import com.thinkaurelius.titan.graphdb.vertices.StandardVertex;
+import com.thinkaurelius.titan.util.system.TXUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration.STORAGE_NS;
+
+/**
+ * Loads large numbers of vertices and edges into a graph without going through a {@link TitanTransaction}.
+ * <p/>
+ * Vertices are identified by an external id chosen by the application and edges reference their endpoints by those
+ * external ids, so vertices must be added before any edge that is incident on them. Added elements are collected into
+ * batches. When a batch is full, ids are assigned to all of its vertices and relations at once through the graph's
+ * id assigner and the batch is serialized into its own backend transaction. Serialization happens on the loading
+ * thread since it reads the schema through a single transaction; the serialized batches are then written to the
+ * storage backend by one of several flush threads. The mapping from external ids to the assigned vertex ids is kept in memory up
+ * to {@link #BULK_ID_CACHE_SIZE} entries and spilled to sorted files on disk beyond that.
+ * <p/>
+ * The loader trades safety for speed: it does not acquire locks, does not check uniqueness constraints or the
+ * existence of vertices and does not write to the transaction log. All schema elements must have been defined
+ * before loading. The loader is not thread safe; use one loader per ingesting thread.
+ *
+ * @see StandardTitanGraph#openBulkLoader()
+ */
+@PreInitializeConfigOptions
+public class BulkLoader implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLoader.class);
+
+    public static final ConfigOption<Integer> BULK_BATCH_SIZE = new ConfigOption<Integer>(STORAGE_NS,"bulk-batch-size",
+            "Number of vertices and edges a bulk loader collects before the batch is assigned ids and written to the " +
+                    "storage backend",
+            ConfigOption.Type.MASKABLE, 10000, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> BULK_FLUSH_THREADS = new ConfigOption<Integer>(STORAGE_NS,"bulk-flush-threads",
+            "Number of threads a bulk loader uses to write batches to the storage backend",
+            ConfigOption.Type.MASKABLE, 4, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> BULK_ID_CACHE_SIZE = new ConfigOption<Integer>(STORAGE_NS,"bulk-id-cache-size",
+            "Number of external to vertex id mappings a bulk loader keeps in memory before spilling them to disk",
+            ConfigOption.Type.MASKABLE, 1000000, ConfigOption.positiveInt());
+
+    public static final ConfigOption<String> BULK_SPILL_DIRECTORY = new ConfigOption<String>(STORAGE_NS,"bulk-spill-directory",
+            "Directory into which a bulk loader spills external id mappings. Defaults to the temporary directory of the JVM",
+            ConfigOption.Type.LOCAL, String.class);
+
+    private static final long FLUSH_TIMEOUT_MS = 60000;
+
+    private final StandardTitanGraph graph;
+    private final StandardTitanTx schemaTx;
+    private final ExecutorService flushExecutor;
+    private final Semaphore flushPermits;
+    private final int batchSize;
+    private final ExternalIdMap idMap;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private List<InternalRelation> batch;
+    private Map<StaticBuffer, InternalVertex> batchVertices;
+    private long temporaryIds = 0;
+    private long numVertices = 0;
+    private long numEdges = 0;
+    private boolean isOpen = true;
+
+    public BulkLoader(StandardTitanGraph graph) {
+        Preconditions.checkArgument(graph != null && graph.isOpen());
+        Configuration config = graph.getConfiguration().getConfiguration();
+        this.graph = graph;
+        this.batchSize = config.get(BULK_BATCH_SIZE);
+        int threads = config.get(BULK_FLUSH_THREADS);
+        this.flushExecutor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("TitanBulkFlush-%d").build());
+        this.flushPermits = new Semaphore(2 * threads);
+        File spillDirectory = new File(config.has(BULK_SPILL_DIRECTORY) ? config.get(BULK_SPILL_DIRECTORY)
+                : System.getProperty("java.io.tmpdir"));
+        Preconditions.checkArgument(spillDirectory.isDirectory() || spillDirectory.mkdirs(),
+                "Could not create spill directory: %s", spillDirectory);
+        this.idMap = new ExternalIdMap(config.get(BULK_ID_CACHE_SIZE), spillDirectory);
+        //Only used to resolve schema elements and as the type inspector for serialization, is never committed
+        this.schemaTx = (StandardTitanTx) graph.buildTransaction().start();
+        newBatch();
+    }
+
+    /**
+     * Adds a vertex with the given external id, vertex label and properties, provided as alternating
+     * property key names and values.
+     *
+     * @param externalId id which uniquely identifies this vertex among all vertices added to this loader
+     * @param label name of the vertex label or null for the default label
+     * @param keyValues
+     * @return this loader
+     */
+    public BulkLoader addVertex(Object externalId, String label, Object... keyValues) {
+        verifyOpen();
+        Preconditions.checkArgument(externalId != null, "Need to provide an external id");
+        Preconditions.checkArgument(keyValues.length % 2 == 0, "Expected alternating property keys and values");
+        StaticBuffer extId = serialize(externalId);
+        Preconditions.checkArgument(!batchVertices.containsKey(extId) && !idMap.contains(extId),
+                "Vertex with external id [%s] has already been added", externalId);
+
+        VertexLabel vertexLabel = BaseVertexLabel.DEFAULT_VERTEXLABEL;
+        if (label != null) {
+            vertexLabel = schemaTx.getVertexLabel(label);
+            Preconditions.checkArgument(vertexLabel != null, "Vertex label is not defined: %s", label);
+            Preconditions.checkArgument(!vertexLabel.isPartitioned(), "Cannot bulk load partitioned vertices: %s", label);
+        }
+        StandardVertex vertex = new StandardVertex(schemaTx,
+                IDManager.getTemporaryVertexID(IDManager.VertexIDType.NormalVertex, ++temporaryIds), ElementLifeCycle.New);
+        addProperty(vertex, BaseKey.VertexExists, Boolean.TRUE);
+        if (vertexLabel != BaseVertexLabel.DEFAULT_VERTEXLABEL) {
+            StandardEdge labelEdge = new StandardEdge(IDManager.getTemporaryRelationID(++temporaryIds),
+                    BaseLabel.VertexLabelEdge, vertex, (VertexLabelVertex) vertexLabel, ElementLifeCycle.New);
+            connect(labelEdge, vertex);
+        }
+        for (int i = 0; i < keyValues.length; i = i + 2) {
+            addProperty(vertex, getPropertyKey(keyValues[i]), keyValues[i + 1]);
+        }
+        batchVertices.put(extId, vertex);
+        numVertices++;
+        if (batch.size() >= batchSize) flush();
+        return this;
+    }
+
+    /**
+     * Adds an edge with the given label and properties, provided as alternating property key names and values,
+     * between the vertices with the given external ids. Both vertices must have been added to this loader before.
+     *
+     * @param outExternalId external id of the out-vertex
+     * @param label name of the edge label
+     * @param inExternalId external id of the in-vertex
+     * @param keyValues
+     * @return this loader
+     */
+    public BulkLoader addEdge(Object outExternalId, String label, Object inExternalId, Object... keyValues) {
+        verifyOpen();
+        Preconditions.checkArgument(keyValues.length % 2 == 0, "Expected alternating property keys and values");
+        EdgeLabel edgeLabel = schemaTx.getEdgeLabel(label);
+        Preconditions.checkArgument(edgeLabel != null, "Edge label is not defined: %s", label);
+        StandardEdge edge = new StandardEdge(IDManager.getTemporaryRelationID(++temporaryIds), edgeLabel,
+                getVertex(outExternalId), getVertex(inExternalId), ElementLifeCycle.New);
+        for (int i = 0; i < keyValues.length; i = i + 2) {
+            PropertyKey key = getPropertyKey(keyValues[i]);
+            edge.setPropertyDirect(key, schemaTx.verifyAttribute(key, keyValues[i + 1]));
+        }
+        batch.add(edge);
+        numEdges++;
+        if (batch.size() >= batchSize) flush();
+        return this;
+    }
+
+    /**
+     * Returns the id of the vertex with the given external id or null if no such vertex has been written by this loader.
+     *
+     * @param externalId
+     * @return
+     */
+    public Long getVertexId(Object externalId) {
+        return idMap.get(serialize(externalId));
+    }
+
+    public long getNumVertices() {
+        return numVertices;
+    }
+
+    public long getNumEdges() {
+        return numEdges;
+    }
+
+    /**
+     * Assigns ids to all vertices and relations added since the last flush, serializes them and hands them off to be
+     * written to the storage backend. Blocks while too many batches are waiting to be written.
+     */
+    public void flush() {
+        verifyOpen();
+        checkFailure();
+        if (batch.isEmpty()) return;
+        final List<InternalRelation> relations = batch;
+        graph.assignIDs(relations);
+        for (Map.Entry<StaticBuffer, InternalVertex> vertex : batchVertices.entrySet()) {
+            idMap.put(vertex.getKey(), vertex.getValue().longId());
+        }
+        newBatch();
+
+        try {
+            flushPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TitanException("Interrupted while waiting to flush bulk load batch", e);
+        }
+        final BackendTransaction mutator;
+        try {
+            mutator = prepare(relations);
+        } catch (Throwable e) {
+            flushPermits.release();
+            throw new TitanException("Could not serialize bulk load batch", e);
+        }
+        flushExecutor.submit(() -> {
+            try {
+                if (failure.get() == null) mutator.commit();
+                else mutator.rollback();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                log.error("Could not write bulk load batch", e);
+                try {
+                    mutator.rollback();
+                } catch (Throwable re) {
+                    log.warn("Could not roll back bulk load batch", re);
+                }
+            } finally {
+                flushPermits.release();
+            }
+        });
+    }
+
+    /**
+     * Serializes the given relations into a new backend transaction. This must happen on the loading thread since the
+     * schema transaction is not thread safe.
+     */
+    private BackendTransaction prepare(List<InternalRelation> relations) throws BackendException {
+        BackendTransaction mutator = graph.openBackendTransaction(schemaTx);
+        try {
+            graph.prepareCommit(relations, Collections.<InternalRelation>emptyList(), Predicates.<InternalRelation>alwaysTrue(),
+                    mutator, schemaTx, false);
+            return mutator;
+        } catch (Throwable e) {
+            mutator.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Flushes all remaining elements, waits for all batches to be written and releases all resources of this loader.
+     *
+     * @throws TitanException if any batch could not be written
+     */
+    @Override
+    public synchronized void close() {
+        if (!isOpen) return;
+        try {
+            if (failure.get() == null) flush();
+            flushExecutor.shutdown();
+            if (!flushExecutor.awaitTermination(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                throw new TitanException("Timed out waiting for bulk load batches to be written");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TitanException("Interrupted while waiting for bulk load batches to be written", e);
+        } finally {
+            isOpen = false;
+            flushExecutor.shutdownNow();
+            TXUtils.rollbackQuietly(schemaTx);
+            idMap.close();
+            batch = null;
+            batchVertices = null;
+        }
+        checkFailure();
+        log.info("Bulk loaded {} vertices and {} edges", numVertices, numEdges);
+    }
+
+    private void newBatch() {
+        batch = new ArrayList<>(batchSize);
+        batchVertices = new HashMap<>();
+    }
+
+    private void addProperty(StandardVertex vertex, PropertyKey key, Object value) {
+        StandardVertexProperty property = new StandardVertexProperty(IDManager.getTemporaryRelationID(++temporaryIds),
+                key, vertex, schemaTx.verifyAttribute(key, value), ElementLifeCycle.New);
+        connect(property, vertex);
+    }
+
+    private void connect(InternalRelation relation, StandardVertex vertex) {
+        //Index updates and the vertex label are computed from the relations attached to the new vertex
+        boolean success = vertex.addRelation(relation);
+        assert success;
+        batch.add(relation);
+    }
+
+    private PropertyKey getPropertyKey(Object name) {
+        Preconditions.checkArgument(name instanceof String, "Expected a property key name but got: %s", name);
+        PropertyKey key = schemaTx.getPropertyKey((String) name);
+        Preconditions.checkArgument(key != null, "Property key is not defined: %s", name);
+        return key;
+    }
+
+    private InternalVertex getVertex(Object externalId) {
+        Preconditions.checkArgument(externalId != null, "Need to provide an external id");
+        StaticBuffer extId = serialize(externalId);
+        InternalVertex vertex = batchVertices.get(extId);
+        if (vertex != null) return vertex;
+        Long id = idMap.get(extId);
+        Preconditions.checkArgument(id != null, "Vertex with external id [%s] has not been added", externalId);
+        //The edge only needs the id of an already written vertex
+        return new StandardVertex(schemaTx, id, ElementLifeCycle.Loaded);
+    }
+
+    private StaticBuffer serialize(Object externalId) {
+        return graph.getDataSerializer().getDataOutput(16).writeClassAndObject(externalId).getStaticBuffer();
+    }
+
+    private void checkFailure() {
+        Throwable e = failure.get();
+        if (e != null) throw new TitanException("Could not write bulk load batch", e);
+    }
+
+    private void verifyOpen() {
+        Preconditions.checkState(isOpen, "Bulk loader has been closed");
+    }
+
+}
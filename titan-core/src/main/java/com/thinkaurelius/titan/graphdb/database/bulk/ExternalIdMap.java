@@ -0,0 +1,264 @@
+package com.thinkaurelius.titan.graphdb.database.bulk;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.thinkaurelius.titan.core.TitanException;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Maps serialized external ids to the vertex ids assigned by a {@link BulkLoader}.
+ * <p/>
+ * Up to a configured number of mappings are kept in memory. When that number is exceeded, the mappings are sorted
+ * and spilled into an immutable run file on disk. Each run keeps a sparse in-memory index of every
+ * {@link #INDEX_INTERVAL}-th key so that a lookup reads at most one block of a run from disk, and a bloom filter
+ * so that most lookups of keys which are not contained in the run do not read from disk at all. Runs are searched
+ * from newest to oldest. Once there are {@link #MAX_RUNS} runs, they are merged into a single run to bound the
+ * number of runs a lookup has to search.
+ */
+class ExternalIdMap implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalIdMap.class);
+
+    static final int INDEX_INTERVAL = 64;
+    static final int MAX_RUNS = 8;
+
+    private static final double BLOOM_FILTER_FPP = 0.01;
+
+    private final int maxInMemory;
+    private final File directory;
+
+    private final Map<StaticBuffer, Long> memory;
+    private final List<Run> runs = new ArrayList<>();
+
+    ExternalIdMap(int maxInMemory, File directory) {
+        Preconditions.checkArgument(maxInMemory > 0);
+        Preconditions.checkArgument(directory != null);
+        this.maxInMemory = maxInMemory;
+        this.directory = directory;
+        this.memory = new HashMap<>();
+    }
+
+    /**
+     * Records the vertex id for the given external id. External ids must be unique, which is verified against the
+     * mappings in memory as well as those spilled to disk.
+     */
+    void put(StaticBuffer externalId, long vertexId) {
+        Preconditions.checkArgument(!contains(externalId), "Duplicate external vertex id");
+        memory.put(externalId, vertexId);
+        if (memory.size() >= maxInMemory) spill();
+    }
+
+    boolean contains(StaticBuffer externalId) {
+        return get(externalId) != null;
+    }
+
+    /**
+     * Returns the vertex id for the given external id or null if no such mapping has been recorded
+     */
+    Long get(StaticBuffer externalId) {
+        Long id = memory.get(externalId);
+        if (id != null) return id;
+        try {
+            for (int i = runs.size() - 1; i >= 0; i--) {
+                id = runs.get(i).get(externalId);
+                if (id != null) return id;
+            }
+        } catch (IOException e) {
+            throw new TitanException("Could not read spilled external ids", e);
+        }
+        return null;
+    }
+
+    int numRuns() {
+        return runs.size();
+    }
+
+    private void spill() {
+        List<Map.Entry<StaticBuffer, Long>> entries = new ArrayList<>(memory.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        try {
+            runs.add(new Run(entries.iterator(), entries.size()));
+            log.debug("Spilled {} external ids into run {}", entries.size(), runs.size());
+            if (runs.size() >= MAX_RUNS) merge();
+        } catch (IOException e) {
+            throw new TitanException("Could not spill external ids to disk", e);
+        }
+        memory.clear();
+    }
+
+    /**
+     * Merges all runs into a single run. Since external ids are unique, the runs do not share any keys.
+     */
+    private void merge() throws IOException {
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        long size = 0;
+        try {
+            PriorityQueue<RunReader> queue = new PriorityQueue<>(runs.size(),
+                    (r1, r2) -> r1.current.getKey().compareTo(r2.current.getKey()));
+            for (Run run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                size += run.size;
+                if (reader.advance()) queue.add(reader);
+            }
+            Iterator<Map.Entry<StaticBuffer, Long>> merged = new Iterator<Map.Entry<StaticBuffer, Long>>() {
+                @Override
+                public boolean hasNext() {
+                    return !queue.isEmpty();
+                }
+
+                @Override
+                public Map.Entry<StaticBuffer, Long> next() {
+                    RunReader reader = queue.poll();
+                    Map.Entry<StaticBuffer, Long> next = reader.current;
+                    try {
+                        if (reader.advance()) queue.add(reader);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return next;
+                }
+            };
+            Run run;
+            try {
+                run = new Run(merged, size);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (Run r : runs) r.close();
+            runs.clear();
+            runs.add(run);
+            log.debug("Merged {} external ids into a single run", size);
+        } finally {
+            for (RunReader reader : readers) reader.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        memory.clear();
+        for (Run run : runs) run.close();
+        runs.clear();
+    }
+
+    /**
+     * A sorted, immutable run file of [int length][key bytes][long vertex id] records
+     */
+    private class Run {
+
+        private final File file;
+        private final RandomAccessFile reader;
+        private final StaticBuffer[] indexKeys;
+        private final long[] indexOffsets;
+        private final BloomFilter<byte[]> filter;
+        private final long size;
+        private final long length;
+
+        private Run(Iterator<Map.Entry<StaticBuffer, Long>> entries, long size) throws IOException {
+            file = File.createTempFile("titan-bulk-ids-", ".run", directory);
+            file.deleteOnExit();
+            int indexSize = (int) ((size + INDEX_INTERVAL - 1) / INDEX_INTERVAL);
+            indexKeys = new StaticBuffer[indexSize];
+            indexOffsets = new long[indexSize];
+            filter = BloomFilter.create(Funnels.byteArrayFunnel(), (int) Math.max(size, 1), BLOOM_FILTER_FPP);
+            long count = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                long offset = 0;
+                while (entries.hasNext()) {
+                    Map.Entry<StaticBuffer, Long> entry = entries.next();
+                    Preconditions.checkState(count < size);
+                    byte[] key = entry.getKey().as(StaticBuffer.ARRAY_FACTORY);
+                    if (count % INDEX_INTERVAL == 0) {
+                        indexKeys[(int) (count / INDEX_INTERVAL)] = StaticArrayBuffer.of(key);
+                        indexOffsets[(int) (count / INDEX_INTERVAL)] = offset;
+                    }
+                    filter.put(key);
+                    out.writeInt(key.length);
+                    out.write(key);
+                    out.writeLong(entry.getValue());
+                    offset += 4 + key.length + 8;
+                    count++;
+                }
+            }
+            Preconditions.checkState(count == size, "Expected %s entries but got %s", size, count);
+            this.size = size;
+            length = file.length();
+            reader = new RandomAccessFile(file, "r");
+        }
+
+        private Long get(StaticBuffer key) throws IOException {
+            byte[] bytes = key.as(StaticBuffer.ARRAY_FACTORY);
+            if (!filter.mightContain(bytes)) return null;
+            int pos = Arrays.binarySearch(indexKeys, key);
+            if (pos == -1) return null; //Smaller than the first key in this run
+            int block = pos >= 0 ? pos : -pos - 2;
+            long end = block + 1 < indexOffsets.length ? indexOffsets[block + 1] : length;
+            byte[] data = new byte[(int) (end - indexOffsets[block])];
+            reader.seek(indexOffsets[block]);
+            reader.readFully(data);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            for (int i = 0; i < INDEX_INTERVAL && in.available() > 0; i++) {
+                byte[] k = new byte[in.readInt()];
+                in.readFully(k);
+                long id = in.readLong();
+                int cmp = StaticArrayBuffer.of(k).compareTo(key);
+                if (cmp == 0) return id;
+                else if (cmp > 0) break;
+            }
+            return null;
+        }
+
+        private void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.warn("Could not close run file {}", file, e);
+            }
+            if (!file.delete()) log.warn("Could not delete run file {}", file);
+        }
+    }
+
+    /**
+     * Reads the records of a run sequentially
+     */
+    private static class RunReader implements Closeable {
+
+        private final DataInputStream in;
+        private long remaining;
+        private Map.Entry<StaticBuffer, Long> current;
+
+        private RunReader(Run run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file)));
+            remaining = run.size;
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+            byte[] key = new byte[in.readInt()];
+            in.readFully(key);
+            current = new AbstractMap.SimpleImmutableEntry<>(StaticArrayBuffer.of(key), in.readLong());
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                log.warn("Could not close run reader", e);
+            }
+        }
+    }
+
+}
@@ -4,10 +4,13 @@ import com.thinkaurelius.titan.diskstorage.EntryList;
 import com.thinkaurelius.titan.diskstorage.util.CacheMetricsAction;
 import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
 import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
+import com.thinkaurelius.titan.graphdb.types.TypeDefinitionMap;
 import com.thinkaurelius.titan.graphdb.types.system.BaseRelationType;
 import com.thinkaurelius.titan.util.stats.MetricManager;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 
+import java.util.List;
+
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
  */
@@ -57,4 +60,39 @@ public class MetricInstrumentedSchemaCache implements SchemaCache {
         cache.expireSchemaElement(schemaId);
     }
 
+    @Override
+    public long getSchemaVersion() {
+        return cache.getSchemaVersion();
+    }
+
+    @Override
+    public String getSchemaName(long schemaId) {
+        return cache.getSchemaName(schemaId);
+    }
+
+    @Override
+    public TypeDefinitionMap getSchemaDefinition(long schemaId) {
+        return cache.getSchemaDefinition(schemaId);
+    }
+
+    @Override
+    public void cacheSchemaName(long schemaId, String name, long version) {
+        cache.cacheSchemaName(schemaId, name, version);
+    }
+
+    @Override
+    public void cacheSchemaDefinition(long schemaId, TypeDefinitionMap definition, long version) {
+        cache.cacheSchemaDefinition(schemaId, definition, version);
+    }
+
+    @Override
+    public List<RelatedSchema> getSchemaRelated(long schemaId, Direction dir) {
+        return cache.getSchemaRelated(schemaId, dir);
+    }
+
+    @Override
+    public void cacheSchemaRelated(long schemaId, Direction dir, List<RelatedSchema> related, long version) {
+        cache.cacheSchemaRelated(schemaId, dir, related, version);
+    }
+
 }
@@ -1,18 +1,25 @@
 package com.thinkaurelius.titan.graphdb.database.cache;
 
+import com.google.common.base.Preconditions;
 import com.thinkaurelius.titan.diskstorage.EntryList;
+import com.thinkaurelius.titan.graphdb.types.TypeDefinitionCategory;
+import com.thinkaurelius.titan.graphdb.types.TypeDefinitionMap;
 import com.thinkaurelius.titan.graphdb.types.system.BaseRelationType;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 
+import java.util.List;
+
 /**
  * This interface defines the methods that a SchemaCache must implement. A SchemaCache is maintained by the Titan graph
  * database in order to make the frequent lookups of schema vertices and their attributes more efficient through a dedicated
  * caching layer. Schema vertices are type vertices and related vertices.
  *
- * The SchemaCache speeds up two types of lookups:
+ * The SchemaCache speeds up three types of lookups:
  * <ul>
  *     <li>Retrieving a type by its name (index lookup)</li>
  *     <li>Retrieving the relations of a schema vertex for predefined {@link com.thinkaurelius.titan.graphdb.types.system.SystemRelationType}s</li>
+ *     <li>Retrieving the name, definition and related schema vertices (e.g. indexes) of a schema vertex, which are parsed
+ *     once and then shared by all transactions</li>
  * </ul>
  *
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -25,6 +32,77 @@ public interface SchemaCache {
 
     public void expireSchemaElement(final long schemaId);
 
+    /**
+     * Returns the current version of the parsed schema definitions. The version changes whenever a schema element
+     * is expired. It must be read before retrieving the schema relations from which a name or definition is parsed and
+     * passed back when caching the parsed result, so that results parsed from stale relations are discarded.
+     *
+     * @return
+     */
+    public long getSchemaVersion();
+
+    /**
+     * Returns the parsed name of the schema vertex with the given id shared by all transactions, or null if it has not been cached.
+     *
+     * @param schemaId
+     * @return
+     */
+    public String getSchemaName(final long schemaId);
+
+    /**
+     * Returns the parsed definition of the schema vertex with the given id shared by all transactions, or null if it has not been cached.
+     * The returned definition is a copy owned by the caller.
+     *
+     * @param schemaId
+     * @return
+     */
+    public TypeDefinitionMap getSchemaDefinition(final long schemaId);
+
+    public void cacheSchemaName(final long schemaId, final String name, final long version);
+
+    public void cacheSchemaDefinition(final long schemaId, final TypeDefinitionMap definition, final long version);
+
+    /**
+     * Returns the schema vertices related to the schema vertex with the given id in the given direction, as parsed from its
+     * {@link com.thinkaurelius.titan.graphdb.types.system.BaseLabel#SchemaDefinitionEdge}s, or null if they have not been cached.
+     *
+     * @param schemaId
+     * @param dir
+     * @return
+     */
+    public List<RelatedSchema> getSchemaRelated(final long schemaId, final Direction dir);
+
+    public void cacheSchemaRelated(final long schemaId, final Direction dir, final List<RelatedSchema> related, final long version);
+
+    /**
+     * Immutable description of a schema definition edge that is independent of any transaction
+     */
+    public static class RelatedSchema {
+
+        private final TypeDefinitionCategory category;
+        private final long schemaId;
+        private final Object modifier;
+
+        public RelatedSchema(TypeDefinitionCategory category, long schemaId, Object modifier) {
+            Preconditions.checkNotNull(category);
+            this.category = category;
+            this.schemaId = schemaId;
+            this.modifier = modifier;
+        }
+
+        public TypeDefinitionCategory getCategory() {
+            return category;
+        }
+
+        public long getSchemaId() {
+            return schemaId;
+        }
+
+        public Object getModifier() {
+            return modifier;
+        }
+    }
+
     public interface StoreRetrieval {
 
         public Long retrieveSchemaByName(final String typeName);
@@ -3,9 +3,11 @@ package com.thinkaurelius.titan.graphdb.database.cache;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.thinkaurelius.titan.diskstorage.EntryList;
 import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
 import com.thinkaurelius.titan.graphdb.relations.EdgeDirection;
+import com.thinkaurelius.titan.graphdb.types.TypeDefinitionMap;
 import com.thinkaurelius.titan.graphdb.types.system.BaseKey;
 import com.thinkaurelius.titan.graphdb.types.system.BaseLabel;
 import com.thinkaurelius.titan.graphdb.types.system.BaseRelationType;
@@ -14,6 +16,7 @@ import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -48,6 +51,8 @@ public class StandardSchemaCache implements SchemaCache {
     private volatile ConcurrentMap<Long,EntryList> schemaRelations;
     private final Cache<Long,EntryList> schemaRelationsBackup;
 
+    private volatile ParsedSchema parsedSchema = new ParsedSchema(0, null);
+
     public StandardSchemaCache(final StoreRetrieval retriever) {
         this(MAX_CACHED_TYPES_DEFAULT,retriever);
     }
@@ -169,6 +174,52 @@ public class StandardSchemaCache implements SchemaCache {
 //        typeNamesBackup.invalidate(name);
 //    }
 
+    @Override
+    public long getSchemaVersion() {
+        return parsedSchema.version;
+    }
+
+    @Override
+    public String getSchemaName(final long schemaId) {
+        return parsedSchema.names.get(schemaId);
+    }
+
+    @Override
+    public TypeDefinitionMap getSchemaDefinition(final long schemaId) {
+        TypeDefinitionMap definition = parsedSchema.definitions.get(schemaId);
+        //Definitions are mutable, hence hand out a copy so that the shared definition cannot be modified
+        return definition==null?null:new TypeDefinitionMap(definition);
+    }
+
+    @Override
+    public List<RelatedSchema> getSchemaRelated(final long schemaId, final Direction dir) {
+        return parsedSchema.getRelated(dir).get(schemaId);
+    }
+
+    @Override
+    public void cacheSchemaName(final long schemaId, final String name, final long version) {
+        Preconditions.checkNotNull(name);
+        ParsedSchema current = parsedSchema;
+        if (current.version==version && current.names.size()<maxCachedTypes) current.names.put(schemaId,name);
+    }
+
+    @Override
+    public void cacheSchemaDefinition(final long schemaId, final TypeDefinitionMap definition, final long version) {
+        Preconditions.checkNotNull(definition);
+        ParsedSchema current = parsedSchema;
+        if (current.version==version && current.definitions.size()<maxCachedTypes)
+            current.definitions.put(schemaId,new TypeDefinitionMap(definition));
+    }
+
+    @Override
+    public void cacheSchemaRelated(final long schemaId, final Direction dir, final List<RelatedSchema> related, final long version) {
+        Preconditions.checkNotNull(related);
+        ParsedSchema current = parsedSchema;
+        NonBlockingHashMapLong<List<RelatedSchema>> relatedSchema = current.getRelated(dir);
+        if (current.version==version && relatedSchema.size()<maxCachedTypes)
+            relatedSchema.put(schemaId, ImmutableList.copyOf(related));
+    }
+
     @Override
     public void expireSchemaElement(final long schemaId) {
         //1) expire relations
@@ -197,6 +248,50 @@ public class StandardSchemaCache implements SchemaCache {
         for (Map.Entry<String,Long> entry : typeNamesBackup.asMap().entrySet()) {
             if (entry.getValue().equals(schemaId)) typeNamesBackup.invalidate(entry.getKey());
         }
+        //3) expire parsed names, definitions and related schema vertices by swapping in a new version. This has to happen last: a concurrent
+        //transaction that read the relations before they were expired above can then only publish into the discarded version.
+        synchronized (this) {
+            parsedSchema = new ParsedSchema(parsedSchema.version+1, parsedSchema, schemaId);
+        }
+    }
+
+    /**
+     * Versioned set of parsed schema names, definitions and related schema vertices. Entries are only ever added to a version; expiring a
+     * schema element creates a new version which copies all entries except those of the expired element.
+     */
+    private static class ParsedSchema {
+
+        private final long version;
+        private final NonBlockingHashMapLong<String> names;
+        private final NonBlockingHashMapLong<TypeDefinitionMap> definitions;
+        private final NonBlockingHashMapLong<List<RelatedSchema>> outRelated;
+        private final NonBlockingHashMapLong<List<RelatedSchema>> inRelated;
+
+        private ParsedSchema(final long version, final ParsedSchema previous, final long... expiredIds) {
+            this.version = version;
+            this.names = new NonBlockingHashMapLong<String>(INITIAL_CAPACITY);
+            this.definitions = new NonBlockingHashMapLong<TypeDefinitionMap>(INITIAL_CAPACITY);
+            this.outRelated = new NonBlockingHashMapLong<List<RelatedSchema>>(INITIAL_CAPACITY);
+            this.inRelated = new NonBlockingHashMapLong<List<RelatedSchema>>(INITIAL_CAPACITY);
+            if (previous!=null) {
+                names.putAll(previous.names);
+                definitions.putAll(previous.definitions);
+                outRelated.putAll(previous.outRelated);
+                inRelated.putAll(previous.inRelated);
+                for (long id : expiredIds) {
+                    names.remove(id);
+                    definitions.remove(id);
+                    outRelated.remove(id);
+                    inRelated.remove(id);
+                }
+            }
+        }
+
+        private NonBlockingHashMapLong<List<RelatedSchema>> getRelated(final Direction dir) {
+            assert dir==Direction.OUT || dir==Direction.IN;
+            return dir==Direction.OUT?outRelated:inRelated;
+        }
+
     }
 
 }
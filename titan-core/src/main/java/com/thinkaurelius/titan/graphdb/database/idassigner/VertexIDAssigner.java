@@ -46,7 +46,8 @@ public class VertexIDAssigner implements AutoCloseable {
             "Name of the vertex placement strategy or full class name", ConfigOption.Type.MASKABLE, "simple");
 
     private static final Map<String,String> REGISTERED_PLACEMENT_STRATEGIES = ImmutableMap.of(
-            "simple", SimpleBulkPlacementStrategy.class.getName()
+            "simple", SimpleBulkPlacementStrategy.class.getName(),
+            "locality", LocalityPlacementStrategy.class.getName()
     );
 
 
@@ -140,6 +141,20 @@ public class VertexIDAssigner implements AutoCloseable {
         assignID(vertex,getVertexIDType(label));
     }
 
+    /**
+     * Assigns the vertex an id in the given partition instead of the partition suggested by the placement strategy.
+     *
+     * @param vertex
+     * @param label
+     * @param partitionID
+     * @throws IDPoolExhaustedException if the given partition has no more ids
+     */
+    public void assignID(InternalVertex vertex, VertexLabel label, int partitionID) {
+        Preconditions.checkArgument(vertex!=null && label!=null);
+        Preconditions.checkArgument(!label.isPartitioned(),"Cannot place partitioned vertices: %s",label);
+        assignID(vertex,partitionID,getVertexIDType(label));
+    }
+
 
     private void assignID(InternalElement element, IDManager.VertexIDType vertexIDType) {
         for (int attempt = 0; attempt < MAX_PARTITION_RENEW_ATTEMPTS; attempt++) {
@@ -0,0 +1,163 @@
+package com.thinkaurelius.titan.graphdb.database.idassigner.placement;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
+import com.thinkaurelius.titan.diskstorage.configuration.ConfigOption;
+import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
+import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
+import com.thinkaurelius.titan.graphdb.configuration.PreInitializeConfigOptions;
+import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
+import com.thinkaurelius.titan.graphdb.internal.InternalRelation;
+import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bulk placement strategy that co-locates vertices with their neighbors. When a transaction commits, each new vertex
+ * is placed in the partition that most of its adjacent, already persisted vertices reside in. New vertices that are only
+ * connected to other new vertices inherit the placement of those neighbors so that a newly created neighborhood ends up
+ * in the same partition. Vertices without any placed neighbors fall back to the random bulk placement of
+ * {@link SimpleBulkPlacementStrategy}.
+ * <p/>
+ * To avoid that densely connected regions of the graph pile up in a few partitions, a vertex is only placed with its
+ * neighbors if the targeted partition has not received more than {@link #MAX_IMBALANCE} times the average number
+ * of vertices placed per partition. Note, that the balance is tracked per graph instance and hence only accounts for the
+ * vertices placed by this instance.
+ * <p/>
+ * Like all bulk placement strategies, this strategy requires that ids are not assigned immediately
+ * (i.e. {@link GraphDatabaseConfiguration#IDS_FLUSH} is disabled) since the adjacency of a vertex is only known at commit time.
+ */
+@PreInitializeConfigOptions
+public class LocalityPlacementStrategy extends SimpleBulkPlacementStrategy {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(LocalityPlacementStrategy.class);
+
+    public static final ConfigOption<Double> MAX_IMBALANCE = new ConfigOption<Double>(GraphDatabaseConfiguration.IDS_NS,
+            "locality-max-imbalance","Maximum number of vertices placed into a single partition relative to the average number " +
+            "of vertices placed per partition before locality based placement falls back to random placement",
+            ConfigOption.Type.MASKABLE, 2.0, imbalance -> imbalance!=null && imbalance>=1.0);
+
+    /**
+     * Number of vertices each partition may receive before the balance constraint is enforced so that
+     * the placement of the first vertices in a fresh graph is not dominated by the balance constraint.
+     */
+    public static final int BALANCE_SLACK = 1000;
+
+    /**
+     * Maximum number of rounds in which placements are propagated between new vertices
+     */
+    public static final int MAX_PROPAGATION_ROUNDS = 5;
+
+    private final double maxImbalance;
+
+    private AtomicLongArray placedVertices;
+    private final AtomicLong totalPlacedVertices = new AtomicLong(0);
+    private IDManager idManager;
+
+    public LocalityPlacementStrategy(Configuration config) {
+        super(config);
+        this.maxImbalance = config.get(MAX_IMBALANCE);
+    }
+
+    public LocalityPlacementStrategy(double maxImbalance, int concurrentPartitions) {
+        super(concurrentPartitions);
+        Preconditions.checkArgument(maxImbalance>=1.0,"Invalid imbalance: %s",maxImbalance);
+        this.maxImbalance = maxImbalance;
+    }
+
+    @Override
+    public void injectIDManager(IDManager idManager) {
+        Preconditions.checkNotNull(idManager);
+        assert idManager.getPartitionBound()<=Integer.MAX_VALUE;
+        this.idManager=idManager;
+        this.placedVertices=new AtomicLongArray((int)idManager.getPartitionBound());
+    }
+
+    @Override
+    public void getPartitions(Map<InternalVertex, PartitionAssignment> vertices) {
+        Preconditions.checkState(idManager!=null,"LocalityPlacementStrategy has not been initialized correctly");
+        super.getPartitions(vertices);
+
+        //Collect the partitions of persisted neighbors and the new neighbors of each new vertex
+        Map<InternalVertex, Multiset<Integer>> neighborPartitions = new HashMap<InternalVertex, Multiset<Integer>>(vertices.size());
+        Map<InternalVertex, List<InternalVertex>> newNeighbors = new HashMap<InternalVertex, List<InternalVertex>>(vertices.size());
+        for (InternalVertex vertex : vertices.keySet()) {
+            Multiset<Integer> partitions = HashMultiset.create();
+            List<InternalVertex> adjacent = new ArrayList<InternalVertex>();
+            for (InternalRelation relation : vertex.getAddedRelations(r -> r.isEdge())) {
+                for (int pos = 0; pos < relation.getArity(); pos++) {
+                    InternalVertex other = relation.getVertex(pos);
+                    if (other.equals(vertex)) continue;
+                    if (!other.hasId()) {
+                        if (vertices.containsKey(other)) adjacent.add(other);
+                    } else if (idManager.isUserVertexId(other.longId()) && !idManager.isPartitionedVertex(other.longId())) {
+                        partitions.add((int)idManager.getPartitionId(other.longId()));
+                    }
+                }
+            }
+            neighborPartitions.put(vertex, partitions);
+            newNeighbors.put(vertex, adjacent);
+        }
+
+        //Place vertices with persisted neighbors first and then propagate placements along new edges
+        Map<InternalVertex, Integer> placements = new HashMap<InternalVertex, Integer>(vertices.size());
+        for (int round = 0; round <= MAX_PROPAGATION_ROUNDS && placements.size() < vertices.size(); round++) {
+            Map<InternalVertex, Integer> roundPlacements = new HashMap<InternalVertex, Integer>();
+            for (InternalVertex vertex : vertices.keySet()) {
+                if (placements.containsKey(vertex)) continue;
+                Multiset<Integer> partitions = neighborPartitions.get(vertex);
+                if (round>0) {
+                    partitions = HashMultiset.create(partitions);
+                    for (InternalVertex neighbor : newNeighbors.get(vertex)) {
+                        Integer partition = placements.get(neighbor);
+                        if (partition!=null) partitions.add(partition);
+                    }
+                }
+                int partition = selectPartition(partitions);
+                if (partition>=0) roundPlacements.put(vertex, partition);
+            }
+            if (roundPlacements.isEmpty() && round>0) break;
+            placements.putAll(roundPlacements);
+        }
+
+        for (Map.Entry<InternalVertex, PartitionAssignment> entry : vertices.entrySet()) {
+            Integer partition = placements.get(entry.getKey());
+            if (partition!=null) entry.setValue(new SimplePartitionAssignment(partition));
+            int placed = entry.getValue().getPartitionID();
+            if (placed>=0 && placed<placedVertices.length()) {
+                placedVertices.incrementAndGet(placed);
+                totalPlacedVertices.incrementAndGet();
+            }
+        }
+        log.trace("Placed {} of {} vertices by locality", placements.size(), vertices.size());
+    }
+
+    /**
+     * Returns the partition holding the most neighbors which is neither exhausted nor exceeds the balance constraint
+     * or -1 if no such partition exists.
+     *
+     * @param partitions
+     * @return
+     */
+    private int selectPartition(Multiset<Integer> partitions) {
+        if (partitions.isEmpty()) return -1;
+        long limit = (long)Math.ceil(maxImbalance * (totalPlacedVertices.get() + 1) / placedVertices.length()) + BALANCE_SLACK;
+        for (Integer partition : Multisets.copyHighestCountFirst(partitions).elementSet()) {
+            if (isExhaustedPartition(partition)) continue;
+            if (partition < placedVertices.length() && placedVertices.get(partition) >= limit) continue;
+            return partition;
+        }
+        return -1;
+    }
+
+}
@@ -137,6 +137,49 @@ public class VariableLong {
         return convertFromUnsigned(readUnsigned(in));
     }
 
+    /* ##################################
+      Read and write arbitrary longs so that the byte order of the encoding matches the numeric order
+    ################################## */
+
+    private static final int ORDERED_ZERO_HEADER = 0x80;
+
+    /**
+     * The format used is this:
+     * - The first byte is a header which encodes the sign and the number of bytes n that follow it. Non-negative values
+     * use 0x80+n and are followed by the n significant bytes of the value. Negative values use 0x7F-n and are followed
+     * by the n significant bytes of the value's complement, i.e. -1 is written as the single byte 0x7F.
+     * - The value bytes follow in big-endian order.
+     * Hence, the encoding is prefix free and byte order preserving. The header never uses the values 0x00-0x76 or
+     * 0x89-0xFF, which can be used as markers by the caller.
+     *
+     * @param out
+     * @param value
+     */
+    public static void writeOrdered(WriteBuffer out, final long value) {
+        int numBytes = orderedLength(value) - 1;
+        out.putByte((byte) (value < 0 ? ORDERED_ZERO_HEADER - 1 - numBytes : ORDERED_ZERO_HEADER + numBytes));
+        for (int i = numBytes - 1; i >= 0; i--) {
+            out.putByte((byte) (value >>> (i * 8)));
+        }
+    }
+
+    public static int orderedLength(final long value) {
+        long significant = value < 0 ? ~value : value;
+        return 1 + (Long.SIZE - Long.numberOfLeadingZeros(significant) + 7) / 8;
+    }
+
+    public static long readOrdered(ScanBuffer in) {
+        int header = unsignedByte(in.getByte());
+        boolean negative = header < ORDERED_ZERO_HEADER;
+        int numBytes = negative ? ORDERED_ZERO_HEADER - 1 - header : header - ORDERED_ZERO_HEADER;
+        Preconditions.checkArgument(numBytes >= 0 && numBytes <= 8, "Invalid header: %s", header);
+        long value = negative ? -1 : 0;
+        for (int i = 0; i < numBytes; i++) {
+            value = value << 8 | (in.getByte() & 0xFF);
+        }
+        return value;
+    }
+
 
     /* ##################################
       Read and write positive longs with a specified binary prefix of fixed length
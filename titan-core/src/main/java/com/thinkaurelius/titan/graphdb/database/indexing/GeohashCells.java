@@ -0,0 +1,219 @@
+package com.thinkaurelius.titan.graphdb.database.indexing;
+
+import com.google.common.base.Preconditions;
+import com.spatial4j.core.context.SpatialContext;
+import com.spatial4j.core.shape.Rectangle;
+import com.spatial4j.core.shape.Shape;
+import com.spatial4j.core.shape.SpatialRelation;
+import com.thinkaurelius.titan.core.attribute.Geo;
+import com.thinkaurelius.titan.core.attribute.Geoshape;
+import com.thinkaurelius.titan.core.schema.Mapping;
+import com.thinkaurelius.titan.graphdb.query.TitanPredicate;
+import com.thinkaurelius.titan.graphdb.types.CompositeIndexType;
+import com.thinkaurelius.titan.graphdb.types.IndexField;
+import com.thinkaurelius.titan.graphdb.types.ParameterIndexField;
+import com.thinkaurelius.titan.graphdb.types.ParameterType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Maps {@link Geoshape}s onto geohash cells so that geo values can be indexed by composite indexes.
+ * <p/>
+ * A field of a composite index is indexed by geohash if it is mapped as {@link Mapping#GEOHASH}. Points are indexed
+ * under the cell at the configured precision that contains them. All other shapes are indexed under the cells that cover
+ * them at the deepest level (up to the configured precision) that requires no more than {@link #MAX_SHAPE_CELLS} cells.
+ * <p/>
+ * A query region is covered by the cells at the configured precision that intersect it together with all of their
+ * ancestor cells, so that shapes indexed at a coarser level are found as well. Hence, the matching index entries
+ * are a superset of the actual answer and the exact geometry needs to be filtered afterwards.
+ */
+public class GeohashCells {
+
+    private static final SpatialContext CTX = SpatialContext.GEO;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    public static final int DEFAULT_PRECISION = 6;
+    public static final int MAX_PRECISION = 12;
+
+    /**
+     * Maximum number of cells a non-point shape is indexed under
+     */
+    public static final int MAX_SHAPE_CELLS = 16;
+
+    /**
+     * Maximum number of cells (at the configured precision) used to cover a query region. Larger regions are not
+     * answered by the index.
+     */
+    public static final int MAX_QUERY_CELLS = 1024;
+
+    /**
+     * Returns the geohash precision of the given index field or 0 if the field is not indexed by geohash.
+     *
+     * @param field
+     * @return
+     */
+    public static int getPrecision(IndexField field) {
+        if (!(field instanceof ParameterIndexField)) return 0;
+        if (Mapping.getMapping(((ParameterIndexField) field).getParameters())!=Mapping.GEOHASH) return 0;
+        Integer precision = ParameterType.GEOHASH_PRECISION.findParameter(((ParameterIndexField) field).getParameters(), DEFAULT_PRECISION);
+        return precision;
+    }
+
+    public static boolean isGeohashField(IndexField field) {
+        return getPrecision(field)>0;
+    }
+
+    public static boolean hasGeohashField(CompositeIndexType index) {
+        for (IndexField field : index.getFieldKeys()) {
+            if (isGeohashField(field)) return true;
+        }
+        return false;
+    }
+
+    public static boolean isValidPrecision(int precision) {
+        return precision>0 && precision<=MAX_PRECISION;
+    }
+
+    /**
+     * Whether a condition with the given predicate can be answered (approximately) by a geohash index
+     *
+     * @param predicate
+     * @return
+     */
+    public static boolean supports(TitanPredicate predicate) {
+        return predicate==Geo.WITHIN || predicate==Geo.INTERSECT;
+    }
+
+    /**
+     * Returns the cells the given shape is indexed under.
+     *
+     * @param shape
+     * @param precision
+     * @return
+     */
+    public static List<String> getIndexCells(Geoshape shape, int precision) {
+        Preconditions.checkArgument(isValidPrecision(precision),"Invalid geohash precision: %s",precision);
+        if (shape.getType()==Geoshape.Type.POINT) {
+            Geoshape.Point p = shape.getPoint();
+            return Collections.singletonList(encode(p.getLatitude(),p.getLongitude(),precision));
+        }
+        Shape s = shape.convert2Spatial4j();
+        List<String> cells = Collections.singletonList("");
+        for (int level = 1; level <= precision; level++) {
+            List<String> next = getIntersectingChildren(s,cells);
+            if (next.size()>MAX_SHAPE_CELLS && level>1) break;
+            cells = next;
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the cells to look up in order to find all shapes that might intersect the given query region or null if
+     * the region requires more than {@link #MAX_QUERY_CELLS} cells to cover.
+     *
+     * @param region
+     * @param precision
+     * @return
+     */
+    public static Collection<String> getQueryCells(Geoshape region, int precision) {
+        Preconditions.checkArgument(isValidPrecision(precision),"Invalid geohash precision: %s",precision);
+        Shape s = region.convert2Spatial4j();
+        List<String> cells = Collections.singletonList("");
+        for (int level = 1; level <= precision; level++) {
+            cells = getIntersectingChildren(s,cells);
+            if (cells.size()>MAX_QUERY_CELLS) return null;
+        }
+        LinkedHashSet<String> result = new LinkedHashSet<String>(cells);
+        for (String cell : cells) {
+            for (int len = 1; len < cell.length(); len++) result.add(cell.substring(0,len));
+        }
+        return result;
+    }
+
+    private static List<String> getIntersectingChildren(Shape shape, List<String> cells) {
+        List<String> children = new ArrayList<String>(cells.size()*4);
+        for (String cell : cells) {
+            for (char c : BASE32) {
+                String child = cell + c;
+                if (shape.relate(getBounds(child))!=SpatialRelation.DISJOINT) children.add(child);
+            }
+        }
+        return children;
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        Preconditions.checkArgument(isValidPrecision(precision),"Invalid geohash precision: %s",precision);
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true;
+        int bit = 0, ch = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Returns the bounding box of the given geohash cell
+     *
+     * @param cell
+     * @return
+     */
+    public static Rectangle getBounds(String cell) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean even = true;
+        for (int i = 0; i < cell.length(); i++) {
+            int value = decode(cell.charAt(i));
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                if (even) {
+                    double mid = (minLon + maxLon) / 2;
+                    if ((value & mask) != 0) minLon = mid;
+                    else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if ((value & mask) != 0) minLat = mid;
+                    else maxLat = mid;
+                }
+                even = !even;
+            }
+        }
+        return CTX.makeRectangle(minLon, maxLon, minLat, maxLat);
+    }
+
+    private static int decode(char c) {
+        for (int i = 0; i < BASE32.length; i++) {
+            if (BASE32[i]==c) return i;
+        }
+        throw new IllegalArgumentException("Invalid geohash character: " + c);
+    }
+
+}
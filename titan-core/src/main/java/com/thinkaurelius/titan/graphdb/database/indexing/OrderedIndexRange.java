@@ -0,0 +1,161 @@
+package com.thinkaurelius.titan.graphdb.database.indexing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.thinkaurelius.titan.core.attribute.Cmp;
+import com.thinkaurelius.titan.core.attribute.Text;
+import com.thinkaurelius.titan.core.schema.Mapping;
+import com.thinkaurelius.titan.core.schema.Parameter;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.util.BufferUtil;
+import com.thinkaurelius.titan.graphdb.database.serialize.DataOutput;
+import com.thinkaurelius.titan.graphdb.database.serialize.Serializer;
+import com.thinkaurelius.titan.graphdb.query.TitanPredicate;
+import com.thinkaurelius.titan.graphdb.types.CompositeIndexType;
+import com.thinkaurelius.titan.graphdb.types.IndexField;
+import com.thinkaurelius.titan.graphdb.types.ParameterIndexField;
+import com.thinkaurelius.titan.graphdb.types.ParameterType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The range of values of the ordered field of a composite index that a query retrieves.
+ * <p/>
+ * A field of a composite index is ordered if it is mapped as {@link Mapping#ORDERED}. Such a field is not part of the
+ * row key. Instead, its value is written with the order preserving serializer into the column so that ranges of values
+ * can be retrieved with a single slice per row. To avoid hot rows, the entries for each combination of the remaining
+ * field values are distributed across a fixed number of buckets (by element id) which are appended to the row key.
+ * Hence, a query reads all buckets and merges their (individually sorted) results.
+ * <p/>
+ * The range is the intersection of all predicate constraints added via {@link #restrict(TitanPredicate, Object)}.
+ */
+public class OrderedIndexRange {
+
+    public static final int DEFAULT_BUCKETS = 8;
+    public static final int MAX_BUCKETS = 256;
+
+    /**
+     * Returns the number of buckets of the given index field or 0 if the field is not ordered.
+     *
+     * @param field
+     * @return
+     */
+    public static int getBuckets(IndexField field) {
+        if (!(field instanceof ParameterIndexField)) return 0;
+        Parameter[] parameters = ((ParameterIndexField) field).getParameters();
+        if (Mapping.getMapping(parameters)!=Mapping.ORDERED) return 0;
+        Integer buckets = ParameterType.ORDER_BUCKETS.findParameter(parameters, DEFAULT_BUCKETS);
+        return buckets;
+    }
+
+    public static boolean isOrderedField(IndexField field) {
+        return getBuckets(field)>0;
+    }
+
+    /**
+     * Returns the position of the ordered field in the given index or -1 if the index does not have an ordered field.
+     *
+     * @param index
+     * @return
+     */
+    public static int getOrderedPosition(CompositeIndexType index) {
+        IndexField[] fields = index.getFieldKeys();
+        for (int i = 0; i < fields.length; i++) {
+            if (isOrderedField(fields[i])) return i;
+        }
+        return -1;
+    }
+
+    public static boolean isValidBuckets(int buckets) {
+        return buckets>0 && buckets<=MAX_BUCKETS;
+    }
+
+    public static int getBucket(long elementId, int buckets) {
+        return Hashing.consistentHash(elementId, buckets);
+    }
+
+    /**
+     * Whether conditions with the given predicate can be answered by slicing an ordered index field of the given data type
+     *
+     * @param predicate
+     * @param dataType
+     * @return
+     */
+    public static boolean supports(TitanPredicate predicate, Class<?> dataType) {
+        if (predicate==Text.PREFIX) return dataType==String.class;
+        return predicate==Cmp.EQUAL || predicate==Cmp.GREATER_THAN || predicate==Cmp.GREATER_THAN_EQUAL
+                || predicate==Cmp.LESS_THAN || predicate==Cmp.LESS_THAN_EQUAL;
+    }
+
+    private final List<TitanPredicate> predicates = new ArrayList<TitanPredicate>(2);
+    private final List<Object> values = new ArrayList<Object>(2);
+
+    public void restrict(TitanPredicate predicate, Object value) {
+        Preconditions.checkArgument(predicate!=null && value!=null);
+        predicates.add(predicate);
+        values.add(value);
+    }
+
+    public boolean isUnrestricted() {
+        return predicates.isEmpty();
+    }
+
+    /**
+     * Returns the slice start (inclusive) and end (exclusive) of this range for columns that start with the given
+     * first byte followed by the order preserving serialization of the value. The start is not smaller than the end
+     * if the range is empty.
+     *
+     * @param firstByte
+     * @param serializer
+     * @param dataType
+     * @return
+     */
+    public StaticBuffer[] getSlice(byte firstByte, Serializer serializer, Class<?> dataType) {
+        StaticBuffer start = BufferUtil.fillBuffer(1, firstByte);
+        StaticBuffer end = BufferUtil.fillBuffer(1, (byte) (firstByte + 1));
+        for (int i = 0; i < predicates.size(); i++) {
+            TitanPredicate predicate = predicates.get(i);
+            StaticBuffer value = serialize(firstByte, values.get(i), serializer, dataType);
+            StaticBuffer lower = null, upper = null;
+            if (predicate==Cmp.EQUAL) {
+                lower = value;
+                upper = BufferUtil.nextBiggerBuffer(value);
+            } else if (predicate==Cmp.GREATER_THAN) {
+                lower = BufferUtil.nextBiggerBuffer(value);
+            } else if (predicate==Cmp.GREATER_THAN_EQUAL) {
+                lower = value;
+            } else if (predicate==Cmp.LESS_THAN) {
+                upper = value;
+            } else if (predicate==Cmp.LESS_THAN_EQUAL) {
+                upper = BufferUtil.nextBiggerBuffer(value);
+            } else if (predicate==Text.PREFIX) {
+                //Strip the terminator of the serialized string so that it is a byte prefix of all strings with that prefix
+                int terminatorLength = serialize(firstByte, "", serializer, String.class).length() - 2;
+                lower = value.subrange(0, value.length() - terminatorLength);
+                upper = BufferUtil.nextBiggerBuffer(lower);
+            } else throw new IllegalArgumentException("Unsupported predicate: " + predicate);
+            if (lower!=null && lower.compareTo(start)>0) start = lower;
+            if (upper!=null && upper.compareTo(end)<0) end = upper;
+        }
+        return new StaticBuffer[]{start, end};
+    }
+
+    private static StaticBuffer serialize(byte firstByte, Object value, Serializer serializer, Class<?> dataType) {
+        DataOutput out = serializer.getDataOutput(16);
+        out.putByte(firstByte);
+        out.writeObjectByteOrder(value, dataType);
+        return out.getStaticBuffer();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("range[");
+        for (int i = 0; i < predicates.size(); i++) {
+            if (i>0) s.append(",");
+            s.append(predicates.get(i)).append(" ").append(values.get(i));
+        }
+        return s.append("]").toString();
+    }
+
+}
@@ -5,6 +5,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Sets;
 import com.thinkaurelius.titan.core.Cardinality;
 import com.thinkaurelius.titan.core.EdgeLabel;
@@ -17,9 +18,11 @@ import com.thinkaurelius.titan.core.TitanGraph;
 import com.thinkaurelius.titan.core.TitanVertex;
 import com.thinkaurelius.titan.core.TitanVertexProperty;
 import com.thinkaurelius.titan.core.VertexLabel;
+import com.thinkaurelius.titan.core.attribute.Geoshape;
 import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.core.schema.EdgeLabelMaker;
 import com.thinkaurelius.titan.core.schema.JobStatus;
+import com.thinkaurelius.titan.core.schema.Mapping;
 import com.thinkaurelius.titan.core.schema.Parameter;
 import com.thinkaurelius.titan.core.schema.PropertyKeyMaker;
 import com.thinkaurelius.titan.core.schema.RelationTypeIndex;
@@ -39,12 +42,16 @@ import com.thinkaurelius.titan.diskstorage.configuration.ModifiableConfiguration
 import com.thinkaurelius.titan.diskstorage.configuration.TransactionalConfiguration;
 import com.thinkaurelius.titan.diskstorage.configuration.UserModifiableConfiguration;
 import com.thinkaurelius.titan.diskstorage.configuration.backend.KCVSConfiguration;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanCheckpoint;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanMetrics;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.StandardScanner;
 import com.thinkaurelius.titan.diskstorage.log.Log;
+import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
 import com.thinkaurelius.titan.graphdb.database.IndexSerializer;
 import com.thinkaurelius.titan.graphdb.database.StandardTitanGraph;
 import com.thinkaurelius.titan.graphdb.database.cache.SchemaCache;
+import com.thinkaurelius.titan.graphdb.database.indexing.GeohashCells;
+import com.thinkaurelius.titan.graphdb.database.indexing.OrderedIndexRange;
 import com.thinkaurelius.titan.graphdb.database.serialize.DataOutput;
 import com.thinkaurelius.titan.graphdb.internal.ElementCategory;
 import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
@@ -91,6 +98,7 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -319,6 +327,7 @@ public class ManagementSystem implements TitanManagement {
         if (type.isEdgeLabel()) {
             StandardEdgeLabelMaker lm = (StandardEdgeLabelMaker) transaction.makeEdgeLabel(composedName);
             lm.unidirected(direction);
+            lm.columnFormat(((InternalRelationType) type).getColumnFormat());
             maker = lm;
         } else {
             assert type.isPropertyKey();
@@ -536,18 +545,35 @@ public class ManagementSystem implements TitanManagement {
         if (!key.isNew()) updateIndex(index, SchemaAction.REGISTER_INDEX);
     }
 
-    private TitanGraphIndex createCompositeIndex(String indexName, ElementCategory elementCategory, boolean unique, TitanSchemaType constraint, PropertyKey... keys) {
+    private TitanGraphIndex createCompositeIndex(String indexName, ElementCategory elementCategory, boolean unique, TitanSchemaType constraint,
+                                                 PropertyKey[] keys, Parameter[][] keyParameters, PropertyKey[] coveredKeys) {
         checkIndexName(indexName);
         Preconditions.checkArgument(keys != null && keys.length > 0, "Need to provide keys to index [%s]", indexName);
+        Preconditions.checkArgument(keyParameters != null && keyParameters.length == keys.length);
         Preconditions.checkArgument(!unique || elementCategory == ElementCategory.VERTEX, "Unique indexes can only be created on vertices [%s]", indexName);
         boolean allSingleKeys = true;
         boolean oneNewKey = false;
-        for (PropertyKey key : keys) {
+        boolean hasOrderedKey = false;
+        for (int i = 0; i < keys.length; i++) {
+            PropertyKey key = keys[i];
             Preconditions.checkArgument(key != null && key instanceof PropertyKeyVertex, "Need to provide valid keys: %s", key);
+            if (keyParameters[i] != null && checkCompositeIndexParameters(key, unique, keyParameters[i]) == Mapping.ORDERED) {
+                Preconditions.checkArgument(!hasOrderedKey, "Only one key can be ordered in composite index [%s]", indexName);
+                hasOrderedKey = true;
+            }
             if (key.cardinality() != Cardinality.SINGLE) allSingleKeys = false;
             if (key.isNew()) oneNewKey = true;
             else updatedTypes.add((PropertyKeyVertex) key);
         }
+        Preconditions.checkArgument(coveredKeys.length == 0 || elementCategory == ElementCategory.VERTEX, "Only vertex indexes can cover keys [%s]", indexName);
+        //Covering indexes are locked (see below) which does not apply to indexes with list cardinality
+        Preconditions.checkArgument(coveredKeys.length == 0 || allSingleKeys, "Indexes which cover keys can only index keys with single cardinality [%s]", indexName);
+        for (PropertyKey key : coveredKeys) {
+            Preconditions.checkArgument(key != null && key instanceof PropertyKeyVertex, "Need to provide valid keys: %s", key);
+            Preconditions.checkArgument(key.cardinality() == Cardinality.SINGLE, "Covered keys must have single cardinality: %s", key);
+            Preconditions.checkArgument(!Arrays.asList(keys).contains(key), "Key cannot be both indexed and covered: %s", key);
+            if (!key.isNew()) updatedTypes.add((PropertyKeyVertex) key);
+        }
 
         Cardinality indexCardinality;
         if (unique) indexCardinality = Cardinality.SINGLE;
@@ -563,19 +589,59 @@ public class ManagementSystem implements TitanManagement {
         TitanSchemaVertex indexVertex = transaction.makeSchemaVertex(TitanSchemaCategory.GRAPHINDEX, indexName, def);
         for (int i = 0; i < keys.length; i++) {
             Parameter[] paras = {ParameterType.INDEX_POSITION.getParameter(i)};
+            if (keyParameters[i] != null) paras = ObjectArrays.concat(paras, keyParameters[i], Parameter.class);
             addSchemaEdge(indexVertex, keys[i], TypeDefinitionCategory.INDEX_FIELD, paras);
         }
+        for (int i = 0; i < coveredKeys.length; i++) {
+            Parameter[] paras = {ParameterType.COVERED_POSITION.getParameter(i)};
+            addSchemaEdge(indexVertex, coveredKeys[i], TypeDefinitionCategory.INDEX_FIELD, paras);
+        }
 
         Preconditions.checkArgument(constraint == null || (elementCategory.isValidConstraint(constraint) && constraint instanceof TitanSchemaVertex));
         if (constraint != null) {
             addSchemaEdge(indexVertex, (TitanSchemaVertex) constraint, TypeDefinitionCategory.INDEX_SCHEMA_CONSTRAINT, null);
         }
+        //Concurrent changes of different covered keys rewrite the same index entries and must therefore be locked
+        if (coveredKeys.length > 0) setTypeModifier(indexVertex, ModifierType.CONSISTENCY, ConsistencyModifier.LOCK);
         updateSchemaVertex(indexVertex);
         TitanGraphIndexWrapper index = new TitanGraphIndexWrapper(indexVertex.asIndexType());
         if (!oneNewKey) updateIndex(index, SchemaAction.REGISTER_INDEX);
         return index;
     }
 
+    /**
+     * The only parameters supported by composite indexes are a {@link Mapping#GEOHASH} mapping for geo keys and an
+     * {@link Mapping#ORDERED} mapping for keys with an order preserving data type, together with their settings
+     */
+    private Mapping checkCompositeIndexParameters(PropertyKey key, boolean unique, Parameter[] parameters) {
+        if (parameters.length == 0) return Mapping.DEFAULT;
+        for (Parameter para : parameters) {
+            Preconditions.checkArgument(para.key().equalsIgnoreCase(ParameterType.MAPPING.getName())
+                    || para.key().equalsIgnoreCase(ParameterType.GEOHASH_PRECISION.getName())
+                    || para.key().equalsIgnoreCase(ParameterType.ORDER_BUCKETS.getName()),
+                    "Cannot specify parameter [%s] for composite index: %s", para, key);
+        }
+        Mapping mapping = Mapping.getMapping(parameters);
+        Preconditions.checkArgument(!unique, "Keys with a custom mapping cannot be unique: %s", key);
+        if (mapping == Mapping.GEOHASH) {
+            Preconditions.checkArgument(key.dataType() == Geoshape.class, "Geohash mapping requires a geo key: %s", key);
+            Preconditions.checkArgument(!ParameterType.ORDER_BUCKETS.hasParameter(parameters), "Cannot specify buckets for geohash mapping: %s", key);
+            Object precision = ParameterType.GEOHASH_PRECISION.findParameter(parameters, GeohashCells.DEFAULT_PRECISION);
+            Preconditions.checkArgument(precision instanceof Integer && GeohashCells.isValidPrecision((Integer) precision),
+                    "Invalid geohash precision [%s] for key: %s", precision, key);
+        } else if (mapping == Mapping.ORDERED) {
+            Preconditions.checkArgument(graph.getDataSerializer().isOrderPreservingDatatype(key.dataType()),
+                    "Ordered mapping requires a key with an order preserving data type: %s", key);
+            Preconditions.checkArgument(!ParameterType.GEOHASH_PRECISION.hasParameter(parameters), "Cannot specify geohash precision for ordered mapping: %s", key);
+            Object buckets = ParameterType.ORDER_BUCKETS.findParameter(parameters, OrderedIndexRange.DEFAULT_BUCKETS);
+            Preconditions.checkArgument(buckets instanceof Integer && OrderedIndexRange.isValidBuckets((Integer) buckets),
+                    "Invalid number of buckets [%s] for key: %s", buckets, key);
+        } else {
+            throw new IllegalArgumentException("Composite indexes only support the geohash and ordered mappings: " + key);
+        }
+        return mapping;
+    }
+
     @Override
     public TitanManagement.IndexBuilder buildIndex(String indexName, Class<? extends Element> elementType) {
         return new IndexBuilder(indexName, ElementCategory.getByClazz(elementType));
@@ -588,6 +654,7 @@ public class ManagementSystem implements TitanManagement {
         private boolean unique = false;
         private TitanSchemaType constraint = null;
         private Map<PropertyKey, Parameter[]> keys = new HashMap<PropertyKey, Parameter[]>();
+        private Set<PropertyKey> coveredKeys = new LinkedHashSet<PropertyKey>();
 
         private IndexBuilder(String indexName, ElementCategory elementCategory) {
             this.indexName = indexName;
@@ -608,6 +675,13 @@ public class ManagementSystem implements TitanManagement {
             return this;
         }
 
+        @Override
+        public TitanManagement.IndexBuilder addCoveredKey(PropertyKey key) {
+            Preconditions.checkArgument(key != null && (key instanceof PropertyKeyVertex), "Key must be a user defined key: %s", key);
+            coveredKeys.add(key);
+            return this;
+        }
+
         @Override
         public TitanManagement.IndexBuilder indexOnly(TitanSchemaType schemaType) {
             Preconditions.checkNotNull(schemaType);
@@ -626,18 +700,21 @@ public class ManagementSystem implements TitanManagement {
         public TitanGraphIndex buildCompositeIndex() {
             Preconditions.checkArgument(!keys.isEmpty(), "Need to specify at least one key for the composite index");
             PropertyKey[] keyArr = new PropertyKey[keys.size()];
+            Parameter[][] parameterArr = new Parameter[keys.size()][];
             int pos = 0;
             for (Map.Entry<PropertyKey, Parameter[]> entry : keys.entrySet()) {
-                Preconditions.checkArgument(entry.getValue() == null, "Cannot specify parameters for composite index: %s", entry.getKey());
-                keyArr[pos++] = entry.getKey();
+                keyArr[pos] = entry.getKey();
+                parameterArr[pos++] = entry.getValue();
             }
-            return createCompositeIndex(indexName, elementCategory, unique, constraint, keyArr);
+            return createCompositeIndex(indexName, elementCategory, unique, constraint, keyArr, parameterArr,
+                    coveredKeys.toArray(new PropertyKey[coveredKeys.size()]));
         }
 
         @Override
         public TitanGraphIndex buildMixedIndex(String backingIndex) {
             Preconditions.checkArgument(StringUtils.isNotBlank(backingIndex), "Need to specify backing index name");
             Preconditions.checkArgument(!unique, "An external index cannot be unique");
+            Preconditions.checkArgument(coveredKeys.isEmpty(), "An external index cannot cover keys");
 
             TitanGraphIndex index = createMixedIndex(indexName, elementCategory, constraint, backingIndex);
             for (Map.Entry<PropertyKey, Parameter[]> entry : keys.entrySet()) {
@@ -672,6 +749,9 @@ public class ManagementSystem implements TitanManagement {
                 for (PropertyKey key : ((TitanGraphIndex) index).getFieldKeys()) {
                     dependentTypes.add((PropertyKeyVertex) key);
                 }
+                for (PropertyKey key : ((CompositeIndexType) indexType).getCoveredKeys()) {
+                    dependentTypes.add((PropertyKeyVertex) key);
+                }
             } else {
                 keySubset = Sets.newHashSet();
                 MixedIndexType cindexType = (MixedIndexType) indexType;
@@ -703,6 +783,7 @@ public class ManagementSystem implements TitanManagement {
                 builder.setFinishJob(indexId.getIndexJobFinisher(graph, SchemaAction.ENABLE_INDEX));
                 builder.setJobId(indexId);
                 builder.setJob(VertexJobConverter.convert(graph, new IndexRepairJob(indexId.indexName, indexId.relationTypeName)));
+                configureIndexJob(builder, indexId, updateAction);
                 try {
                     future = builder.execute();
                 } catch (BackendException e) {
@@ -734,6 +815,7 @@ public class ManagementSystem implements TitanManagement {
                 builder.setFinishJob(indexId.getIndexJobFinisher());
                 builder.setJobId(indexId);
                 builder.setJob(new IndexRemoveJob(graph, indexId.indexName, indexId.relationTypeName));
+                configureIndexJob(builder, indexId, updateAction);
                 try {
                     future = builder.execute();
                 } catch (BackendException e) {
@@ -746,6 +828,18 @@ public class ManagementSystem implements TitanManagement {
         return future;
     }
 
+    /**
+     * Configures the parallelism of an index job and checkpoints its completed key ranges in the system configuration
+     * so that the job resumes where it left off when the same update is executed again after an interruption.
+     */
+    private void configureIndexJob(StandardScanner.Builder builder, IndexIdentifier indexId, SchemaAction action) {
+        GraphDatabaseConfiguration config = graph.getConfiguration();
+        builder.setNumProcessingThreads(config.getIndexJobThreads());
+        builder.setNumScanThreads(config.getIndexJobThreads());
+        builder.setNumKeyRanges(config.getIndexJobRanges());
+        builder.setCheckpoint(new ScanCheckpoint(graph.getBackend().getGlobalSystemConfig(), action + "." + indexId));
+    }
+
     private static class EmptyIndexJobFuture implements IndexJobFuture {
 
         @Override
@@ -925,8 +1019,14 @@ public class ManagementSystem implements TitanManagement {
         @Override
         public String toString() {
             String msg = "Job status: " + getState().toString() + ". ";
-            if (metrics != null) msg += String.format("Processed %s records successfully and failed on %s records.",
-                    metrics.get(ScanMetrics.Metric.SUCCESS), metrics.get(ScanMetrics.Metric.FAILURE));
+            if (metrics != null) {
+                msg += String.format("Processed %s records successfully and failed on %s records.",
+                        metrics.get(ScanMetrics.Metric.SUCCESS), metrics.get(ScanMetrics.Metric.FAILURE));
+                msg += String.format(" Completed %s of %s key ranges at %.1f records/s.",
+                        metrics.getCompletedRanges(), metrics.getNumRanges(), metrics.getThroughput());
+                if (metrics.getEstimatedTimeRemaining() != null)
+                    msg += " Estimated time remaining: " + metrics.getEstimatedTimeRemaining() + ".";
+            }
             return msg;
         }
 
@@ -1098,6 +1198,8 @@ public class ManagementSystem implements TitanManagement {
             IndexType index = ((TitanGraphIndexWrapper) element).getBaseIndex();
             if (index.isMixedIndex())
                 throw new IllegalArgumentException("Cannot change consistency on mixed index: " + element);
+            Preconditions.checkArgument(consistency == ConsistencyModifier.LOCK || ((CompositeIndexType) index).getCoveredKeys().length == 0,
+                    "Indexes which cover keys require LOCK consistency: %s", element);
         } else throw new IllegalArgumentException("Cannot change consistency of schema element: " + element);
         setTypeModifier(element, ModifierType.CONSISTENCY, consistency);
     }
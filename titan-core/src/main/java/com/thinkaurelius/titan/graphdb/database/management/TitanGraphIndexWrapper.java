@@ -11,6 +11,7 @@ import com.thinkaurelius.titan.graphdb.types.CompositeIndexType;
 import com.thinkaurelius.titan.graphdb.types.MixedIndexType;
 import com.thinkaurelius.titan.graphdb.types.IndexField;
 import com.thinkaurelius.titan.graphdb.types.IndexType;
+import com.thinkaurelius.titan.graphdb.types.ParameterIndexField;
 import org.apache.tinkerpop.gremlin.structure.Element;
 
 /**
@@ -55,7 +56,14 @@ public class TitanGraphIndexWrapper implements TitanGraphIndex {
 
     @Override
     public Parameter[] getParametersFor(PropertyKey key) {
-        if (index.isCompositeIndex()) return new Parameter[0];
+        if (index.isCompositeIndex()) {
+            for (IndexField field : ((CompositeIndexType)index).getFieldKeys()) {
+                if (field.getFieldKey().equals(key) && field instanceof ParameterIndexField) {
+                    return ((ParameterIndexField)field).getParameters();
+                }
+            }
+            return new Parameter[0];
+        }
         return ((MixedIndexType)index).getField(key).getParameters();
     }
 
@@ -0,0 +1,40 @@
+package com.thinkaurelius.titan.graphdb.internal;
+
+/**
+ * Versions of the format in which the {@link com.thinkaurelius.titan.graphdb.database.EdgeSerializer} writes the
+ * columns of the relations of a particular relation type. The version is stored with the type definition so that
+ * columns written by one version can always be read back even as new formats are added.
+ */
+public enum ColumnFormat {
+
+    /**
+     * The format used by all relation types unless configured otherwise
+     */
+    STANDARD(0),
+
+    /**
+     * A more compact format for edge labels with many edges per vertex. Integral sort key values are written with
+     * a variable length encoding and the adjacent vertex id and relation id are written as forward variable length
+     * longs. Only applies to edge labels with multiplicity {@link com.thinkaurelius.titan.core.Multiplicity#MULTI}.
+     */
+    DENSE(1);
+
+    private final int version;
+
+    private ColumnFormat(int version) {
+        this.version = version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public static ColumnFormat getFormat(int version) {
+        for (ColumnFormat format : values()) {
+            if (format.version == version) return format;
+        }
+        throw new IllegalArgumentException("Unsupported column format version [" + version + "]. " +
+                "The relation type has been written by a newer version of Titan.");
+    }
+
+}
@@ -22,6 +22,8 @@ public interface InternalRelationType extends RelationType, InternalVertex {
 
     public Order getSortOrder();
 
+    public ColumnFormat getColumnFormat();
+
     public Multiplicity multiplicity();
 
     public ConsistencyModifier getConsistencyModifier();
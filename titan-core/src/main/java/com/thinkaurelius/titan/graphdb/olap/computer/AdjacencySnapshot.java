@@ -0,0 +1,329 @@
+package com.thinkaurelius.titan.graphdb.olap.computer;
+
+import com.carrotsearch.hppc.ByteArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.thinkaurelius.titan.core.TitanException;
+import com.thinkaurelius.titan.diskstorage.Entry;
+import com.thinkaurelius.titan.diskstorage.EntryList;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanJob;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanMetrics;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.StandardScanMetrics;
+import com.thinkaurelius.titan.diskstorage.util.EntryArrayList;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayBuffer;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * An immutable in-memory copy of the rows which a {@link ScanJob} retrieved from the edgestore, stored in
+ * compressed-sparse-row form: the keys of all rows, the offsets of each row's entries for each query, and the
+ * bytes of all entries in a single contiguous array (which is optionally allocated off-heap).
+ * <p/>
+ * Iterative vertex programs retrieve the same adjacency in every iteration. Hence, {@link FulgoraGraphComputer} records
+ * the rows of one iteration in a snapshot and executes subsequent iterations, whose queries are covered by the snapshot,
+ * against it instead of scanning the storage backend again.
+ * <p/>
+ * Entry meta data (e.g. timestamps or TTLs) is not retained.
+ */
+public class AdjacencySnapshot {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(AdjacencySnapshot.class);
+
+    private final List<SliceQuery> queries;
+    private final Map<SliceQuery, Integer> queryIndexes;
+    private final StaticBuffer[] keys;
+    //For row i and query q, the entries are [rowOffsets[i*numQueries+q], rowOffsets[i*numQueries+q+1])
+    private final int[] rowOffsets;
+    //For entry e, the bytes are [entryOffsets[e], entryOffsets[e+1])
+    private final int[] entryOffsets;
+    private final int[] valuePositions;
+    private final byte[] data;
+    private final ByteBuffer offHeapData;
+
+    private AdjacencySnapshot(List<SliceQuery> queries, StaticBuffer[] keys, int[] rowOffsets, int[] entryOffsets,
+                              int[] valuePositions, byte[] data, boolean offHeap) {
+        this.queries = ImmutableList.copyOf(queries);
+        this.queryIndexes = new HashMap<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) queryIndexes.put(queries.get(i), i);
+        this.keys = keys;
+        this.rowOffsets = rowOffsets;
+        this.entryOffsets = entryOffsets;
+        this.valuePositions = valuePositions;
+        if (offHeap) {
+            this.offHeapData = ByteBuffer.allocateDirect(data.length);
+            this.offHeapData.put(data);
+            this.data = null;
+        } else {
+            this.offHeapData = null;
+            this.data = data;
+        }
+    }
+
+    public int getNumRows() {
+        return keys.length;
+    }
+
+    public long getByteSize() {
+        return estimateByteSize(keys.length, queries.size(), valuePositions.length, entryOffsets[valuePositions.length]);
+    }
+
+    private static long estimateByteSize(int numRows, int numQueries, int numEntries, int numBytes) {
+        return numRows * (24L + 4L * numQueries) + numEntries * 8L + numBytes;
+    }
+
+    /**
+     * Whether all of the given queries have been recorded in this snapshot
+     *
+     * @param queries
+     * @return
+     */
+    public boolean covers(List<SliceQuery> queries) {
+        return queryIndexes.keySet().containsAll(queries);
+    }
+
+    private EntryList getEntries(int row, int query) {
+        int offset = row * queries.size() + query;
+        int start = rowOffsets[offset], end = rowOffsets[offset + 1];
+        if (start == end) return EntryList.EMPTY_LIST;
+        EntryArrayList entries = new EntryArrayList();
+        entries.ensureCapacity(end - start);
+        byte[] array = data;
+        int base = 0;
+        if (array == null) {
+            //Copy the bytes of all entries of this row out of the off-heap buffer
+            base = entryOffsets[start];
+            array = new byte[entryOffsets[end] - base];
+            ByteBuffer b = offHeapData.duplicate();
+            b.position(base);
+            b.get(array);
+        }
+        for (int e = start; e < end; e++) {
+            entries.add(new StaticArrayEntry(array, entryOffsets[e] - base, entryOffsets[e + 1] - base, valuePositions[e]));
+        }
+        return entries;
+    }
+
+    /**
+     * Executes the given job against the rows of this snapshot in the same way the
+     * {@link com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.StandardScanner} would execute it against the
+     * storage backend. Returns null without processing any rows if the job's queries are not covered by this snapshot.
+     *
+     * @param job
+     * @param numThreads
+     * @param workBlockSize
+     * @param jobConfiguration
+     * @param graphConfiguration
+     * @return
+     */
+    public ScanMetrics execute(ScanJob job, int numThreads, int workBlockSize,
+                               Configuration jobConfiguration, Configuration graphConfiguration) {
+        Preconditions.checkArgument(numThreads > 0 && workBlockSize > 0);
+        StandardScanMetrics metrics = new StandardScanMetrics();
+        job.workerIterationStart(jobConfiguration, graphConfiguration, metrics);
+        try {
+            List<SliceQuery> jobQueries = job.getQueries();
+            if (!covers(jobQueries)) return null;
+            int[] indexes = new int[jobQueries.size()];
+            for (int q = 0; q < indexes.length; q++) indexes[q] = queryIndexes.get(jobQueries.get(q));
+            Predicate<StaticBuffer> keyFilter = job.getKeyFilter();
+
+            ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+            try {
+                List<Future<?>> blocks = new ArrayList<>();
+                for (int blockStart = 0; blockStart < keys.length; blockStart += workBlockSize) {
+                    final int start = blockStart, end = Math.min(keys.length, blockStart + workBlockSize);
+                    blocks.add(workers.submit(() -> {
+                        ScanJob worker = job.clone();
+                        worker.workerIterationStart(jobConfiguration, graphConfiguration, metrics);
+                        try {
+                            for (int row = start; row < end; row++) {
+                                if (!keyFilter.test(keys[row])) continue;
+                                Map<SliceQuery, EntryList> entries = new HashMap<>(indexes.length);
+                                for (int q = 0; q < indexes.length; q++) entries.put(jobQueries.get(q), getEntries(row, indexes[q]));
+                                try {
+                                    worker.process(keys[row], entries, metrics);
+                                    metrics.increment(ScanMetrics.Metric.SUCCESS);
+                                } catch (Throwable e) {
+                                    log.error("Exception processing row [" + keys[row] + "]: ", e);
+                                    metrics.increment(ScanMetrics.Metric.FAILURE);
+                                }
+                            }
+                        } finally {
+                            worker.workerIterationEnd(metrics);
+                        }
+                    }));
+                }
+                for (Future<?> block : blocks) block.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TitanException("Interrupted while executing job against snapshot", e);
+            } catch (ExecutionException e) {
+                throw new TitanException("Exception while executing job against snapshot", e.getCause());
+            } finally {
+                workers.shutdownNow();
+            }
+            return metrics;
+        } finally {
+            job.workerIterationEnd(metrics);
+        }
+    }
+
+    public static Builder build(long maxByteSize, boolean offHeap) {
+        return new Builder(maxByteSize, offHeap);
+    }
+
+    /**
+     * Collects the rows processed by a {@link ScanJob} into a snapshot, see {@link #record(ScanJob)}. Recording is
+     * abandoned once the snapshot would exceed the given number of bytes.
+     */
+    public static class Builder {
+
+        private final long maxByteSize;
+        private final boolean offHeap;
+
+        private List<SliceQuery> queries = null;
+        private List<StaticBuffer> keys = new ArrayList<>();
+        private IntArrayList rowOffsets = new IntArrayList();
+        private IntArrayList entryOffsets = new IntArrayList();
+        private IntArrayList valuePositions = new IntArrayList();
+        private ByteArrayList data = new ByteArrayList();
+        private boolean exceeded = false;
+
+        private Builder(long maxByteSize, boolean offHeap) {
+            Preconditions.checkArgument(maxByteSize > 0 && maxByteSize <= Integer.MAX_VALUE,
+                    "Invalid snapshot size: %s", maxByteSize);
+            this.maxByteSize = maxByteSize;
+            this.offHeap = offHeap;
+            rowOffsets.add(0);
+            entryOffsets.add(0);
+        }
+
+        /**
+         * Returns a job which delegates to the given one and records all processed rows in this builder.
+         *
+         * @param job
+         * @return
+         */
+        public ScanJob record(ScanJob job) {
+            return new RecordingJob(job);
+        }
+
+        public synchronized boolean hasExceeded() {
+            return exceeded;
+        }
+
+        private synchronized void setQueries(List<SliceQuery> jobQueries) {
+            Preconditions.checkState(queries == null || queries.equals(jobQueries),
+                    "Cannot record jobs with different queries in one snapshot");
+            queries = ImmutableList.copyOf(jobQueries);
+        }
+
+        private synchronized void add(StaticBuffer key, Map<SliceQuery, EntryList> entries) {
+            if (exceeded) return;
+            assert queries != null;
+            int addedBytes = 0, addedEntries = 0;
+            for (SliceQuery query : queries) {
+                EntryList list = entries.get(query);
+                if (list == null) list = EntryList.EMPTY_LIST;
+                for (Entry entry : list) {
+                    addedBytes += entry.length();
+                    addedEntries++;
+                }
+            }
+            if (estimateByteSize(keys.size() + 1, queries.size(), valuePositions.size() + addedEntries,
+                    data.size() + addedBytes) > maxByteSize) {
+                exceeded = true;
+                keys = null;
+                rowOffsets = entryOffsets = valuePositions = null;
+                data = null;
+                return;
+            }
+            keys.add(new StaticArrayBuffer(key.as(StaticBuffer.ARRAY_FACTORY)));
+            for (SliceQuery query : queries) {
+                EntryList list = entries.get(query);
+                if (list != null) {
+                    for (Entry entry : list) {
+                        byte[] bytes = entry.as(StaticBuffer.ARRAY_FACTORY);
+                        data.add(bytes, 0, bytes.length);
+                        entryOffsets.add(data.size());
+                        valuePositions.add(entry.getValuePosition());
+                    }
+                }
+                rowOffsets.add(valuePositions.size());
+            }
+        }
+
+        /**
+         * Returns the snapshot of all recorded rows, or null if recording was abandoned because the snapshot
+         * exceeded its maximum size.
+         *
+         * @return
+         */
+        public synchronized AdjacencySnapshot get() {
+            if (exceeded || queries == null) return null;
+            return new AdjacencySnapshot(queries, keys.toArray(new StaticBuffer[keys.size()]), rowOffsets.toArray(),
+                    entryOffsets.toArray(), valuePositions.toArray(), data.toArray(), offHeap);
+        }
+
+        private class RecordingJob implements ScanJob {
+
+            private final ScanJob job;
+
+            private RecordingJob(ScanJob job) {
+                this.job = job;
+            }
+
+            @Override
+            public void workerIterationStart(Configuration jobConfiguration, Configuration graphConfiguration, ScanMetrics metrics) {
+                job.workerIterationStart(jobConfiguration, graphConfiguration, metrics);
+            }
+
+            @Override
+            public void workerIterationEnd(ScanMetrics metrics) {
+                job.workerIterationEnd(metrics);
+            }
+
+            @Override
+            public void process(StaticBuffer key, Map<SliceQuery, EntryList> entries, ScanMetrics metrics) {
+                job.process(key, entries, metrics);
+                add(key, entries);
+            }
+
+            @Override
+            public List<SliceQuery> getQueries() {
+                List<SliceQuery> jobQueries = job.getQueries();
+                setQueries(jobQueries);
+                return jobQueries;
+            }
+
+            @Override
+            public Predicate<StaticBuffer> getKeyFilter() {
+                return job.getKeyFilter();
+            }
+
+            @Override
+            public RecordingJob clone() {
+                return new RecordingJob(job.clone());
+            }
+        }
+
+    }
+
+}
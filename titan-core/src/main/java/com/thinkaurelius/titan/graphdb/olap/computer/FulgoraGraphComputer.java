@@ -3,16 +3,38 @@ package com.thinkaurelius.titan.graphdb.olap.computer;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.TitanException;
 import com.thinkaurelius.titan.core.TitanGraphComputer;
 import com.thinkaurelius.titan.core.TitanTransaction;
+import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.core.schema.TitanManagement;
+import com.thinkaurelius.titan.diskstorage.BackendTransaction;
+import com.thinkaurelius.titan.diskstorage.Entry;
+import com.thinkaurelius.titan.diskstorage.EntryMetaData;
 import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
+import com.thinkaurelius.titan.diskstorage.indexing.IndexEntry;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.cache.KCVSCache;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanJob;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanMetrics;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.StandardScanner;
+import com.thinkaurelius.titan.diskstorage.util.StaticArrayEntry;
 import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
+import com.thinkaurelius.titan.graphdb.database.EdgeSerializer;
+import com.thinkaurelius.titan.graphdb.database.IndexSerializer;
 import com.thinkaurelius.titan.graphdb.database.StandardTitanGraph;
+import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
+import com.thinkaurelius.titan.graphdb.internal.ElementLifeCycle;
+import com.thinkaurelius.titan.graphdb.internal.InternalRelation;
+import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
+import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
+import com.thinkaurelius.titan.graphdb.relations.StandardVertexProperty;
+import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
+import com.thinkaurelius.titan.graphdb.types.IndexType;
+import com.thinkaurelius.titan.graphdb.types.MixedIndexType;
 import com.thinkaurelius.titan.graphdb.util.WorkerPool;
 import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
@@ -32,6 +54,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -66,6 +89,18 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
     private int readBatchSize = 10000;
     private int writeBatchSize;
 
+    private final Configuration configuration;
+    private boolean useSnapshot;
+    private final long snapshotSize;
+    private final boolean snapshotOffHeap;
+    private AdjacencySnapshot snapshot = null;
+
+    private final int mapCombineSize;
+    private final long reduceBufferSize;
+
+    private final boolean bulkWrite;
+    private final boolean bulkWriteMixedIndexes;
+
     private ResultGraph resultGraphMode = null;
     private Persist persistMode = null;
 
@@ -77,6 +112,14 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
         this.graph = graph;
         this.writeBatchSize = configuration.get(GraphDatabaseConfiguration.BUFFER_SIZE);
         this.readBatchSize = this.writeBatchSize * 10;
+        this.configuration = configuration;
+        this.useSnapshot = configuration.get(GraphDatabaseConfiguration.COMPUTER_SNAPSHOT);
+        this.snapshotSize = Math.min(Integer.MAX_VALUE, configuration.get(GraphDatabaseConfiguration.COMPUTER_SNAPSHOT_SIZE));
+        this.snapshotOffHeap = configuration.get(GraphDatabaseConfiguration.COMPUTER_SNAPSHOT_OFFHEAP);
+        this.mapCombineSize = configuration.get(GraphDatabaseConfiguration.COMPUTER_MAP_COMBINE_SIZE);
+        this.reduceBufferSize = configuration.get(GraphDatabaseConfiguration.COMPUTER_REDUCE_BUFFER_SIZE);
+        this.bulkWrite = configuration.get(GraphDatabaseConfiguration.COMPUTER_BULK_WRITE);
+        this.bulkWriteMixedIndexes = configuration.get(GraphDatabaseConfiguration.COMPUTER_BULK_WRITE_MIXED_INDEXES);
         this.name = "compute" + computerCounter.incrementAndGet();
     }
 
@@ -157,11 +200,10 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
                     scanBuilder.setJobId(jobId);
                     scanBuilder.setNumProcessingThreads(numThreads);
                     scanBuilder.setWorkBlockSize(readBatchSize);
-                    scanBuilder.setJob(job);
                     PartitionedVertexProgramExecutor pvpe = new PartitionedVertexProgramExecutor(graph, memory, vertexMemory, vertexProgram);
                     try {
                         //Iterates over all vertices and computes the vertex program on all non-partitioned vertices. For partitioned ones, the data is aggregated
-                        ScanMetrics jobResult = scanBuilder.execute().get();
+                        ScanMetrics jobResult = executeScan(job, scanBuilder, true);
                         long failures = jobResult.get(ScanMetrics.Metric.FAILURE);
                         if (failures > 0) {
                             throw new TitanException("Failed to process [" + failures + "] vertices in vertex program iteration [" + iteration + "]. Computer is aborting.");
@@ -194,20 +236,19 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
             Map<MapReduce, FulgoraMapEmitter> mapJobs = new HashMap<>(mapReduces.size());
             for (MapReduce mapReduce : mapReduces) {
                 if (mapReduce.doStage(MapReduce.Stage.MAP)) {
-                    FulgoraMapEmitter mapEmitter = new FulgoraMapEmitter<>(mapReduce.doStage(MapReduce.Stage.REDUCE));
+                    FulgoraMapEmitter mapEmitter = new FulgoraMapEmitter<>(mapReduce.doStage(MapReduce.Stage.REDUCE), reduceBufferSize);
                     mapJobs.put(mapReduce, mapEmitter);
                 }
             }
             // Execute map jobs
             jobId = name + "#map";
-            VertexMapJob.Executor job = VertexMapJob.getVertexMapJob(graph, vertexMemory, mapJobs);
+            VertexMapJob.Executor job = VertexMapJob.getVertexMapJob(graph, vertexMemory, mapJobs, mapCombineSize);
             StandardScanner.Builder scanBuilder = graph.getBackend().buildEdgeScanJob();
             scanBuilder.setJobId(jobId);
             scanBuilder.setNumProcessingThreads(numThreads);
             scanBuilder.setWorkBlockSize(readBatchSize);
-            scanBuilder.setJob(job);
             try {
-                ScanMetrics jobResult = scanBuilder.execute().get();
+                ScanMetrics jobResult = executeScan(job, scanBuilder, false);
                 long failures = jobResult.get(ScanMetrics.Metric.FAILURE);
                 if (failures > 0) {
                     throw new TitanException("Failed to process [" + failures + "] vertices in map phase. Computer is aborting.");
@@ -223,25 +264,28 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
             for (Map.Entry<MapReduce, FulgoraMapEmitter> mapJob : mapJobs.entrySet()) {
                 FulgoraMapEmitter<?, ?> mapEmitter = mapJob.getValue();
                 MapReduce mapReduce = mapJob.getKey();
-                mapEmitter.complete(mapReduce); // sort results if a map output sort is defined
-                if (mapReduce.doStage(MapReduce.Stage.REDUCE)) {
-                    final FulgoraReduceEmitter<?, ?> reduceEmitter = new FulgoraReduceEmitter<>();
-                    try (WorkerPool workers = new WorkerPool(numThreads)) {
-                        workers.submit(() -> mapReduce.workerStart(MapReduce.Stage.REDUCE));
-                        for (final Map.Entry queueEntry : mapEmitter.reduceMap.entrySet()) {
-                            workers.submit(() -> mapReduce.reduce(queueEntry.getKey(), ((Iterable) queueEntry.getValue()).iterator(), reduceEmitter));
+                try {
+                    mapEmitter.complete(mapReduce); // sort results if a map output sort is defined
+                    if (mapReduce.doStage(MapReduce.Stage.REDUCE)) {
+                        final FulgoraReduceEmitter<?, ?> reduceEmitter = new FulgoraReduceEmitter<>();
+                        try (WorkerPool workers = new WorkerPool(numThreads)) {
+                            workers.submit(() -> mapReduce.workerStart(MapReduce.Stage.REDUCE));
+                            //Groups are merged lazily from spilled runs, the worker pool applies back-pressure
+                            for (final Map.Entry group : mapEmitter.getReduceGroups(mapReduce)) {
+                                workers.submit(() -> mapReduce.reduce(group.getKey(), ((Iterable) group.getValue()).iterator(), reduceEmitter));
+                            }
+                            workers.submit(() -> mapReduce.workerEnd(MapReduce.Stage.REDUCE));
+                        } catch (Exception e) {
+                            throw new TitanException("Exception while executing reduce phase", e);
                         }
-                        workers.submit(() -> mapReduce.workerEnd(MapReduce.Stage.REDUCE));
-                    } catch (Exception e) {
-                        throw new TitanException("Exception while executing reduce phase", e);
-                    }
-//                    mapEmitter.reduceMap.entrySet().parallelStream().forEach(entry -> mapReduce.reduce(entry.getKey(), entry.getValue().iterator(), reduceEmitter));
-
 
-                    reduceEmitter.complete(mapReduce); // sort results if a reduce output sort is defined
-                    mapReduce.addResultToMemory(this.memory, reduceEmitter.reduceQueue.iterator());
-                } else {
-                    mapReduce.addResultToMemory(this.memory, mapEmitter.mapQueue.iterator());
+                        reduceEmitter.complete(mapReduce); // sort results if a reduce output sort is defined
+                        mapReduce.addResultToMemory(this.memory, reduceEmitter.reduceQueue.iterator());
+                    } else {
+                        mapReduce.addResultToMemory(this.memory, mapEmitter.mapQueue.iterator());
+                    }
+                } finally {
+                    mapEmitter.close();
                 }
             }
 
@@ -275,6 +319,9 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
 
                 if (resultGraphMode == ResultGraph.ORIGINAL) {
                     AtomicInteger failures = new AtomicInteger(0);
+                    boolean bulk = bulkWrite && supportsBulkWrite(vertexProgram.getElementComputeKeys());
+                    if (bulkWrite && !bulk)
+                        log.info("Compute keys of vertex program are not eligible for bulk writing, persisting through transactions");
                     try (WorkerPool workers = new WorkerPool(numThreads)) {
                         List<Map.Entry<Long, Map<String, Object>>> subset = new ArrayList<>(writeBatchSize / vertexProgram.getElementComputeKeys().size());
                         int currentSize = 0;
@@ -282,12 +329,13 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
                             subset.add(entry);
                             currentSize += entry.getValue().size();
                             if (currentSize >= writeBatchSize) {
-                                workers.submit(new VertexPropertyWriter(subset, failures));
+                                workers.submit(bulk ? new BulkVertexPropertyWriter(subset, failures) : new VertexPropertyWriter(subset, failures));
                                 subset = new ArrayList<>(subset.size());
                                 currentSize = 0;
                             }
                         }
-                        if (!subset.isEmpty()) workers.submit(new VertexPropertyWriter(subset, failures));
+                        if (!subset.isEmpty())
+                            workers.submit(bulk ? new BulkVertexPropertyWriter(subset, failures) : new VertexPropertyWriter(subset, failures));
                     } catch (Exception e) {
                         throw new TitanException("Exception while attempting to persist result into graph", e);
                     }
@@ -303,6 +351,7 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
                     }
                 }
             }
+            snapshot = null;
             // update runtime and return the newly computed graph
             this.memory.setRuntime(System.currentTimeMillis() - time);
             this.memory.complete();
@@ -311,6 +360,43 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
     }
 
 
+    /**
+     * Executes the given job against the adjacency snapshot if it covers the job's queries or, otherwise, scans the
+     * storage backend. In the latter case, the scanned rows are recorded as the new snapshot if requested and
+     * snapshots are enabled.
+     *
+     * @param job
+     * @param scanBuilder
+     * @param record
+     * @return
+     * @throws Exception
+     */
+    private ScanMetrics executeScan(ScanJob job, StandardScanner.Builder scanBuilder, boolean record) throws Exception {
+        if (snapshot != null) {
+            ScanMetrics result = snapshot.execute(job, numThreads, readBatchSize, scanBuilder.getJobConfiguration(), configuration);
+            if (result != null) return result;
+        }
+        AdjacencySnapshot.Builder recorder = null;
+        if (useSnapshot && record) {
+            recorder = AdjacencySnapshot.build(snapshotSize, snapshotOffHeap);
+            scanBuilder.setJob(recorder.record(job));
+        } else {
+            scanBuilder.setJob(job);
+        }
+        ScanMetrics result = scanBuilder.execute().get();
+        if (recorder != null) {
+            snapshot = recorder.get();
+            if (recorder.hasExceeded()) {
+                log.info("Adjacency of job [{}] exceeds the snapshot size of {} bytes. Subsequent iterations scan the storage backend",
+                        jobId, snapshotSize);
+                useSnapshot = false;
+            } else if (snapshot != null) {
+                log.debug("Recorded snapshot of {} rows ({} bytes) for job [{}]", snapshot.getNumRows(), snapshot.getByteSize(), jobId);
+            }
+        }
+        return result;
+    }
+
     private class VertexPropertyWriter implements Runnable {
 
         private final List<Map.Entry<Long, Map<String, Object>>> properties;
@@ -343,6 +429,95 @@ public class FulgoraGraphComputer implements TitanGraphComputer {
     }
 
 
+    /**
+     * Whether the given compute keys can be written without going through a transaction, i.e. all keys are
+     * single-valued, unlocked and neither have relation indexes nor composite indexes. For such keys, a new
+     * property overwrites the existing one in the storage backend and in mixed indexes without reading it first.
+     *
+     * @param keys
+     * @return
+     */
+    private boolean supportsBulkWrite(Set<String> keys) {
+        TitanTransaction tx = graph.buildTransaction().readOnly().start();
+        try {
+            for (String name : keys) {
+                if (NON_PERSISTING_KEYS.contains(name)) continue;
+                PropertyKey key = tx.getPropertyKey(name);
+                if (key == null || key.cardinality() != Cardinality.SINGLE) return false;
+                InternalRelationType type = (InternalRelationType) key;
+                if (type.getConsistencyModifier() == ConsistencyModifier.LOCK) return false;
+                if (Iterables.size(type.getRelationIndexes()) != 1) return false;
+                for (IndexType index : type.getKeyIndexes()) {
+                    if (index.isCompositeIndex()) return false;
+                }
+            }
+            return true;
+        } finally {
+            tx.rollback();
+        }
+    }
+
+    /**
+     * Serializes the properties directly into edgestore (and optionally mixed index) mutations which are
+     * submitted in batches through the transaction handle, bypassing the transactional bookkeeping of
+     * {@link VertexPropertyWriter}. Must only be used for keys that pass {@link #supportsBulkWrite(Set)}.
+     */
+    private class BulkVertexPropertyWriter implements Runnable {
+
+        private final List<Map.Entry<Long, Map<String, Object>>> properties;
+        private final AtomicInteger failures;
+
+        private BulkVertexPropertyWriter(List<Map.Entry<Long, Map<String, Object>>> properties, AtomicInteger failures) {
+            assert properties != null && !properties.isEmpty() && failures != null;
+            this.properties = properties;
+            this.failures = failures;
+        }
+
+        @Override
+        public void run() {
+            StandardTitanTx tx = (StandardTitanTx) graph.buildTransaction().enableBatchLoading().start();
+            try {
+                BackendTransaction mutator = tx.getTxHandle();
+                EdgeSerializer edgeSerializer = graph.getEdgeSerializer();
+                IndexSerializer indexSerializer = graph.getIndexSerializer();
+                IDManager idManager = graph.getIDManager();
+                Map<String, PropertyKey> keys = new HashMap<>();
+                for (Map.Entry<Long, Map<String, Object>> vprop : properties) {
+                    InternalVertex vertex = tx.getInternalVertex(vprop.getKey());
+                    List<Entry> additions = new ArrayList<>(vprop.getValue().size());
+                    for (Map.Entry<String, Object> prop : vprop.getValue().entrySet()) {
+                        PropertyKey key = keys.computeIfAbsent(prop.getKey(), tx::getPropertyKey);
+                        Object value = tx.verifyAttribute(key, prop.getValue());
+                        StandardVertexProperty property = new StandardVertexProperty(IDManager.getTemporaryRelationID(0),
+                                key, vertex, value, ElementLifeCycle.New);
+                        graph.assignID(property); //Also moves properties of partitioned vertices to the canonical representative
+                        vertex = property.getVertex(0);
+                        StaticArrayEntry entry = edgeSerializer.writeRelation(property, (InternalRelationType) key, 0, tx);
+                        int ttl = ((InternalRelationType) key).getTTL();
+                        if (ttl > 0) entry.setMetaData(EntryMetaData.TTL, ttl);
+                        additions.add(entry);
+                        if (bulkWriteMixedIndexes) {
+                            for (IndexSerializer.IndexUpdate update : indexSerializer.getIndexUpdates(vertex, Collections.<InternalRelation>singleton(property))) {
+                                assert update.isMixedIndex() && update.isAddition();
+                                MixedIndexType index = (MixedIndexType) update.getIndex();
+                                mutator.getIndexTransaction(index.getBackingIndexName())
+                                        .add(index.getStoreName(), (String) update.getKey(), (IndexEntry) update.getEntry(), false);
+                            }
+                        }
+                    }
+                    mutator.mutateEdges(idManager.getKey(vertex.longId()), additions, KCVSCache.NO_DELETIONS);
+                }
+                tx.commit();
+            } catch (Throwable e) {
+                failures.incrementAndGet();
+                log.error("Encountered exception while trying to bulk write properties: ", e);
+            } finally {
+                if (tx != null && tx.isOpen()) tx.rollback();
+            }
+        }
+    }
+
+
     @Override
     public String toString() {
         return StringFactory.graphComputerString(this);
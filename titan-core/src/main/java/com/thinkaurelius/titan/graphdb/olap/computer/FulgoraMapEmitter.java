@@ -2,16 +2,14 @@ package com.thinkaurelius.titan.graphdb.olap.computer;
 
 import org.apache.tinkerpop.gremlin.process.computer.KeyValue;
 import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
-import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerMapEmitter;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
@@ -20,14 +18,14 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  */
 public class FulgoraMapEmitter<K, V> implements MapReduce.MapEmitter<K, V> {
 
-    public Map<K, Queue<V>> reduceMap;
+    public SpillingReduceBuffer<K, V> reduceBuffer;
     public Queue<KeyValue<K, V>> mapQueue;
     private final boolean doReduce;
 
-    public FulgoraMapEmitter(final boolean doReduce) {
+    public FulgoraMapEmitter(final boolean doReduce, final long maxBufferedValues) {
         this.doReduce = doReduce;
         if (this.doReduce)
-            this.reduceMap = new ConcurrentHashMap<>();
+            this.reduceBuffer = new SpillingReduceBuffer<>(maxBufferedValues);
         else
             this.mapQueue = new ConcurrentLinkedQueue<>();
     }
@@ -35,7 +33,7 @@ public class FulgoraMapEmitter<K, V> implements MapReduce.MapEmitter<K, V> {
     @Override
     public void emit(K key, V value) {
         if (this.doReduce)
-            this.reduceMap.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(value);
+            this.reduceBuffer.add(key, value);
         else
             this.mapQueue.add(new KeyValue<>(key, value));
     }
@@ -47,13 +45,65 @@ public class FulgoraMapEmitter<K, V> implements MapReduce.MapEmitter<K, V> {
             Collections.sort(list, Comparator.comparing(KeyValue::getKey, comparator));
             this.mapQueue.clear();
             this.mapQueue.addAll(list);
-        } else if (mapReduce.getMapKeySort().isPresent()) {
-            final Comparator<K> comparator = mapReduce.getMapKeySort().get();
-            final List<Map.Entry<K, Queue<V>>> list = new ArrayList<>();
-            list.addAll(this.reduceMap.entrySet());
-            Collections.sort(list, Comparator.comparing(Map.Entry::getKey, comparator));
-            this.reduceMap = new LinkedHashMap<>();
-            list.forEach(entry -> this.reduceMap.put(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Returns the emitted values grouped by key for the reduce stage, sorted by the map key sort of the given job.
+     *
+     * @param mapReduce
+     * @return
+     */
+    protected Iterable<Map.Entry<K, List<V>>> getReduceGroups(final MapReduce<K, V, ?, ?, ?> mapReduce) {
+        assert this.doReduce;
+        return this.reduceBuffer.getGroups(mapReduce.getMapKeySort().orElse(null));
+    }
+
+    protected void close() {
+        if (this.doReduce) this.reduceBuffer.close();
+    }
+
+    /**
+     * Buffers the values emitted by a single map worker and combines them locally with the
+     * {@link MapReduce.Stage#COMBINE} stage of the job before passing them on to the given emitter. The buffer is
+     * combined whenever it holds the given number of values and once the worker completes via {@link #flush()}.
+     */
+    public static class Combiner<K, V> implements MapReduce.MapEmitter<K, V> {
+
+        private final MapReduce<K, V, ?, ?, ?> mapReduce;
+        private final MapReduce.MapEmitter<K, V> emitter;
+        private final int maxBufferedValues;
+
+        private final Map<K, List<V>> buffer = new HashMap<>();
+        private int numBuffered = 0;
+
+        public Combiner(MapReduce<K, V, ?, ?, ?> mapReduce, MapReduce.MapEmitter<K, V> emitter, int maxBufferedValues) {
+            this.mapReduce = mapReduce;
+            this.emitter = emitter;
+            this.maxBufferedValues = maxBufferedValues;
+        }
+
+        @Override
+        public void emit(K key, V value) {
+            buffer.computeIfAbsent(key, k -> new ArrayList<>(4)).add(value);
+            if (++numBuffered >= maxBufferedValues) flush();
+        }
+
+        public void flush() {
+            if (buffer.isEmpty()) return;
+            MapReduce.ReduceEmitter<K, V> combined = new MapReduce.ReduceEmitter<K, V>() {
+                @Override
+                public void emit(K key, V value) {
+                    emitter.emit(key, value);
+                }
+            };
+            mapReduce.workerStart(MapReduce.Stage.COMBINE);
+            for (Map.Entry<K, List<V>> entry : buffer.entrySet()) {
+                mapReduce.combine(entry.getKey(), entry.getValue().iterator(), combined);
+            }
+            mapReduce.workerEnd(MapReduce.Stage.COMBINE);
+            buffer.clear();
+            numBuffered = 0;
         }
     }
 }
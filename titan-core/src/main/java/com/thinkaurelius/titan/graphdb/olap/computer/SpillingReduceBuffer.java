@@ -0,0 +1,276 @@
+package com.thinkaurelius.titan.graphdb.olap.computer;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.thinkaurelius.titan.core.TitanException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Groups the values emitted by the map stage of a MapReduce job by key for the reduce stage.
+ * <p/>
+ * Keys are hash-partitioned into a fixed number of buffers. Once more than the configured number of values are held
+ * in memory, the largest buffer is sorted by key hash and spilled as a run to a temporary file. For the reduce stage,
+ * the runs of each partition are merged with the values remaining in memory (k-way merge on the key hash), so that
+ * only the groups of a single key hash need to be held in memory at any time while merging. Spilling requires keys
+ * and values to be {@link java.io.Serializable} and keys to have a hash code that is stable across serialization.
+ * Returning the groups in the order of a key comparator requires all merged groups to be held in memory.
+ */
+public class SpillingReduceBuffer<K, V> implements Iterable<Map.Entry<K, List<V>>>, AutoCloseable {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(SpillingReduceBuffer.class);
+
+    public static final int NUM_PARTITIONS = 64;
+
+    private final Partition[] partitions;
+    private final long maxBufferedValues;
+    private final AtomicLong numBuffered = new AtomicLong(0);
+    private final AtomicBoolean spilling = new AtomicBoolean(false);
+    private volatile File spillDirectory = null;
+    private int numRuns = 0;
+
+    public SpillingReduceBuffer(long maxBufferedValues) {
+        Preconditions.checkArgument(maxBufferedValues > 0, "Invalid buffer size: %s", maxBufferedValues);
+        this.maxBufferedValues = maxBufferedValues;
+        this.partitions = new SpillingReduceBuffer.Partition[NUM_PARTITIONS];
+        for (int i = 0; i < NUM_PARTITIONS; i++) partitions[i] = new Partition();
+    }
+
+    public void add(K key, V value) {
+        int hash = hash(key);
+        partitions[(hash & Integer.MAX_VALUE) % NUM_PARTITIONS].add(hash, key, value);
+        if (numBuffered.incrementAndGet() > maxBufferedValues && spilling.compareAndSet(false, true)) {
+            try {
+                Partition largest = partitions[0];
+                for (Partition p : partitions) if (p.numValues > largest.numValues) largest = p;
+                numBuffered.addAndGet(-largest.spill());
+            } finally {
+                spilling.set(false);
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    public boolean hasSpilled() {
+        return spillDirectory != null;
+    }
+
+    private synchronized File nextRunFile() throws IOException {
+        if (spillDirectory == null) {
+            spillDirectory = Files.createTempDirectory("titan-reduce").toFile();
+            log.info("Reduce buffer exceeds {} values, spilling to {}", maxBufferedValues, spillDirectory);
+        }
+        return new File(spillDirectory, "run" + (numRuns++));
+    }
+
+    /**
+     * Returns all keys with their values in the order of the given comparator (if not null). Sorting requires all
+     * groups to be held in memory, hence only the merge without a comparator benefits from spilled values.
+     *
+     * @param comparator
+     * @return
+     */
+    public Iterable<Map.Entry<K, List<V>>> getGroups(Comparator<K> comparator) {
+        if (comparator == null) return this;
+        if (hasSpilled()) log.warn("Sorting the spilled reduce groups in {} requires holding all of them in memory", spillDirectory);
+        List<Map.Entry<K, List<V>>> groups = new ArrayList<>();
+        Iterators.addAll(groups, iterator());
+        groups.sort(Map.Entry.comparingByKey(comparator));
+        return groups;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, List<V>>> iterator() {
+        return Iterators.concat(Iterators.transform(Iterators.forArray(partitions), Partition::groups));
+    }
+
+    @Override
+    public void close() {
+        for (Partition p : partitions) p.clear();
+        if (spillDirectory != null) {
+            File[] runs = spillDirectory.listFiles();
+            if (runs != null) for (File run : runs) run.delete();
+            if (!spillDirectory.delete()) log.warn("Could not delete spill directory {}", spillDirectory);
+        }
+    }
+
+    private static class Record<K, V> {
+
+        private final int hash;
+        private final K key;
+        private final List<V> values;
+
+        private Record(int hash, K key, List<V> values) {
+            this.hash = hash;
+            this.key = key;
+            this.values = values;
+        }
+    }
+
+    private class Partition {
+
+        private Map<K, List<V>> values = new HashMap<>();
+        private volatile long numValues = 0;
+        private final List<File> runs = new ArrayList<>();
+
+        private synchronized void add(int hash, K key, V value) {
+            values.computeIfAbsent(key, k -> new ArrayList<>(4)).add(value);
+            numValues++;
+        }
+
+        private List<Record<K, V>> sortedRecords() {
+            List<Record<K, V>> records = new ArrayList<>(values.size());
+            for (Map.Entry<K, List<V>> entry : values.entrySet()) {
+                records.add(new Record<>(hash(entry.getKey()), entry.getKey(), entry.getValue()));
+            }
+            records.sort((a, b) -> Integer.compare(a.hash, b.hash));
+            return records;
+        }
+
+        /**
+         * Writes the values of this partition as a run sorted by key hash to a temporary file
+         *
+         * @return number of values spilled
+         */
+        private synchronized long spill() {
+            if (numValues == 0) return 0;
+            try {
+                File run = nextRunFile();
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+                    for (Record<K, V> record : sortedRecords()) {
+                        out.writeInt(record.hash);
+                        out.writeObject(record.key);
+                        out.writeInt(record.values.size());
+                        for (V value : record.values) out.writeObject(value);
+                        out.reset();
+                    }
+                }
+                runs.add(run);
+            } catch (IOException e) {
+                throw new TitanException("Could not spill reduce buffer", e);
+            }
+            long spilled = numValues;
+            values = new HashMap<>();
+            numValues = 0;
+            return spilled;
+        }
+
+        private synchronized void clear() {
+            values = new HashMap<>();
+            numValues = 0;
+            runs.clear();
+        }
+
+        private Iterator<Map.Entry<K, List<V>>> groups() {
+            if (runs.isEmpty()) return values.entrySet().iterator();
+            List<RunIterator> sources = new ArrayList<>(runs.size() + 1);
+            sources.add(new RunIterator(sortedRecords().iterator()));
+            for (File run : runs) sources.add(new RunIterator(run));
+            return new MergeIterator(sources);
+        }
+    }
+
+    private class RunIterator extends AbstractIterator<Record<K, V>> {
+
+        private final Iterator<Record<K, V>> records;
+        private final ObjectInputStream in;
+
+        private RunIterator(Iterator<Record<K, V>> records) {
+            this.records = records;
+            this.in = null;
+        }
+
+        private RunIterator(File run) {
+            this.records = null;
+            try {
+                this.in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(run)));
+            } catch (IOException e) {
+                throw new TitanException("Could not read spilled run: " + run, e);
+            }
+        }
+
+        @Override
+        protected Record<K, V> computeNext() {
+            if (records != null) return records.hasNext() ? records.next() : endOfData();
+            try {
+                int hash;
+                try {
+                    hash = in.readInt();
+                } catch (EOFException e) {
+                    in.close();
+                    return endOfData();
+                }
+                K key = (K) in.readObject();
+                int numValues = in.readInt();
+                List<V> values = new ArrayList<>(numValues);
+                for (int i = 0; i < numValues; i++) values.add((V) in.readObject());
+                return new Record<>(hash, key, values);
+            } catch (IOException | ClassNotFoundException e) {
+                throw new TitanException("Could not read spilled run", e);
+            }
+        }
+    }
+
+    /**
+     * Merges runs sorted by key hash and groups the values of equal keys across runs
+     */
+    private class MergeIterator extends AbstractIterator<Map.Entry<K, List<V>>> {
+
+        private final PriorityQueue<RunIterator> sources;
+        private Iterator<Map.Entry<K, List<V>>> current = Collections.emptyIterator();
+
+        private MergeIterator(List<RunIterator> runs) {
+            sources = new PriorityQueue<>(runs.size(), (a, b) -> Integer.compare(a.peek().hash, b.peek().hash));
+            for (RunIterator run : runs) if (run.hasNext()) sources.add(run);
+        }
+
+        @Override
+        protected Map.Entry<K, List<V>> computeNext() {
+            if (current.hasNext()) return current.next();
+            if (sources.isEmpty()) return endOfData();
+            int hash = sources.peek().peek().hash;
+            Map<K, List<V>> groups = new LinkedHashMap<>();
+            while (!sources.isEmpty() && sources.peek().peek().hash == hash) {
+                RunIterator run = sources.poll();
+                while (run.hasNext() && run.peek().hash == hash) {
+                    Record<K, V> record = run.next();
+                    List<V> values = groups.get(record.key);
+                    //Copy since the values of records held in memory must not change across iterations
+                    if (values == null) groups.put(record.key, new ArrayList<>(record.values));
+                    else values.addAll(record.values);
+                }
+                if (run.hasNext()) sources.add(run);
+            }
+            current = groups.entrySet().iterator();
+            return current.next();
+        }
+    }
+
+}
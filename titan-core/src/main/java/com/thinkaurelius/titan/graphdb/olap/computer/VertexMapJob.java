@@ -19,6 +19,7 @@ import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -56,15 +57,18 @@ public class VertexMapJob implements VertexScanJob {
     private final IDManager idManager;
     private final Map<MapReduce, FulgoraMapEmitter> mapJobs;
     private final FulgoraVertexMemory vertexMemory;
+    private final int combineSize;
+    private final Map<MapReduce, FulgoraMapEmitter.Combiner> combiners = new HashMap<>();
 
     public static final String MAP_JOB_SUCCESS = "map-success";
     public static final String MAP_JOB_FAILURE = "map-fail";
 
     private VertexMapJob(IDManager idManager, FulgoraVertexMemory vertexMemory,
-                         Map<MapReduce, FulgoraMapEmitter> mapJobs) {
+                         Map<MapReduce, FulgoraMapEmitter> mapJobs, int combineSize) {
         this.mapJobs = mapJobs;
         this.vertexMemory = vertexMemory;
         this.idManager = idManager;
+        this.combineSize = combineSize;
     }
 
     @Override
@@ -73,20 +77,27 @@ public class VertexMapJob implements VertexScanJob {
         for (Map.Entry<MapReduce, FulgoraMapEmitter> entry : mapJobs.entrySet()) {
             cloneMap.put(entry.getKey().clone(), entry.getValue());
         }
-        return new VertexMapJob(idManager, vertexMemory, cloneMap.build());
+        return new VertexMapJob(idManager, vertexMemory, cloneMap.build(), combineSize);
     }
 
     @Override
     public void workerIterationStart(TitanGraph graph, Configuration config, ScanMetrics metrics) {
         for (Map.Entry<MapReduce, FulgoraMapEmitter> mapJob : mapJobs.entrySet()) {
-            mapJob.getKey().workerStart(MapReduce.Stage.MAP);
+            MapReduce job = mapJob.getKey();
+            job.workerStart(MapReduce.Stage.MAP);
+            if (job.doStage(MapReduce.Stage.COMBINE) && job.doStage(MapReduce.Stage.REDUCE)) {
+                combiners.put(job, new FulgoraMapEmitter.Combiner(job, mapJob.getValue(), combineSize));
+            }
         }
     }
 
     @Override
     public void workerIterationEnd(ScanMetrics metrics) {
         for (Map.Entry<MapReduce, FulgoraMapEmitter> mapJob : mapJobs.entrySet()) {
-            mapJob.getKey().workerEnd(MapReduce.Stage.MAP);
+            MapReduce job = mapJob.getKey();
+            FulgoraMapEmitter.Combiner combiner = combiners.remove(job);
+            if (combiner != null) combiner.flush();
+            job.workerEnd(MapReduce.Stage.MAP);
         }
     }
 
@@ -104,7 +115,8 @@ public class VertexMapJob implements VertexScanJob {
             for (Map.Entry<MapReduce, FulgoraMapEmitter> mapJob : mapJobs.entrySet()) {
                 MapReduce job = mapJob.getKey();
                 try {
-                    job.map(v, mapJob.getValue());
+                    MapReduce.MapEmitter emitter = combiners.get(job);
+                    job.map(v, emitter != null ? emitter : mapJob.getValue());
                     metrics.incrementCustom(MAP_JOB_SUCCESS);
                 } catch (Throwable ex) {
                     log.error("Encountered exception executing map job [" + job + "] on vertex [" + vertex + "]:", ex);
@@ -120,8 +132,8 @@ public class VertexMapJob implements VertexScanJob {
     }
 
     public static Executor getVertexMapJob(StandardTitanGraph graph, FulgoraVertexMemory vertexMemory,
-                                           Map<MapReduce, FulgoraMapEmitter> mapJobs) {
-        VertexMapJob job = new VertexMapJob(graph.getIDManager(), vertexMemory, mapJobs);
+                                           Map<MapReduce, FulgoraMapEmitter> mapJobs, int combineSize) {
+        VertexMapJob job = new VertexMapJob(graph.getIDManager(), vertexMemory, mapJobs, combineSize);
         for (Map.Entry<MapReduce, FulgoraMapEmitter> mapJob : mapJobs.entrySet()) {
             mapJob.getKey().workerStart(MapReduce.Stage.MAP);
         }
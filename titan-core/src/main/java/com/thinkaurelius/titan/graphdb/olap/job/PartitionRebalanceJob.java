@@ -0,0 +1,287 @@
+package com.thinkaurelius.titan.graphdb.olap.job;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
+import com.thinkaurelius.titan.core.TitanEdge;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanVertex;
+import com.thinkaurelius.titan.core.TitanVertexProperty;
+import com.thinkaurelius.titan.core.VertexLabel;
+import com.thinkaurelius.titan.diskstorage.configuration.ConfigNamespace;
+import com.thinkaurelius.titan.diskstorage.configuration.ConfigOption;
+import com.thinkaurelius.titan.diskstorage.configuration.Configuration;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanMetrics;
+import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
+import com.thinkaurelius.titan.graphdb.database.StandardTitanGraph;
+import com.thinkaurelius.titan.graphdb.database.idassigner.placement.LocalityPlacementStrategy;
+import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
+import com.thinkaurelius.titan.graphdb.olap.QueryContainer;
+import com.thinkaurelius.titan.graphdb.olap.VertexScanJob;
+import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Improves the locality of an existing graph by relocating vertices into the partition that most of their neighbors
+ * reside in, i.e. the placement that {@link LocalityPlacementStrategy} makes for new vertices.
+ * <p/>
+ * For each vertex, the job counts the partitions of its adjacent vertices. If the share of neighbors in the best partition
+ * exceeds the share of neighbors in the vertex's current partition by at least the configured minimum gain, a move is
+ * proposed. The job reports the number of local and remote edges and proposed moves. If configured to execute the moves,
+ * each proposed vertex is re-created with a new id in the target partition in its own transaction: all properties
+ * (including meta-properties) and edges (including edge properties) are copied to the new vertex and the old vertex
+ * is removed. Each id remapping is logged.
+ * <p/>
+ * Moves are serialized across all processing threads of the job and the partitions of the neighbors are recomputed
+ * in the transaction that executes the move, so that a move is based on the current placement of the neighbors and
+ * moving two adjacent vertices does not lose the edge between them. A move which is no longer warranted at that point
+ * is counted as obsolete. Executing the moves is an offline operation: the graph must not be modified concurrently.
+ * Vertex ids retained outside the graph become invalid for relocated vertices. Unidirected edges pointing to a
+ * relocated vertex are only stored with their out-vertex and hence are not remapped.
+ */
+public class PartitionRebalanceJob implements VertexScanJob {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(PartitionRebalanceJob.class);
+
+    public static ConfigNamespace REBALANCE_JOB_NS = new ConfigNamespace(GraphDatabaseConfiguration.JOB_NS,"rebalance","Configuration options relating to the partition rebalance job");
+
+    public static final ConfigOption<Boolean> EXECUTE_MOVES = new ConfigOption<Boolean>(REBALANCE_JOB_NS,"execute",
+            "Whether to relocate the vertices proposed for a move or only report the proposed moves",
+            ConfigOption.Type.LOCAL, false);
+
+    public static final ConfigOption<Double> MIN_GAIN = new ConfigOption<Double>(REBALANCE_JOB_NS,"min-gain",
+            "Minimum increase of the fraction of neighbors in the same partition for a vertex to be moved",
+            ConfigOption.Type.LOCAL, 0.2, gain -> gain!=null && gain>0.0 && gain<=1.0);
+
+    public static final String LOCAL_EDGES_COUNT = "local-edges";
+    public static final String REMOTE_EDGES_COUNT = "remote-edges";
+    public static final String PROPOSED_MOVES_COUNT = "proposed-moves";
+    public static final String MOVED_VERTICES_COUNT = "moved-vertices";
+    public static final String FAILED_MOVES_COUNT = "failed-moves";
+    public static final String OBSOLETE_MOVES_COUNT = "obsolete-moves";
+
+    private Boolean execute = null;
+    private double minGain;
+
+    /**
+     * Shared by all clones of this job to serialize the moves
+     */
+    private final Object moveLock;
+
+    private StandardTitanGraph graph;
+    private IDManager idManager;
+
+    public PartitionRebalanceJob() {
+        this.moveLock = new Object();
+    }
+
+    public PartitionRebalanceJob(boolean execute, double minGain) {
+        Preconditions.checkArgument(minGain>0.0 && minGain<=1.0,"Invalid gain: %s",minGain);
+        this.execute = execute;
+        this.minGain = minGain;
+        this.moveLock = new Object();
+    }
+
+    protected PartitionRebalanceJob(PartitionRebalanceJob copy) {
+        this.execute = copy.execute;
+        this.minGain = copy.minGain;
+        this.moveLock = copy.moveLock;
+    }
+
+    @Override
+    public void workerIterationStart(TitanGraph graph, Configuration config, ScanMetrics metrics) {
+        this.graph = (StandardTitanGraph)graph;
+        this.idManager = this.graph.getIDManager();
+        if (execute == null) {
+            execute = config.get(EXECUTE_MOVES);
+            minGain = config.get(MIN_GAIN);
+            log.info("Read rebalance configuration: execute={} min-gain={}", execute, minGain);
+        }
+    }
+
+    @Override
+    public void process(TitanVertex vertex, ScanMetrics metrics) {
+        long vertexId = vertex.longId();
+        if (!idManager.isUserVertexId(vertexId) || idManager.isPartitionedVertex(vertexId)) return;
+        int currentPartition = (int)idManager.getPartitionId(vertexId);
+
+        Multiset<Integer> partitions = getNeighborPartitions(vertex);
+        if (partitions.isEmpty()) return;
+        int localEdges = partitions.count(currentPartition);
+        metrics.incrementCustom(LOCAL_EDGES_COUNT, localEdges);
+        metrics.incrementCustom(REMOTE_EDGES_COUNT, partitions.size() - localEdges);
+
+        int targetPartition = getTargetPartition(partitions, currentPartition);
+        if (targetPartition<0) return;
+
+        metrics.incrementCustom(PROPOSED_MOVES_COUNT);
+        log.debug("Proposed move of vertex {} from partition {} to {} gaining {} local edges",
+                vertexId, currentPartition, targetPartition, partitions.count(targetPartition) - localEdges);
+        if (execute) {
+            synchronized (moveLock) {
+                relocate(vertexId, currentPartition, metrics);
+            }
+        }
+    }
+
+    /**
+     * Counts the partitions of the adjacent vertices of the given vertex, ignoring self-loops and neighbors that are
+     * not (or partitioned) user vertices.
+     *
+     * @param vertex
+     * @return
+     */
+    private Multiset<Integer> getNeighborPartitions(TitanVertex vertex) {
+        long vertexId = vertex.longId();
+        Multiset<Integer> partitions = HashMultiset.create();
+        for (TitanVertex neighbor : vertex.query().direction(Direction.BOTH).vertices()) {
+            long neighborId = neighbor.longId();
+            if (neighborId==vertexId || !idManager.isUserVertexId(neighborId) || idManager.isPartitionedVertex(neighborId))
+                continue;
+            partitions.add((int)idManager.getPartitionId(neighborId));
+        }
+        return partitions;
+    }
+
+    /**
+     * Returns the partition that the vertex should be moved to given the partitions of its neighbors, or -1 if
+     * moving the vertex does not gain the configured minimum of local edges.
+     *
+     * @param partitions
+     * @param currentPartition
+     * @return
+     */
+    private int getTargetPartition(Multiset<Integer> partitions, int currentPartition) {
+        if (partitions.isEmpty()) return -1;
+        int targetPartition = Multisets.copyHighestCountFirst(partitions).elementSet().iterator().next();
+        int gainedEdges = partitions.count(targetPartition) - partitions.count(currentPartition);
+        if (targetPartition==currentPartition || gainedEdges <= 0 || gainedEdges < minGain * partitions.size()) return -1;
+        return targetPartition;
+    }
+
+    /**
+     * Re-creates the vertex with the given id in the partition that most of its neighbors currently reside in and removes
+     * the original vertex. The target partition is recomputed in the transaction that executes the move, since
+     * neighbors may have been relocated since the move was proposed. Must be called while holding {@link #moveLock}.
+     *
+     * @param vertexId
+     * @param currentPartition
+     * @param metrics
+     */
+    private void relocate(long vertexId, int currentPartition, ScanMetrics metrics) {
+        StandardTitanTx tx = (StandardTitanTx)graph.buildTransaction().start();
+        int partition = -1;
+        try {
+            TitanVertex vertex = tx.getVertex(vertexId);
+            if (vertex==null) { //Vertex has been removed in the meantime
+                tx.rollback();
+                metrics.incrementCustom(FAILED_MOVES_COUNT);
+                return;
+            }
+            VertexLabel label = vertex.vertexLabel();
+            if (label.isPartitioned()) {
+                tx.rollback();
+                metrics.incrementCustom(FAILED_MOVES_COUNT);
+                return;
+            }
+            partition = getTargetPartition(getNeighborPartitions(vertex), currentPartition);
+            if (partition<0) {
+                log.debug("Move of vertex {} is no longer warranted by the partitions of its neighbors", vertexId);
+                tx.rollback();
+                metrics.incrementCustom(OBSOLETE_MOVES_COUNT);
+                return;
+            }
+
+            //Read the adjacency before the vertex is removed
+            List<RelationCopy> properties = new ArrayList<RelationCopy>();
+            for (TitanVertexProperty p : vertex.query().properties()) {
+                properties.add(RelationCopy.of(p));
+            }
+            List<RelationCopy> edges = new ArrayList<RelationCopy>();
+            Set<Long> edgeIds = new HashSet<Long>();
+            for (TitanEdge e : vertex.query().direction(Direction.BOTH).edges()) {
+                if (!edgeIds.add(e.longId())) continue; //Self-loops are returned for both directions
+                edges.add(RelationCopy.of(e, vertex));
+            }
+            vertex.remove();
+
+            TitanVertex copy = tx.addVertexInPartition(label, partition);
+            for (RelationCopy p : properties) {
+                TitanVertexProperty np = copy.property(p.type, p.value);
+                for (Map.Entry<String,Object> meta : p.properties.entrySet()) np.property(meta.getKey(), meta.getValue());
+            }
+            for (RelationCopy e : edges) {
+                TitanVertex other = e.adjacent==null ? copy : e.adjacent;
+                TitanEdge ne = e.dir==Direction.OUT ? copy.addEdge(e.type, other) : other.addEdge(e.type, copy);
+                for (Map.Entry<String,Object> meta : e.properties.entrySet()) ne.property(meta.getKey(), meta.getValue());
+            }
+            tx.commit();
+            log.info("Relocated vertex {} to partition {} with new id {}", vertexId, partition, copy.longId());
+            metrics.incrementCustom(MOVED_VERTICES_COUNT);
+        } catch (RuntimeException e) {
+            log.warn("Could not relocate vertex " + vertexId + " to partition " + partition, e);
+            if (tx.isOpen()) tx.rollback();
+            metrics.incrementCustom(FAILED_MOVES_COUNT);
+        }
+    }
+
+    @Override
+    public void getQueries(QueryContainer queries) {
+        queries.addQuery().direction(Direction.BOTH).edges();
+    }
+
+    @Override
+    public PartitionRebalanceJob clone() {
+        return new PartitionRebalanceJob(this);
+    }
+
+    /**
+     * Snapshot of a property or edge of a vertex that is relocated
+     */
+    private static class RelationCopy {
+
+        private final String type;
+        private final Object value;
+        private final TitanVertex adjacent;
+        private final Direction dir;
+        private final Map<String,Object> properties = new LinkedHashMap<String,Object>();
+
+        private RelationCopy(String type, Object value, TitanVertex adjacent, Direction dir, Iterator<Property<Object>> properties) {
+            this.type = type;
+            this.value = value;
+            this.adjacent = adjacent;
+            this.dir = dir;
+            while (properties.hasNext()) {
+                Property<Object> p = properties.next();
+                this.properties.put(p.key(), p.value());
+            }
+        }
+
+        private static RelationCopy of(TitanVertexProperty<?> property) {
+            return new RelationCopy(property.key(), property.value(), null, null, property.<Object>properties());
+        }
+
+        /**
+         * The adjacent vertex is null for self-loops
+         */
+        private static RelationCopy of(TitanEdge edge, TitanVertex vertex) {
+            TitanVertex other = edge.otherVertex(vertex);
+            Direction dir = edge.vertex(Direction.OUT).equals(vertex) ? Direction.OUT : Direction.IN;
+            return new RelationCopy(edge.label(), null, other.equals(vertex) ? null : other, dir, edge.<Object>properties());
+        }
+    }
+
+}
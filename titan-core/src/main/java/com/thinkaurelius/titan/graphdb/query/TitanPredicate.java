@@ -6,6 +6,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.Compare;
 import org.apache.tinkerpop.gremlin.process.traversal.Contains;
 
 import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 
 /**
  * A special kind of {@link BiPredicate} which marks all the predicates that are natively supported by
@@ -62,6 +63,18 @@ public interface TitanPredicate extends BiPredicate<Object, Object> {
     @Override
     public boolean test(Object value, Object condition);
 
+    /**
+     * Returns a predicate which tests values against the given condition exactly like {@link #test(Object, Object)}.
+     * Predicates override this method to prepare the condition once (e.g. compile regular expressions or tokenize
+     * search terms) when the same condition is evaluated against many values.
+     *
+     * @param condition
+     * @return
+     */
+    public default Predicate<Object> compile(final Object condition) {
+        return value -> test(value, condition);
+    }
+
 
     public static class Converter {
 
@@ -0,0 +1,122 @@
+package com.thinkaurelius.titan.graphdb.query.condition;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.core.TitanElement;
+import com.thinkaurelius.titan.core.attribute.Cmp;
+import com.thinkaurelius.titan.core.attribute.Contain;
+import com.thinkaurelius.titan.core.attribute.Text;
+import com.thinkaurelius.titan.graphdb.query.TitanPredicate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Condition} compiled into a reusable evaluator for in-memory filtering. The literals of the condition
+ * prepare their predicate operands once (see {@link TitanPredicate#compile(Object)}) and the children of AND and OR
+ * conditions are evaluated in the order of their estimated cost so that cheap conditions can short-circuit
+ * expensive ones.
+ * <p/>
+ * The evaluator is a snapshot of the condition at the time of compilation.
+ */
+public class CompiledCondition<E extends TitanElement> {
+
+    private final Condition<E> condition;
+    private final Predicate<E> evaluator;
+
+    private CompiledCondition(Condition<E> condition) {
+        Preconditions.checkNotNull(condition);
+        this.condition = condition;
+        this.evaluator = compile(condition).evaluator;
+    }
+
+    public static <E extends TitanElement> CompiledCondition<E> of(Condition<E> condition) {
+        return new CompiledCondition<E>(condition);
+    }
+
+    public Condition<E> getCondition() {
+        return condition;
+    }
+
+    public boolean evaluate(E element) {
+        return evaluator.test(element);
+    }
+
+    private static class Node<E> {
+
+        private final Predicate<E> evaluator;
+        private final int cost;
+
+        private Node(Predicate<E> evaluator, int cost) {
+            this.evaluator = evaluator;
+            this.cost = cost;
+        }
+    }
+
+    private static <E extends TitanElement> Node<E> compile(final Condition<E> condition) {
+        switch (condition.getType()) {
+            case AND:
+            case OR:
+                final List<Node<E>> children = new ArrayList<>(condition.numChildren());
+                int cost = 0;
+                for (Condition<E> child : condition.getChildren()) {
+                    Node<E> node = compile(child);
+                    children.add(node);
+                    cost += node.cost;
+                }
+                children.sort(Comparator.comparingInt(n -> n.cost));
+                final Predicate<E>[] evaluators = new Predicate[children.size()];
+                for (int i = 0; i < evaluators.length; i++) evaluators[i] = children.get(i).evaluator;
+                if (condition.getType() == Condition.Type.AND) {
+                    return new Node<>(element -> {
+                        for (Predicate<E> evaluator : evaluators) {
+                            if (!evaluator.test(element)) return false;
+                        }
+                        return true;
+                    }, cost);
+                } else {
+                    return new Node<>(element -> {
+                        for (Predicate<E> evaluator : evaluators) {
+                            if (evaluator.test(element)) return true;
+                        }
+                        return false;
+                    }, cost);
+                }
+            case NOT:
+                Node<E> child = compile(((Not<E>) condition).getChild());
+                return new Node<>(child.evaluator.negate(), child.cost);
+            case LITERAL:
+                if (condition instanceof PredicateCondition) {
+                    PredicateCondition<?, E> pc = (PredicateCondition<?, E>) condition;
+                    return new Node<>(pc::evaluate, getCost(pc.getPredicate()));
+                } else {
+                    return new Node<>(condition::evaluate, 1);
+                }
+            default:
+                throw new IllegalArgumentException("Unexpected condition type: " + condition.getType());
+        }
+    }
+
+    /**
+     * Rough relative cost of evaluating a single value with the given predicate
+     *
+     * @param predicate
+     * @return
+     */
+    private static int getCost(TitanPredicate predicate) {
+        if (predicate instanceof Cmp) return 2;
+        else if (predicate instanceof Contain) return 3;
+        else if (predicate == Text.PREFIX) return 3;
+        else if (predicate == Text.CONTAINS || predicate == Text.CONTAINS_PREFIX) return 10;
+        else if (predicate == Text.REGEX) return 20;
+        else if (predicate == Text.CONTAINS_REGEX) return 40;
+        else return 5;
+    }
+
+    @Override
+    public String toString() {
+        return condition.toString();
+    }
+
+}
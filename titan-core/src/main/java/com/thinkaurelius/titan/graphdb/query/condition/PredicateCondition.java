@@ -10,6 +10,7 @@ import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import java.util.Iterator;
+import java.util.function.Predicate;
 
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -21,6 +22,8 @@ public class PredicateCondition<K, E extends TitanElement> extends Literal<E> {
     private final TitanPredicate predicate;
     private final Object value;
 
+    private volatile Predicate<Object> compiledPredicate;
+
     public PredicateCondition(K key, TitanPredicate predicate, Object value) {
         Preconditions.checkNotNull(key);
         Preconditions.checkArgument(key instanceof String || key instanceof RelationType);
@@ -32,7 +35,13 @@ public class PredicateCondition<K, E extends TitanElement> extends Literal<E> {
 
 
     private boolean satisfiesCondition(Object value) {
-        return predicate.test(value, this.value);
+        Predicate<Object> compiled = compiledPredicate;
+        if (compiled == null) {
+            //Prepare the predicate operand once since conditions are typically evaluated against many elements
+            compiled = predicate.compile(this.value);
+            compiledPredicate = compiled;
+        }
+        return compiled.test(value);
     }
 
     @Override
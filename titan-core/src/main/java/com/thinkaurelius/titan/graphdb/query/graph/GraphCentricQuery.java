@@ -8,6 +8,7 @@ import com.thinkaurelius.titan.graphdb.query.BackendQueryHolder;
 import com.thinkaurelius.titan.graphdb.query.BaseQuery;
 import com.thinkaurelius.titan.graphdb.query.ElementQuery;
 import com.thinkaurelius.titan.graphdb.query.QueryUtil;
+import com.thinkaurelius.titan.graphdb.query.condition.CompiledCondition;
 import com.thinkaurelius.titan.graphdb.query.condition.Condition;
 import com.thinkaurelius.titan.graphdb.query.condition.FixedCondition;
 import com.thinkaurelius.titan.graphdb.query.profile.ProfileObservable;
@@ -32,6 +33,10 @@ public class GraphCentricQuery extends BaseQuery implements ElementQuery<TitanEl
      * condition evaluates to true.
      */
     private final Condition<TitanElement> condition;
+    /**
+     * Evaluator for {@link #condition}, compiled on first use
+     */
+    private volatile CompiledCondition<TitanElement> compiledCondition;
     /**
      * The {@link JointIndexQuery} to execute against the indexing backends and index store.
      */
@@ -137,7 +142,12 @@ public class GraphCentricQuery extends BaseQuery implements ElementQuery<TitanEl
 
     @Override
     public boolean matches(TitanElement element) {
-        return condition.evaluate(element);
+        CompiledCondition<TitanElement> compiled = compiledCondition;
+        if (compiled == null) {
+            compiled = CompiledCondition.of(condition);
+            compiledCondition = compiled;
+        }
+        return compiled.evaluate(element);
     }
 
 
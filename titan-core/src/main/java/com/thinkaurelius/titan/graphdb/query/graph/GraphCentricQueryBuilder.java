@@ -7,9 +7,12 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.thinkaurelius.titan.core.*;
 import com.thinkaurelius.titan.core.attribute.Cmp;
+import com.thinkaurelius.titan.core.attribute.Geoshape;
 import com.thinkaurelius.titan.core.schema.SchemaStatus;
 import com.thinkaurelius.titan.core.schema.TitanSchemaType;
 import com.thinkaurelius.titan.graphdb.database.IndexSerializer;
+import com.thinkaurelius.titan.graphdb.database.indexing.GeohashCells;
+import com.thinkaurelius.titan.graphdb.database.indexing.OrderedIndexRange;
 import com.thinkaurelius.titan.graphdb.internal.ElementCategory;
 import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
 import com.thinkaurelius.titan.graphdb.internal.Order;
@@ -231,15 +234,18 @@ public class GraphCentricQueryBuilder implements TitanGraphQuery<GraphCentricQue
         JointIndexQuery jointQuery = new JointIndexQuery();
         boolean isSorted = orders.isEmpty();
         Set<Condition> coveredClauses = Sets.newHashSet();
+        Set<Condition> approximateClauses = Sets.newHashSet();
         while (true) {
             IndexType bestCandidate = null;
             double candidateScore = 0.0;
             Set<Condition> candidateSubcover = null;
             boolean candidateSupportsSort = false;
             Object candidateSubcondition = null;
+            Set<Condition> candidateApproximate = null;
 
             for (IndexType index : indexCandidates) {
                 Set<Condition> subcover = Sets.newHashSet();
+                Set<Condition> approximate = Sets.newHashSet();
                 Object subcondition;
                 boolean supportsSort = orders.isEmpty();
                 //Check that this index actually applies in case of a schema constraint
@@ -258,7 +264,9 @@ public class GraphCentricQueryBuilder implements TitanGraphQuery<GraphCentricQue
                 }
 
                 if (index.isCompositeIndex()) {
-                    subcondition = indexCover((CompositeIndexType) index,conditions,subcover);
+                    subcondition = indexCover((CompositeIndexType) index,conditions,subcover,approximate);
+                    if (coveredClauses.isEmpty() && !supportsSort
+                            && indexCoversOrder((CompositeIndexType)index,orders)) supportsSort=true;
                 } else {
                     subcondition = indexCover((MixedIndexType) index,conditions,serializer,subcover);
                     if (coveredClauses.isEmpty() && !supportsSort
@@ -285,11 +293,13 @@ public class GraphCentricQueryBuilder implements TitanGraphQuery<GraphCentricQue
                     candidateSubcover = subcover;
                     candidateSubcondition = subcondition;
                     candidateSupportsSort = supportsSort;
+                    candidateApproximate = approximate;
                 }
             }
             if (bestCandidate!=null) {
                 if (coveredClauses.isEmpty()) isSorted=candidateSupportsSort;
                 coveredClauses.addAll(candidateSubcover);
+                approximateClauses.addAll(candidateApproximate);
                 if (bestCandidate.isCompositeIndex()) {
                     jointQuery.add((CompositeIndexType)bestCandidate,
                             serializer.getQuery((CompositeIndexType)bestCandidate,(List<Object[]>)candidateSubcondition));
@@ -315,7 +325,9 @@ public class GraphCentricQueryBuilder implements TitanGraphQuery<GraphCentricQue
             }
             indexLimit = Math.min(HARD_MAX_LIMIT, QueryUtil.adjustLimitForTxModifications(tx, coveredClauses.size(), indexLimit));
             jointQuery.setLimit(indexLimit);
-            query = new BackendQueryHolder<JointIndexQuery>(jointQuery, coveredClauses.size()==conditions.numChildren(), isSorted);
+            //Clauses that are only approximately answered by an index (e.g. geohash cells) need to be filtered afterwards
+            boolean fitted = coveredClauses.size()==conditions.numChildren() && approximateClauses.isEmpty();
+            query = new BackendQueryHolder<JointIndexQuery>(jointQuery, fitted, isSorted);
         } else {
             query = new BackendQueryHolder<JointIndexQuery>(new JointIndexQuery(), false, isSorted);
         }
@@ -329,43 +341,106 @@ public class GraphCentricQueryBuilder implements TitanGraphQuery<GraphCentricQue
         return true;
     }
 
-    public static List<Object[]> indexCover(final CompositeIndexType index, Condition<TitanElement> condition, Set<Condition> covered) {
+    /**
+     * A composite index can only return its results sorted by the (ascending) value of its ordered field
+     */
+    public static final boolean indexCoversOrder(CompositeIndexType index, OrderList orders) {
+        int orderedPos = OrderedIndexRange.getOrderedPosition(index);
+        return orderedPos>=0 && orders.size()==1 && orders.getOrder(0)==Order.ASC
+                && orders.getKey(0).equals(index.getFieldKeys()[orderedPos].getFieldKey());
+    }
+
+    /**
+     * Computes the index keys to look up in the given composite index to answer the given condition. The covered clauses
+     * are added to the provided set. Clauses that the index can only answer approximately (i.e. the returned elements
+     * are a superset of the actual answer) are additionally added to {@code approximate}.
+     *
+     * @return The list of index values to look up or null if the index does not cover the condition
+     */
+    public static List<Object[]> indexCover(final CompositeIndexType index, Condition<TitanElement> condition,
+                                            Set<Condition> covered, Set<Condition> approximate) {
         assert QueryUtil.isQueryNormalForm(condition);
         assert condition instanceof And;
         if (index.getStatus()!= SchemaStatus.ENABLED) return null;
         IndexField[] fields = index.getFieldKeys();
         Object[] indexValues = new Object[fields.length];
         Set<Condition> coveredClauses = new HashSet<Condition>(fields.length);
+        Set<Condition> approximateClauses = new HashSet<Condition>(1);
         List<Object[]> indexCovers = new ArrayList<Object[]>(4);
 
-        constructIndexCover(indexValues,0,fields,condition,indexCovers,coveredClauses);
-        if (!indexCovers.isEmpty()) {
+        constructIndexCover(indexValues,0,fields,condition,indexCovers,coveredClauses,approximateClauses);
+        if (!indexCovers.isEmpty() && !coveredClauses.isEmpty()) {
             covered.addAll(coveredClauses);
+            approximate.addAll(approximateClauses);
             return indexCovers;
         } else return null;
     }
 
     private static void constructIndexCover(Object[] indexValues, int position, IndexField[] fields,
                                             Condition<TitanElement> condition,
-                                            List<Object[]> indexCovers, Set<Condition> coveredClauses) {
+                                            List<Object[]> indexCovers, Set<Condition> coveredClauses,
+                                            Set<Condition> approximateClauses) {
         if (position>=fields.length) {
             indexCovers.add(indexValues);
         } else {
             IndexField field = fields[position];
-            Map.Entry<Condition,Collection<Object>> equalCon = getEqualityConditionValues(condition,field.getFieldKey());
+            if (OrderedIndexRange.isOrderedField(field)) {
+                //Ordered fields are answered by a range slice which is unrestricted if there are no matching conditions
+                Object[] newValues = Arrays.copyOf(indexValues,fields.length);
+                newValues[position]=getOrderedRange(condition,field.getFieldKey(),coveredClauses);
+                constructIndexCover(newValues,position+1,fields,condition,indexCovers,coveredClauses,approximateClauses);
+                return;
+            }
+            Map.Entry<Condition,Collection<Object>> equalCon;
+            if (GeohashCells.isGeohashField(field)) {
+                equalCon = getGeohashConditionCells(condition,field.getFieldKey(),GeohashCells.getPrecision(field));
+                if (equalCon!=null) approximateClauses.add(equalCon.getKey());
+            } else {
+                equalCon = getEqualityConditionValues(condition,field.getFieldKey());
+            }
             if (equalCon!=null) {
                 coveredClauses.add(equalCon.getKey());
                 assert equalCon.getValue().size()>0;
                 for (Object value : equalCon.getValue()) {
                     Object[] newValues = Arrays.copyOf(indexValues,fields.length);
                     newValues[position]=value;
-                    constructIndexCover(newValues,position+1,fields,condition,indexCovers,coveredClauses);
+                    constructIndexCover(newValues,position+1,fields,condition,indexCovers,coveredClauses,approximateClauses);
                 }
             } else return;
         }
 
     }
 
+    private static final OrderedIndexRange getOrderedRange(Condition<TitanElement> condition, PropertyKey key,
+                                                           Set<Condition> coveredClauses) {
+        OrderedIndexRange range = new OrderedIndexRange();
+        for (Condition c : condition.getChildren()) {
+            if (!(c instanceof PredicateCondition)) continue;
+            PredicateCondition<RelationType, TitanElement> atom = (PredicateCondition)c;
+            if (atom.getKey().equals(key) && OrderedIndexRange.supports(atom.getPredicate(),key.dataType())
+                    && key.dataType().isInstance(atom.getValue())) {
+                range.restrict(atom.getPredicate(),atom.getValue());
+                coveredClauses.add(c);
+            }
+        }
+        return range;
+    }
+
+    private static final Map.Entry<Condition,Collection<Object>> getGeohashConditionCells(Condition<TitanElement> condition,
+                                                                                          RelationType type, int precision) {
+        for (Condition c : condition.getChildren()) {
+            if (!(c instanceof PredicateCondition)) continue;
+            PredicateCondition<RelationType, TitanElement> atom = (PredicateCondition)c;
+            if (atom.getKey().equals(type) && GeohashCells.supports(atom.getPredicate())
+                    && atom.getValue() instanceof Geoshape) {
+                Collection<String> cells = GeohashCells.getQueryCells((Geoshape)atom.getValue(),precision);
+                if (cells==null) continue; //Query region is too large to be covered
+                return new AbstractMap.SimpleImmutableEntry(c,ImmutableList.copyOf(cells));
+            }
+        }
+        return null;
+    }
+
     private static final Map.Entry<Condition,Collection<Object>> getEqualityConditionValues(Condition<TitanElement> condition, RelationType type) {
         for (Condition c : condition.getChildren()) {
             if (c instanceof Or) {
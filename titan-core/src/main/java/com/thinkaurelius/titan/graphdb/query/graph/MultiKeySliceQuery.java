@@ -1,15 +1,19 @@
 package com.thinkaurelius.titan.graphdb.query.graph;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.thinkaurelius.titan.diskstorage.BackendTransaction;
 import com.thinkaurelius.titan.diskstorage.EntryList;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.KeySliceQuery;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery;
 import com.thinkaurelius.titan.graphdb.query.BackendQuery;
 import com.thinkaurelius.titan.graphdb.query.BaseQuery;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -17,34 +21,87 @@ import java.util.List;
 public class MultiKeySliceQuery extends BaseQuery implements BackendQuery<MultiKeySliceQuery>  {
 
     private final List<KeySliceQuery> queries;
+    private final boolean ordered;
+    private final boolean batched;
 
     public MultiKeySliceQuery(List<KeySliceQuery> queries) {
-        Preconditions.checkArgument(queries!=null && !queries.isEmpty());
+        this(queries, false, false);
+    }
+
+    public MultiKeySliceQuery(List<KeySliceQuery> queries, boolean ordered) {
+        this(queries, ordered, ordered);
+    }
+
+    /**
+     * @param queries
+     * @param ordered Whether the results of the individual queries are sorted and need to be merged, in which case
+     *                each query is executed up to the limit since any of them may contribute to the first results.
+     *                An ordered query may be empty (e.g. for an empty range).
+     * @param batched Whether queries with the same slice may be retrieved in a single multi-key lookup. Each key is
+     *                then retrieved up to the limit of this query rather than the limit remaining after the previous
+     *                keys, hence this only applies to queries over many keys with few results each (e.g. the cells of
+     *                a geohash index) or to ordered queries which retrieve each key up to the limit anyway.
+     */
+    public MultiKeySliceQuery(List<KeySliceQuery> queries, boolean ordered, boolean batched) {
+        Preconditions.checkArgument(queries!=null && (ordered || !queries.isEmpty()));
         this.queries = queries;
+        this.ordered = ordered;
+        this.batched = batched;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
     }
 
     @Override
     public MultiKeySliceQuery updateLimit(int newLimit) {
-        MultiKeySliceQuery newQuery = new MultiKeySliceQuery(queries);
+        MultiKeySliceQuery newQuery = new MultiKeySliceQuery(queries, ordered, batched);
         newQuery.setLimit(newLimit);
         return newQuery;
     }
 
     public List<EntryList> execute(final BackendTransaction tx) {
+        if (queries.isEmpty()) return ImmutableList.<EntryList>of(EntryList.EMPTY_LIST);
+        if (batched && queries.size()>1 && hasUniformSlice()) {
+            //Retrieve all keys in one multi-key lookup and return the results in query order
+            SliceQuery slice = new SliceQuery(queries.get(0).getSliceStart(), queries.get(0).getSliceEnd()).setLimit(getLimit());
+            List<StaticBuffer> keys = new ArrayList<StaticBuffer>(queries.size());
+            for (KeySliceQuery ksq : queries) keys.add(ksq.getKey());
+            Map<StaticBuffer,EntryList> results = tx.indexMultiQuery(keys, slice);
+            int total = 0;
+            List<EntryList> result = new ArrayList<EntryList>(queries.size());
+            for (StaticBuffer key : keys) {
+                EntryList next = results.get(key);
+                if (next==null) continue;
+                result.add(next);
+                total+=next.size();
+                if (total>=getLimit() && !ordered) break;
+            }
+            if (result.isEmpty()) result.add(EntryList.EMPTY_LIST);
+            return result;
+        }
         int total = 0;
         List<EntryList> result = new ArrayList<EntryList>(4);
         for (KeySliceQuery ksq : queries) {
-            EntryList next =tx.indexQuery(ksq.updateLimit(getLimit()-total));
+            EntryList next =tx.indexQuery(ksq.updateLimit(ordered?getLimit():getLimit()-total));
             result.add(next);
             total+=next.size();
-            if (total>=getLimit()) break;
+            if (total>=getLimit() && !ordered) break;
         }
         return result;
     }
 
+    private boolean hasUniformSlice() {
+        KeySliceQuery first = queries.get(0);
+        for (KeySliceQuery ksq : queries) {
+            if (!ksq.getSliceStart().equals(first.getSliceStart()) || !ksq.getSliceEnd().equals(first.getSliceEnd())) return false;
+        }
+        return true;
+    }
+
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(queries).append(getLimit()).toHashCode();
+        return new HashCodeBuilder().append(queries).append(ordered).append(batched).append(getLimit()).toHashCode();
     }
 
     @Override
@@ -53,7 +110,7 @@ public class MultiKeySliceQuery extends BaseQuery implements BackendQuery<MultiK
         else if (other == null) return false;
         else if (!getClass().isInstance(other)) return false;
         MultiKeySliceQuery oth = (MultiKeySliceQuery) other;
-        return getLimit()==oth.getLimit() && queries.equals(oth.queries);
+        return getLimit()==oth.getLimit() && ordered==oth.ordered && batched==oth.batched && queries.equals(oth.queries);
     }
 
     @Override
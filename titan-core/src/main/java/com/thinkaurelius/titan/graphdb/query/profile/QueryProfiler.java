@@ -1,8 +1,10 @@
 package com.thinkaurelius.titan.graphdb.query.profile;
 
+import com.thinkaurelius.titan.diskstorage.util.QueryAccounting;
 import com.thinkaurelius.titan.graphdb.query.Query;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -24,6 +26,7 @@ public interface QueryProfiler {
     public static final String QUERY_ANNOTATION = "query";
     public static final String FULLSCAN_ANNOTATION = "fullscan";
     public static final String INDEX_ANNOTATION = "index";
+    public static final String BACKEND_READS_ANNOTATION = "backend-reads";
 
     public static final String OR_QUERY = "OR-query";
     public static final String AND_QUERY = "AND-query";
@@ -77,14 +80,54 @@ public interface QueryProfiler {
     }
 
     public static<Q extends Query,R extends Collection> R profile(String groupName, QueryProfiler profiler, Q query, boolean multiQuery, Function<Q,R> queryExecutor) {
+        return profile(groupName,profiler,query,multiQuery,SlowQueryLog.DISABLED,queryExecutor);
+    }
+
+    public static<Q extends Query,R extends Collection> R profile(QueryProfiler profiler, Q query, boolean multiQuery, SlowQueryLog slowLog, Function<Q,R> queryExecutor) {
+        return profile("backend-query",profiler,query,multiQuery,slowLog,queryExecutor);
+    }
+
+    /**
+     * Executes the given backend query and records it with a nested profiler. All storage and index reads caused by
+     * the query are counted by a {@link QueryAccounting} which is attached to the profiler when profiling is enabled
+     * and reported to the given slow query log.
+     */
+    public static<Q extends Query,R extends Collection> R profile(String groupName, QueryProfiler profiler, Q query, boolean multiQuery, SlowQueryLog slowLog, Function<Q,R> queryExecutor) {
         QueryProfiler sub = profiler.addNested(groupName);
         sub.setAnnotation(QUERY_ANNOTATION, query);
         if (query.hasLimit()) sub.setAnnotation(LIMIT_ANNOTATION,query.getLimit());
-        sub.startTimer();
-        R result = queryExecutor.apply(query);
-        sub.stopTimer();
+        return execute(groupName, sub, query, multiQuery, slowLog, () -> queryExecutor.apply(query));
+    }
+
+    /**
+     * Executes several backend queries which are retrieved with one combined request and records them with a single
+     * nested profiler that is annotated with all of the queries.
+     */
+    public static<Q extends Query,R extends Collection> R profile(QueryProfiler profiler, List<Q> queries, boolean multiQuery, SlowQueryLog slowLog, Supplier<R> queryExecutor) {
+        QueryProfiler sub = profiler.addNested("backend-query");
+        sub.setAnnotation(QUERY_ANNOTATION, queries);
+        return execute("backend-query", sub, queries, multiQuery, slowLog, queryExecutor);
+    }
+
+    /**
+     * Executes a backend request on behalf of the given query (or queries) and records its execution time, backend
+     * reads and result size with the given nested profiler.
+     */
+    public static<R extends Collection> R execute(String groupName, QueryProfiler sub, Object query, boolean multiQuery, SlowQueryLog slowLog, Supplier<R> queryExecutor) {
+        QueryAccounting accounting = QueryAccounting.open();
+        long startNs = System.nanoTime();
+        R result;
+        try {
+            sub.startTimer();
+            result = queryExecutor.get();
+            sub.stopTimer();
+        } finally {
+            accounting.close();
+        }
+        if (slowLog.isEnabled()) slowLog.observe(groupName, query, System.nanoTime() - startNs, accounting);
+        if (sub!=QueryProfiler.NO_OP) sub.setAnnotation(BACKEND_READS_ANNOTATION, accounting.asMap());
         long resultSize = 0;
-        if (multiQuery && profiler!=QueryProfiler.NO_OP) {
+        if (multiQuery && sub!=QueryProfiler.NO_OP) {
             //The result set is a collection of collections, but don't do this computation if profiling is disabled
             for (Object r : result) {
                 if (r instanceof Collection) resultSize+=((Collection)r).size();
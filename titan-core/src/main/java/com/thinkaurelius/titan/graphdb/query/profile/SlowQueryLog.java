@@ -0,0 +1,55 @@
+package com.thinkaurelius.titan.graphdb.query.profile;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.diskstorage.util.QueryAccounting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Logs backend queries which exceed a configured execution time or number of entries read, together with the
+ * query (which includes the chosen index for graph queries) and the backend reads it caused as counted by its
+ * {@link QueryAccounting}. Route the logger of this class to a separate appender to obtain a dedicated slow query log.
+ *
+ * @see com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#SLOW_QUERY_THRESHOLD
+ * @see com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#SLOW_QUERY_ENTRIES
+ */
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    public static final SlowQueryLog DISABLED = new SlowQueryLog(Duration.ZERO, 0);
+
+    private final long thresholdNs;
+    private final long maxEntries;
+
+    public SlowQueryLog(Duration threshold, long maxEntries) {
+        Preconditions.checkArgument(threshold != null && !threshold.isNegative(), "Invalid threshold: %s", threshold);
+        Preconditions.checkArgument(maxEntries >= 0, "Invalid number of entries: %s", maxEntries);
+        this.thresholdNs = threshold.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isEnabled() {
+        return thresholdNs > 0 || maxEntries > 0;
+    }
+
+    /**
+     * Logs the given query if it exceeds any of the configured thresholds.
+     *
+     * @param groupName name of the profiling group the query was executed under
+     * @param query the executed backend query
+     * @param elapsedNs execution time of the query in nanoseconds
+     * @param accounting the backend reads caused by the query
+     * @return whether the query was logged
+     */
+    public boolean observe(String groupName, Object query, long elapsedNs, QueryAccounting accounting) {
+        if ((thresholdNs > 0 && elapsedNs >= thresholdNs) || (maxEntries > 0 && accounting.getEntries() >= maxEntries)) {
+            log.warn("Slow {} [{}] took {} ms with backend reads {}", groupName, query, elapsedNs / 1000000, accounting);
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -7,6 +7,7 @@ import com.thinkaurelius.titan.graphdb.internal.OrderList;
 import com.thinkaurelius.titan.graphdb.query.BackendQueryHolder;
 import com.thinkaurelius.titan.graphdb.query.BaseQuery;
 import com.thinkaurelius.titan.graphdb.query.QueryUtil;
+import com.thinkaurelius.titan.graphdb.query.condition.CompiledCondition;
 import com.thinkaurelius.titan.graphdb.query.condition.Condition;
 import com.thinkaurelius.titan.graphdb.query.condition.FixedCondition;
 import com.thinkaurelius.titan.graphdb.query.profile.ProfileObservable;
@@ -45,6 +46,10 @@ public class BaseVertexCentricQuery extends BaseQuery implements ProfileObservab
      * The direction condition of this query. This is duplicated from the condition for efficiency reasons.
      */
     protected final Direction direction;
+    /**
+     * Evaluator for {@link #condition}, compiled on first use
+     */
+    private volatile CompiledCondition<TitanRelation> compiledCondition;
 
     public BaseVertexCentricQuery(Condition<TitanRelation> condition, Direction direction,
                                   List<BackendQueryHolder<SliceQuery>> queries, OrderList orders,
@@ -60,6 +65,7 @@ public class BaseVertexCentricQuery extends BaseQuery implements ProfileObservab
 
     protected BaseVertexCentricQuery(BaseVertexCentricQuery query) {
         this(query.getCondition(), query.getDirection(), query.getQueries(), query.getOrders(), query.getLimit());
+        this.compiledCondition = query.compiledCondition;
     }
 
     /**
@@ -111,7 +117,12 @@ public class BaseVertexCentricQuery extends BaseQuery implements ProfileObservab
     }
 
     public boolean matches(TitanRelation relation) {
-        return condition.evaluate(relation);
+        CompiledCondition<TitanRelation> compiled = compiledCondition;
+        if (compiled == null) {
+            compiled = CompiledCondition.of(condition);
+            compiledCondition = compiled;
+        }
+        return compiled.evaluate(relation);
     }
 
     @Override
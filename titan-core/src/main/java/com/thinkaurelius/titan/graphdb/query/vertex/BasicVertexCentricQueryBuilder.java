@@ -487,17 +487,18 @@ public abstract class BasicVertexCentricQueryBuilder<Q extends BaseVertexQuery<Q
                         Find best scoring relation type to answer this query with. We score each candidate by the number
                         of conditions that each sort-keys satisfy. Equality conditions score higher than interval conditions
                         since they are more restrictive. We assign additional points if the sort key satisfies the order
-                        of this query.
+                        of this query. A sort key in the opposite order satisfies it as well by reading the slice in reverse.
                         */
                         InternalRelationType bestCandidate = null;
                         double bestScore = Double.NEGATIVE_INFINITY;
                         boolean bestCandidateSupportsOrder = false;
+                        boolean bestCandidateReverse = false;
                         for (InternalRelationType candidate : type.getRelationIndexes()) {
                             //Filter out those that don't apply
                             if (!candidate.isUnidirected(Direction.BOTH) && !candidate.isUnidirected(direction)) continue;
                             if (!candidate.equals(type) && candidate.getStatus()!= SchemaStatus.ENABLED) continue;
 
-                            boolean supportsOrder = orders.isEmpty()?true:orders.getCommonOrder()==candidate.getSortOrder();
+                            boolean reverse = !orders.isEmpty() && orders.getCommonOrder()!=candidate.getSortOrder();
                             int currentOrder = 0;
 
                             double score = 0.0;
@@ -516,11 +517,12 @@ public abstract class BasicVertexCentricQueryBuilder<Q extends BaseVertexQuery<Q
                                     score+=5.0/interval.getPoints().size();
                                 }
                             }
-                            if (supportsOrder && currentOrder==orders.size()) score+=3;
+                            if (currentOrder==orders.size()) score+=3;
                             if (score>bestScore) {
                                 bestScore=score;
                                 bestCandidate=candidate;
-                                bestCandidateSupportsOrder=supportsOrder && currentOrder==orders.size();
+                                bestCandidateSupportsOrder=currentOrder==orders.size();
+                                bestCandidateReverse=bestCandidateSupportsOrder && reverse;
                             }
                         }
                         Preconditions.checkArgument(bestCandidate!=null,"Current graph schema does not support the specified query constraints for type: %s",type.name());
@@ -530,7 +532,7 @@ public abstract class BasicVertexCentricQueryBuilder<Q extends BaseVertexQuery<Q
                         PropertyKey[] extendedSortKey = getExtendedSortKey(bestCandidate,direction,tx);
                         EdgeSerializer.TypedInterval[] sortKeyConstraints = new EdgeSerializer.TypedInterval[extendedSortKey.length];
                         constructSliceQueries(extendedSortKey,sortKeyConstraints,0,bestCandidate,direction,intervalConstraints,
-                                sliceLimit,isIntervalFittedConditions,bestCandidateSupportsOrder,queries);
+                                sliceLimit,isIntervalFittedConditions,bestCandidateSupportsOrder,bestCandidateReverse,queries);
                     }
                 }
             }
@@ -547,7 +549,7 @@ public abstract class BasicVertexCentricQueryBuilder<Q extends BaseVertexQuery<Q
                                        InternalRelationType bestCandidate, Direction direction,
                                        Map<RelationType,Interval> intervalConstraints, int sliceLimit,
                                        boolean isIntervalFittedConditions, boolean bestCandidateSupportsOrder,
-                                       List<BackendQueryHolder<SliceQuery>> queries) {
+                                       boolean bestCandidateReverse, List<BackendQueryHolder<SliceQuery>> queries) {
         if (position<extendedSortKey.length) {
             PropertyKey keyType = extendedSortKey[position];
             Interval interval = intervalConstraints.get(keyType);
@@ -562,7 +564,7 @@ public abstract class BasicVertexCentricQueryBuilder<Q extends BaseVertexQuery<Q
                     clonedSKC[position-1]=new EdgeSerializer.TypedInterval(keyType,new PointInterval(point));
                     constructSliceQueries(extendedSortKey, clonedSKC, position,
                             bestCandidate, direction, intervalConstraints, sliceLimit,
-                            isIntervalFittedConditions, bestCandidateSupportsOrder, queries);
+                            isIntervalFittedConditions, bestCandidateSupportsOrder, bestCandidateReverse, queries);
                 }
                 return;
             }
@@ -579,6 +581,7 @@ public abstract class BasicVertexCentricQueryBuilder<Q extends BaseVertexQuery<Q
         EdgeSerializer serializer = tx.getEdgeSerializer();
         SliceQuery q = serializer.getQuery(bestCandidate, direction, sortKeyConstraints);
         q.setLimit(computeLimit(intervalConstraints.size()-position, sliceLimit));
+        if (bestCandidateReverse) q.setReverse();
         queries.add(new BackendQueryHolder<SliceQuery>(q, isFitted, bestCandidateSupportsOrder));
     }
 
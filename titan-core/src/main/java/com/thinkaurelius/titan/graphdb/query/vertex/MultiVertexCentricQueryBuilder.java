@@ -85,18 +85,24 @@ public class MultiVertexCentricQueryBuilder extends BasicVertexCentricQueryBuild
         profiler.setAnnotation(QueryProfiler.MULTIQUERY_ANNOTATION,true);
         profiler.setAnnotation(QueryProfiler.NUMVERTICES_ANNOTATION,vertices.size());
         if (!bq.isEmpty()) {
-            for (BackendQueryHolder<SliceQuery> sq : bq.getQueries()) {
-                Set<InternalVertex> adjVertices = Sets.newHashSet(vertices);
-                for (InternalVertex v : vertices) {
-                    if (isPartitionedVertex(v)) {
-                        profiler.setAnnotation(QueryProfiler.PARTITIONED_VERTEX_ANNOTATION,true);
-                        adjVertices.remove(v);
-                        adjVertices.addAll(allRequiredRepresentatives(v));
-                    }
+            Set<InternalVertex> adjVertices = Sets.newHashSet(vertices);
+            for (InternalVertex v : vertices) {
+                if (isPartitionedVertex(v)) {
+                    profiler.setAnnotation(QueryProfiler.PARTITIONED_VERTEX_ANNOTATION,true);
+                    adjVertices.remove(v);
+                    adjVertices.addAll(allRequiredRepresentatives(v));
                 }
-                //Overwrite with more accurate size accounting for partitioned vertices
-                profiler.setAnnotation(QueryProfiler.NUMVERTICES_ANNOTATION,adjVertices.size());
+            }
+            //Overwrite with more accurate size accounting for partitioned vertices
+            profiler.setAnnotation(QueryProfiler.NUMVERTICES_ANNOTATION,adjVertices.size());
+            if (bq.numSubQueries()==1) {
+                BackendQueryHolder<SliceQuery> sq = bq.getQueries().get(0);
                 tx.executeMultiQuery(adjVertices, sq.getBackendQuery(), sq.getProfiler());
+            } else {
+                //Retrieve the slices of all relation types together
+                List<SliceQuery> queries = new ArrayList<SliceQuery>(bq.numSubQueries());
+                for (BackendQueryHolder<SliceQuery> sq : bq.getQueries()) queries.add(sq.getBackendQuery());
+                tx.executeMultiQuery(adjVertices, queries, profiler);
             }
             for (InternalVertex v : vertices) {
                 result.put(v, resultConstructor.getResult(v, bq));
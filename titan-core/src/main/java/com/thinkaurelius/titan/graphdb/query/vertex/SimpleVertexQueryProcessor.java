@@ -111,10 +111,10 @@ public class SimpleVertexQueryProcessor implements Iterable<Entry> {
         EntryList result = vertex.loadRelations(sliceQuery, new Retriever<SliceQuery, EntryList>() {
             @Override
             public EntryList get(SliceQuery query) {
-                return QueryProfiler.profile(profiler,query, q -> tx.getGraph().edgeQuery(vertex.longId(), q, tx.getTxHandle()));
+                return QueryProfiler.profile(profiler, query, false, tx.getGraph().getSlowQueryLog(), q -> tx.getGraph().edgeQuery(vertex.longId(), q, tx.getTxHandle()));
             }
         });
-        return result.iterator();
+        return sliceQuery.isReverse()?Lists.reverse(result).iterator():result.iterator();
     }
 
 
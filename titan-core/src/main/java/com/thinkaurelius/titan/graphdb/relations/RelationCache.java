@@ -6,20 +6,49 @@ import org.apache.tinkerpop.gremlin.structure.Direction;
 
 import java.util.*;
 
+import static com.thinkaurelius.titan.util.datastructures.ByteSize.*;
+
 /**
  * Immutable map from long key ids to objects.
  * Implemented for memory and time efficiency.
+ * <p/>
+ * Relations with at most {@link #MAX_COMPACT_PROPERTIES} properties - which is the overwhelmingly common case -
+ * store their properties in two parallel arrays sorted by key id which are searched with binary search.
+ * Only relations with more properties use a hash map.
  *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
 public class RelationCache implements Iterable<LongObjectCursor<Object>> {
 
-    private static final LongObjectHashMap<Object> EMPTY = new LongObjectHashMap<>(0);
+    public static final int MAX_COMPACT_PROPERTIES = 4;
+
+    private static final long[] EMPTY_KEYS = new long[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    /**
+     * Rough estimate of the heap size of a property value (boxed primitive or short string)
+     */
+    private static final int PROPERTY_VALUE_SIZE = 24;
+
+    /**
+     * Heap size of a relation cache without properties: header, direction/other/key/value/map references, 2 longs
+     */
+    private static final int BASE_SIZE = OBJECT_HEADER + 5 * OBJECT_REFERENCE + 2 * 8 + PROPERTY_VALUE_SIZE;
+
+    /**
+     * Size estimate used when a relation cache has not yet been decoded, assuming a single property.
+     */
+    public static final int ESTIMATED_BYTE_SIZE = BASE_SIZE + 2 * OBJECT_HEADER + 8 + OBJECT_REFERENCE + PROPERTY_VALUE_SIZE;
 
     public final Direction direction;
     public final long typeId;
     public final long relationId;
     private final Object other;
+
+    //Compact representation: parallel arrays sorted by key (null if properties were excluded or map is used)
+    private final long[] keys;
+    private final Object[] values;
+    //Only used when there are more than MAX_COMPACT_PROPERTIES properties
     private final LongObjectHashMap<Object> properties;
 
     public RelationCache(final Direction direction, final long typeId, final long relationId,
@@ -28,7 +57,28 @@ public class RelationCache implements Iterable<LongObjectCursor<Object>> {
         this.typeId = typeId;
         this.relationId = relationId;
         this.other = other;
-        this.properties = (properties == null || properties.size() > 0) ? properties : EMPTY;
+        if (properties == null) {
+            this.keys = null;
+            this.values = null;
+            this.properties = null;
+        } else if (properties.size() <= MAX_COMPACT_PROPERTIES) {
+            this.properties = null;
+            if (properties.isEmpty()) {
+                this.keys = EMPTY_KEYS;
+                this.values = EMPTY_VALUES;
+            } else {
+                long[] k = properties.keys().toArray();
+                Arrays.sort(k);
+                Object[] v = new Object[k.length];
+                for (int i = 0; i < k.length; i++) v[i] = properties.get(k[i]);
+                this.keys = k;
+                this.values = v;
+            }
+        } else {
+            this.keys = null;
+            this.values = null;
+            this.properties = properties;
+        }
     }
 
     public RelationCache(final Direction direction, final long typeId, final long relationId,
@@ -38,15 +88,19 @@ public class RelationCache implements Iterable<LongObjectCursor<Object>> {
 
     @SuppressWarnings("unchecked")
     public <O> O get(long key) {
+        if (keys != null) {
+            int pos = keys.length <= 1 ? (keys.length == 1 && keys[0] == key ? 0 : -1) : Arrays.binarySearch(keys, key);
+            return pos >= 0 ? (O) values[pos] : null;
+        }
         return (O) properties.get(key);
     }
 
     public boolean hasProperties() {
-        return properties != null && !properties.isEmpty();
+        return keys != null ? keys.length > 0 : properties != null;
     }
 
     public int numProperties() {
-        return properties.size();
+        return keys != null ? keys.length : properties.size();
     }
 
     public Object getValue() {
@@ -58,6 +112,7 @@ public class RelationCache implements Iterable<LongObjectCursor<Object>> {
     }
 
     public Iterator<LongObjectCursor<Object>> propertyIterator() {
+        if (keys != null) return new CompactIterator();
         return properties.iterator();
     }
 
@@ -66,9 +121,54 @@ public class RelationCache implements Iterable<LongObjectCursor<Object>> {
         return propertyIterator();
     }
 
+    /**
+     * Returns an estimate of the number of bytes this relation cache occupies on the heap. Used to account
+     * for decoded relations in the weight of cached entry lists.
+     *
+     * @return
+     */
+    public int getByteSize() {
+        int size = BASE_SIZE;
+        if (keys != null) {
+            if (keys.length > 0) size += 2 * OBJECT_HEADER + keys.length * (8 + OBJECT_REFERENCE + PROPERTY_VALUE_SIZE);
+        } else if (properties != null) {
+            //hppc allocates key and value buffers with a load factor of 0.75 rounded up to powers of 2
+            int buffer = Integer.highestOneBit(Math.max(4, properties.size() * 4 / 3)) * 2;
+            size += OBJECT_HEADER + 4 * 4 + 2 * OBJECT_HEADER + buffer * (8 + OBJECT_REFERENCE)
+                    + properties.size() * PROPERTY_VALUE_SIZE;
+        }
+        return size;
+    }
+
     @Override
     public String toString() {
          return typeId + "-" + direction + "->" + other + ":" + relationId;
     }
 
+    private class CompactIterator implements Iterator<LongObjectCursor<Object>> {
+
+        private final LongObjectCursor<Object> cursor = new LongObjectCursor<>();
+        private int position = 0;
+
+        @Override
+        public boolean hasNext() {
+            return position < keys.length;
+        }
+
+        @Override
+        public LongObjectCursor<Object> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            cursor.index = position;
+            cursor.key = keys[position];
+            cursor.value = values[position];
+            position++;
+            return cursor;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
 }
@@ -9,4 +9,11 @@ public interface MultiQueriable<S,E> extends Step<S,E> {
 
     void setUseMultiQuery(boolean useMultiQuery);
 
+    /**
+     * Sets the maximum number of vertices which are retrieved in a single multi query
+     *
+     * @param batchSize
+     */
+    void setMultiQueryBatchSize(int batchSize);
+
 }
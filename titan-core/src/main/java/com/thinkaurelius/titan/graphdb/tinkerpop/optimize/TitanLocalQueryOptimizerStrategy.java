@@ -7,14 +7,22 @@ import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.LocalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertyMapStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.IdentityStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -38,6 +46,7 @@ public class TitanLocalQueryOptimizerStrategy extends AbstractTraversalStrategy<
         //If this is a compute graph then we can't apply local traversal optimisation at this stage.
         StandardTitanGraph titanGraph = graph instanceof StandardTitanTx ? ((StandardTitanTx) graph).getGraph() : (StandardTitanGraph) graph;
         final boolean useMultiQuery = traversal.getEngine().isStandard() && titanGraph.getConfiguration().useMultiQuery();
+        final int batchSize = titanGraph.getConfiguration().getMultiQueryBatchSize();
 
         /*
                 ====== VERTEX STEP ======
@@ -62,6 +71,7 @@ public class TitanLocalQueryOptimizerStrategy extends AbstractTraversalStrategy<
 
             if (useMultiQuery) {
                 vstep.setUseMultiQuery(true);
+                vstep.setMultiQueryBatchSize(batchSize);
             }
         });
 
@@ -83,6 +93,7 @@ public class TitanLocalQueryOptimizerStrategy extends AbstractTraversalStrategy<
 
             if (useMultiQuery) {
                 vstep.setUseMultiQuery(true);
+                vstep.setMultiQueryBatchSize(batchSize);
             }
         });
 
@@ -105,7 +116,7 @@ public class TitanLocalQueryOptimizerStrategy extends AbstractTraversalStrategy<
                 HasStepFolder.foldInRange(vstep, localTraversal);
 
 
-                unfoldLocalTraversal(traversal,localStep,localTraversal,vstep,useMultiQuery);
+                unfoldLocalTraversal(traversal,localStep,localTraversal,vstep,useMultiQuery,batchSize);
             }
 
             if (localStart instanceof PropertiesStep) {
@@ -119,15 +130,75 @@ public class TitanLocalQueryOptimizerStrategy extends AbstractTraversalStrategy<
                 HasStepFolder.foldInRange(vstep, localTraversal);
 
 
-                unfoldLocalTraversal(traversal,localStep,localTraversal,vstep,useMultiQuery);
+                unfoldLocalTraversal(traversal,localStep,localTraversal,vstep,useMultiQuery,batchSize);
             }
 
         });
+
+        /*
+                ====== INSIDE REPEAT ======
+         */
+
+        if (useMultiQuery && isRepeatBody(traversal)) {
+            //Each iteration feeds a single traverser back into the body, hence the only vertex step of the body
+            //collects the vertices it returns so that the next hop is retrieved in batches
+            List<TitanVertexStep> vsteps = TraversalHelper.getStepsOfClass(TitanVertexStep.class, traversal);
+            if (vsteps.size() == 1 && TitanTraversalUtil.isVertexReturnStep(vsteps.get(0))) {
+                vsteps.get(0).setPrefetchNextHop(true);
+            }
+        }
+
+        /*
+                ====== PROPERTY PREFETCHING ======
+         */
+
+        if (useMultiQuery) {
+            TraversalHelper.getStepsOfClass(TitanVertexStep.class, traversal).forEach(vstep -> {
+                if (TitanTraversalUtil.isVertexReturnStep(vstep)) insertPropertyPrefetch(vstep, traversal, batchSize);
+            });
+        }
+    }
+
+    /**
+     * Determines the union of the property keys needed by the has(), values() and valueMap() steps which directly
+     * follow the given vertex returning step and inserts a {@link TitanPropertyPrefetchStep} which retrieves those
+     * properties for a batch of vertices at once. Only applies if at least one of those steps does not batch its
+     * property retrieval by itself, i.e. is not a {@link TitanPropertiesStep}.
+     */
+    private static void insertPropertyPrefetch(final Step<?, ?> vertexStep, final Traversal.Admin<?, ?> traversal, int batchSize) {
+        Set<String> keys = new LinkedHashSet<>();
+        boolean allKeys = false, needsPrefetch = false;
+        Step<?, ?> step = vertexStep.getNextStep();
+        while (true) {
+            if (step instanceof HasStep) {
+                for (HasContainer has : ((HasStep<?>) step).getHasContainers()) {
+                    if (Graph.Hidden.isHidden(has.getKey())) continue;
+                    keys.add(has.getKey());
+                    needsPrefetch = true;
+                }
+            } else if (step instanceof PropertiesStep || step instanceof PropertyMapStep) {
+                String[] stepKeys = step instanceof PropertiesStep ? ((PropertiesStep) step).getPropertyKeys()
+                        : ((PropertyMapStep) step).getPropertyKeys();
+                if (stepKeys.length == 0) allKeys = true;
+                else keys.addAll(Arrays.asList(stepKeys));
+                needsPrefetch = needsPrefetch || step instanceof PropertyMapStep;
+                break;
+            } else if (!(step instanceof IdentityStep)) break;
+            step = step.getNextStep();
+        }
+        if (!needsPrefetch) return;
+        String[] prefetchKeys = allKeys ? new String[0] : keys.toArray(new String[keys.size()]);
+        TraversalHelper.insertAfterStep(new TitanPropertyPrefetchStep(traversal, prefetchKeys, batchSize), vertexStep, traversal);
+    }
+
+    private static boolean isRepeatBody(final Traversal.Admin<?, ?> traversal) {
+        Step parent = traversal.getParent().asStep();
+        return parent instanceof RepeatStep && ((RepeatStep<?>) parent).getGlobalChildren().contains(traversal);
     }
 
     private static void unfoldLocalTraversal(final Traversal.Admin<?, ?> traversal,
                                              LocalStep<?,?> localStep, Traversal.Admin localTraversal,
-                                             MultiQueriable vstep, boolean useMultiQuery) {
+                                             MultiQueriable vstep, boolean useMultiQuery, int batchSize) {
         assert localTraversal.asAdmin().getSteps().size() > 0;
         if (localTraversal.asAdmin().getSteps().size() == 1) {
             //Can replace the entire localStep by the vertex step in the outer traversal
@@ -137,6 +208,7 @@ public class TitanLocalQueryOptimizerStrategy extends AbstractTraversalStrategy<
 
             if (useMultiQuery) {
                 vstep.setUseMultiQuery(true);
+                vstep.setMultiQueryBatchSize(batchSize);
             }
         }
     }
@@ -1,5 +1,6 @@
 package com.thinkaurelius.titan.graphdb.tinkerpop.optimize;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.thinkaurelius.titan.core.*;
@@ -14,7 +15,6 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Profiling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
-import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.PropertyType;
@@ -35,8 +35,8 @@ public class TitanPropertiesStep<E> extends PropertiesStep<E> implements HasStep
         this.limit = Query.NO_LIMIT;
     }
 
-    private boolean initialized = false;
     private boolean useMultiQuery = false;
+    private int batchSize = Integer.MAX_VALUE;
     private Map<TitanVertex, Iterable<? extends TitanProperty>> multiQueryResults = null;
     private QueryProfiler queryProfiler = QueryProfiler.NO_OP;
 
@@ -46,6 +46,12 @@ public class TitanPropertiesStep<E> extends PropertiesStep<E> implements HasStep
         this.useMultiQuery = useMultiQuery;
     }
 
+    @Override
+    public void setMultiQueryBatchSize(int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Invalid batch size: %s", batchSize);
+        this.batchSize = batchSize;
+    }
+
     private <Q extends BaseVertexQuery> Q makeQuery(Q query) {
         String[] keys = getPropertyKeys();
         query.keys(keys);
@@ -64,40 +70,46 @@ public class TitanPropertiesStep<E> extends PropertiesStep<E> implements HasStep
         return (Iterator<E>) Iterators.transform(iterable.iterator(), p -> ((TitanProperty) p).value());
     }
 
+    /**
+     * Retrieves the properties of the given traverser's vertex together with those of up to batchSize-1 vertices
+     * waiting in this step's starts.
+     *
+     * @param traverser
+     */
     @SuppressWarnings("deprecation")
-    private void initialize() {
-        assert !initialized;
-        initialized = true;
+    private void loadBatch(final Traverser.Admin<Element> traverser) {
         assert getReturnType().forProperties() || (orders.isEmpty() && hasContainers.isEmpty());
+        if (multiQueryResults == null) multiQueryResults = new HashMap<>();
+        else multiQueryResults.clear();
 
-        if (!starts.hasNext()) throw FastNoSuchElementException.instance();
+        TitanMultiVertexQuery mquery = TitanTraversalUtil.getTx(traversal).multiQuery();
+        mquery.addVertex((Vertex) traverser.get());
+        int size = 1;
         List<Traverser.Admin<Element>> elements = new ArrayList<>();
-        starts.forEachRemaining(v -> elements.add(v));
-        starts.add(elements.iterator());
-        assert elements.size() > 0;
-
-        useMultiQuery = useMultiQuery && elements.stream().noneMatch(e -> !(e.get() instanceof Vertex));
-
-        if (useMultiQuery) {
-            TitanMultiVertexQuery mquery = TitanTraversalUtil.getTx(traversal).multiQuery();
-            elements.forEach(e -> mquery.addVertex((Vertex) e.get()));
-            makeQuery(mquery);
-
-            multiQueryResults = mquery.properties();
+        while (size < batchSize && starts.hasNext()) {
+            Traverser.Admin<Element> next = starts.next();
+            elements.add(next);
+            if (next.get() instanceof Vertex) {
+                mquery.addVertex((Vertex) next.get());
+                size++;
+            }
         }
-    }
+        if (!elements.isEmpty()) starts.add(elements.iterator());
+        makeQuery(mquery);
 
-    @Override
-    protected Traverser<E> processNextStart() {
-        if (!initialized) initialize();
-        return super.processNextStart();
+        multiQueryResults.putAll(mquery.properties());
     }
 
     @Override
     protected Iterator<E> flatMap(final Traverser.Admin<Element> traverser) {
-        if (useMultiQuery) { //it is guaranteed that all elements are vertices
-            assert multiQueryResults != null;
-            return convertIterator(multiQueryResults.get(traverser.get()));
+        if (useMultiQuery && traverser.get() instanceof Vertex) {
+            Iterable<? extends TitanProperty> result = multiQueryResults == null ? null : multiQueryResults.get(traverser.get());
+            if (result == null) {
+                loadBatch(traverser);
+                result = multiQueryResults.get(traverser.get());
+                assert result != null;
+            }
+            return convertIterator(result);
         } else if (traverser.get() instanceof Vertex) {
             TitanVertexQuery query = makeQuery((TitanTraversalUtil.getTitanVertex(traverser)).query());
             return convertIterator(query.properties());
@@ -122,13 +134,13 @@ public class TitanPropertiesStep<E> extends PropertiesStep<E> implements HasStep
     @Override
     public void reset() {
         super.reset();
-        this.initialized = false;
+        this.multiQueryResults = null;
     }
 
     @Override
     public TitanPropertiesStep<E> clone() {
         final TitanPropertiesStep<E> clone = (TitanPropertiesStep<E>) super.clone();
-        clone.initialized = false;
+        clone.multiQueryResults = null;
         return clone;
     }
 
@@ -0,0 +1,96 @@
+package com.thinkaurelius.titan.graphdb.tinkerpop.optimize;
+
+import com.google.common.base.Preconditions;
+import com.thinkaurelius.titan.core.TitanMultiVertexQuery;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.thinkaurelius.titan.graphdb.query.profile.QueryProfiler;
+import com.thinkaurelius.titan.graphdb.query.vertex.BasicVertexCentricQueryBuilder;
+import com.thinkaurelius.titan.graphdb.tinkerpop.profile.TP3ProfileWrapper;
+import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Profiling;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Passes through the vertices of a vertex stream in batches and retrieves the properties with the given keys for all
+ * vertices of a batch in a single multi query. The retrieved properties are cached in the vertices so that the
+ * subsequent has(), values() and valueMap() steps which need those properties are answered without additional
+ * calls to the storage backend.
+ * <p/>
+ * If no keys are given or the transaction loads all properties of a vertex on first access anyway
+ * (see {@link com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#PROPERTY_PREFETCHING}),
+ * all properties are retrieved.
+ */
+public class TitanPropertyPrefetchStep extends AbstractStep<Vertex, Vertex> implements Profiling {
+
+    private final String[] keys;
+    private final int batchSize;
+
+    private Deque<Traverser.Admin<Vertex>> batch = new ArrayDeque<>();
+    private QueryProfiler queryProfiler = QueryProfiler.NO_OP;
+
+    public TitanPropertyPrefetchStep(Traversal.Admin traversal, String[] keys, int batchSize) {
+        super(traversal);
+        Preconditions.checkArgument(keys != null);
+        Preconditions.checkArgument(batchSize > 0, "Invalid batch size: %s", batchSize);
+        this.keys = keys;
+        this.batchSize = batchSize;
+    }
+
+    public String[] getKeys() {
+        return keys;
+    }
+
+    @Override
+    protected Traverser<Vertex> processNextStart() {
+        if (batch.isEmpty()) {
+            batch.add(starts.next());
+            while (batch.size() < batchSize && starts.hasNext()) batch.add(starts.next());
+            prefetch();
+        }
+        return batch.poll();
+    }
+
+    @SuppressWarnings("deprecation")
+    private void prefetch() {
+        TitanTransaction tx = TitanTraversalUtil.getTx(traversal);
+        TitanMultiVertexQuery mquery = tx.multiQuery();
+        for (Traverser.Admin<Vertex> traverser : batch) mquery.addVertex(traverser.get());
+        boolean allProperties = keys.length == 0 ||
+                (tx instanceof StandardTitanTx && ((StandardTitanTx) tx).getConfiguration().hasPropertyPrefetching());
+        if (!allProperties) mquery.keys(keys);
+        ((BasicVertexCentricQueryBuilder) mquery).profiler(queryProfiler);
+        mquery.properties();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.batch.clear();
+    }
+
+    @Override
+    public TitanPropertyPrefetchStep clone() {
+        final TitanPropertyPrefetchStep clone = (TitanPropertyPrefetchStep) super.clone();
+        clone.batch = new ArrayDeque<>();
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, Arrays.asList(keys));
+    }
+
+    @Override
+    public void setMetrics(MutableMetrics metrics) {
+        queryProfiler = new TP3ProfileWrapper(metrics);
+    }
+}
@@ -1,5 +1,6 @@
 package com.thinkaurelius.titan.graphdb.tinkerpop.optimize;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import com.thinkaurelius.titan.core.BaseVertexQuery;
 import com.thinkaurelius.titan.core.TitanElement;
@@ -17,7 +18,6 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Profiling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
-import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -25,8 +25,11 @@ import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -40,9 +43,11 @@ public class TitanVertexStep<E extends Element> extends VertexStep<E> implements
         this.limit = Query.NO_LIMIT;
     }
 
-    private boolean initialized = false;
     private boolean useMultiQuery = false;
+    private int batchSize = Integer.MAX_VALUE;
+    private boolean prefetchNextHop = false;
     private Map<TitanVertex, Iterable<? extends TitanElement>> multiQueryResults = null;
+    private Set<TitanVertex> nextHop = null;
     private QueryProfiler queryProfiler = QueryProfiler.NO_OP;
 
     @Override
@@ -50,6 +55,27 @@ public class TitanVertexStep<E extends Element> extends VertexStep<E> implements
         this.useMultiQuery = useMultiQuery;
     }
 
+    @Override
+    public void setMultiQueryBatchSize(int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Invalid batch size: %s", batchSize);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether the adjacent vertices returned by this step are fed back into this step, as is the case for the body
+     * of a repeat() loop. In that case, those vertices are collected as the anticipated next hop and retrieved
+     * in the multi query of the next batch since each loop iteration only feeds a single traverser back into this step.
+     * The anticipated vertices are kept in the order in which they were returned, which is the order in which the
+     * repeat step feeds them back, so that each batch covers the vertices which are expanded next.
+     *
+     * @param prefetchNextHop
+     */
+    public void setPrefetchNextHop(boolean prefetchNextHop) {
+        Preconditions.checkArgument(!prefetchNextHop || Vertex.class.isAssignableFrom(getReturnClass()),
+                "Can only prefetch the next hop for steps returning vertices");
+        this.prefetchNextHop = prefetchNextHop;
+    }
+
     public <Q extends BaseVertexQuery> Q makeQuery(Q query) {
         query.labels(getEdgeLabels());
         query.direction(getDirection());
@@ -62,37 +88,71 @@ public class TitanVertexStep<E extends Element> extends VertexStep<E> implements
         return query;
     }
 
+    /**
+     * Retrieves the adjacency of the given traverser's vertex together with that of up to batchSize-1 vertices
+     * which are either waiting in this step's starts or have been collected as the anticipated next hop.
+     *
+     * @param traverser
+     */
     @SuppressWarnings("deprecation")
-    private void initialize() {
-        assert !initialized;
-        initialized = true;
-        if (useMultiQuery) {
-            if (!starts.hasNext()) throw FastNoSuchElementException.instance();
-            TitanMultiVertexQuery mquery = TitanTraversalUtil.getTx(traversal).multiQuery();
-            List<Traverser.Admin<Vertex>> vertices = new ArrayList<>();
-            starts.forEachRemaining(v -> {
-                vertices.add(v);
-                mquery.addVertex(v.get());
-            });
-            starts.add(vertices.iterator());
-            assert vertices.size() > 0;
-            makeQuery(mquery);
-
-            multiQueryResults = (Vertex.class.isAssignableFrom(getReturnClass())) ? mquery.vertices() : mquery.edges();
+    private void loadBatch(final Traverser.Admin<Vertex> traverser) {
+        if (multiQueryResults == null) {
+            final int capacity = batchSize < Integer.MAX_VALUE / 2 ? 2 * batchSize : Integer.MAX_VALUE;
+            //Retain the results of previous batches since vertices frequently re-occur across batches (and hops)
+            multiQueryResults = new LinkedHashMap<TitanVertex, Iterable<? extends TitanElement>>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TitanVertex, Iterable<? extends TitanElement>> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+        TitanMultiVertexQuery mquery = TitanTraversalUtil.getTx(traversal).multiQuery();
+        mquery.addVertex(traverser.get());
+        int size = 1;
+        List<Traverser.Admin<Vertex>> vertices = new ArrayList<>();
+        while (size < batchSize && starts.hasNext()) {
+            Traverser.Admin<Vertex> next = starts.next();
+            vertices.add(next);
+            mquery.addVertex(next.get());
+            size++;
+        }
+        if (!vertices.isEmpty()) starts.add(vertices.iterator());
+        if (nextHop != null) {
+            for (Iterator<TitanVertex> iter = nextHop.iterator(); iter.hasNext() && size < batchSize; ) {
+                TitanVertex vertex = iter.next();
+                iter.remove();
+                if (!vertex.equals(traverser.get()) && !multiQueryResults.containsKey(vertex)) {
+                    mquery.addVertex(vertex);
+                    size++;
+                }
+            }
         }
+        makeQuery(mquery);
+
+        multiQueryResults.putAll((Vertex.class.isAssignableFrom(getReturnClass())) ? mquery.vertices() : mquery.edges());
     }
 
-    @Override
-    protected Traverser<E> processNextStart() {
-        if (!initialized) initialize();
-        return super.processNextStart();
+    private void collectNextHop(Iterable<? extends TitanElement> adjacent) {
+        if (nextHop == null) nextHop = new LinkedHashSet<>();
+        for (TitanElement vertex : adjacent) {
+            if (!multiQueryResults.containsKey(vertex)) nextHop.add((TitanVertex) vertex);
+        }
     }
 
     @Override
     protected Iterator<E> flatMap(final Traverser.Admin<Vertex> traverser) {
         if (useMultiQuery) {
-            assert multiQueryResults != null;
-            return (Iterator<E>) multiQueryResults.get(traverser.get()).iterator();
+            Iterable<? extends TitanElement> result = multiQueryResults == null ? null : multiQueryResults.get(traverser.get());
+            if (result == null) {
+                loadBatch(traverser);
+                result = multiQueryResults.get(traverser.get());
+                assert result != null;
+            }
+            if (prefetchNextHop) {
+                if (nextHop != null) nextHop.remove(traverser.get());
+                collectNextHop(result);
+            }
+            return (Iterator<E>) result.iterator();
         } else {
             TitanVertexQuery query = makeQuery((TitanTraversalUtil.getTitanVertex(traverser)).query());
             return (Vertex.class.isAssignableFrom(getReturnClass())) ? query.vertices().iterator() : query.edges().iterator();
@@ -102,13 +162,15 @@ public class TitanVertexStep<E extends Element> extends VertexStep<E> implements
     @Override
     public void reset() {
         super.reset();
-        this.initialized = false;
+        this.multiQueryResults = null;
+        this.nextHop = null;
     }
 
     @Override
     public TitanVertexStep<E> clone() {
         final TitanVertexStep<E> clone = (TitanVertexStep<E>) super.clone();
-        clone.initialized = false;
+        clone.multiQueryResults = null;
+        clone.nextHop = null;
         return clone;
     }
 
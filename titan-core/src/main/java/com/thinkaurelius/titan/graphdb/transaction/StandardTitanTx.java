@@ -14,6 +14,7 @@ import com.thinkaurelius.titan.core.schema.*;
 import com.thinkaurelius.titan.core.schema.SchemaInspector;
 import com.thinkaurelius.titan.diskstorage.BackendException;
 
+import com.thinkaurelius.titan.diskstorage.util.RecordIterator;
 import com.thinkaurelius.titan.diskstorage.util.time.TimestampProvider;
 import com.thinkaurelius.titan.diskstorage.BackendTransaction;
 import com.thinkaurelius.titan.diskstorage.EntryList;
@@ -61,6 +62,7 @@ import com.thinkaurelius.titan.graphdb.vertices.PreloadedVertex;
 import com.thinkaurelius.titan.graphdb.vertices.StandardVertex;
 import com.thinkaurelius.titan.util.datastructures.Retriever;
 import com.thinkaurelius.titan.util.stats.MetricManager;
+import com.thinkaurelius.titan.util.system.IOUtils;
 import org.apache.tinkerpop.gremlin.structure.*;
 
 import org.apache.commons.lang.StringUtils;
@@ -169,6 +171,12 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
      */
     private boolean isOpen;
 
+    /**
+     * Scans over all vertices in the storage backend which have been neither exhausted nor closed. They are closed
+     * when this transaction is closed so that abandoned scans release their resources and threads.
+     */
+    private final Set<RecordIterator<?>> openScans = Collections.newSetFromMap(new ConcurrentHashMap<RecordIterator<?>, Boolean>());
+
     private final VertexConstructor existingVertexRetriever;
     private final VertexConstructor externalVertexRetriever;
     private final VertexConstructor internalVertexRetriever;
@@ -420,7 +428,7 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
         return result;
     }
 
-    private InternalVertex getExistingVertex(long vertexid) {
+    InternalVertex getExistingVertex(long vertexid) {
         //return vertex no matter what, even if deleted, and assume the id has the correct format
         return vertexCache.get(vertexid, existingVertexRetriever);
     }
@@ -490,19 +498,38 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
 
     @Override
     public TitanVertex addVertex(Long vertexId, VertexLabel label) {
+        return addVertex(vertexId, label, -1);
+    }
+
+    /**
+     * Adds a vertex whose id is assigned in the given partition rather than the one chosen by the configured
+     * placement strategy. This is used to relocate vertices between partitions.
+     *
+     * @param label
+     * @param partitionID
+     * @return
+     */
+    public TitanVertex addVertexInPartition(VertexLabel label, int partitionID) {
+        Preconditions.checkArgument(partitionID>=0,"Invalid partition id: %s",partitionID);
+        return addVertex(null, label, partitionID);
+    }
+
+    private TitanVertex addVertex(Long vertexId, VertexLabel label, int partitionID) {
         verifyWriteAccess();
         if (label==null) label=BaseVertexLabel.DEFAULT_VERTEXLABEL;
         if (vertexId != null && !graph.getConfiguration().allowVertexIdSetting()) {
             log.info("Provided vertex id [{}] is ignored because vertex id setting is not enabled", vertexId);
             vertexId = null;
         }
-        Preconditions.checkArgument(vertexId != null || !graph.getConfiguration().allowVertexIdSetting(), "Must provide vertex id");
+        Preconditions.checkArgument(vertexId != null || partitionID>=0 || !graph.getConfiguration().allowVertexIdSetting(), "Must provide vertex id");
         Preconditions.checkArgument(vertexId == null || IDManager.VertexIDType.NormalVertex.is(vertexId), "Not a valid vertex id: %s", vertexId);
         Preconditions.checkArgument(vertexId == null || ((InternalVertexLabel)label).hasDefaultConfiguration(), "Cannot only use default vertex labels: %s",label);
         Preconditions.checkArgument(vertexId == null || !config.hasVerifyExternalVertexExistence() || !containsVertex(vertexId), "Vertex with given id already exists: %s", vertexId);
         StandardVertex vertex = new StandardVertex(this, IDManager.getTemporaryVertexID(IDManager.VertexIDType.NormalVertex, temporaryIds.nextID()), ElementLifeCycle.New);
         if (vertexId != null) {
             vertex.setId(vertexId);
+        } else if (partitionID>=0) {
+            graph.assignID(vertex,label,partitionID);
         } else if (config.hasAssignIDsImmediately() || label.isPartitioned()) {
             graph.assignID(vertex,label);
         }
@@ -1027,7 +1054,7 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
         }
 
         if (!vids.isEmpty()) {
-            List<EntryList> results = QueryProfiler.profile(profiler, sq, true, q -> graph.edgeMultiQuery(vids, q, txHandle));
+            List<EntryList> results = QueryProfiler.profile(profiler, sq, true, graph.getSlowQueryLog(), q -> graph.edgeMultiQuery(vids, q, txHandle));
             int pos = 0;
             for (TitanVertex v : vertices) {
                 if (pos<vids.size() && vids.get(pos) == v.longId()) {
@@ -1044,6 +1071,55 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
         }
     }
 
+    /**
+     * Loads the results of all the given slice queries for the given vertices with a single backend request so that
+     * stores which support multiple column ranges per key retrieve all slices of a vertex at once.
+     *
+     * @param vertices
+     * @param queries
+     * @param profiler
+     */
+    public void executeMultiQuery(final Collection<InternalVertex> vertices, final List<SliceQuery> queries, final QueryProfiler profiler) {
+        Preconditions.checkArgument(!queries.isEmpty());
+        if (queries.size()==1) {
+            executeMultiQuery(vertices, queries.get(0), profiler);
+            return;
+        }
+        LongArrayList vids = new LongArrayList(vertices.size());
+        for (InternalVertex v : vertices) {
+            if (v.isNew() || !v.hasId() || !(v instanceof CacheVertex)) continue;
+            for (SliceQuery sq : queries) {
+                if (!v.hasLoadedRelations(sq)) {
+                    vids.add(v.longId());
+                    break;
+                }
+            }
+        }
+
+        if (!vids.isEmpty()) {
+            Map<SliceQuery,List<EntryList>> results = new HashMap<SliceQuery,List<EntryList>>(queries.size());
+            QueryProfiler.profile(profiler, queries, true, graph.getSlowQueryLog(), () -> {
+                results.putAll(graph.edgeMultiQuery(vids, queries, txHandle));
+                return results.values();
+            });
+            int pos = 0;
+            for (TitanVertex v : vertices) {
+                if (pos<vids.size() && vids.get(pos) == v.longId()) {
+                    for (SliceQuery sq : queries) {
+                        final EntryList vresults = results.get(sq).get(pos);
+                        ((CacheVertex) v).loadRelations(sq, new Retriever<SliceQuery, EntryList>() {
+                            @Override
+                            public EntryList get(SliceQuery query) {
+                                return vresults;
+                            }
+                        });
+                    }
+                    pos++;
+                }
+            }
+        }
+    }
+
     public final QueryExecutor<VertexCentricQuery, TitanRelation, SliceQuery> edgeProcessor;
 
     public final QueryExecutor<VertexCentricQuery, TitanRelation, SliceQuery> edgeProcessorImpl = new QueryExecutor<VertexCentricQuery, TitanRelation, SliceQuery>() {
@@ -1113,11 +1189,12 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
             EntryList iter = v.loadRelations(sq, new Retriever<SliceQuery, EntryList>() {
                 @Override
                 public EntryList get(SliceQuery query) {
-                    return QueryProfiler.profile(profiler,query, q -> graph.edgeQuery(v.longId(), q, txHandle));
+                    return QueryProfiler.profile(profiler, query, false, graph.getSlowQueryLog(), q -> graph.edgeQuery(v.longId(), q, txHandle));
                 }
             });
 
-            return RelationConstructor.readRelation(v, iter, StandardTitanTx.this).iterator();
+            //Reverse slices are returned in ascending order and need to be read from the end
+            return RelationConstructor.readRelation(v, sq.isReverse()?Lists.reverse(iter):iter, StandardTitanTx.this).iterator();
         }
     };
 
@@ -1244,7 +1321,7 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
                                 return indexCache.get(adjustedQuery, new Callable<List<Object>>() {
                                     @Override
                                     public List<Object> call() throws Exception {
-                                        return QueryProfiler.profile(subquery.getProfiler(), adjustedQuery, q -> indexSerializer.query(q, txHandle));
+                                        return QueryProfiler.profile(subquery.getProfiler(), adjustedQuery, false, graph.getSlowQueryLog(), q -> indexSerializer.query(q, txHandle, StandardTitanTx.this));
                                     }
                                 });
                             } catch (Exception e) {
@@ -1392,10 +1469,20 @@ public class StandardTitanTx extends TitanBlueprintsTransaction implements TypeI
     private void releaseTransaction() {
         //TODO: release non crucial data structures to preserve memory?
         isOpen = false;
+        for (RecordIterator<?> scan : new ArrayList<RecordIterator<?>>(openScans)) IOUtils.closeQuietly(scan);
+        openScans.clear();
         graph.closeTransaction(this);
         vertexCache.close();
     }
 
+    void registerScan(RecordIterator<?> scan) {
+        openScans.add(scan);
+    }
+
+    void unregisterScan(RecordIterator<?> scan) {
+        openScans.remove(scan);
+    }
+
     @Override
     public final boolean isOpen() {
         return isOpen;
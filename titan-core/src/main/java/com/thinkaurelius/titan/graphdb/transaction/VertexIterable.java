@@ -1,14 +1,25 @@
 package com.thinkaurelius.titan.graphdb.transaction;
 
+import com.thinkaurelius.titan.diskstorage.Entry;
+import com.thinkaurelius.titan.diskstorage.EntryList;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery;
 import com.thinkaurelius.titan.diskstorage.util.RecordIterator;
 import com.thinkaurelius.titan.graphdb.database.StandardTitanGraph;
 import com.thinkaurelius.titan.graphdb.idmanagement.IDManager;
 import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
+import com.thinkaurelius.titan.graphdb.vertices.CacheVertex;
+import com.thinkaurelius.titan.util.system.IOUtils;
 
+import java.io.IOException;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
+ * Iterates over all vertices in the storage backend. Vertices are retrieved by a scan over the edgestore which
+ * also verifies their existence. If {@link com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration#SCAN_PREFETCH}
+ * is enabled, all properties of each vertex are retrieved by the same scan and cached in the vertex.
+ *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
 
@@ -24,42 +35,81 @@ public class VertexIterable implements Iterable<InternalVertex> {
 
     @Override
     public Iterator<InternalVertex> iterator() {
-        return new Iterator<InternalVertex>() {
+        return new VertexScanIterator();
+    }
+
+    /**
+     * The underlying scan is closed once it is exhausted, when this iterator is closed, or - if the iterator is
+     * abandoned before that - when the transaction is closed.
+     */
+    private class VertexScanIterator implements RecordIterator<InternalVertex> {
 
-            RecordIterator<Long> iterator = graph.getVertexIDs(tx.getTxHandle());
-            InternalVertex nextVertex = nextVertex();
+        final boolean prefetch = graph.getConfiguration().hasScanPrefetching();
+        final SliceQuery scanQuery = prefetch ? graph.vertexPropertiesQuery : graph.vertexExistenceQuery;
+        final RecordIterator<Map.Entry<Long, EntryList>> iterator;
+        InternalVertex nextVertex;
+        boolean closed = false;
 
-            private InternalVertex nextVertex() {
-                InternalVertex v = null;
-                while (v == null && iterator.hasNext()) {
-                    long nextId = iterator.next().longValue();
-                    //Filter out invisible vertices
-                    if (IDManager.VertexIDType.Invisible.is(nextId)) continue;
+        private VertexScanIterator() {
+            iterator = graph.getVertexEntries(tx.getTxHandle(), scanQuery, tx::isOpen);
+            tx.registerScan(this);
+            nextVertex = nextVertex();
+        }
 
-                    v = tx.getInternalVertex(nextId);
-                    //Filter out deleted vertices and types
-                    if (v.isRemoved()) v = null;
+        private InternalVertex nextVertex() {
+            InternalVertex v = null;
+            while (v == null && !closed && iterator.hasNext()) {
+                Map.Entry<Long, EntryList> next = iterator.next();
+                long nextId = next.getKey();
+                //Filter out invisible vertices
+                if (IDManager.VertexIDType.Invisible.is(nextId)) continue;
+                final EntryList entries = next.getValue();
+                //The scan already verified existence, so the vertex does not have to be checked again
+                if (prefetch && !containsExistence(entries)) continue;
+
+                v = tx.getExistingVertex(nextId);
+                if (prefetch && v instanceof CacheVertex) {
+                    ((CacheVertex) v).loadRelations(scanQuery, query -> entries);
                 }
-                return v;
+                //Filter out deleted vertices and types
+                if (v.isRemoved()) v = null;
             }
+            if (v == null) IOUtils.closeQuietly(this);
+            return v;
+        }
 
-            @Override
-            public boolean hasNext() {
-                return nextVertex != null;
+        private boolean containsExistence(EntryList entries) {
+            for (Entry entry : entries) {
+                if (graph.vertexExistenceQuery.contains(entry.getColumn())) return true;
             }
+            return false;
+        }
 
-            @Override
-            public InternalVertex next() {
-                if (!hasNext()) throw new NoSuchElementException();
-                InternalVertex returnVertex = nextVertex;
-                nextVertex = nextVertex();
-                return returnVertex;
-            }
+        @Override
+        public boolean hasNext() {
+            return nextVertex != null;
+        }
 
-            @Override
-            public void remove() {
-                throw new UnsupportedOperationException();
-            }
-        };
+        @Override
+        public InternalVertex next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            InternalVertex returnVertex = nextVertex;
+            nextVertex = nextVertex();
+            return returnVertex;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            nextVertex = null;
+            tx.unregisterScan(this);
+            iterator.close();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.thinkaurelius.titan.graphdb.types;
 
 import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.core.schema.SchemaStatus;
 
@@ -13,6 +14,14 @@ public interface CompositeIndexType extends IndexType {
 
     public IndexField[] getFieldKeys();
 
+    /**
+     * Returns the keys whose values are stored in the index entries in addition to the indexed element so that they
+     * can be retrieved without reading the element. Covered keys are not part of the composite key.
+     *
+     * @return
+     */
+    public PropertyKey[] getCoveredKeys();
+
     public SchemaStatus getStatus();
 
     /*
@@ -9,7 +9,8 @@ import org.apache.commons.lang.StringUtils;
  */
 public enum ParameterType {
 
-    MAPPING("mapping"), INDEX_POSITION("index-pos"), MAPPED_NAME("mapped-name"), STATUS("status");
+    MAPPING("mapping"), INDEX_POSITION("index-pos"), MAPPED_NAME("mapped-name"), STATUS("status"),
+    GEOHASH_PRECISION("geohash-precision"), ORDER_BUCKETS("order-buckets"), COVERED_POSITION("covered-pos");
 
     private final String name;
 
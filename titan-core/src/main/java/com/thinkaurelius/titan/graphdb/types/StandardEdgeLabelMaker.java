@@ -6,11 +6,13 @@ import com.thinkaurelius.titan.core.schema.EdgeLabelMaker;
 import com.thinkaurelius.titan.core.Multiplicity;
 import com.thinkaurelius.titan.graphdb.database.IndexSerializer;
 import com.thinkaurelius.titan.graphdb.database.serialize.AttributeHandler;
+import com.thinkaurelius.titan.graphdb.internal.ColumnFormat;
 import com.thinkaurelius.titan.graphdb.internal.Order;
 import com.thinkaurelius.titan.graphdb.internal.TitanSchemaCategory;
 import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 
+import static com.thinkaurelius.titan.graphdb.types.TypeDefinitionCategory.COLUMN_FORMAT;
 import static com.thinkaurelius.titan.graphdb.types.TypeDefinitionCategory.INVISIBLE;
 import static com.thinkaurelius.titan.graphdb.types.TypeDefinitionCategory.UNIDIRECTIONAL;
 
@@ -21,12 +23,14 @@ import static com.thinkaurelius.titan.graphdb.types.TypeDefinitionCategory.UNIDI
 public class StandardEdgeLabelMaker extends StandardRelationTypeMaker implements EdgeLabelMaker {
 
     private Direction unidirectionality;
+    private ColumnFormat columnFormat;
 
     public StandardEdgeLabelMaker(final StandardTitanTx tx,
                                   final String name, final IndexSerializer indexSerializer,
                                   final AttributeHandler attributeHandler) {
         super(tx, name, indexSerializer, attributeHandler);
         unidirectionality = Direction.BOTH;
+        columnFormat = ColumnFormat.STANDARD;
     }
 
     @Override
@@ -51,6 +55,24 @@ public class StandardEdgeLabelMaker extends StandardRelationTypeMaker implements
         return this;
     }
 
+    /**
+     * Configures the edges of this label to be stored in the more compact {@link ColumnFormat#DENSE} column format.
+     * This is intended for labels with many edges per vertex, in particular those that have an integral sort key.
+     * Only edge labels with multiplicity {@link Multiplicity#MULTI} can use the dense format and the format cannot
+     * be changed once the label has been created.
+     *
+     * @return this LabelMaker
+     */
+    public StandardEdgeLabelMaker dense() {
+        return columnFormat(ColumnFormat.DENSE);
+    }
+
+    public StandardEdgeLabelMaker columnFormat(ColumnFormat format) {
+        Preconditions.checkNotNull(format);
+        columnFormat = format;
+        return this;
+    }
+
     @Override
     public StandardEdgeLabelMaker multiplicity(Multiplicity multiplicity) {
         super.multiplicity(multiplicity);
@@ -90,9 +112,12 @@ public class StandardEdgeLabelMaker extends StandardRelationTypeMaker implements
                 !getMultiplicity().isUnique(unidirectionality),
                 "Unidirectional labels with restricted multiplicity cannot have a sort key");
         Preconditions.checkArgument(unidirectionality!=Direction.IN || definition.getValue(INVISIBLE,Boolean.class));
+        Preconditions.checkArgument(columnFormat==ColumnFormat.STANDARD || getMultiplicity()==Multiplicity.MULTI,
+                "Only labels with multiplicity MULTI can use the %s column format",columnFormat);
 
 
         definition.setValue(UNIDIRECTIONAL, unidirectionality);
+        definition.setValue(COLUMN_FORMAT, columnFormat.getVersion());
         return tx.makeEdgeLabel(getName(), definition);
     }
 
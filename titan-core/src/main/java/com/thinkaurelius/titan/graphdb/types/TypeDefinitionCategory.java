@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.thinkaurelius.titan.core.Cardinality;
 import com.thinkaurelius.titan.core.Multiplicity;
+import com.thinkaurelius.titan.graphdb.internal.ColumnFormat;
 import com.thinkaurelius.titan.graphdb.internal.Order;
 import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.graphdb.database.management.ModifierType;
@@ -54,10 +55,13 @@ public enum TypeDefinitionCategory {
     RELATIONTYPE_INDEX(),
     TYPE_MODIFIER(),
     INDEX_FIELD(RelationCategory.EDGE,Parameter[].class),
-    INDEX_SCHEMA_CONSTRAINT();
+    INDEX_SCHEMA_CONSTRAINT(),
+
+    //Relation Types (added after the other categories since the ordinal is persisted)
+    COLUMN_FORMAT(Integer.class);
 
     public static final Set<TypeDefinitionCategory> PROPERTYKEY_DEFINITION_CATEGORIES = ImmutableSet.of(STATUS, INVISIBLE, SORT_KEY, SORT_ORDER, SIGNATURE, MULTIPLICITY, DATATYPE);
-    public static final Set<TypeDefinitionCategory> EDGELABEL_DEFINITION_CATEGORIES = ImmutableSet.of(STATUS, INVISIBLE, SORT_KEY, SORT_ORDER, SIGNATURE, MULTIPLICITY, UNIDIRECTIONAL);
+    public static final Set<TypeDefinitionCategory> EDGELABEL_DEFINITION_CATEGORIES = ImmutableSet.of(STATUS, INVISIBLE, SORT_KEY, SORT_ORDER, SIGNATURE, MULTIPLICITY, UNIDIRECTIONAL, COLUMN_FORMAT);
     public static final Set<TypeDefinitionCategory> INDEX_DEFINITION_CATEGORIES = ImmutableSet.of(STATUS, ELEMENT_CATEGORY,INDEX_CARDINALITY,INTERNAL_INDEX, BACKING_INDEX,INDEXSTORE_NAME);
     public static final Set<TypeDefinitionCategory> VERTEXLABEL_DEFINITION_CATEGORIES = ImmutableSet.of(PARTITIONED,STATIC);
     public static final Set<TypeDefinitionCategory> TYPE_MODIFIER_DEFINITION_CATEGORIES;
@@ -114,6 +118,7 @@ public enum TypeDefinitionCategory {
         switch(this) {
             case SORT_ORDER: return Order.ASC;
             case STATUS: return SchemaStatus.ENABLED;
+            case COLUMN_FORMAT: return ColumnFormat.STANDARD.getVersion();
             default: return null;
         }
     }
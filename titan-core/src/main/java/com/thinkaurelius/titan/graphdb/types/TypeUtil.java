@@ -86,7 +86,7 @@ public class TypeUtil {
         for (IndexType index : ((InternalRelationType)key).getKeyIndexes()) {
             if (index.isCompositeIndex()) {
                 CompositeIndexType iIndex = (CompositeIndexType)index;
-                assert index.indexesKey(key);
+                if (!index.indexesKey(key)) continue; //Covered key
                 if (iIndex.getCardinality()== Cardinality.SINGLE) {
                     assert iIndex.getElement()==ElementCategory.VERTEX;
                     indexes.add(iIndex);
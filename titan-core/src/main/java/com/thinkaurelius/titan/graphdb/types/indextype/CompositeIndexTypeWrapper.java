@@ -41,32 +41,66 @@ public class CompositeIndexTypeWrapper extends IndexTypeWrapper implements Compo
     }
 
     IndexField[] fields = null;
+    PropertyKey[] coveredKeys = null;
 
     @Override
     public IndexField[] getFieldKeys() {
         IndexField[] result = fields;
         if (result==null) {
-            Iterable<SchemaSource.Entry> entries = base.getRelated(TypeDefinitionCategory.INDEX_FIELD,Direction.OUT);
-            int numFields = Iterables.size(entries);
-            result = new IndexField[numFields];
-            for (SchemaSource.Entry entry : entries) {
-                Integer value = ParameterType.INDEX_POSITION.findParameter((Parameter[]) entry.getModifier(),null);
-                Preconditions.checkNotNull(value);
-                int pos = value;
-                Preconditions.checkArgument(pos>=0 && pos<numFields,"Invalid field position: %s",pos);
-                assert entry.getSchemaType() instanceof PropertyKey;
-                result[pos]=IndexField.of((PropertyKey)entry.getSchemaType());
-            }
-            fields=result;
+            loadFields();
+            result = fields;
         }
         assert result!=null;
         return result;
     }
 
+    @Override
+    public PropertyKey[] getCoveredKeys() {
+        PropertyKey[] result = coveredKeys;
+        if (result==null) {
+            loadFields();
+            result = coveredKeys;
+        }
+        assert result!=null;
+        return result;
+    }
+
+    private void loadFields() {
+        Iterable<SchemaSource.Entry> entries = base.getRelated(TypeDefinitionCategory.INDEX_FIELD,Direction.OUT);
+        int numCovered = 0;
+        for (SchemaSource.Entry entry : entries) {
+            if (ParameterType.COVERED_POSITION.hasParameter((Parameter[]) entry.getModifier())) numCovered++;
+        }
+        int numFields = Iterables.size(entries)-numCovered;
+        IndexField[] fieldResult = new IndexField[numFields];
+        PropertyKey[] coveredResult = new PropertyKey[numCovered];
+        for (SchemaSource.Entry entry : entries) {
+            Parameter[] parameters = (Parameter[]) entry.getModifier();
+            assert entry.getSchemaType() instanceof PropertyKey;
+            Integer covered = ParameterType.COVERED_POSITION.findParameter(parameters,null);
+            if (covered!=null) {
+                int pos = covered;
+                Preconditions.checkArgument(pos>=0 && pos<numCovered,"Invalid covered key position: %s",pos);
+                coveredResult[pos]=(PropertyKey)entry.getSchemaType();
+                continue;
+            }
+            Integer value = ParameterType.INDEX_POSITION.findParameter(parameters,null);
+            Preconditions.checkNotNull(value);
+            int pos = value;
+            Preconditions.checkArgument(pos>=0 && pos<numFields,"Invalid field position: %s",pos);
+            //Retain the parameters of fields with a custom mapping (i.e. geohash indexed fields)
+            if (ParameterType.MAPPING.hasParameter(parameters)) fieldResult[pos]=ParameterIndexField.of((PropertyKey)entry.getSchemaType(),parameters);
+            else fieldResult[pos]=IndexField.of((PropertyKey)entry.getSchemaType());
+        }
+        coveredKeys=coveredResult;
+        fields=fieldResult;
+    }
+
     @Override
     public void resetCache() {
         super.resetCache();
         fields = null;
+        coveredKeys = null;
     }
 
     @Override
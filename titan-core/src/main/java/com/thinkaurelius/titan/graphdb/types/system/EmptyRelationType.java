@@ -1,6 +1,7 @@
 package com.thinkaurelius.titan.graphdb.types.system;
 
 import com.google.common.collect.ImmutableSet;
+import com.thinkaurelius.titan.graphdb.internal.ColumnFormat;
 import com.thinkaurelius.titan.graphdb.internal.Order;
 import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
 import com.thinkaurelius.titan.graphdb.types.IndexType;
@@ -33,6 +34,11 @@ public abstract class EmptyRelationType extends EmptyVertex implements InternalR
         return Order.ASC;
     }
 
+    @Override
+    public ColumnFormat getColumnFormat() {
+        return ColumnFormat.STANDARD;
+    }
+
     @Override
     public InternalRelationType getBaseType() {
         return null;
@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.core.Multiplicity;
+import com.thinkaurelius.titan.graphdb.internal.ColumnFormat;
 import com.thinkaurelius.titan.graphdb.internal.Order;
 import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
 import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
@@ -36,6 +37,11 @@ public abstract class RelationTypeVertex extends TitanSchemaVertex implements In
         return getDefinition().getValue(TypeDefinitionCategory.SORT_ORDER, Order.class);
     }
 
+    @Override
+    public ColumnFormat getColumnFormat() {
+        return ColumnFormat.getFormat(getDefinition().getValue(TypeDefinitionCategory.COLUMN_FORMAT, Integer.class));
+    }
+
     @Override
     public long[] getSignature() {
         return getDefinition().getValue(TypeDefinitionCategory.SIGNATURE, long[].class);
@@ -8,6 +8,7 @@ import com.thinkaurelius.titan.core.TitanVertexProperty;
 import com.thinkaurelius.titan.core.TitanVertex;
 import com.thinkaurelius.titan.core.TitanVertexQuery;
 import com.thinkaurelius.titan.core.schema.SchemaStatus;
+import com.thinkaurelius.titan.graphdb.database.cache.SchemaCache;
 import com.thinkaurelius.titan.graphdb.internal.TitanSchemaCategory;
 import com.thinkaurelius.titan.graphdb.transaction.RelationConstructor;
 import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
@@ -21,6 +22,8 @@ import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TitanSchemaVertex extends CacheVertex implements SchemaSource {
 
@@ -36,9 +39,17 @@ public class TitanSchemaVertex extends CacheVertex implements SchemaSource {
             TitanVertexProperty<String> p;
             if (isLoaded()) {
                 StandardTitanTx tx = tx();
+                SchemaCache schemaCache = tx.getGraph().getSchemaCache();
+                String cached = schemaCache.getSchemaName(longId());
+                if (cached != null) {
+                    name = cached;
+                    return TitanSchemaCategory.getName(name);
+                }
+                long version = schemaCache.getSchemaVersion();
                 p = (TitanVertexProperty) Iterables.getOnlyElement(RelationConstructor.readRelation(this,
-                        tx.getGraph().getSchemaCache().getSchemaRelations(longId(), BaseKey.SchemaName, Direction.OUT),
+                        schemaCache.getSchemaRelations(longId(), BaseKey.SchemaName, Direction.OUT),
                         tx), null);
+                if (p!=null) schemaCache.cacheSchemaName(longId(), p.value(), version);
             } else {
                 p = Iterables.getOnlyElement(query().type(BaseKey.SchemaName).properties(), null);
             }
@@ -60,22 +71,32 @@ public class TitanSchemaVertex extends CacheVertex implements SchemaSource {
     public TypeDefinitionMap getDefinition() {
         TypeDefinitionMap def = definition;
         if (def == null) {
-            def = new TypeDefinitionMap();
             Iterable<TitanVertexProperty> ps;
+            SchemaCache schemaCache = null;
+            long version = 0;
             if (isLoaded()) {
                 StandardTitanTx tx = tx();
+                schemaCache = tx.getGraph().getSchemaCache();
+                def = schemaCache.getSchemaDefinition(longId());
+                if (def != null) {
+                    definition = def;
+                    return def;
+                }
+                version = schemaCache.getSchemaVersion();
                 ps = (Iterable)RelationConstructor.readRelation(this,
-                        tx.getGraph().getSchemaCache().getSchemaRelations(longId(), BaseKey.SchemaDefinitionProperty, Direction.OUT),
+                        schemaCache.getSchemaRelations(longId(), BaseKey.SchemaDefinitionProperty, Direction.OUT),
                         tx);
             } else {
                 ps = query().type(BaseKey.SchemaDefinitionProperty).properties();
             }
+            def = new TypeDefinitionMap();
             for (TitanVertexProperty property : ps) {
                 TypeDefinitionDescription desc = property.valueOrNull(BaseKey.SchemaDefinitionDesc);
                 Preconditions.checkArgument(desc!=null && desc.getCategory().isProperty());
                 def.setValue(desc.getCategory(), property.value());
             }
             assert def.size()>0;
+            if (schemaCache != null) schemaCache.cacheSchemaDefinition(longId(), def, version);
             definition = def;
         }
         assert def!=null;
@@ -93,15 +114,29 @@ public class TitanSchemaVertex extends CacheVertex implements SchemaSource {
         if (rels==null) {
             ImmutableListMultimap.Builder<TypeDefinitionCategory,Entry> b = ImmutableListMultimap.builder();
             Iterable<TitanEdge> edges;
+            SchemaCache schemaCache = null;
+            long version = 0;
             if (isLoaded()) {
                 StandardTitanTx tx = tx();
-                edges = (Iterable)RelationConstructor.readRelation(this,
-                        tx.getGraph().getSchemaCache().getSchemaRelations(longId(), BaseLabel.SchemaDefinitionEdge, dir),
-                        tx);
+                schemaCache = tx.getGraph().getSchemaCache();
+                List<SchemaCache.RelatedSchema> related = schemaCache.getSchemaRelated(longId(), dir);
+                if (related != null) {
+                    //Resolve the shared, parsed definition edges against this transaction
+                    for (SchemaCache.RelatedSchema rel : related) {
+                        b.put(rel.getCategory(), new Entry((TitanSchemaVertex) tx.getInternalVertex(rel.getSchemaId()), rel.getModifier()));
+                    }
+                    edges = null;
+                } else {
+                    version = schemaCache.getSchemaVersion();
+                    edges = (Iterable)RelationConstructor.readRelation(this,
+                            schemaCache.getSchemaRelations(longId(), BaseLabel.SchemaDefinitionEdge, dir),
+                            tx);
+                }
             } else {
                 edges = query().type(BaseLabel.SchemaDefinitionEdge).direction(dir).edges();
             }
-            for (TitanEdge edge: edges) {
+            List<SchemaCache.RelatedSchema> parsed = new ArrayList<SchemaCache.RelatedSchema>();
+            if (edges != null) for (TitanEdge edge: edges) {
                 TitanVertex oth = edge.vertex(dir.opposite());
                 assert oth instanceof TitanSchemaVertex;
                 TypeDefinitionDescription desc = edge.valueOrNull(BaseKey.SchemaDefinitionDesc);
@@ -111,7 +146,9 @@ public class TitanSchemaVertex extends CacheVertex implements SchemaSource {
                     modifier = desc.getModifier();
                 }
                 b.put(desc.getCategory(), new Entry((TitanSchemaVertex) oth, modifier));
+                parsed.add(new SchemaCache.RelatedSchema(desc.getCategory(), oth.longId(), modifier));
             }
+            if (schemaCache != null && edges != null) schemaCache.cacheSchemaRelated(longId(), dir, parsed, version);
             rels = b.build();
             if (dir==Direction.OUT) outRelations=rels;
             else inRelations=rels;
@@ -29,7 +29,6 @@ import java.util.*;
 /**
  * Here are some areas that might need work:
  * <p/>
- * - batching? (consider HTable#batch, HTable#setAutoFlush(false)
  * - tuning HTable#setWriteBufferSize (?)
  * - writing a server-side filter to replace ColumnCountGetFilter, which drops
  * all columns on the row where it reaches its limit.  This requires getSlice,
@@ -74,12 +73,25 @@ public class HBaseKeyColumnValueStore implements KeyColumnValueStore {
     @Override
     public EntryList getSlice(KeySliceQuery query, StoreTransaction txh) throws BackendException {
         Map<StaticBuffer, EntryList> result = getHelper(Arrays.asList(query.getKey()), getFilter(query));
-        return Iterables.getOnlyElement(result.values(), EntryList.EMPTY_LIST);
+        return limitReverse(Iterables.getOnlyElement(result.values(), EntryList.EMPTY_LIST), query);
     }
 
     @Override
     public Map<StaticBuffer,EntryList> getSlice(List<StaticBuffer> keys, SliceQuery query, StoreTransaction txh) throws BackendException {
-        return getHelper(keys, getFilter(query));
+        Map<StaticBuffer,EntryList> result = getHelper(keys, getFilter(query));
+        if (query.isReverse() && query.hasLimit()) {
+            for (Map.Entry<StaticBuffer,EntryList> row : result.entrySet()) row.setValue(limitReverse(row.getValue(), query));
+        }
+        return result;
+    }
+
+    /**
+     * HBase cannot scan the columns of a row in reverse, hence the limit of a reverse slice cannot be pushed into
+     * the {@link ColumnPaginationFilter} and the last entries of the slice are retained on the client instead.
+     */
+    private static EntryList limitReverse(EntryList entries, SliceQuery query) {
+        if (!query.isReverse() || !query.hasLimit() || entries.size()<=query.getLimit()) return entries;
+        return StaticArrayEntryList.of(entries.subList(entries.size()-query.getLimit(), entries.size()));
     }
 
     @Override
@@ -115,12 +127,9 @@ public class HBaseKeyColumnValueStore implements KeyColumnValueStore {
     }
 
     public static Filter getFilter(SliceQuery query) {
-        byte[] colStartBytes = query.getSliceEnd().length() > 0 ? query.getSliceStart().as(StaticBuffer.ARRAY_FACTORY) : null;
-        byte[] colEndBytes = query.getSliceEnd().length() > 0 ? query.getSliceEnd().as(StaticBuffer.ARRAY_FACTORY) : null;
+        Filter filter = getRangeFilter(query);
 
-        Filter filter = new ColumnRangeFilter(colStartBytes, true, colEndBytes, false);
-
-        if (query.hasLimit()) {
+        if (query.hasLimit() && !query.isReverse()) {
             filter = new FilterList(FilterList.Operator.MUST_PASS_ALL,
                     filter,
                     new ColumnPaginationFilter(query.getLimit(), 0));
@@ -131,22 +140,122 @@ public class HBaseKeyColumnValueStore implements KeyColumnValueStore {
         return filter;
     }
 
-    private Map<StaticBuffer,EntryList> getHelper(List<StaticBuffer> keys, Filter getFilter) throws BackendException {
-        List<Get> requests = new ArrayList<Get>(keys.size());
-        {
-            for (StaticBuffer key : keys) {
-                Get g = new Get(key.as(StaticBuffer.ARRAY_FACTORY)).addFamily(columnFamilyBytes).setFilter(getFilter);
-                try {
-                    g.setTimeRange(0, Long.MAX_VALUE);
-                } catch (IOException e) {
-                    throw new PermanentBackendException(e);
+    /**
+     * Retrieves several column slices for each of the given keys with one multi-get per batch of keys.
+     * <p/>
+     * If none of the slices has a limit, all slices are evaluated server-side by a single {@link FilterList} of column
+     * ranges, so a key is only contacted once regardless of how many slices are requested, and the entries are split
+     * into the individual slices on the client. HBase cannot paginate per column range, hence slices with a limit
+     * are retrieved with one {@link Get} per key and slice using {@link #getFilter(SliceQuery)}, so that each slice
+     * is paginated server-side. The gets for all slices of a batch of keys are still sent in one multi-get.
+     *
+     * @param keys Keys to retrieve the slices for
+     * @param queries Column slices to retrieve for each key
+     * @param txh Transaction
+     * @return For each query, the map of keys to the entries matching that query
+     * @throws BackendException
+     */
+    @Override
+    public Map<SliceQuery,Map<StaticBuffer,EntryList>> getMultiSlice(List<StaticBuffer> keys, List<SliceQuery> queries, StoreTransaction txh) throws BackendException {
+        Map<SliceQuery,Map<StaticBuffer,EntryList>> results = new HashMap<SliceQuery,Map<StaticBuffer,EntryList>>(queries.size());
+        if (queries.size()==1) {
+            SliceQuery query = Iterables.getOnlyElement(queries);
+            results.put(query,getSlice(keys,query,txh));
+            return results;
+        }
+        for (SliceQuery query : queries) results.put(query,new HashMap<StaticBuffer,EntryList>(keys.size()));
+        if (queries.isEmpty()) return results;
+
+        boolean hasLimit = false;
+        for (SliceQuery query : queries) hasLimit |= query.hasLimit();
+        if (hasLimit) {
+            getSlicesPerQuery(keys, queries, results);
+            return results;
+        }
+
+        FilterList rangeFilter = new FilterList(FilterList.Operator.MUST_PASS_ONE);
+        for (SliceQuery query : queries) rangeFilter.addFilter(getRangeFilter(query));
+
+        Map<StaticBuffer,EntryList> combined = getHelper(keys, rangeFilter);
+        for (Map.Entry<StaticBuffer,EntryList> row : combined.entrySet()) {
+            for (SliceQuery query : queries) {
+                results.get(query).put(row.getKey(), splitSlice(row.getValue(), query));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves each slice with its own paginated {@link Get}. The batch size bounds the number of gets per multi-get,
+     * so each batch covers as many keys as fit with one get per slice.
+     */
+    private void getSlicesPerQuery(List<StaticBuffer> keys, List<SliceQuery> queries, Map<SliceQuery,Map<StaticBuffer,EntryList>> results) throws BackendException {
+        Filter[] filters = new Filter[queries.size()];
+        for (int i = 0; i < filters.length; i++) filters[i] = getFilter(queries.get(i));
+        int keysPerBatch = Math.max(1, storeManager.getGetBatchSize() / queries.size());
+        for (int offset = 0; offset < keys.size(); offset += keysPerBatch) {
+            List<StaticBuffer> batch = keys.subList(offset, Math.min(keys.size(), offset + keysPerBatch));
+            List<Get> requests = new ArrayList<Get>(batch.size() * filters.length);
+            for (StaticBuffer key : batch) {
+                for (Filter filter : filters) requests.add(newGet(key, filter));
+            }
+            EntryList[] rows = get(requests);
+            for (int k = 0; k < batch.size(); k++) {
+                for (int q = 0; q < filters.length; q++) {
+                    SliceQuery query = queries.get(q);
+                    results.get(query).put(batch.get(k), limitReverse(rows[k * filters.length + q], query));
                 }
-                requests.add(g);
             }
         }
+    }
+
+    private static EntryList splitSlice(EntryList entries, SliceQuery query) {
+        if (entries.isEmpty()) return EntryList.EMPTY_LIST;
+        List<Entry> matches = new ArrayList<Entry>();
+        for (Entry entry : entries) {
+            if (query.contains(entry.getColumn())) matches.add(entry);
+        }
+        return matches.isEmpty()?EntryList.EMPTY_LIST:StaticArrayEntryList.of(matches);
+    }
+
+    private static Filter getRangeFilter(SliceQuery query) {
+        byte[] colStartBytes = query.getSliceEnd().length() > 0 ? query.getSliceStart().as(StaticBuffer.ARRAY_FACTORY) : null;
+        byte[] colEndBytes = query.getSliceEnd().length() > 0 ? query.getSliceEnd().as(StaticBuffer.ARRAY_FACTORY) : null;
 
+        return new ColumnRangeFilter(colStartBytes, true, colEndBytes, false);
+    }
+
+    private Map<StaticBuffer,EntryList> getHelper(List<StaticBuffer> keys, Filter getFilter) throws BackendException {
         Map<StaticBuffer,EntryList> resultMap = new HashMap<StaticBuffer,EntryList>(keys.size());
+        int batchSize = storeManager.getGetBatchSize();
+        for (int offset = 0; offset < keys.size(); offset += batchSize) {
+            List<StaticBuffer> batch = keys.subList(offset, Math.min(keys.size(), offset + batchSize));
+            List<Get> requests = new ArrayList<Get>(batch.size());
+            for (StaticBuffer key : batch) requests.add(newGet(key, getFilter));
+            EntryList[] rows = get(requests);
+            for (int i = 0; i < rows.length; i++) resultMap.put(batch.get(i), rows[i]);
+        }
+        return resultMap;
+    }
 
+    private Get newGet(StaticBuffer key, Filter getFilter) throws BackendException {
+        Get g = new Get(key.as(StaticBuffer.ARRAY_FACTORY)).addFamily(columnFamilyBytes).setFilter(getFilter);
+        try {
+            g.setTimeRange(0, Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new PermanentBackendException(e);
+        }
+        return g;
+    }
+
+    /**
+     * Issues a single multi-get for the given requests. The HBase client splits the request by region server
+     * and sends one RPC per server.
+     *
+     * @return The entries retrieved by each request, in the order of the requests
+     */
+    private EntryList[] get(List<Get> requests) throws BackendException {
+        EntryList[] rows = new EntryList[requests.size()];
         try {
             TableMask table = null;
             Result[] results = null;
@@ -158,28 +267,29 @@ public class HBaseKeyColumnValueStore implements KeyColumnValueStore {
                 IOUtils.closeQuietly(table);
             }
 
-            if (results == null)
-                return KCVSUtil.emptyResults(keys);
+            if (results == null) {
+                Arrays.fill(rows, EntryList.EMPTY_LIST);
+                return rows;
+            }
 
-            assert results.length==keys.size();
+            assert results.length==requests.size();
 
             for (int i = 0; i < results.length; i++) {
                 Result result = results[i];
                 NavigableMap<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> f = result.getMap();
 
                 if (f == null) { // no result for this key
-                    resultMap.put(keys.get(i), EntryList.EMPTY_LIST);
+                    rows[i] = EntryList.EMPTY_LIST;
                     continue;
                 }
 
                 // actual key with <timestamp, value>
                 NavigableMap<byte[], NavigableMap<Long, byte[]>> r = f.get(columnFamilyBytes);
-                resultMap.put(keys.get(i), (r == null)
-                                            ? EntryList.EMPTY_LIST
-                                            : StaticArrayEntryList.ofBytes(r.entrySet(), entryGetter));
+                rows[i] = (r == null)
+                            ? EntryList.EMPTY_LIST
+                            : StaticArrayEntryList.ofBytes(r.entrySet(), entryGetter);
             }
-
-            return resultMap;
+            return rows;
         } catch (IOException e) {
             throw new TemporaryBackendException(e);
         }
@@ -211,9 +321,17 @@ public class HBaseKeyColumnValueStore implements KeyColumnValueStore {
         if (endKey != null)
             scan.setStopRow(endKey);
 
+        int caching = storeManager.getScanCaching();
         if (columnSlice != null) {
             filters.addFilter(getFilter(columnSlice));
+            if (columnSlice.hasLimit()) {
+                caching = Math.max(1, Math.min(caching, storeManager.getScanCellBudget() / columnSlice.getLimit()));
+                // The pagination filter bounds each row to the limit, so a batch of that size never splits a row
+                if (!columnSlice.isReverse())
+                    scan.setBatch(columnSlice.getLimit());
+            }
         }
+        scan.setCaching(caching);
 
         TableMask table = null;
 
@@ -220,6 +220,33 @@ public class HBaseStoreManager extends DistributedStoreManager implements KeyCol
             "at runtime.  Setting this option forces Titan to instead reflectively load and instantiate the specified class.",
             ConfigOption.Type.MASKABLE, String.class);
 
+    /**
+     * Upper bound on the number of {@link org.apache.hadoop.hbase.client.Get}s sent in a single multi-get.
+     * The HBase client groups each multi-get by region server, so this only bounds the size of the
+     * individual RPCs issued for very large key lists.
+     */
+    public static final ConfigOption<Integer> GET_BATCH_SIZE =
+            new ConfigOption<Integer>(HBASE_NS, "get-batch-size",
+            "The maximum number of row keys retrieved in one multi-get call. The HBase client groups each " +
+            "multi-get by region server; larger key lists are split into several calls of at most this size.",
+            ConfigOption.Type.MASKABLE, 1000, ConfigOption.positiveInt());
+
+    /**
+     * Number of rows fetched per scanner RPC when iterating over keys. When the column slice of a key scan
+     * has a limit, the number of rows is additionally bounded by {@link #SCAN_CELL_BUDGET} so that a single
+     * RPC does not transfer more cells than necessary.
+     */
+    public static final ConfigOption<Integer> SCAN_CACHING =
+            new ConfigOption<Integer>(HBASE_NS, "scan-caching",
+            "The number of rows fetched per RPC by scanners used for key iteration",
+            ConfigOption.Type.MASKABLE, 100, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> SCAN_CELL_BUDGET =
+            new ConfigOption<Integer>(HBASE_NS, "scan-cell-budget",
+            "The approximate maximum number of cells returned per scanner RPC when the column slice of a key " +
+            "scan is limited. The rows fetched per RPC are reduced to roughly this value divided by the slice limit.",
+            ConfigOption.Type.MASKABLE, 10000, ConfigOption.positiveInt());
+
     public static final int PORT_DEFAULT = 9160;
 
     public static final TimestampProviders PREFERRED_TIMESTAMPS = TimestampProviders.MILLI;
@@ -261,6 +288,9 @@ public class HBaseStoreManager extends DistributedStoreManager implements KeyCol
     private final boolean skipSchemaCheck;
     private final String compatClass;
     private final HBaseCompat compat;
+    private final int getBatchSize;
+    private final int scanCaching;
+    private final int scanCellBudget;
 
     private static final ConcurrentHashMap<HBaseStoreManager, Throwable> openManagers =
             new ConcurrentHashMap<HBaseStoreManager, Throwable>();
@@ -280,6 +310,9 @@ public class HBaseStoreManager extends DistributedStoreManager implements KeyCol
         this.skipSchemaCheck = config.get(SKIP_SCHEMA_CHECK);
         this.compatClass = config.has(COMPAT_CLASS) ? config.get(COMPAT_CLASS) : null;
         this.compat = HBaseCompatLoader.getCompat(compatClass);
+        this.getBatchSize = config.get(GET_BATCH_SIZE);
+        this.scanCaching = config.get(SCAN_CACHING);
+        this.scanCellBudget = config.get(SCAN_CELL_BUDGET);
 
         /*
          * Specifying both region count options is permitted but may be
@@ -352,6 +385,18 @@ public class HBaseStoreManager extends DistributedStoreManager implements KeyCol
         }
     }
 
+    int getGetBatchSize() {
+        return getBatchSize;
+    }
+
+    int getScanCaching() {
+        return scanCaching;
+    }
+
+    int getScanCellBudget() {
+        return scanCellBudget;
+    }
+
     @Override
     public String toString() {
         return "hbase[" + tableName + "@" + super.toString() + "]";
@@ -1,11 +1,17 @@
 package com.thinkaurelius.titan.diskstorage.hbase;
 
+import com.google.common.collect.ImmutableList;
 import com.thinkaurelius.titan.HBaseStorageSetup;
 import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.EntryList;
 import com.thinkaurelius.titan.diskstorage.KeyColumnValueStoreTest;
+import com.thinkaurelius.titan.diskstorage.KeyColumnValueStoreUtil;
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
 import com.thinkaurelius.titan.diskstorage.configuration.BasicConfiguration;
-import com.thinkaurelius.titan.diskstorage.configuration.WriteConfiguration;
+import com.thinkaurelius.titan.diskstorage.configuration.ModifiableConfiguration;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.KeyColumnValueStoreManager;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.KeySliceQuery;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery;
 import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
 
 import org.apache.hadoop.hbase.util.VersionInfo;
@@ -14,6 +20,12 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class HBaseStoreTest extends KeyColumnValueStoreTest {
 
@@ -29,13 +41,96 @@ public class HBaseStoreTest extends KeyColumnValueStoreTest {
             HBaseStorageSetup.killIfRunning();
     }
 
+    /**
+     * Key lists of multi-get tests are larger than this batch size so that they span multiple batches
+     */
+    private static final int GET_BATCH_SIZE = 7;
+
     public KeyColumnValueStoreManager openStorageManager() throws BackendException {
-        WriteConfiguration config = HBaseStorageSetup.getHBaseGraphConfiguration();
-        return new HBaseStoreManager(new BasicConfiguration(GraphDatabaseConfiguration.ROOT_NS,config, BasicConfiguration.Restriction.NONE));
+        ModifiableConfiguration config = HBaseStorageSetup.getHBaseConfiguration();
+        config.set(HBaseStoreManager.GET_BATCH_SIZE, GET_BATCH_SIZE);
+        return new HBaseStoreManager(new BasicConfiguration(GraphDatabaseConfiguration.ROOT_NS,config.getConfiguration(), BasicConfiguration.Restriction.NONE));
     }
 
     @Test
     public void testGetKeysWithKeyRange() throws Exception {
         super.testGetKeysWithKeyRange();
     }
+
+    @Test
+    public void testBatchedMultiGet() throws Exception {
+        int numKeys = GET_BATCH_SIZE * 3 + 2;
+        for (int i = 1; i <= numKeys; i++) {
+            KeyColumnValueStoreUtil.insert(store, tx, i, "a", "v" + i);
+            KeyColumnValueStoreUtil.insert(store, tx, i, "b", "w" + i);
+        }
+        tx.commit();
+        tx = startTx();
+
+        List<StaticBuffer> keys = new ArrayList<StaticBuffer>(numKeys + 1);
+        for (int i = numKeys + 1; i >= 1; i--) keys.add(KeyColumnValueStoreUtil.longToByteBuffer(i));
+        SliceQuery query = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("a"), KeyColumnValueStoreUtil.stringToByteBuffer("c"));
+        Map<StaticBuffer,EntryList> results = store.getSlice(keys, query, tx);
+        assertEquals(keys.size(), results.size());
+        for (int i = 1; i <= numKeys; i++) {
+            EntryList entries = results.get(KeyColumnValueStoreUtil.longToByteBuffer(i));
+            assertEquals(2, entries.size());
+            assertEquals("v" + i, KeyColumnValueStoreUtil.byteBufferToString(entries.get(0).getValue()));
+            assertEquals("w" + i, KeyColumnValueStoreUtil.byteBufferToString(entries.get(1).getValue()));
+        }
+        assertTrue(results.get(KeyColumnValueStoreUtil.longToByteBuffer(numKeys + 1)).isEmpty());
+    }
+
+    @Test
+    public void testMultiRangeSlices() throws Exception {
+        int numKeys = GET_BATCH_SIZE + 3;
+        String[] columns = {"a", "b", "c", "d", "e", "f"};
+        for (int i = 1; i <= numKeys; i++) {
+            for (String column : columns) KeyColumnValueStoreUtil.insert(store, tx, i, column, column + i);
+        }
+        tx.commit();
+        tx = startTx();
+
+        List<StaticBuffer> keys = new ArrayList<StaticBuffer>(numKeys);
+        for (int i = 1; i <= numKeys; i++) keys.add(KeyColumnValueStoreUtil.longToByteBuffer(i));
+        //Disjoint, overlapping, limited and empty ranges
+        SliceQuery ab = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("a"), KeyColumnValueStoreUtil.stringToByteBuffer("c"));
+        SliceQuery bd = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("b"), KeyColumnValueStoreUtil.stringToByteBuffer("e"));
+        SliceQuery ef = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("e"), KeyColumnValueStoreUtil.stringToByteBuffer("g")).setLimit(1);
+        SliceQuery none = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("x"), KeyColumnValueStoreUtil.stringToByteBuffer("z"));
+        SliceQuery reverse = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("a"), KeyColumnValueStoreUtil.stringToByteBuffer("g")).setLimit(2).setReverse();
+
+        //Without limits, all ranges are combined into one filter per key
+        Map<SliceQuery,Map<StaticBuffer,EntryList>> results = store.getMultiSlice(keys, ImmutableList.of(ab, bd, none), tx);
+        assertEquals(3, results.size());
+        for (int i = 1; i <= numKeys; i++) {
+            StaticBuffer key = KeyColumnValueStoreUtil.longToByteBuffer(i);
+            assertColumns(results.get(ab).get(key), "a", "b");
+            assertColumns(results.get(bd).get(key), "b", "c", "d");
+            assertColumns(results.get(none).get(key));
+        }
+
+        //With limits, each range is paginated separately
+        List<SliceQuery> queries = ImmutableList.of(ab, bd, ef, none, reverse);
+        results = store.getMultiSlice(keys, queries, tx);
+        assertEquals(queries.size(), results.size());
+        for (int i = 1; i <= numKeys; i++) {
+            StaticBuffer key = KeyColumnValueStoreUtil.longToByteBuffer(i);
+            assertColumns(results.get(ab).get(key), "a", "b");
+            assertColumns(results.get(bd).get(key), "b", "c", "d");
+            assertColumns(results.get(ef).get(key), "e");
+            assertColumns(results.get(none).get(key));
+            assertColumns(results.get(reverse).get(key), "e", "f");
+            for (SliceQuery query : queries) {
+                assertEquals(store.getSlice(new KeySliceQuery(key, query), tx), results.get(query).get(key));
+            }
+        }
+    }
+
+    private static void assertColumns(EntryList entries, String... columns) {
+        assertEquals(columns.length, entries.size());
+        for (int i = 0; i < columns.length; i++) {
+            assertEquals(columns[i], KeyColumnValueStoreUtil.byteBufferToString(entries.get(i).getColumn()));
+        }
+    }
 }
@@ -882,6 +882,41 @@ public abstract class KeyColumnValueStoreTest extends AbstractKCVSTest {
         Assert.assertEquals(firstEntrySingleton, result);
     }
 
+    @Test
+    public void getReverseSliceRespectsColumnLimit() throws Exception {
+        StaticBuffer key = KeyColumnValueStoreUtil.longToByteBuffer(0);
+
+        final int cols = 256;
+
+        List<Entry> entries = new ArrayList<Entry>();
+        for (int i = 0; i < cols; i++) {
+            StaticBuffer col = KeyColumnValueStoreUtil.longToByteBuffer(i);
+            entries.add(StaticArrayEntry.of(col, col));
+        }
+        store.mutate(key, entries, KeyColumnValueStore.NO_DELETIONS, tx);
+        tx.commit();
+
+        tx = startTx();
+        StaticBuffer columnStart = KeyColumnValueStoreUtil.longToByteBuffer(0);
+        StaticBuffer columnEnd = KeyColumnValueStoreUtil.longToByteBuffer(cols);
+        /*
+         * A reverse slice retains the last columns up to the limit but returns them in ascending order
+         */
+        List<Entry> result = store.getSlice(new KeySliceQuery(key, columnStart, columnEnd).setLimit(10).setReverse(), tx);
+        Assert.assertEquals(entries.subList(cols - 10, cols), result);
+        result = store.getSlice(new KeySliceQuery(key, columnStart, columnEnd).setLimit(cols + 10).setReverse(), tx);
+        Assert.assertEquals(entries, result);
+
+        //The end of the slice remains exclusive
+        StaticBuffer middle = KeyColumnValueStoreUtil.longToByteBuffer(cols / 2);
+        result = store.getSlice(new KeySliceQuery(key, columnStart, middle).setLimit(1).setReverse(), tx);
+        Assert.assertEquals(Arrays.asList(entries.get(cols / 2 - 1)), result);
+
+        Map<StaticBuffer, EntryList> multi = store.getSlice(Arrays.asList(key),
+                new SliceQuery(middle, columnEnd).setLimit(3).setReverse(), tx);
+        Assert.assertEquals(entries.subList(cols - 3, cols), multi.get(key));
+    }
+
     @Test
     public void getSliceRespectsAllBoundsInclusionArguments() throws Exception {
         // Test case where endColumn=startColumn+1
@@ -970,6 +1005,46 @@ public abstract class KeyColumnValueStoreTest extends AbstractKCVSTest {
         }
     }
 
+    @Test
+    public void testGetMultiSlices() throws Exception {
+        populateDBWith100Keys();
+
+        tx.commit();
+        tx = startTx();
+
+        List<StaticBuffer> keys = new ArrayList<StaticBuffer>(101);
+        for (int i = 1; i <= 101; i++) {
+            keys.add(KeyColumnValueStoreUtil.longToByteBuffer(i));
+        }
+
+        SliceQuery first = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("a"), KeyColumnValueStoreUtil.stringToByteBuffer("b"));
+        SliceQuery last = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("c"), KeyColumnValueStoreUtil.stringToByteBuffer("d"));
+        SliceQuery limited = new SliceQuery(KeyColumnValueStoreUtil.stringToByteBuffer("a"), KeyColumnValueStoreUtil.stringToByteBuffer("d")).setLimit(2);
+        List<SliceQuery> queries = ImmutableList.of(first, last, limited);
+
+        Map<SliceQuery,Map<StaticBuffer,EntryList>> results = store.getMultiSlice(keys, queries, tx);
+        Assert.assertEquals(3, results.size());
+        for (SliceQuery query : queries) {
+            Map<StaticBuffer,EntryList> queryResults = results.get(query);
+            Assert.assertNotNull(queryResults);
+            for (int i = 0; i < keys.size(); i++) {
+                EntryList entries = queryResults.get(keys.get(i));
+                if (i == 100) {
+                    //The last key does not exist
+                    Assert.assertTrue(entries == null || entries.isEmpty());
+                    continue;
+                }
+                Assert.assertEquals(query == limited ? 2 : 1, entries.size());
+                Assert.assertEquals(query == last ? "c" : "a", KeyColumnValueStoreUtil.byteBufferToString(entries.get(0).getColumn()));
+                if (query == limited) {
+                    Assert.assertEquals("b", KeyColumnValueStoreUtil.byteBufferToString(entries.get(1).getColumn()));
+                }
+                //Each slice must return the same result as a separate slice query
+                Assert.assertEquals(store.getSlice(new KeySliceQuery(keys.get(i), query), tx), entries);
+            }
+        }
+    }
+
     @Test
     @Category({UnorderedKeyStoreTests.class})
     public void testGetKeysWithSliceQuery() throws Exception {
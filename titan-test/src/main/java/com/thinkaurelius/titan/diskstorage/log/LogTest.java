@@ -239,6 +239,25 @@ public abstract class LogTest {
         assertEquals(3, reader2.totalValue.get());
     }
 
+    @Test
+    public void testBatchReaderSerial() throws Exception {
+        final int numMessages = 500;
+        Log log1 = manager.openLog("batch");
+        CountingReader count = new CountingReader(numMessages, true);
+        BatchCountingReader batches = new BatchCountingReader(numMessages);
+        log1.registerReader(ReadMarker.fromNow(),count,batches);
+        for (long i=1;i<=numMessages;i++) {
+            log1.add(BufferUtil.getLongBuffer(i));
+        }
+        count.await(TIMEOUT_MS);
+        batches.await(TIMEOUT_MS);
+        assertEquals(numMessages, count.totalMsg.get());
+        assertEquals(numMessages, batches.totalMsg.get());
+        assertEquals(numMessages*(numMessages+1)/2, batches.totalValue.get());
+        assertTrue(batches.numBatches.get()>0 && batches.numBatches.get()<=numMessages);
+        log1.close();
+    }
+
     private void simpleSendReceive(int numMessages, int delayMS) throws Exception {
         sendReceive(1, numMessages, delayMS, true);
     }
@@ -344,6 +363,34 @@ public abstract class LogTest {
         }
     }
 
+    private static class BatchCountingReader implements BatchMessageReader {
+
+        private final CountDownLatch latch;
+        private final AtomicLong totalMsg=new AtomicLong(0);
+        private final AtomicLong totalValue=new AtomicLong(0);
+        private final AtomicLong numBatches=new AtomicLong(0);
+
+        private BatchCountingReader(int expectedMessageCount) {
+            latch = new CountDownLatch(expectedMessageCount);
+        }
+
+        @Override
+        public void read(List<Message> messages) {
+            assertFalse(messages.isEmpty());
+            numBatches.incrementAndGet();
+            for (Message message : messages) {
+                totalMsg.incrementAndGet();
+                totalValue.addAndGet(message.getContent().getLong(0));
+                latch.countDown();
+            }
+        }
+
+        public void await(long timeoutMillis) throws InterruptedException {
+            assertTrue("Did not read expected number of messages before timeout was reached",
+                    latch.await(timeoutMillis, TimeUnit.MILLISECONDS));
+        }
+    }
+
     private static class StoringReader extends LatchMessageReader {
 
         private List<StaticBuffer> msgs = new ArrayList<StaticBuffer>(64);
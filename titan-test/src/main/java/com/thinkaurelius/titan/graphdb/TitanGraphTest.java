@@ -29,7 +29,9 @@ import com.thinkaurelius.titan.core.VertexLabel;
 import com.thinkaurelius.titan.core.VertexList;
 import com.thinkaurelius.titan.core.attribute.Cmp;
 import com.thinkaurelius.titan.core.attribute.Contain;
+import com.thinkaurelius.titan.core.attribute.Geo;
 import com.thinkaurelius.titan.core.attribute.Geoshape;
+import com.thinkaurelius.titan.core.attribute.Text;
 import com.thinkaurelius.titan.core.log.Change;
 import com.thinkaurelius.titan.core.log.ChangeProcessor;
 import com.thinkaurelius.titan.core.log.ChangeState;
@@ -46,22 +48,27 @@ import com.thinkaurelius.titan.core.schema.TitanManagement;
 import com.thinkaurelius.titan.core.schema.TitanSchemaType;
 import com.thinkaurelius.titan.core.util.ManagementUtil;
 import com.thinkaurelius.titan.core.util.TitanCleanup;
+import com.thinkaurelius.titan.diskstorage.Backend;
 import com.thinkaurelius.titan.diskstorage.BackendException;
 import com.thinkaurelius.titan.diskstorage.StaticBuffer;
 import com.thinkaurelius.titan.diskstorage.configuration.ConfigElement;
 import com.thinkaurelius.titan.diskstorage.configuration.ConfigOption;
 import com.thinkaurelius.titan.diskstorage.configuration.WriteConfiguration;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.SliceQuery;
+import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanCheckpoint;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanMetrics;
 import com.thinkaurelius.titan.diskstorage.log.Log;
 import com.thinkaurelius.titan.diskstorage.log.Message;
 import com.thinkaurelius.titan.diskstorage.log.MessageReader;
 import com.thinkaurelius.titan.diskstorage.log.ReadMarker;
 import com.thinkaurelius.titan.diskstorage.log.kcvs.KCVSLog;
+import com.thinkaurelius.titan.diskstorage.util.MetricInstrumentedStore;
 import com.thinkaurelius.titan.diskstorage.util.time.TimestampProvider;
 import com.thinkaurelius.titan.example.GraphOfTheGodsFactory;
 import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
 import com.thinkaurelius.titan.graphdb.database.EdgeSerializer;
 import com.thinkaurelius.titan.graphdb.database.StandardTitanGraph;
+import com.thinkaurelius.titan.graphdb.database.bulk.BulkLoader;
 import com.thinkaurelius.titan.graphdb.database.log.LogTxMeta;
 import com.thinkaurelius.titan.graphdb.database.log.LogTxStatus;
 import com.thinkaurelius.titan.graphdb.database.log.TransactionLogHeader;
@@ -69,6 +76,7 @@ import com.thinkaurelius.titan.graphdb.database.management.ManagementSystem;
 import com.thinkaurelius.titan.graphdb.database.serialize.Serializer;
 import com.thinkaurelius.titan.graphdb.internal.ElementCategory;
 import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
+import com.thinkaurelius.titan.graphdb.internal.InternalVertex;
 import com.thinkaurelius.titan.graphdb.internal.Order;
 import com.thinkaurelius.titan.graphdb.internal.OrderList;
 import com.thinkaurelius.titan.graphdb.internal.RelationCategory;
@@ -88,6 +96,7 @@ import com.thinkaurelius.titan.graphdb.serializer.SpecialInt;
 import com.thinkaurelius.titan.graphdb.serializer.SpecialIntSerializer;
 import com.thinkaurelius.titan.graphdb.tinkerpop.optimize.TitanGraphStep;
 import com.thinkaurelius.titan.graphdb.tinkerpop.optimize.TitanPropertiesStep;
+import com.thinkaurelius.titan.graphdb.tinkerpop.optimize.TitanPropertyPrefetchStep;
 import com.thinkaurelius.titan.graphdb.tinkerpop.optimize.TitanVertexStep;
 import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
 import com.thinkaurelius.titan.graphdb.types.StandardEdgeLabelMaker;
@@ -96,6 +105,7 @@ import com.thinkaurelius.titan.graphdb.types.system.BaseVertexLabel;
 import com.thinkaurelius.titan.graphdb.types.system.ImplicitKey;
 import com.thinkaurelius.titan.testcategory.BrittleTests;
 import com.thinkaurelius.titan.testutil.TestGraphConfigs;
+import com.thinkaurelius.titan.util.stats.MetricManager;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
@@ -108,6 +118,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.StartStep;
 import org.apache.tinkerpop.gremlin.process.traversal.util.Metrics;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalMetrics;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
@@ -132,6 +143,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -280,6 +292,198 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         }
     }
 
+    /**
+     * Iterating over all vertices with a parallel, prefetching scan
+     */
+    @Test
+    public void testParallelGlobalIteration() {
+        int numV = 200;
+        for (int i = 0; i < numV; i++) {
+            tx.addVertex("count", i);
+        }
+        clopen(option(SCAN_THREADS), 4, option(SCAN_PREFETCH), true);
+
+        long sum = 0;
+        int numVertices = 0;
+        for (TitanVertex v : tx.query().vertices()) {
+            sum += v.<Integer>value("count");
+            numVertices++;
+        }
+        assertEquals(numV, numVertices);
+        assertEquals(numV * (numV - 1) / 2, sum);
+        assertCount(numV / 2, tx.query().has("count", Cmp.GREATER_THAN_EQUAL, numV / 2).vertices());
+
+        for (TitanVertex v : tx.query().limit(10).vertices()) {
+            v.remove();
+        }
+        assertCount(numV - 10, tx.query().vertices());
+    }
+
+    /**
+     * The threads of a parallel vertex scan stop once the iteration is exhausted or, if it is abandoned, once the
+     * transaction is closed
+     */
+    @Test
+    public void testParallelGlobalIterationStopsScans() throws Exception {
+        if (!features.hasOrderedScan()) return; //Vertex scans are only parallelized over ordered key ranges
+        int numV = 10000;
+        for (int i = 0; i < numV; i++) {
+            tx.addVertex("count", i);
+        }
+        clopen(option(SCAN_THREADS), 4);
+
+        //Abandon the iteration while the scan threads are blocked on the full queue
+        Iterator<TitanVertex> iter = tx.query().vertices().iterator();
+        for (int i = 0; i < 10; i++) iter.next();
+        Thread.sleep(200);
+        assertTrue(countActiveVertexScans() > 0);
+        tx.commit();
+        assertEquals(0, awaitActiveVertexScans(0));
+
+        newTx();
+        assertCount(numV, tx.query().vertices());
+        assertEquals(0, awaitActiveVertexScans(0));
+    }
+
+    private static int countActiveVertexScans() {
+        int active = 0;
+        for (Map.Entry<Thread, StackTraceElement[]> thread : Thread.getAllStackTraces().entrySet()) {
+            if (!thread.getKey().getName().startsWith("TitanVertexScan")) continue;
+            for (StackTraceElement element : thread.getValue()) {
+                if (element.getClassName().endsWith("RangeScan")) {
+                    active++;
+                    break;
+                }
+            }
+        }
+        return active;
+    }
+
+    private static int awaitActiveVertexScans(int expected) throws InterruptedException {
+        int active = countActiveVertexScans();
+        for (int i = 0; i < 50 && active != expected; i++) {
+            Thread.sleep(100);
+            active = countActiveVertexScans();
+        }
+        return active;
+    }
+
+    /**
+     * Loading vertices and edges with a {@link BulkLoader} and spilling external ids to disk
+     */
+    @Test
+    public void testBulkLoader() {
+        makeVertexIndexedUniqueKey("name", String.class);
+        makeKey("weight", Double.class);
+        makeLabel("knows");
+        mgmt.makeVertexLabel("person").make();
+        finishSchema();
+        clopen(option(BulkLoader.BULK_BATCH_SIZE), 50, option(BulkLoader.BULK_ID_CACHE_SIZE), 40,
+                option(BulkLoader.BULK_FLUSH_THREADS), 2);
+
+        int numV = 600;
+        long vertexId;
+        try (BulkLoader loader = graph.openBulkLoader()) {
+            for (int i = 0; i < numV; i++) {
+                loader.addVertex("v" + i, "person", "name", "vertex" + i);
+            }
+            //The id of v0 has long been spilled to disk and merged with later runs
+            try {
+                loader.addVertex("v0", "person", "name", "duplicate");
+                fail();
+            } catch (IllegalArgumentException e) {
+            }
+            for (int i = 0; i < numV; i++) {
+                loader.addEdge("v" + i, "knows", "v" + ((i + 1) % numV), "weight", 0.5);
+            }
+            try {
+                loader.addEdge("v0", "knows", "unknown");
+                fail();
+            } catch (IllegalArgumentException e) {
+            }
+            assertEquals(numV, loader.getNumVertices());
+            assertEquals(numV, loader.getNumEdges());
+            vertexId = loader.getVertexId("v0");
+        }
+        newTx();
+
+        TitanVertex v0 = getV(tx, vertexId);
+        assertNotNull(v0);
+        assertEquals("person", v0.label());
+        assertEquals("vertex0", v0.value("name"));
+        assertCount(numV, tx.query().vertices());
+        for (int i = 0; i < numV; i++) {
+            TitanVertex v = getOnlyVertex(tx.query().has("name", "vertex" + i));
+            TitanEdge e = getOnlyEdge(v.query().direction(OUT).labels("knows"));
+            assertEquals("vertex" + ((i + 1) % numV), e.vertex(IN).value("name"));
+            assertEquals(0.5, e.<Double>value("weight"), 0.0);
+            assertCount(1, v.query().direction(IN).labels("knows").edges());
+        }
+    }
+
+    /**
+     * Large transactions whose relations and index updates are serialized in parallel must produce the same graph as the
+     * sequential commit
+     */
+    @Test
+    public void testParallelCommit() {
+        makeVertexIndexedUniqueKey("name", String.class);
+        PropertyKey time = makeKey("time", Integer.class);
+        PropertyKey weight = makeKey("weight", Double.class);
+        makeKey("note", String.class);
+        EdgeLabel knows = ((StandardEdgeLabelMaker) mgmt.makeEdgeLabel("knows")).sortKey(time).signature(weight).make();
+        mgmt.buildEdgeIndex(knows, "byWeight", Direction.BOTH, decr, weight);
+        mgmt.buildIndex("edgesByTime", Edge.class).addKey(time).buildCompositeIndex();
+        finishSchema();
+
+        int numV = 100;
+        clopen(option(COMMIT_THREADS), 4, option(PARALLEL_COMMIT_THRESHOLD), 10);
+        List<String> parallel = commitAndDescribeParallelCommitGraph("p", numV, 0);
+        clopen(option(COMMIT_THREADS), 1);
+        List<String> sequential = commitAndDescribeParallelCommitGraph("s", numV, numV);
+        assertEquals(numV, parallel.size());
+        assertEquals(sequential, parallel);
+    }
+
+    private List<String> commitAndDescribeParallelCommitGraph(String prefix, int numV, int timeOffset) {
+        int[] offsets = {1, 7, 31};
+        newTx();
+        TitanVertex[] vertices = new TitanVertex[numV];
+        for (int i = 0; i < numV; i++) vertices[i] = tx.addVertex("name", prefix + i);
+        for (int i = 0; i < numV; i++) {
+            for (int k : offsets) {
+                vertices[i].addEdge("knows", vertices[(i + k) % numV], "time", timeOffset + i, "weight", k * 0.5, "note", i + "-" + k);
+            }
+        }
+        newTx();
+        //Remove one edge per vertex in a single large transaction
+        for (int i = 0; i < numV; i++) {
+            TitanVertex v = getOnlyVertex(tx.query().has("name", prefix + i));
+            getOnlyEdge(v.query().direction(OUT).labels("knows").has("weight", 3.5)).remove();
+        }
+        newTx();
+
+        List<String> description = new ArrayList<>(numV);
+        for (int i = 0; i < numV; i++) {
+            TitanVertex v = getOnlyVertex(tx.query().has("name", prefix + i));
+            StringBuilder b = new StringBuilder();
+            for (TitanEdge e : v.query().direction(OUT).labels("knows").edges()) {
+                b.append(e.vertex(IN).<String>value("name").substring(prefix.length())).append(':')
+                        .append(e.<Integer>value("time") - timeOffset).append(':')
+                        .append(e.<Double>value("weight")).append(':').append(e.<String>value("note")).append(' ');
+            }
+            b.append('|');
+            for (TitanEdge e : v.query().direction(BOTH).labels("knows").orderBy("weight", decr).edges()) {
+                b.append(e.<Double>value("weight")).append(' ');
+            }
+            Set<String> indexed = new TreeSet<>();
+            for (TitanEdge e : tx.query().has("time", timeOffset + i).edges()) indexed.add(e.<String>value("note"));
+            b.append('|').append(indexed);
+            description.add(b.toString());
+        }
+        return description;
+    }
+
     @Test
     public void testMediumCreateRetrieve() {
         //Create schema
@@ -1324,7 +1528,8 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
     public void testIndexUpdatesWithReindexAndRemove() throws InterruptedException, ExecutionException {
         clopen(option(LOG_SEND_DELAY, MANAGEMENT_LOG), Duration.ofMillis(0),
                 option(KCVSLog.LOG_READ_LAG_TIME, MANAGEMENT_LOG), Duration.ofMillis(50),
-                option(LOG_READ_INTERVAL, MANAGEMENT_LOG), Duration.ofMillis(250)
+                option(LOG_READ_INTERVAL, MANAGEMENT_LOG), Duration.ofMillis(250),
+                option(INDEX_JOB_RANGES), 16
         );
         //Types without index
         PropertyKey time = mgmt.makePropertyKey("time").dataType(Integer.class).make();
@@ -1432,6 +1637,10 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
 
         assertNotEquals(0, reindexSensorByTime.getCustom(IndexRepairJob.ADDED_RECORDS_COUNT));
         assertNotEquals(0, reindexBySensorReading.getCustom(IndexRepairJob.ADDED_RECORDS_COUNT));
+        //All key ranges were completed and their checkpoints have been cleared
+        assertEquals(reindexSensorByTime.getNumRanges(), reindexSensorByTime.getCompletedRanges());
+        assertEquals(reindexBySensorReading.getNumRanges(), reindexBySensorReading.getCompletedRanges());
+        assertFalse(graph.getBackend().getGlobalSystemConfig().getKeys(ScanCheckpoint.CHECKPOINT_PREFIX).iterator().hasNext());
 
         //Every index should now be enabled
         pindex = mgmt.getRelationIndex(mgmt.getRelationType("sensor"), "byTime");
@@ -2978,9 +3187,9 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         evaluateQuery(v.query().keys("name").has("weight", Cmp.LESS_THAN, 0.9).orderBy("weight", incr),
                 PROPERTY, 2 * numV / 10, 1, new boolean[]{true, true}, weight, Order.ASC);
         evaluateQuery(v.query().keys("name").interval("weight", 1.1, 2.2).orderBy("weight", decr).limit(numV / 10),
-                PROPERTY, numV / 10, 1, new boolean[]{true, false}, weight, Order.DESC);
+                PROPERTY, numV / 10, 1, new boolean[]{true, true}, weight, Order.DESC);
         evaluateQuery(v.query().keys("name").has("time", Cmp.EQUAL, 5).orderBy("weight", decr),
-                PROPERTY, 1, 1, new boolean[]{false, false}, weight, Order.DESC);
+                PROPERTY, 1, 1, new boolean[]{false, true}, weight, Order.DESC);
         evaluateQuery(v.query().keys("name"),
                 PROPERTY, numV, 1, new boolean[]{true, true});
 
@@ -3031,7 +3240,7 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         evaluateQuery(v.query().labels("connect").direction(OUT).has("time", Cmp.EQUAL, 22).orderBy("weight", decr),
                 EDGE, 1, 1, new boolean[]{true, true}, weight, Order.DESC);
         evaluateQuery(v.query().labels("connect").direction(OUT).has("time", Cmp.EQUAL, 22).orderBy("weight", incr),
-                EDGE, 1, 1, new boolean[]{true, false}, weight, Order.ASC);
+                EDGE, 1, 1, new boolean[]{true, true}, weight, Order.ASC);
         evaluateQuery(v.query().labels("connect").direction(OUT).adjacent(u),
                 EDGE, 1, 1, new boolean[]{true, true});
         evaluateQuery(v.query().labels("connect").direction(OUT).has("weight", Cmp.EQUAL, 0.0).adjacent(u),
@@ -3062,9 +3271,9 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         evaluateQuery(v.query().keys("name").has("weight", Cmp.LESS_THAN, 0.9).orderBy("weight", incr),
                 PROPERTY, 2 * numV / 10, 1, new boolean[]{true, true}, weight, Order.ASC);
         evaluateQuery(v.query().keys("name").interval("weight", 1.1, 2.2).orderBy("weight", decr).limit(numV / 10),
-                PROPERTY, numV / 10, 1, new boolean[]{true, false}, weight, Order.DESC);
+                PROPERTY, numV / 10, 1, new boolean[]{true, true}, weight, Order.DESC);
         evaluateQuery(v.query().keys("name").has("time", Cmp.EQUAL, 5).orderBy("weight", decr),
-                PROPERTY, 1, 1, new boolean[]{false, false}, weight, Order.DESC);
+                PROPERTY, 1, 1, new boolean[]{false, true}, weight, Order.DESC);
         evaluateQuery(v.query().keys("name"),
                 PROPERTY, numV, 1, new boolean[]{true, true});
 
@@ -3115,7 +3324,7 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         evaluateQuery(v.query().labels("connect").direction(OUT).has("time", Cmp.EQUAL, 22).orderBy("weight", decr),
                 EDGE, 1, 1, new boolean[]{true, true}, weight, Order.DESC);
         evaluateQuery(v.query().labels("connect").direction(OUT).has("time", Cmp.EQUAL, 22).orderBy("weight", incr),
-                EDGE, 1, 1, new boolean[]{true, false}, weight, Order.ASC);
+                EDGE, 1, 1, new boolean[]{true, true}, weight, Order.ASC);
         evaluateQuery(v.query().labels("connect").direction(OUT).adjacent(u),
                 EDGE, 1, 1, new boolean[]{true, true});
         evaluateQuery(v.query().labels("connect").direction(OUT).has("weight", Cmp.EQUAL, 0.0).adjacent(u),
@@ -3158,7 +3367,7 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         evaluateQuery(v.query().keys("name").interval("time", numV / 2 - 10, numV / 2 + 10),
                 PROPERTY, 10, 1, new boolean[]{false, true});
         evaluateQuery(v.query().keys("name").interval("time", numV / 2 - 10, numV / 2 + 10).orderBy("weight", decr),
-                PROPERTY, 10, 1, new boolean[]{false, false}, weight, Order.DESC);
+                PROPERTY, 10, 1, new boolean[]{false, true}, weight, Order.DESC);
         evaluateQuery(v.query().keys("name").interval("time", numV, numV + 10).limit(5),
                 PROPERTY, 5, 1, new boolean[]{false, true});
 
@@ -3194,7 +3403,7 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         evaluateQuery(v.query().keys("name").interval("time", numV / 2 - 10, numV / 2 + 10),
                 PROPERTY, 10, 1, new boolean[]{false, true});
         evaluateQuery(v.query().keys("name").interval("time", numV / 2 - 10, numV / 2 + 10).orderBy("weight", decr),
-                PROPERTY, 10, 1, new boolean[]{false, false}, weight, Order.DESC);
+                PROPERTY, 10, 1, new boolean[]{false, true}, weight, Order.DESC);
         evaluateQuery(v.query().keys("name").interval("time", numV, numV + 10).limit(5),
                 PROPERTY, 5, 1, new boolean[]{false, true});
 
@@ -3516,6 +3725,129 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
     }
 
 
+    @Test
+    public void testMultiQueryRepeatTraversal() {
+        int fanOut = 7;
+        mgmt.makeEdgeLabel("knows").make();
+        mgmt.makePropertyKey("name").dataType(String.class).make();
+        finishSchema();
+
+        TitanVertex root = tx.addVertex("name", "root");
+        List<TitanVertex> level = ImmutableList.of(root);
+        for (int depth = 1; depth <= 3; depth++) {
+            List<TitanVertex> next = new ArrayList<>();
+            for (TitanVertex v : level) {
+                for (int i = 0; i < fanOut; i++) {
+                    TitanVertex u = tx.addVertex("name", "v" + depth + "-" + next.size());
+                    v.addEdge("knows", u);
+                    next.add(u);
+                }
+            }
+            level = next;
+        }
+        long rootId = getId(root);
+        newTx();
+
+        //A batch size smaller than the fan out ensures that hops are split into multiple batches
+        int batchSize = 3;
+        int batchesPerHop1 = (fanOut + batchSize - 1) / batchSize;
+        int batchesPerHop2 = (fanOut * fanOut + batchSize - 1) / batchSize;
+        for (boolean batch : new boolean[]{false, true}) {
+            String metricsPrefix = "testMultiQueryRepeatTraversal" + batch;
+            clopen(option(USE_MULTIQUERY), batch, option(MULTIQUERY_BATCH_SIZE), batchSize, option(DB_CACHE), false,
+                    option(BASIC_METRICS), true, option(METRICS_MERGE_STORES), false, option(METRICS_PREFIX), metricsPrefix);
+            GraphTraversalSource gts = graph.traversal();
+
+            assertCount(fanOut * fanOut, gts.V(rootId).repeat(__.out("knows")).times(2));
+            assertCount(fanOut * fanOut * fanOut, gts.V(rootId).repeat(__.out("knows")).times(3).values("name"));
+            assertCount(fanOut + fanOut * fanOut + fanOut * fanOut * fanOut, gts.V(rootId).repeat(__.out("knows")).emit());
+            assertCount(fanOut * fanOut, gts.V(rootId).repeat(__.out("knows").has("name")).until(t -> t.loops() == 2));
+            assertCount(fanOut * fanOut * fanOut, gts.V(rootId).repeat(__.out("knows").out("knows")).times(1).out("knows"));
+            assertCount(fanOut * fanOut * fanOut, gts.V(rootId).out("knows").repeat(__.in("knows")).times(1).out("knows").out("knows"));
+            graph.tx().rollback();
+
+            //Stores without multi query support are called once per vertex either way
+            if (batch && !features.hasMultiQuery()) continue;
+            //Verifying the existence of the root vertex and retrieving its adjacency
+            long oneHop = countEdgeStoreCalls(metricsPrefix, fanOut, gts.V(rootId).out("knows"));
+            long twoHops = countEdgeStoreCalls(metricsPrefix, fanOut * fanOut, gts.V(rootId).out("knows").out("knows"));
+            long repeated = countEdgeStoreCalls(metricsPrefix, fanOut * fanOut * fanOut, gts.V(rootId).repeat(__.out("knows")).times(3));
+            if (batch) {
+                //The second hop is retrieved in batches of at most batchSize vertices
+                assertEquals(batchesPerHop1, twoHops - oneHop);
+                //Prefetching the next hop inside the repeat body makes each hop cost one call per batch
+                assertTrue(repeated + " calls", repeated <= oneHop + batchesPerHop1 + batchesPerHop2);
+            } else {
+                assertEquals(fanOut, twoHops - oneHop);
+                assertTrue(repeated + " calls", repeated >= 1 + fanOut + fanOut * fanOut);
+            }
+        }
+    }
+
+    /**
+     * Executes the given traversal and returns the number of calls it made to the edge store. The traversal's
+     * transaction is rolled back afterwards so that subsequent traversals do not benefit from its caches.
+     */
+    private long countEdgeStoreCalls(String metricsPrefix, long expectedCount, Traversal<?, ?> traversal) {
+        long before = getEdgeStoreCalls(metricsPrefix);
+        assertCount(expectedCount, traversal);
+        graph.tx().rollback();
+        return getEdgeStoreCalls(metricsPrefix) - before;
+    }
+
+    private static long getEdgeStoreCalls(String metricsPrefix) {
+        return MetricManager.INSTANCE.getCounter(metricsPrefix, Backend.EDGESTORE_NAME,
+                MetricInstrumentedStore.M_GET_SLICE, MetricInstrumentedStore.M_CALLS).getCount();
+    }
+
+    @Test
+    public void testMultiQueryPropertyPrefetch() {
+        int numV = 10;
+        mgmt.makeEdgeLabel("knows").make();
+        mgmt.makePropertyKey("name").dataType(String.class).make();
+        mgmt.makePropertyKey("age").dataType(Integer.class).make();
+        finishSchema();
+
+        TitanVertex root = tx.addVertex("name", "root");
+        for (int i = 0; i < numV; i++) {
+            root.addEdge("knows", tx.addVertex("name", "v" + i, "age", i));
+        }
+        long rootId = getId(root);
+        newTx();
+
+        int batchSize = 3;
+        for (boolean batch : new boolean[]{false, true}) {
+            String metricsPrefix = "testMultiQueryPropertyPrefetch" + batch;
+            clopen(option(USE_MULTIQUERY), batch, option(MULTIQUERY_BATCH_SIZE), batchSize, option(DB_CACHE), false,
+                    option(PROPERTY_PREFETCHING), false, option(BASIC_METRICS), true, option(METRICS_MERGE_STORES), false,
+                    option(METRICS_PREFIX), metricsPrefix);
+            GraphTraversalSource gts = graph.traversal();
+
+            GraphTraversal t = gts.V(rootId).out("knows").has("age", P.gte(numV / 2)).values("name");
+            assertCount(numV / 2, t);
+            assertEquals(batch, !TraversalHelper.getStepsOfClass(TitanPropertyPrefetchStep.class, t.asAdmin()).isEmpty());
+            assertCount(numV, gts.V(rootId).out("knows").valueMap("name", "age"));
+            assertCount(2 * numV, gts.V(rootId).out("knows").has("age", P.gte(0)).has("name").values());
+            //Values alone are batched by the properties step
+            t = gts.V(rootId).out("knows").values("name");
+            assertCount(numV, t);
+            assertTrue(TraversalHelper.getStepsOfClass(TitanPropertyPrefetchStep.class, t.asAdmin()).isEmpty());
+            graph.tx().rollback();
+
+            //Stores without multi query support are called once per vertex either way
+            if (batch && !features.hasMultiQuery()) continue;
+            long adjacency = countEdgeStoreCalls(metricsPrefix, numV, gts.V(rootId).out("knows"));
+            long filtered = countEdgeStoreCalls(metricsPrefix, numV / 2, gts.V(rootId).out("knows").has("age", P.gte(numV / 2)).values("name"));
+            if (batch) {
+                //Both properties are retrieved together for each batch of adjacent vertices
+                assertEquals((numV + batchSize - 1) / batchSize, filtered - adjacency);
+            } else {
+                //The filtered property alone is retrieved separately for each adjacent vertex
+                assertTrue(filtered - adjacency >= numV);
+            }
+        }
+    }
+
     @Test
     public void testSimpleTinkerPopTraversal() {
         Vertex v1 = graph.addVertex("name", "josh");
@@ -4282,6 +4614,235 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
 
     }
 
+    @Test
+    public void testGeohashCompositeIndex() {
+        PropertyKey location = makeKey("location", Geoshape.class);
+        mgmt.buildIndex("locationIndex", Vertex.class).addKey(location, Mapping.GEOHASH.asParameter(), Mapping.geohashPrecision(5)).buildCompositeIndex();
+        finishSchema();
+
+        int numV = 100;
+        TitanVertex[] vs = new TitanVertex[numV];
+        for (int i = 0; i < numV; i++) {
+            vs[i] = tx.addVertex("location", Geoshape.point(i * 0.1, i * 0.1));
+        }
+        tx.addVertex("location", Geoshape.box(2.0, 2.0, 3.0, 3.0));
+        clopen();
+
+        for (int i = 0; i < 2; i++) {
+            evaluateQuery(tx.query().has("location", Geo.WITHIN, Geoshape.box(0.95, 0.95, 2.05, 2.05)),
+                    ElementCategory.VERTEX, 11, new boolean[]{false, true}, "locationIndex");
+            evaluateQuery(tx.query().has("location", Geo.INTERSECT, Geoshape.box(0.95, 0.95, 2.05, 2.05)),
+                    ElementCategory.VERTEX, 12, new boolean[]{false, true}, "locationIndex");
+            evaluateQuery(tx.query().has("location", Geo.WITHIN, Geoshape.circle(5.0, 5.0, 50)),
+                    ElementCategory.VERTEX, 7, new boolean[]{false, true}, "locationIndex");
+            evaluateQuery(tx.query().has("location", Geo.INTERSECT, Geoshape.point(2.45, 2.55)),
+                    ElementCategory.VERTEX, 1, new boolean[]{false, true}, "locationIndex");
+            evaluateQuery(tx.query().has("location", Geo.WITHIN, Geoshape.box(-50.0, -50.0, -40.0, -40.0)),
+                    ElementCategory.VERTEX, 0, new boolean[]{false, true}, "locationIndex");
+            //Query regions that require too many cells are not answered by the index
+            evaluateQuery(tx.query().has("location", Geo.WITHIN, Geoshape.box(-80.0, -170.0, 80.0, 170.0)),
+                    ElementCategory.VERTEX, numV + 1, new boolean[]{false, true});
+            clopen();
+        }
+
+        //Updating and removing locations updates the index
+        for (int i = 10; i < 15; i++) getV(tx, vs[i]).property("location").remove();
+        getV(tx, vs[50]).property(VertexProperty.Cardinality.single, "location", Geoshape.point(1.5, 1.5));
+        clopen();
+        evaluateQuery(tx.query().has("location", Geo.WITHIN, Geoshape.box(0.95, 0.95, 2.05, 2.05)),
+                ElementCategory.VERTEX, 7, new boolean[]{false, true}, "locationIndex");
+        evaluateQuery(tx.query().has("location", Geo.WITHIN, Geoshape.circle(5.0, 5.0, 50)),
+                ElementCategory.VERTEX, 6, new boolean[]{false, true}, "locationIndex");
+
+        //Composite indexes only support the geohash mapping on geo keys
+        PropertyKey name = mgmt.makePropertyKey("placename").dataType(String.class).make();
+        try {
+            mgmt.buildIndex("nameIndex", Vertex.class).addKey(name, Mapping.GEOHASH.asParameter()).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            mgmt.buildIndex("nameIndex", Vertex.class).addKey(name, Mapping.STRING.asParameter()).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        mgmt.rollback();
+    }
+
+    @Test
+    public void testOrderedCompositeIndex() {
+        PropertyKey time = makeKey("etime", Long.class);
+        PropertyKey category = makeKey("ecategory", String.class);
+        PropertyKey name = makeKey("ename", String.class);
+        mgmt.buildIndex("eventsByTime", Vertex.class).addKey(category).addKey(time, Mapping.ORDERED.asParameter(), Mapping.orderBuckets(4)).buildCompositeIndex();
+        mgmt.buildIndex("eventsByName", Vertex.class).addKey(name, Mapping.ORDERED.asParameter()).buildCompositeIndex();
+        finishSchema();
+
+        int numV = 100;
+        TitanVertex[] vs = new TitanVertex[numV];
+        for (int i = 0; i < numV; i++) {
+            vs[i] = tx.addVertex("etime", (long) i, "ecategory", "c" + (i % 2), "ename", String.format("e%03d", i));
+        }
+        clopen();
+
+        for (int i = 0; i < 2; i++) {
+            evaluateQuery(tx.query().has("ecategory", "c0").has("etime", Cmp.GREATER_THAN_EQUAL, 10).has("etime", Cmp.LESS_THAN, 20),
+                    ElementCategory.VERTEX, 5, new boolean[]{true, true}, "eventsByTime");
+            evaluateQuery(tx.query().has("ecategory", "c1").interval("etime", 50, 60),
+                    ElementCategory.VERTEX, 5, new boolean[]{true, true}, "eventsByTime");
+            evaluateQuery(tx.query().has("ecategory", "c0").has("etime", Cmp.GREATER_THAN, 90),
+                    ElementCategory.VERTEX, 4, new boolean[]{true, true}, "eventsByTime");
+            evaluateQuery(tx.query().has("ecategory", "c0").has("etime", Cmp.GREATER_THAN, 90).has("etime", Cmp.LESS_THAN, 50),
+                    ElementCategory.VERTEX, 0, new boolean[]{true, true}, "eventsByTime");
+            evaluateQuery(tx.query().has("ecategory", "c1"),
+                    ElementCategory.VERTEX, 50, new boolean[]{true, true}, "eventsByTime");
+            //Results are returned in order of the ordered key
+            evaluateQuery(tx.query().has("ecategory", "c0").has("etime", Cmp.GREATER_THAN, 50).orderBy("etime", incr).limit(3),
+                    ElementCategory.VERTEX, 3, new boolean[]{true, true}, tx.getPropertyKey("etime"), Order.ASC, "eventsByTime");
+            evaluateQuery(tx.query().has("ecategory", "c1").orderBy("etime", incr),
+                    ElementCategory.VERTEX, 50, new boolean[]{true, true}, tx.getPropertyKey("etime"), Order.ASC, "eventsByTime");
+            //Prefix, range and equality conditions on ordered string keys
+            evaluateQuery(tx.query().has("ename", Text.PREFIX, "e01"),
+                    ElementCategory.VERTEX, 10, new boolean[]{true, true}, "eventsByName");
+            evaluateQuery(tx.query().has("ename", Cmp.GREATER_THAN, "e094"),
+                    ElementCategory.VERTEX, 5, new boolean[]{true, true}, "eventsByName");
+            evaluateQuery(tx.query().has("ename", "e042"),
+                    ElementCategory.VERTEX, 1, new boolean[]{true, true}, "eventsByName");
+            clopen();
+        }
+
+        //Updating values moves the index entries
+        for (int i = 10; i < 15; i++) getV(tx, vs[i]).property(VertexProperty.Cardinality.single, "etime", (long) (1000 + i));
+        getV(tx, vs[16]).remove();
+        clopen();
+        evaluateQuery(tx.query().has("ecategory", "c0").has("etime", Cmp.GREATER_THAN_EQUAL, 10).has("etime", Cmp.LESS_THAN, 20),
+                ElementCategory.VERTEX, 1, new boolean[]{true, true}, "eventsByTime");
+        evaluateQuery(tx.query().has("ecategory", "c0").has("etime", Cmp.GREATER_THAN, 999),
+                ElementCategory.VERTEX, 3, new boolean[]{true, true}, "eventsByTime");
+
+        //Only one key with an order preserving data type can be ordered
+        PropertyKey location = makeKey("elocation", Geoshape.class);
+        try {
+            mgmt.buildIndex("locationIndex", Vertex.class).addKey(location, Mapping.ORDERED.asParameter()).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            mgmt.buildIndex("twoOrdered", Vertex.class).addKey(mgmt.getPropertyKey("etime"), Mapping.ORDERED.asParameter())
+                    .addKey(mgmt.getPropertyKey("ename"), Mapping.ORDERED.asParameter()).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        mgmt.rollback();
+    }
+
+    @Test
+    public void testCoveringCompositeIndex() {
+        PropertyKey email = makeKey("email", String.class);
+        PropertyKey userId = makeKey("userId", Long.class);
+        PropertyKey nick = makeKey("nick", String.class);
+        mgmt.buildIndex("byEmail", Vertex.class).addKey(email).addCoveredKey(userId).addCoveredKey(nick).unique().buildCompositeIndex();
+        finishSchema();
+
+        int numV = 20;
+        TitanVertex[] vs = new TitanVertex[numV];
+        for (int i = 0; i < numV; i++) {
+            vs[i] = tx.addVertex("email", "u" + i + "@example.com", "userId", (long) i);
+            if (i % 2 == 0) vs[i].property("nick", "n" + i);
+        }
+        clopen();
+
+        //Index lookups load the covered properties so that they are retrieved without reading the vertex
+        SliceQuery userIdSlice = graph.getEdgeSerializer().getQuery((InternalRelationType) tx.getPropertyKey("userId"),
+                OUT, new EdgeSerializer.TypedInterval[0]);
+        TitanVertex v = (TitanVertex) Iterables.getOnlyElement(tx.query().has("email", "u3@example.com").vertices());
+        assertTrue(((InternalVertex) v).hasLoadedRelations(userIdSlice));
+        assertEquals(3L, v.<Long>value("userId").longValue());
+        for (int i = 0; i < numV; i++) {
+            assertEquals((long) i, tx.traversal().V().has("email", "u" + i + "@example.com").values("userId").next());
+            assertCount(i % 2 == 0 ? 1 : 0, tx.traversal().V().has("email", "u" + i + "@example.com").values("nick"));
+        }
+        clopen();
+
+        //Changes to covered keys rewrite the index entries
+        getV(tx, vs[5]).property(VertexProperty.Cardinality.single, "userId", 500L);
+        getV(tx, vs[4]).property("nick").remove();
+        getV(tx, vs[3]).property("nick", "n3");
+        getV(tx, vs[6]).property(VertexProperty.Cardinality.single, "email", "new6@example.com");
+        getV(tx, vs[7]).remove();
+        clopen();
+        assertEquals(500L, tx.traversal().V().has("email", "u5@example.com").values("userId").next());
+        assertCount(0, tx.traversal().V().has("email", "u4@example.com").values("nick"));
+        assertEquals("n3", tx.traversal().V().has("email", "u3@example.com").values("nick").next());
+        assertCount(0, tx.traversal().V().has("email", "u6@example.com"));
+        assertEquals(6L, tx.traversal().V().has("email", "new6@example.com").values("userId").next());
+        assertCount(0, tx.traversal().V().has("email", "u7@example.com"));
+        //...and uncommitted changes take precedence
+        getV(tx, vs[8]).property(VertexProperty.Cardinality.single, "userId", 800L);
+        assertEquals(800L, tx.traversal().V().has("email", "u8@example.com").values("userId").next());
+        tx.rollback();
+        newTx();
+        assertEquals(8L, tx.traversal().V().has("email", "u8@example.com").values("userId").next());
+
+        //Concurrent changes to different covered keys rewrite the same index entry and hence conflict
+        final long vid = getId(vs[9]);
+        executeLockConflictingTransactionJobs(graph, new TransactionJob() {
+            private int pos = 0;
+
+            @Override
+            public void run(TitanTransaction tx) {
+                TitanVertex u = getV(tx, vid);
+                //Both transactions read the covered values before either commits
+                assertEquals(9L, u.<Long>value("userId").longValue());
+                assertFalse(u.values("nick").hasNext());
+                if (pos++ == 0) u.property(VertexProperty.Cardinality.single, "userId", 900L);
+                else u.property(VertexProperty.Cardinality.single, "nick", "n9");
+            }
+        });
+        //The index entry must reflect the committed transaction rather than mix the values of both
+        newTx();
+        TitanVertex v9 = getV(tx, vid);
+        Object userId9 = v9.value("userId");
+        List<Object> nick9 = Lists.newArrayList(v9.values("nick"));
+        newTx();
+        assertEquals(userId9, tx.traversal().V().has("email", "u9@example.com").values("userId").next());
+        assertEquals(nick9, tx.traversal().V().has("email", "u9@example.com").values("nick").toList());
+        newTx();
+
+        //Covering indexes are locked
+        assertEquals(ConsistencyModifier.LOCK, mgmt.getConsistency(mgmt.getGraphIndex("byEmail")));
+        try {
+            mgmt.setConsistency(mgmt.getGraphIndex("byEmail"), ConsistencyModifier.DEFAULT);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        //Covered keys must have single cardinality, cannot be indexed and are only supported by vertex indexes
+        PropertyKey tags = mgmt.makePropertyKey("tags").dataType(String.class).cardinality(Cardinality.SET).make();
+        try {
+            mgmt.buildIndex("byEmailTags", Vertex.class).addKey(mgmt.getPropertyKey("email")).addCoveredKey(tags).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            mgmt.buildIndex("byEmailTwice", Vertex.class).addKey(mgmt.getPropertyKey("email")).addCoveredKey(mgmt.getPropertyKey("email")).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            mgmt.buildIndex("edgeByEmail", Edge.class).addKey(mgmt.getPropertyKey("email")).addCoveredKey(mgmt.getPropertyKey("userId")).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        //...and the indexed keys must have single cardinality so that the index can be locked
+        try {
+            mgmt.buildIndex("byTags", Vertex.class).addKey(tags).addCoveredKey(mgmt.getPropertyKey("userId")).buildCompositeIndex();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        mgmt.rollback();
+    }
+
     public static void evaluateQuery(TitanGraphQuery query, ElementCategory resultType,
                                      int expectedResults, boolean[] subQuerySpecs,
                                      PropertyKey orderKey1, Order order1,
@@ -4370,6 +4931,47 @@ public abstract class TitanGraphTest extends TitanGraphBaseTest {
         assertEquals(Sets.newHashSet(intersectingIndexes), indexNames);
     }
 
+    /**
+     * Backend reads are accounted for each backend query and slow queries are reported
+     */
+    @Test
+    public void testQueryAccounting() {
+        PropertyKey name = makeKey("name", String.class);
+        mgmt.buildIndex("byName", Vertex.class).addKey(name).buildCompositeIndex();
+        finishSchema();
+        int numV = 20;
+        for (int i = 0; i < numV; i++) {
+            tx.addVertex("name", "v" + (i % 2));
+        }
+        clopen(option(SLOW_QUERY_ENTRIES), (long) numV / 2);
+        assertTrue(graph.getSlowQueryLog().isEnabled());
+
+        SimpleQueryProfiler profiler = new SimpleQueryProfiler();
+        assertCount(numV / 2, ((GraphCentricQueryBuilder) tx.query().has("name", "v0")).profiler(profiler).vertices());
+        SimpleQueryProfiler subp = Iterables.getOnlyElement(Iterables.filter(profiler, p -> !p.getGroupName().equals(QueryProfiler.OPTIMIZATION)));
+        SimpleQueryProfiler indexp = Iterables.getOnlyElement(subp);
+        assertEquals("byName", indexp.getAnnotation(QueryProfiler.INDEX_ANNOTATION));
+        SimpleQueryProfiler backendp = Iterables.getOnlyElement(indexp);
+        Map<String, Long> reads = backendp.getAnnotation(QueryProfiler.BACKEND_READS_ANNOTATION);
+        assertNotNull(reads);
+        assertEquals(1, reads.get("index-calls").longValue());
+        assertEquals(1, reads.get("slices").longValue());
+        assertEquals(numV / 2, reads.get("entries").longValue());
+        assertTrue(reads.get("bytes") > 0);
+
+        //Vertex-centric queries account for the slices they read
+        long vid = getOnlyVertex(tx.query().has("name", "v1").limit(1)).longId();
+        newTx();
+        TitanVertexQuery query = getV(tx, vid).query();
+        profiler = new SimpleQueryProfiler();
+        ((BasicVertexCentricQueryBuilder) query).profiler(profiler);
+        assertCount(1, query.properties());
+        reads = Iterables.getOnlyElement(Iterables.filter(profiler, p -> !p.getGroupName().equals(QueryProfiler.OPTIMIZATION)))
+                .iterator().next().getAnnotation(QueryProfiler.BACKEND_READS_ANNOTATION);
+        assertNotNull(reads);
+        assertEquals(0, reads.get("index-calls").longValue());
+    }
+
     @Test
     public void testForceIndexUsage() {
         PropertyKey age = makeKey("age", Integer.class);
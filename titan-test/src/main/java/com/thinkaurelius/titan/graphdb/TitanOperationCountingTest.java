@@ -334,6 +334,52 @@ public abstract class TitanOperationCountingTest extends TitanGraphBaseTest {
     }
 
 
+    @Test
+    public void testSchemaCacheSharedAcrossTransactions() {
+        makeKey("uid",String.class);
+        makeKey("name",String.class);
+        finishSchema();
+
+        metricsPrefix = "testSchemaCacheSharedAcrossTransactions";
+
+        TitanTransaction tx = graph.buildTransaction().groupName(metricsPrefix).start();
+        verifySchemaLookups(tx, "name", 0);
+        tx.commit();
+        long relationRetrievals = getTypeCacheRelationRetrievals();
+
+        //A second transaction reuses the names, definitions and related schema vertices parsed by the first
+        tx = graph.buildTransaction().groupName(metricsPrefix).start();
+        verifySchemaLookups(tx, "name", 0);
+        tx.commit();
+        assertEquals(relationRetrievals, getTypeCacheRelationRetrievals());
+
+        //Changing the schema expires the shared entries of the affected schema vertices
+        mgmt.changeName(mgmt.getPropertyKey("name"), "fullname");
+        mgmt.buildIndex("byUid",Vertex.class).addKey(mgmt.getPropertyKey("uid")).buildCompositeIndex();
+        finishSchema();
+
+        tx = graph.buildTransaction().groupName(metricsPrefix).start();
+        assertFalse(tx.containsPropertyKey("name"));
+        verifySchemaLookups(tx, "fullname", 1);
+        tx.commit();
+        assertTrue(relationRetrievals < getTypeCacheRelationRetrievals());
+    }
+
+    private static void verifySchemaLookups(TitanTransaction tx, String nameKey, int numUidIndexes) {
+        PropertyKey uid = tx.getPropertyKey("uid");
+        assertEquals("uid", uid.name());
+        assertEquals(String.class, uid.dataType());
+        assertEquals(numUidIndexes, Iterables.size(((InternalRelationType) uid).getKeyIndexes()));
+        assertEquals(1, Iterables.size(((InternalRelationType) uid).getRelationIndexes()));
+        PropertyKey name = tx.getPropertyKey(nameKey);
+        assertEquals(nameKey, name.name());
+        assertEquals(String.class, name.dataType());
+    }
+
+    private long getTypeCacheRelationRetrievals() {
+        return metric.getCounter(GraphDatabaseConfiguration.METRICS_SYSTEM_PREFIX_DEFAULT, METRICS_NAME, METRICS_RELATIONS, CacheMetricsAction.RETRIEVAL.getName()).getCount();
+    }
+
     @Test
     public void checkFastPropertyTrue() {
         checkFastProperty(true);
@@ -471,6 +471,45 @@ public abstract class TitanPartitionGraphTest extends TitanGraphBaseTest {
         assertTrue(partitionIds.size()>numPartitions/2); //This is a probabilistic test that might fail
     }
 
+    @Test
+    public void testLocalityBasedGraphPartitioning() {
+        Object[] options = {option(GraphDatabaseConfiguration.IDS_FLUSH), false,
+                            option(VertexIDAssigner.PLACEMENT_STRATEGY), "locality"};
+        clopen(options);
+        makeLabel("knows");
+        finishSchema();
+
+        long[] anchors = new long[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            anchors[i] = ((StandardTitanTx)tx).addVertexInPartition(null, i).longId();
+        }
+        newTx();
+        for (int i = 0; i < numPartitions; i++) {
+            TitanVertex anchor = getV(tx, anchors[i]);
+            for (int j = 0; j < 5; j++) {
+                TitanVertex member = tx.addVertex();
+                member.addEdge("knows", anchor);
+                //Only adjacent to a new vertex and hence placed by propagation
+                TitanVertex friend = tx.addVertex();
+                friend.addEdge("knows", member);
+            }
+            newTx();
+        }
+
+        for (int i = 0; i < numPartitions; i++) {
+            TitanVertex anchor = getV(tx, anchors[i]);
+            assertEquals(i, getPartitionID(anchor));
+            int members = 0;
+            for (TitanVertex member : anchor.query().direction(Direction.IN).labels("knows").vertices()) {
+                assertEquals(i, getPartitionID(member));
+                TitanVertex friend = getOnlyElement(member.query().direction(Direction.IN).labels("knows").vertices());
+                assertEquals(i, getPartitionID(friend));
+                members++;
+            }
+            assertEquals(5, members);
+        }
+    }
+
 
     public int getPartitionID(TitanVertex vertex) {
         long p = idManager.getPartitionId(vertex.longId());
@@ -7,8 +7,11 @@ import com.thinkaurelius.titan.core.*;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanJob;
 import com.thinkaurelius.titan.diskstorage.keycolumnvalue.scan.ScanMetrics;
 import com.thinkaurelius.titan.graphdb.TitanGraphBaseTest;
+import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
 import com.thinkaurelius.titan.graphdb.olap.*;
 import com.thinkaurelius.titan.graphdb.olap.job.GhostVertexRemover;
+import com.thinkaurelius.titan.graphdb.olap.job.PartitionRebalanceJob;
+import com.thinkaurelius.titan.graphdb.transaction.StandardTitanTx;
 import org.apache.tinkerpop.gremlin.process.computer.*;
 import org.apache.tinkerpop.gremlin.process.computer.util.StaticMapReduce;
 import org.apache.tinkerpop.gremlin.process.computer.util.StaticVertexProgram;
@@ -184,6 +187,53 @@ public abstract class OLAPTest extends TitanGraphBaseTest {
         assertEquals(0,result.getCustom(GhostVertexRemover.SKIPPED_GHOST_LIMIT_COUNT));
     }
 
+    @Test
+    public void testPartitionRebalance() throws Exception {
+        mgmt.makeEdgeLabel("knows").multiplicity(Multiplicity.MULTI).make();
+        mgmt.makePropertyKey("uid").dataType(Integer.class).cardinality(Cardinality.SINGLE).make();
+        finishSchema();
+        //A star whose center resides in a different partition than its neighbors which form a ring
+        int numLeaves = 9;
+        TitanVertex center = ((StandardTitanTx)tx).addVertexInPartition(null, 1);
+        center.property("uid", 0);
+        TitanVertex[] leaves = new TitanVertex[numLeaves];
+        for (int i = 0; i < numLeaves; i++) {
+            leaves[i] = ((StandardTitanTx)tx).addVertexInPartition(null, 0);
+            leaves[i].property("uid", i + 1);
+            center.addEdge("knows", leaves[i], "uid", i + 1);
+        }
+        for (int i = 0; i < numLeaves; i++) leaves[i].addEdge("knows", leaves[(i + 1) % numLeaves]);
+        long centerId = getId(center);
+        long leafId = getId(leaves[0]);
+        clopen();
+
+        ScanMetrics proposal = executeScanJob(new PartitionRebalanceJob(false, 0.2));
+        assertEquals(1, proposal.getCustom(PartitionRebalanceJob.PROPOSED_MOVES_COUNT));
+        assertEquals(0, proposal.getCustom(PartitionRebalanceJob.MOVED_VERTICES_COUNT));
+        assertEquals(2 * numLeaves, proposal.getCustom(PartitionRebalanceJob.LOCAL_EDGES_COUNT));
+        assertEquals(2 * numLeaves, proposal.getCustom(PartitionRebalanceJob.REMOTE_EDGES_COUNT));
+
+        ScanMetrics execution = executeScanJob(new PartitionRebalanceJob(true, 0.2));
+        assertEquals(1, execution.getCustom(PartitionRebalanceJob.MOVED_VERTICES_COUNT));
+        assertEquals(0, execution.getCustom(PartitionRebalanceJob.FAILED_MOVES_COUNT));
+        assertEquals(0, execution.getCustom(PartitionRebalanceJob.OBSOLETE_MOVES_COUNT));
+
+        newTx();
+        assertNull(getV(tx, centerId));
+        TitanVertex leaf = getV(tx, leafId);
+        center = getOnlyElement(leaf.query().direction(Direction.IN).labels("knows").has("uid", 1).edges()).outVertex();
+        assertNotEquals(centerId, center.longId());
+        assertEquals(0, graph.getIDManager().getPartitionId(center.longId()));
+        assertEquals(0, center.<Integer>value("uid").intValue());
+        assertEquals(numLeaves, center.query().direction(Direction.OUT).labels("knows").edgeCount());
+        newTx();
+
+        ScanMetrics balanced = executeScanJob(new PartitionRebalanceJob(false, 0.2));
+        assertEquals(0, balanced.getCustom(PartitionRebalanceJob.PROPOSED_MOVES_COUNT));
+        assertEquals(4 * numLeaves, balanced.getCustom(PartitionRebalanceJob.LOCAL_EDGES_COUNT));
+        assertEquals(0, balanced.getCustom(PartitionRebalanceJob.REMOTE_EDGES_COUNT));
+    }
+
     @Test
     public void testBasicComputeJob() throws Exception {
         GraphTraversalSource g = graph.traversal(GraphTraversalSource.computer());
@@ -278,6 +328,34 @@ public abstract class OLAPTest extends TitanGraphBaseTest {
         }
     }
 
+    @Test
+    public void degreeCountingBulkWrite() throws Exception {
+        int numV = 100;
+        int numE = generateRandomGraph(numV);
+        clopen(option(GraphDatabaseConfiguration.COMPUTER_BULK_WRITE), true);
+
+        //Second run must overwrite the values of the first
+        for (int distance = 1; distance <= 2; distance++) {
+            final TitanGraphComputer computer = graph.compute();
+            computer.resultMode(TitanGraphComputer.ResultMode.PERSIST);
+            computer.workers(4);
+            computer.program(new DegreeCounter(distance));
+            ComputerResult result = computer.submit().get();
+            log.debug("Execution time (ms) [{}|{}]: {}", numV, numE, result.memory().getRuntime());
+        }
+
+        newTx();
+        for (TitanVertex v : tx.query().vertices()) {
+            assertEquals(1, Iterables.size(v.query().keys(DegreeCounter.DEGREE).properties()));
+            long degree2 = ((Integer)v.value(DegreeCounter.DEGREE)).longValue();
+            long actualDegree2 = 0;
+            for (TitanVertex w : v.query().direction(Direction.OUT).vertices()) {
+                actualDegree2 += Iterables.size(w.query().direction(Direction.OUT).vertices());
+            }
+            assertEquals(actualDegree2,degree2);
+        }
+    }
+
     public static class ExceptionProgram extends StaticVertexProgram<Integer>
     {
 
@@ -494,6 +572,15 @@ public abstract class OLAPTest extends TitanGraphBaseTest {
 
     @Test
     public void testPageRank() throws ExecutionException, InterruptedException {
+        testPageRank(false);
+    }
+
+    @Test
+    public void testPageRankWithSnapshot() throws ExecutionException, InterruptedException {
+        testPageRank(true);
+    }
+
+    private void testPageRank(boolean snapshot) throws ExecutionException, InterruptedException {
         mgmt.makePropertyKey("distance").dataType(Integer.class).cardinality(Cardinality.SINGLE).make();
         mgmt.makeEdgeLabel("knows").multiplicity(Multiplicity.MULTI).make();
         mgmt.makeEdgeLabel("likes").multiplicity(Multiplicity.MULTI).make();
@@ -504,7 +591,10 @@ public abstract class OLAPTest extends TitanGraphBaseTest {
         int numV = (int)((Math.pow(branch,diameter+1)-1)/(branch-1));
         TitanVertex v = tx.addVertex();
         expand(v,0,diameter,branch);
-        clopen();
+        if (snapshot) {
+            //A small work block size ensures that the snapshot is executed by multiple workers
+            clopen(option(GraphDatabaseConfiguration.COMPUTER_SNAPSHOT), true, option(GraphDatabaseConfiguration.BUFFER_SIZE), 100);
+        } else clopen();
         assertCount(numV, tx.query().vertices());
         log.debug("PR test numV: {}", numV);
         newTx();
@@ -0,0 +1,85 @@
+package com.thinkaurelius.titan.diskstorage.log;
+
+import com.thinkaurelius.titan.StorageSetup;
+import com.thinkaurelius.titan.diskstorage.BackendException;
+import com.thinkaurelius.titan.diskstorage.configuration.ModifiableConfiguration;
+import com.thinkaurelius.titan.diskstorage.log.file.FileLogManager;
+import com.thinkaurelius.titan.diskstorage.util.BufferUtil;
+import com.thinkaurelius.titan.graphdb.configuration.GraphDatabaseConfiguration;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Implementation of the {@link LogTest} for the file based {@link FileLogManager}.
+ */
+public class FileLogTest extends LogTest {
+
+    public static final String LOG_NAME = "testlog";
+    private static final String LOG_DIRECTORY = "filelog";
+
+    @Override
+    public LogManager openLogManager(String senderId, boolean requiresOrderPreserving) throws BackendException {
+        ModifiableConfiguration config = GraphDatabaseConfiguration.buildGraphConfiguration();
+        config.set(GraphDatabaseConfiguration.UNIQUE_INSTANCE_ID,senderId);
+        config.set(FileLogManager.LOG_FILE_DIRECTORY, StorageSetup.getHomeDir(LOG_DIRECTORY));
+        //Use small segments to exercise segment rolling
+        config.set(FileLogManager.LOG_FILE_SEGMENT_SIZE, 16 * 1024, LOG_NAME);
+        config.set(GraphDatabaseConfiguration.LOG_READ_INTERVAL, Duration.ofMillis(500L), LOG_NAME);
+        return new FileLogManager(config.restrictTo(LOG_NAME));
+    }
+
+    @Override
+    public void setup() throws Exception {
+        StorageSetup.deleteHomeDir(LOG_DIRECTORY);
+        super.setup();
+    }
+
+    @Test
+    public void testIncompleteRecordIsTruncated() throws Exception {
+        LogManager writer = openLogManager(DEFAULT_SENDER_ID, true);
+        Log log = writer.openLog(LOG_NAME);
+        for (long i = 1; i <= 3; i++) log.add(BufferUtil.getLongBuffer(i)).get();
+        writer.close();
+
+        //Simulate a crash in which the last record was only partially persisted
+        File segment = new File(new File(StorageSetup.getHomeDir(LOG_DIRECTORY), LOG_NAME), String.format("%020d.log", 0));
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            long pos = 0;
+            for (int i = 0; i < 3; i++) {
+                raf.seek(pos);
+                pos += 8 + raf.readInt();
+            }
+            raf.seek(pos - 1);
+            byte last = raf.readByte();
+            raf.seek(pos - 1);
+            raf.writeByte(last ^ 0xFF);
+        }
+
+        LogManager reader = openLogManager(DEFAULT_SENDER_ID, true);
+        log = reader.openLog(LOG_NAME);
+        List<Long> values = Collections.synchronizedList(new ArrayList<Long>());
+        CountDownLatch latch = new CountDownLatch(3);
+        log.registerReader(ReadMarker.fromTime(Instant.EPOCH), message -> {
+            values.add(message.getContent().getLong(0));
+            latch.countDown();
+        });
+        log.add(BufferUtil.getLongBuffer(4L)).get();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1L, 2L, 4L), values);
+        reader.close();
+    }
+
+}
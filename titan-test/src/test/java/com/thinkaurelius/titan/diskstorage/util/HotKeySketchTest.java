@@ -0,0 +1,44 @@
+package com.thinkaurelius.titan.diskstorage.util;
+
+import com.thinkaurelius.titan.diskstorage.StaticBuffer;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HotKeySketchTest {
+
+    @Test
+    public void testHeavyHitters() {
+        HotKeySketch sketch = new HotKeySketch(5, 1 << 10);
+        Random random = new Random(42);
+        //Background noise over many light keys
+        for (int i = 0; i < 100000; i++) {
+            sketch.update(BufferUtil.getLongBuffer(100 + random.nextInt(50000)), 1);
+        }
+        //A few heavy keys
+        for (int k = 0; k < 5; k++) {
+            for (int i = 0; i < 1000 * (k + 1); i++) sketch.update(BufferUtil.getLongBuffer(k), 1);
+        }
+
+        List<Map.Entry<StaticBuffer, Long>> top = sketch.getTop();
+        assertEquals(5, top.size());
+        Set<Long> keys = new HashSet<>();
+        for (Map.Entry<StaticBuffer, Long> entry : top) keys.add(entry.getKey().getLong(0));
+        for (long k = 0; k < 5; k++) assertTrue(keys.contains(k));
+        assertEquals(4, top.get(0).getKey().getLong(0));
+        for (int i = 1; i < top.size(); i++) assertTrue(top.get(i - 1).getValue() >= top.get(i).getValue());
+        //Count-Min never underestimates
+        assertTrue(top.get(0).getValue() >= 5000);
+
+        sketch.clear();
+        assertTrue(sketch.getTop().isEmpty());
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.thinkaurelius.titan.graphdb.attribute;
+
+import com.spatial4j.core.shape.Rectangle;
+import com.thinkaurelius.titan.core.attribute.Geoshape;
+import com.thinkaurelius.titan.graphdb.database.indexing.GeohashCells;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeohashCellsTest {
+
+    @Test
+    public void testEncode() {
+        assertEquals("u4pruydqqvj", GeohashCells.encode(57.64911, 10.40744, 11));
+        assertEquals("u4pru", GeohashCells.encode(57.64911, 10.40744, 5));
+        assertEquals("9q8yy", GeohashCells.encode(37.7749, -122.4194, 5));
+
+        Rectangle bounds = GeohashCells.getBounds("u4pru");
+        assertTrue(bounds.getMinX() <= 10.40744 && bounds.getMaxX() >= 10.40744);
+        assertTrue(bounds.getMinY() <= 57.64911 && bounds.getMaxY() >= 57.64911);
+    }
+
+    @Test
+    public void testCells() {
+        Geoshape point = Geoshape.point(57.64911, 10.40744);
+        assertEquals(1, GeohashCells.getIndexCells(point, 6).size());
+        assertEquals("u4pruy", GeohashCells.getIndexCells(point, 6).get(0));
+
+        //Query cells include the cell of every point within the region and all ancestors
+        Geoshape region = Geoshape.circle(57.64911, 10.40744, 5);
+        Collection<String> queryCells = GeohashCells.getQueryCells(region, 6);
+        assertNotNull(queryCells);
+        assertTrue(queryCells.contains("u4pruy"));
+        for (int i = 1; i < 6; i++) assertTrue(queryCells.contains("u4pruy".substring(0, i)));
+        assertFalse(queryCells.contains("9q8yy"));
+
+        //Shapes are indexed under a bounded number of cells at most at the given precision
+        List<String> shapeCells = GeohashCells.getIndexCells(Geoshape.box(10.0, 10.0, 20.0, 20.0), 6);
+        assertTrue(shapeCells.size() <= GeohashCells.MAX_SHAPE_CELLS);
+        for (String cell : shapeCells) assertTrue(cell.length() <= 6);
+        //... and found through the ancestors of the query cells
+        Collection<String> overlap = GeohashCells.getQueryCells(Geoshape.circle(15.0, 15.0, 10), 6);
+        boolean found = false;
+        for (String cell : shapeCells) found |= overlap.contains(cell);
+        assertTrue(found);
+
+        //Regions that are too large cannot be covered
+        assertNull(GeohashCells.getQueryCells(Geoshape.box(-60.0, -60.0, 60.0, 60.0), 6));
+    }
+
+}
@@ -1,8 +1,13 @@
 package com.thinkaurelius.titan.graphdb.attribute;
 
 import com.thinkaurelius.titan.core.attribute.Cmp;
+import com.thinkaurelius.titan.core.attribute.Contain;
+import com.thinkaurelius.titan.graphdb.query.TitanPredicate;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.function.Predicate;
+
 import static org.junit.Assert.*;
 import static com.thinkaurelius.titan.core.attribute.Text.*;
 
@@ -78,4 +83,45 @@ public class TextTest {
 
     }
 
+    @Test
+    public void testCompiled() {
+        String[] values = {"This world is full of 1funny surprises! A Full Yes", "fully funny", "", "x"};
+        Object[][] conditions = {
+                {CONTAINS, new String[]{"world", "wOrLD", "worl", "a world", "full,surprises,world", "full bunny"}},
+                {CONTAINS_PREFIX, new String[]{"worl", "Y", "fo", "of 1f", " ful "}},
+                {CONTAINS_REGEX, new String[]{"fu[l]+", "\\dfu\\w*", "wor[ld]{3,5}"}},
+                {PREFIX, new String[]{"fully", "fully fu", "fun", " ful"}},
+                {REGEX, new String[]{"(fu[ln]*y) (fu[ln]*y)", "(fu[l]*y) .*", ".*"}},
+                {Cmp.EQUAL, new String[]{"fully funny", "x"}},
+                {Cmp.GREATER_THAN, new String[]{"fully funny", "a"}}
+        };
+        for (Object[] condition : conditions) {
+            TitanPredicate predicate = (TitanPredicate) condition[0];
+            for (String c : (String[]) condition[1]) {
+                Predicate<Object> compiled = predicate.compile(c);
+                for (String value : values) {
+                    assertEquals(predicate + " " + c + ": " + value, predicate.test(value, c), compiled.test(value));
+                }
+                assertEquals(predicate.test(null, c), compiled.test(null));
+            }
+        }
+
+        Object[] numbers = {1, 2L, 2.0, 2.5f, Double.NaN, Long.MAX_VALUE, Long.MAX_VALUE - 1, "2"};
+        for (Cmp cmp : Cmp.values()) {
+            for (Object c : numbers) {
+                if (!cmp.isValidCondition(c)) continue;
+                Predicate<Object> compiled = cmp.compile(c);
+                for (Object value : numbers) {
+                    assertEquals(cmp + " " + c + ": " + value, cmp.test(value, c), compiled.test(value));
+                }
+                assertEquals(cmp.test(null, c), compiled.test(null));
+            }
+        }
+
+        Predicate<Object> in = Contain.IN.compile(Arrays.asList(1, 2, 3));
+        assertTrue(in.test(2));
+        assertFalse(in.test(4));
+        assertTrue(Contain.NOT_IN.compile(Arrays.asList(1, 2, 3)).test(4));
+    }
+
 }
@@ -136,6 +136,16 @@ public class VariableLongTest {
         readWriteTest(new BackwardReadWrite(), 1000000, 1, true, true);
     }
 
+    @Test
+    public void testOrderedWriteBig() {
+        negativeReadWriteTest(new OrderedReadWrite(), 1000000000000L, 1000000L);
+    }
+
+    @Test
+    public void testOrderedWriteSmall() {
+        negativeReadWriteTest(new OrderedReadWrite(), 1000000, 1);
+    }
+
     @Test
     public void testPrefix1WriteBig() {
         positiveReadWriteTest(new PrefixReadWrite(3,4), 1000000000000L, 1000000L);
@@ -240,6 +250,25 @@ public class VariableLongTest {
     }
 
 
+    public static class OrderedReadWrite implements ReadWriteLong {
+
+        @Override
+        public void write(WriteBuffer out, long value) {
+            VariableLong.writeOrdered(out,value);
+        }
+
+        @Override
+        public int length(long value) {
+            return VariableLong.orderedLength(value);
+        }
+
+        @Override
+        public long read(ReadBuffer in) {
+            return VariableLong.readOrdered(in);
+        }
+    }
+
+
     public static class PrefixReadWrite implements ReadWriteLong {
 
         private final int prefixLen;
@@ -294,6 +323,29 @@ public class VariableLongTest {
 
     }
 
+    @Test
+    public void byteOrderPreservingOrdered() {
+        long[] scalingFactors = { Long.MAX_VALUE, 1000, 1000000000l};
+        long[] boundaries = { Long.MIN_VALUE, -257, -256, -255, -1, 0, 1, 255, 256, Long.MAX_VALUE};
+        for (int t=0;t<1000000;t++) {
+            StaticBuffer[] b = new StaticBuffer[2];
+            long[] l = new long[2];
+            for (int i=0;i<2;i++) {
+                if (t<boundaries.length*boundaries.length) l[i] = boundaries[i==0?t%boundaries.length:t/boundaries.length];
+                else {
+                    l[i] = randomPosLong(scalingFactors[random.nextInt(scalingFactors.length)]);
+                    if (random.nextBoolean()) l[i] = -l[i]-1;
+                }
+                WriteBuffer out = new WriteByteBuffer(9);
+                VariableLong.writeOrdered(out,l[i]);
+                b[i]=out.getStaticBuffer();
+                assertEquals(VariableLong.orderedLength(l[i]), b[i].length());
+                assertEquals(l[i], VariableLong.readOrdered(b[i].asReadBuffer()));
+            }
+            assertEquals(Math.signum(Long.compare(l[0],l[1])),Math.signum(b[0].compareTo(b[1])), 0.01);
+        }
+    }
+
     private static final Random random = new Random();
 
     public static long randomPosLong(long scaling) {
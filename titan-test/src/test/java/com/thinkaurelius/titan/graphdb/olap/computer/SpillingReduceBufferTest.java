@@ -0,0 +1,62 @@
+package com.thinkaurelius.titan.graphdb.olap.computer;
+
+import com.google.common.collect.Iterables;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpillingReduceBufferTest {
+
+    @Test
+    public void testInMemory() {
+        try (SpillingReduceBuffer<Integer, Integer> buffer = new SpillingReduceBuffer<>(1000)) {
+            for (int i = 0; i < 500; i++) buffer.add(i % 10, i);
+            assertFalse(buffer.hasSpilled());
+            int last = -1, numGroups = 0;
+            for (Map.Entry<Integer, List<Integer>> group : buffer.getGroups(Integer::compare)) {
+                assertTrue(group.getKey() > last);
+                last = group.getKey();
+                assertEquals(50, group.getValue().size());
+                numGroups++;
+            }
+            assertEquals(10, numGroups);
+        }
+    }
+
+    @Test
+    public void testSpilling() {
+        int numKeys = 2000, numValues = 50000;
+        try (SpillingReduceBuffer<String, Integer> buffer = new SpillingReduceBuffer<>(500)) {
+            for (int i = 0; i < numValues; i++) buffer.add("k" + (i % numKeys), 1);
+            //"Aa" and "BB" have the same hash code and must still be grouped separately across runs
+            for (int i = 0; i < 1000; i++) {
+                buffer.add("Aa", 1);
+                buffer.add("BB", 2);
+            }
+            assertTrue(buffer.hasSpilled());
+            Map<String, Integer> sums = new HashMap<>();
+            String last = null;
+            for (Map.Entry<String, List<Integer>> group : buffer.getGroups(String::compareTo)) {
+                //Groups are sorted by key even though they have been merged across runs
+                assertTrue(last == null || last.compareTo(group.getKey()) < 0);
+                last = group.getKey();
+                int sum = 0;
+                for (Integer value : group.getValue()) sum += value;
+                assertEquals(null, sums.put(group.getKey(), sum));
+            }
+            assertEquals(numKeys + 2, sums.size());
+            for (int k = 0; k < numKeys; k++) assertEquals(numValues / numKeys, sums.get("k" + k).intValue());
+            assertEquals(1000, sums.get("Aa").intValue());
+            assertEquals(2000, sums.get("BB").intValue());
+            //Without a comparator, the groups are merged by key hash
+            assertEquals(numKeys + 2, Iterables.size(buffer.getGroups(null)));
+        }
+    }
+
+}
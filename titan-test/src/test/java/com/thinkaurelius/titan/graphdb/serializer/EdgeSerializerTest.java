@@ -1,18 +1,31 @@
 package com.thinkaurelius.titan.graphdb.serializer;
 
+import com.google.common.collect.ImmutableSet;
 import com.thinkaurelius.titan.StorageSetup;
 import com.thinkaurelius.titan.core.EdgeLabel;
 import com.thinkaurelius.titan.core.Multiplicity;
+import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.TitanEdge;
 import com.thinkaurelius.titan.core.TitanVertex;
+import com.thinkaurelius.titan.core.TitanVertexQuery;
 import com.thinkaurelius.titan.core.schema.TitanManagement;
 import com.thinkaurelius.titan.diskstorage.Entry;
 import com.thinkaurelius.titan.graphdb.database.EdgeSerializer;
 import com.thinkaurelius.titan.graphdb.database.StandardTitanGraph;
+import com.thinkaurelius.titan.graphdb.internal.ColumnFormat;
 import com.thinkaurelius.titan.graphdb.internal.InternalRelation;
+import com.thinkaurelius.titan.graphdb.internal.InternalRelationType;
+import com.thinkaurelius.titan.graphdb.internal.Order;
+import com.thinkaurelius.titan.graphdb.types.StandardEdgeLabelMaker;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -40,6 +53,83 @@ public class EdgeSerializerTest {
     }
 
 
+    @Test
+    public void testDenseColumnFormat() {
+        StandardTitanGraph graph = (StandardTitanGraph) StorageSetup.getInMemoryGraph();
+        TitanManagement mgmt = graph.openManagement();
+        PropertyKey time = mgmt.makePropertyKey("time").dataType(Long.class).make();
+        PropertyKey weight = mgmt.makePropertyKey("weight").dataType(Double.class).make();
+        ((StandardEdgeLabelMaker) mgmt.makeEdgeLabel("standard")).sortKey(time).signature(weight).make();
+        ((StandardEdgeLabelMaker) mgmt.makeEdgeLabel("dense")).sortKey(time).signature(weight).dense().make();
+        ((StandardEdgeLabelMaker) mgmt.makeEdgeLabel("denseDesc")).sortKey(time).sortOrder(Order.DESC).dense().make();
+        try {
+            ((StandardEdgeLabelMaker) mgmt.makeEdgeLabel("father")).multiplicity(Multiplicity.MANY2ONE).dense().make();
+            fail();
+        } catch (IllegalArgumentException e) {}
+        mgmt.commit();
+
+        String[] labels = {"standard", "dense", "denseDesc"};
+        long[] times = {Long.MIN_VALUE, -1000000, -257, -1, 0, 1, 255, 256, 100000, Long.MAX_VALUE};
+        TitanVertex v = graph.addVertex();
+        TitanVertex[] others = new TitanVertex[times.length + 1];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = graph.addVertex();
+            for (String label : labels) {
+                TitanEdge e = v.addEdge(label, others[i], "weight", 0.5);
+                //The last edge does not have a sort key value
+                if (i < times.length) e.property("time", times[i]);
+            }
+        }
+        graph.tx().commit();
+
+        v = (TitanVertex) graph.vertices(v.longId()).next();
+        TitanVertex adjacent = (TitanVertex) graph.vertices(others[7].longId()).next();
+        assertEquals(ColumnFormat.STANDARD, ((InternalRelationType) graph.getEdgeLabel("standard")).getColumnFormat());
+        assertEquals(ColumnFormat.DENSE, ((InternalRelationType) graph.getEdgeLabel("dense")).getColumnFormat());
+        int[] columnLength = new int[labels.length];
+        for (int l = 0; l < labels.length; l++) {
+            Set<Long> read = new HashSet<>();
+            for (TitanEdge e : v.query().labels(labels[l]).direction(Direction.OUT).edges()) {
+                assertEquals(0.5, e.<Double>value("weight"), 0.0);
+                int pos = indexOf(others, e.inVertex());
+                if (pos < times.length) assertEquals(times[pos], (long) e.<Long>value("time"));
+                else assertTrue(!e.property("time").isPresent());
+                read.add(e.inVertex().longId());
+                Entry entry = serialize(graph, e, 0);
+                columnLength[l] += entry.getValuePosition();
+            }
+            assertEquals(others.length, read.size());
+
+            TitanVertexQuery query = v.query().labels(labels[l]).direction(Direction.OUT);
+            assertEquals(ImmutableSet.of(-257L, -1L, 0L, 1L, 255L), getTimes(query.interval("time", -257L, 256L)));
+            query = v.query().labels(labels[l]).direction(Direction.OUT);
+            assertEquals(ImmutableSet.of(-1L), getTimes(query.has("time", -1L)));
+            query = v.query().labels(labels[l]).direction(Direction.OUT);
+            assertEquals(ImmutableSet.of(256L), getTimes(query.adjacent(adjacent)));
+            query = v.query().labels(labels[l]).direction(Direction.OUT);
+            assertEquals(l == 2 ? ImmutableSet.of(256L, 100000L) : ImmutableSet.of(0L, 1L),
+                    getTimes(query.interval("time", 0L, Long.MAX_VALUE).limit(2)));
+        }
+        //Compact sort key values and ids make the column keys of the dense labels shorter
+        assertTrue(columnLength[1] < columnLength[0]);
+        assertTrue(columnLength[2] < columnLength[0]);
+        graph.tx().rollback();
+        graph.close();
+    }
+
+    private static int indexOf(TitanVertex[] vertices, TitanVertex vertex) {
+        for (int i = 0; i < vertices.length; i++) {
+            if (vertices[i].longId() == vertex.longId()) return i;
+        }
+        throw new AssertionError(vertex);
+    }
+
+    private static Set<Long> getTimes(TitanVertexQuery<?> query) {
+        Set<Long> times = new HashSet<>();
+        for (TitanEdge e : query.edges()) times.add(e.<Long>value("time"));
+        return times;
+    }
+
     private Entry serialize(StandardTitanGraph graph, TitanEdge e, int pos) {
         EdgeSerializer edgeSerializer = graph.getEdgeSerializer();
         InternalRelation r = (InternalRelation)e;
@@ -4,6 +4,7 @@ import com.carrotsearch.hppc.LongObjectHashMap;
 import com.carrotsearch.hppc.cursors.LongObjectCursor;
 import com.google.common.collect.Iterables;
 import com.thinkaurelius.titan.graphdb.relations.RelationCache;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -11,6 +12,9 @@ import java.util.Map;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -55,6 +59,36 @@ public class RelationCacheTest {
         assertEquals(0, Iterables.size(map));
     }
 
+    @Test
+    public void testCompactAndMapProperties() {
+        for (int len = 0; len <= RelationCache.MAX_COMPACT_PROPERTIES + 3; len++) {
+            LongObjectHashMap<Object> map = new LongObjectHashMap<Object>();
+            for (int i = len; i >= 1; i--) {
+                map.put(i * 1000, "TestValue " + i);
+            }
+            RelationCache cache = new RelationCache(Direction.OUT, 5, 7, 11L, map);
+            assertEquals(len, cache.numProperties());
+            assertEquals(len > 0, cache.hasProperties());
+            for (int i = 1; i <= len; i++) {
+                assertEquals("TestValue " + i, cache.get(i * 1000));
+            }
+            assertNull(cache.get(500));
+            assertNull(cache.get((len + 1) * 1000));
+
+            Map<Long, Object> copy = new HashMap<Long, Object>();
+            for (LongObjectCursor<Object> entry : cache) {
+                copy.put(entry.key, entry.value);
+            }
+            assertEquals(len, copy.size());
+            for (int i = 1; i <= len; i++) {
+                assertEquals("TestValue " + i, copy.get(i * 1000l));
+            }
+            assertTrue(cache.getByteSize() > 0);
+        }
+        RelationCache headerOnly = new RelationCache(Direction.IN, 5, 7, 11L);
+        assertFalse(headerOnly.hasProperties());
+    }
+
     @Test
     public void testPerformance() {
         int trials = 10;